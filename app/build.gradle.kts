@@ -33,6 +33,20 @@ android {
     kotlinOptions {
         jvmTarget = "1.8"
     }
+    testOptions {
+        unitTests {
+            all {
+                it.systemProperty(
+                    "glide.benchmark", project.findProperty("glide.benchmark") ?: "false")
+                project.findProperty("glide.benchmark.include")?.let { include ->
+                    it.systemProperty("glide.benchmark.include", include)
+                }
+                it.systemProperty(
+                    "glide.benchmark.reportDir",
+                    layout.buildDirectory.dir("reports/benchmarks").get().asFile.absolutePath)
+            }
+        }
+    }
 }
 
 dependencies {
@@ -41,9 +55,15 @@ dependencies {
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("com.google.android.material:material:1.9.0")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
+    implementation("androidx.recyclerview:recyclerview:1.3.0")
+    // Pooled, HTTP/2 capable network loading for glide4110.integration.okhttp3.
+    implementation("com.squareup.okhttp3:okhttp:4.12.0")
     testImplementation("junit:junit:4.13.2")
+    testImplementation("org.openjdk.jmh:jmh-core:1.37")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
+    androidTestImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
 
     //Glide源码分析 最新 4.16.0
     compileOnly("com.github.bumptech.glide:glide:4.11.0") {
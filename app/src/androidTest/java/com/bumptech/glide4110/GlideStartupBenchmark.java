@@ -0,0 +1,161 @@
+package com.bumptech.glide4110;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide4110.load.engine.DiskCacheStrategy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures the time from {@link Glide#init(Context, GlideBuilder)} to the first resource being
+ * ready when registry lookups are resolved lazily by requests, precomputed with {@link
+ * GlideBuilder#setRegistryPrecomputationEnabled(boolean)} and compiled from a recorded graph with
+ * {@link GlideBuilder#setRegistryGraphCompilationEnabled(boolean)}.
+ *
+ * <p>Skipped unless the {@code glide.benchmark} instrumentation argument is set:
+ *
+ * <pre>
+ *   ./gradlew :app:connectedDebugAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.glide.benchmark=true \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.bumptech.glide4110.GlideStartupBenchmark
+ * </pre>
+ *
+ * <p>Each iteration tears Glide down and initializes it again in the same process, so class
+ * loading and the first use of each component's code are only paid once, in the warm up. The
+ * results show the cost of initializing Glide and resolving the first request's components rather
+ * than that of a true process cold start. Median and minimum times are logged under the {@code
+ * GlideStartup} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GlideStartupBenchmark {
+    private static final String TAG = "GlideStartup";
+    private static final int WARM_UP_ITERATIONS = 3;
+    private static final int ITERATIONS = 20;
+    private static final long TIMEOUT_MS = 5000;
+
+    /** How registry lookups are resolved for the first request after initialization. */
+    private enum Mode {
+        /** Each lookup is resolved by the first request that needs it. */
+        LAZY,
+        /** Lookups for every registered component are resolved in the background. */
+        FROZEN,
+        /** Lookups recorded by a previous run are resolved in the background. */
+        COMPILED,
+    }
+
+    private Context context;
+    private byte[] image;
+
+    @Before
+    public void setUp() {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        assumeTrue(Boolean.parseBoolean(arguments.getString("glide.benchmark")));
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+        Bitmap bitmap = Bitmap.createBitmap(64, 64, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.RED);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, os);
+        bitmap.recycle();
+        image = os.toByteArray();
+    }
+
+    @After
+    public void tearDown() {
+        Glide.tearDown();
+    }
+
+    @Test
+    public void initToFirstResource() throws Exception {
+        File graph = new File(context.getCodeCacheDir(), "glide_registry_graph");
+        if (graph.exists() && !graph.delete()) {
+            throw new IllegalStateException("Failed to delete " + graph);
+        }
+
+        // Record a graph for the compiled runs below.
+        runOnce(Mode.COMPILED);
+        final Glide glide = Glide.get(context);
+        InstrumentationRegistry.getInstrumentation()
+                .runOnMainSync(
+                        new Runnable() {
+                            @Override
+                            public void run() {
+                                glide.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+                            }
+                        });
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!graph.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assumeTrue("Registry graph was not saved", graph.exists());
+
+        for (Mode mode : Mode.values()) {
+            report(mode.name().toLowerCase(Locale.US), measure(mode));
+        }
+    }
+
+    private long[] measure(Mode mode) throws Exception {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            runOnce(mode);
+        }
+        long[] times = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            times[i] = runOnce(mode);
+        }
+        return times;
+    }
+
+    private long runOnce(Mode mode) throws Exception {
+        Glide.tearDown();
+        long startTime = System.nanoTime();
+        Glide.init(
+                context,
+                new GlideBuilder()
+                        .setRegistryPrecomputationEnabled(mode == Mode.FROZEN)
+                        .setRegistryGraphCompilationEnabled(mode == Mode.COMPILED));
+        Drawable result =
+                Glide.with(context)
+                        .load(image)
+                        .skipMemoryCache(true)
+                        .diskCacheStrategy(DiskCacheStrategy.NONE)
+                        .submit()
+                        .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        long elapsed = System.nanoTime() - startTime;
+        assertNotNull(result);
+        return elapsed;
+    }
+
+    private static void report(String name, long[] times) {
+        Arrays.sort(times);
+        Log.i(
+                TAG,
+                name
+                        + ": median="
+                        + TimeUnit.NANOSECONDS.toMicros(times[times.length / 2])
+                        + "us, min="
+                        + TimeUnit.NANOSECONDS.toMicros(times[0])
+                        + "us, iterations="
+                        + times.length);
+    }
+}
@@ -0,0 +1,221 @@
+package com.bumptech.glide4110.integration.okhttp3;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.bumptech.glide4110.Priority;
+import com.bumptech.glide4110.load.HttpException;
+import com.bumptech.glide4110.load.data.DataFetcher;
+import com.bumptech.glide4110.load.model.GlideUrl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Loads through {@link OkHttpUrlLoader} from a {@link MockWebServer} to check connection reuse,
+ * per-host limits and deadlines.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OkHttpStreamFetcherTest {
+  private static final byte[] BODY = "not really an image".getBytes();
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private volatile int status = 200;
+  private volatile long headersDelayMillis;
+  private volatile long bodyDelayMillis;
+
+  private MockWebServer server;
+  private OkHttpClient client;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new MockWebServer();
+    server.setDispatcher(
+        new Dispatcher() {
+          @NonNull
+          @Override
+          public MockResponse dispatch(@NonNull RecordedRequest request)
+              throws InterruptedException {
+            return respond();
+          }
+        });
+    server.start();
+    client = OkHttpUrlLoader.newClientBuilder().build();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+  }
+
+  @Test
+  public void loadData_returnsBody() throws Exception {
+    Result result = fetch(fetcher(/*callTimeoutMillis=*/ 0));
+
+    assertArrayEquals(BODY, result.body);
+  }
+
+  @Test
+  public void loadData_withSequentialLoads_reusesConnection() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      assertArrayEquals(BODY, fetch(fetcher(/*callTimeoutMillis=*/ 0)).body);
+    }
+
+    for (int i = 0; i < 5; i++) {
+      // The sequence number counts the requests made before this one on the same connection.
+      assertEquals(i, server.takeRequest().getSequenceNumber());
+    }
+  }
+
+  @Test
+  public void loadData_withConcurrentLoads_respectsPerHostLimit() throws Exception {
+    client.dispatcher().setMaxRequestsPerHost(2);
+    headersDelayMillis = 100;
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      results.add(start(fetcher(/*callTimeoutMillis=*/ 0)));
+    }
+
+    for (Result result : results) {
+      assertArrayEquals(BODY, result.await());
+    }
+    assertTrue(maxInFlight.get() <= 2);
+  }
+
+  @Test
+  public void loadData_withErrorStatus_failsWithStatusCode() throws Exception {
+    status = 503;
+
+    Result result = fetch(fetcher(/*callTimeoutMillis=*/ 0));
+
+    assertTrue(result.failure instanceof HttpException);
+    assertEquals(503, ((HttpException) result.failure).getStatusCode());
+  }
+
+  @Test
+  public void loadData_slowerThanCallTimeout_fails() throws Exception {
+    headersDelayMillis = 2_000;
+
+    Result result = fetch(fetcher(/*callTimeoutMillis=*/ 200));
+
+    assertTrue(result.failure instanceof InterruptedIOException);
+  }
+
+  @Test
+  public void loadData_withBodySlowerThanCallTimeout_failsWhileReadingBody() throws Exception {
+    bodyDelayMillis = 2_000;
+
+    Result result = fetch(fetcher(/*callTimeoutMillis=*/ 200));
+
+    assertTrue(result.failure instanceof InterruptedIOException);
+  }
+
+  @Test
+  public void newClientBuilder_hasNoWholeCallDeadline() {
+    // A whole call deadline covers reading the body, so it would abort large downloads.
+    assertEquals(0, client.callTimeoutMillis());
+  }
+
+  private OkHttpStreamFetcher fetcher(long callTimeoutMillis) {
+    GlideUrl url = new GlideUrl(server.url("/image").toString());
+    return new OkHttpStreamFetcher(client, url, callTimeoutMillis);
+  }
+
+  private MockResponse respond() throws InterruptedException {
+    int current = inFlight.incrementAndGet();
+    maxInFlight.accumulateAndGet(current, Math::max);
+    try {
+      // Delay here rather than with MockResponse#setHeadersDelay so that in flight requests
+      // overlap while they are counted.
+      if (headersDelayMillis > 0) {
+        Thread.sleep(headersDelayMillis);
+      }
+      return new MockResponse()
+          .setResponseCode(status)
+          .setBody(new Buffer().write(BODY))
+          .setBodyDelay(bodyDelayMillis, TimeUnit.MILLISECONDS);
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  private static Result fetch(OkHttpStreamFetcher fetcher) throws InterruptedException {
+    Result result = start(fetcher);
+    result.await();
+    return result;
+  }
+
+  private static Result start(OkHttpStreamFetcher fetcher) {
+    Result result = new Result(fetcher);
+    fetcher.loadData(Priority.NORMAL, result);
+    return result;
+  }
+
+  /** Reads the body on OkHttp's thread, before the fetcher is cleaned up, like Glide's decoders. */
+  private static final class Result implements DataFetcher.DataCallback<InputStream> {
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final OkHttpStreamFetcher fetcher;
+    volatile byte[] body;
+    volatile Exception failure;
+
+    Result(OkHttpStreamFetcher fetcher) {
+      this.fetcher = fetcher;
+    }
+
+    @Override
+    public void onDataReady(InputStream data) {
+      try {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = data.read(buffer)) != -1) {
+          os.write(buffer, 0, read);
+        }
+        body = os.toByteArray();
+      } catch (IOException e) {
+        failure = e;
+      } finally {
+        fetcher.cleanup();
+        done.countDown();
+      }
+    }
+
+    @Override
+    public void onLoadFailed(@NonNull Exception e) {
+      failure = e;
+      fetcher.cleanup();
+      done.countDown();
+    }
+
+    byte[] await() throws InterruptedException {
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      return body;
+    }
+  }
+}
@@ -0,0 +1,366 @@
+package com.bumptech.glide4110.load.engine;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide4110.Glide;
+import com.bumptech.glide4110.GlideContext;
+import com.bumptech.glide4110.GlideMetrics;
+import com.bumptech.glide4110.Priority;
+import com.bumptech.glide4110.Registry;
+import com.bumptech.glide4110.TransitionOptions;
+import com.bumptech.glide4110.load.DataSource;
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.Transformation;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide4110.load.engine.cache.DiskCacheAdapter;
+import com.bumptech.glide4110.load.engine.cache.LruResourceCache;
+import com.bumptech.glide4110.load.engine.executor.GlideExecutor;
+import com.bumptech.glide4110.request.RequestListener;
+import com.bumptech.glide4110.request.RequestOptions;
+import com.bumptech.glide4110.request.ResourceCallback;
+import com.bumptech.glide4110.request.target.ImageViewTargetFactory;
+import com.bumptech.glide4110.signature.EmptySignature;
+import com.bumptech.glide4110.util.Executors;
+import com.bumptech.glide4110.util.Synthetic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Times {@link Engine#load} on the main thread while other threads complete jobs, with every load
+ * and completion synchronized on the Engine and with lock striping enabled, see {@link
+ * EngineOptions.Builder#setLockStripingEnabled(boolean)}.
+ *
+ * <p>Skipped unless the {@code glide.benchmark} instrumentation argument is set:
+ *
+ * <pre>
+ *   ./gradlew :app:connectedDebugAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.glide.benchmark=true \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.bumptech.glide4110.load.engine.EngineContentionBenchmark
+ * </pre>
+ *
+ * <p>The main thread binds a grid of thumbnails that are all in memory, so each load goes through
+ * {@link ActiveResources} or the memory cache and is released again, as when views are rebound
+ * during a fling. Meanwhile each completing thread calls {@link Engine#onEngineJobComplete} in a
+ * loop for its own keys, as the source executor does when decodes finish. This runs on a device
+ * rather than the JVM because loads need a {@link GlideContext} and released resources are
+ * recycled through a main thread Handler.
+ *
+ * <p>The median, 99th percentile and maximum main thread load latency and the number of
+ * completions per second are logged under the {@code EngineContention} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EngineContentionBenchmark {
+  private static final String TAG = "EngineContention";
+  private static final int[] COMPLETING_THREADS = {0, 4, 16};
+  private static final int GRID_KEYS = 200;
+  private static final int COMPLETING_KEYS_PER_THREAD = 100;
+  private static final int THUMBNAIL_SIZE = 360;
+  private static final int RESOURCE_SIZE = 1024;
+  private static final int WARMUP_LOADS = 10_000;
+  private static final int LOADS = 100_000;
+
+  private Context context;
+
+  @Before
+  public void setUp() {
+    Bundle arguments = InstrumentationRegistry.getArguments();
+    assumeTrue(Boolean.parseBoolean(arguments.getString("glide.benchmark")));
+
+    context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+  }
+
+  @Test
+  public void loadWhileJobsComplete() throws InterruptedException {
+    for (int threadCount : COMPLETING_THREADS) {
+      measure("monitor", EngineOptions.DEFAULT, threadCount);
+      measure(
+          "striped",
+          new EngineOptions.Builder().setLockStripingEnabled(true).build(),
+          threadCount);
+    }
+  }
+
+  private void measure(String name, EngineOptions options, int threadCount)
+      throws InterruptedException {
+    final Engine engine =
+        new Engine(
+            new LruResourceCache(64 * 1024 * 1024),
+            new DiskCacheAdapter.Factory(),
+            GlideExecutor.newDiskCacheExecutor(),
+            GlideExecutor.newSourceExecutor(),
+            GlideExecutor.newUnlimitedSourceExecutor(),
+            GlideExecutor.newAnimationExecutor(),
+            /*isActiveResourceRetentionAllowed=*/ false,
+            options);
+    final GlideContext glideContext = newGlideContext(engine);
+    final Options loadOptions = new Options();
+    final List<Object> models = new ArrayList<>(GRID_KEYS);
+    for (int i = 0; i < GRID_KEYS; i++) {
+      Object model = "https://images.example.com/grid/" + i + ".jpg";
+      models.add(model);
+      // Starts with every thumbnail in memory, loads then move them between the active resources
+      // and the memory cache.
+      EngineKey key = newKey(model, loadOptions);
+      EngineResource<?> resource = newResource(engine, key);
+      resource.acquire();
+      engine.onEngineJobComplete(newJob(engine, key), key, resource);
+      resource.release();
+    }
+
+    final AtomicBoolean isDone = new AtomicBoolean();
+    final AtomicLong completions = new AtomicLong();
+    final CountDownLatch stopped = new CountDownLatch(threadCount);
+    for (int i = 0; i < threadCount; i++) {
+      final int thread = i;
+      new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  try {
+                    complete(engine, thread, loadOptions, isDone, completions);
+                  } finally {
+                    stopped.countDown();
+                  }
+                }
+              })
+          .start();
+    }
+
+    final long[] latencies = new long[LOADS];
+    final long[] completionsDuringLoads = new long[2];
+    final long[] elapsed = new long[1];
+    InstrumentationRegistry.getInstrumentation()
+        .runOnMainSync(
+            new Runnable() {
+              @Override
+              public void run() {
+                ReleasingCallback cb = new ReleasingCallback(engine);
+                for (int i = 0; i < WARMUP_LOADS; i++) {
+                  load(engine, glideContext, models.get(i % GRID_KEYS), loadOptions, cb);
+                }
+                completionsDuringLoads[0] = completions.get();
+                long start = SystemClock.elapsedRealtimeNanos();
+                for (int i = 0; i < LOADS; i++) {
+                  long loadStart = System.nanoTime();
+                  load(engine, glideContext, models.get(i % GRID_KEYS), loadOptions, cb);
+                  latencies[i] = System.nanoTime() - loadStart;
+                }
+                elapsed[0] = SystemClock.elapsedRealtimeNanos() - start;
+                completionsDuringLoads[1] = completions.get();
+              }
+            });
+    isDone.set(true);
+    stopped.await();
+    engine.shutdown();
+
+    Arrays.sort(latencies);
+    long completionsPerSecond =
+        (completionsDuringLoads[1] - completionsDuringLoads[0]) * 1_000_000_000L / elapsed[0];
+    Log.i(
+        TAG,
+        name
+            + ", completingThreads="
+            + threadCount
+            + ": p50="
+            + latencies[LOADS / 2]
+            + "ns, p99="
+            + latencies[LOADS * 99 / 100]
+            + "ns, max="
+            + latencies[LOADS - 1]
+            + "ns, completionsPerSecond="
+            + completionsPerSecond);
+  }
+
+  /** Completes jobs for the given thread's keys until {@code isDone} is set. */
+  @Synthetic
+  static void complete(
+      Engine engine,
+      int thread,
+      Options loadOptions,
+      AtomicBoolean isDone,
+      AtomicLong completions) {
+    EngineKey[] keys = new EngineKey[COMPLETING_KEYS_PER_THREAD];
+    EngineJob<?>[] jobs = new EngineJob<?>[COMPLETING_KEYS_PER_THREAD];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] =
+          newKey("https://images.example.com/thread/" + thread + "/" + i + ".jpg", loadOptions);
+      jobs[i] = newJob(engine, keys[i]);
+    }
+    int i = 0;
+    while (!isDone.get()) {
+      EngineKey key = keys[i];
+      // Replaces the previous resource for the key, the way a new decode of an evicted key would.
+      engine.onEngineJobComplete(jobs[i], key, newResource(engine, key));
+      completions.incrementAndGet();
+      i = (i + 1) % keys.length;
+    }
+  }
+
+  @Synthetic
+  static void load(
+      Engine engine,
+      GlideContext glideContext,
+      Object model,
+      Options loadOptions,
+      ResourceCallback cb) {
+    engine.load(
+        glideContext,
+        model,
+        EmptySignature.obtain(),
+        THUMBNAIL_SIZE,
+        THUMBNAIL_SIZE,
+        Object.class,
+        Object.class,
+        Priority.NORMAL,
+        DiskCacheStrategy.AUTOMATIC,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        /*isTransformationRequired=*/ false,
+        /*isScaleOnlyOrNoTransform=*/ true,
+        loadOptions,
+        /*isMemoryCacheable=*/ true,
+        /*useUnlimitedSourceExecutorPool=*/ false,
+        /*useAnimationPool=*/ false,
+        /*onlyRetrieveFromCache=*/ false,
+        cb,
+        Executors.directExecutor());
+  }
+
+  /** Returns a key equal to the one {@link #load} builds for the given model. */
+  @Synthetic
+  static EngineKey newKey(Object model, Options loadOptions) {
+    return new EngineKey(
+        model,
+        EmptySignature.obtain(),
+        THUMBNAIL_SIZE,
+        THUMBNAIL_SIZE,
+        Collections.<Class<?>, Transformation<?>>emptyMap(),
+        Object.class,
+        Object.class,
+        loadOptions);
+  }
+
+  /** Returns a job that is only ever completed, so it needs neither executors nor a pool. */
+  @Synthetic
+  static EngineJob<?> newJob(Engine engine, Key key) {
+    return new EngineJob<>(
+            /*diskCacheExecutor=*/ null,
+            /*sourceExecutor=*/ null,
+            /*sourceUnlimitedExecutor=*/ null,
+            /*animationExecutor=*/ null,
+            engine,
+            engine,
+            /*pool=*/ null)
+        .init(
+            key,
+            /*isCacheable=*/ true,
+            /*useUnlimitedSourceGeneratorPool=*/ false,
+            /*useAnimationPool=*/ false,
+            /*onlyRetrieveFromCache=*/ false);
+  }
+
+  @Synthetic
+  static EngineResource<?> newResource(Engine engine, Key key) {
+    return new EngineResource<>(
+        new ThumbnailResource(),
+        /*isMemoryCacheable=*/ true,
+        /*isRecyclable=*/ true,
+        key,
+        /*listener=*/ engine);
+  }
+
+  private GlideContext newGlideContext(Engine engine) {
+    return new GlideContext(
+        context,
+        new LruArrayPool(),
+        new Registry(),
+        new ImageViewTargetFactory(),
+        new Glide.RequestOptionsFactory() {
+          @NonNull
+          @Override
+          public RequestOptions build() {
+            return new RequestOptions();
+          }
+        },
+        Collections.<Class<?>, TransitionOptions<?, ?>>emptyMap(),
+        Collections.<RequestListener<Object>>emptyList(),
+        engine,
+        /*isLoggingRequestOriginsEnabled=*/ false,
+        Log.ERROR,
+        GlideMetrics.NONE,
+        /*decodedSourceCache=*/ null);
+  }
+
+  /** Releases each resource as soon as it's delivered, like a view that is immediately rebound. */
+  private static final class ReleasingCallback implements ResourceCallback {
+    private final Engine engine;
+
+    @Synthetic
+    ReleasingCallback(Engine engine) {
+      this.engine = engine;
+    }
+
+    @Override
+    public void onResourceReady(Resource<?> resource, DataSource dataSource) {
+      engine.release(resource);
+    }
+
+    @Override
+    public void onLoadFailed(GlideException e) {
+      throw new IllegalStateException("Expected every load to hit memory", e);
+    }
+
+    @Override
+    public Object getLock() {
+      return this;
+    }
+  }
+
+  private static final class ThumbnailResource implements Resource<Object> {
+    private final Object thumbnail = new Object();
+
+    @Synthetic
+    ThumbnailResource() {}
+
+    @NonNull
+    @Override
+    public Class<Object> getResourceClass() {
+      return Object.class;
+    }
+
+    @NonNull
+    @Override
+    public Object get() {
+      return thumbnail;
+    }
+
+    @Override
+    public int getSize() {
+      return RESOURCE_SIZE;
+    }
+
+    @Override
+    public void recycle() {
+      // Nothing to recycle.
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide4110.util.Synthetic;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares {@link SizeClassBitmapPool} with {@link LruBitmapPool} using {@link SizeConfigStrategy}
+ * on a trace of a scrolling thumbnail grid.
+ *
+ * <p>Skipped unless the {@code glide.benchmark} instrumentation argument is set:
+ *
+ * <pre>
+ *   ./gradlew :app:connectedDebugAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.glide.benchmark=true \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPoolBenchmark
+ * </pre>
+ *
+ * <p>Each row that scrolls onto the screen gets one {@link Bitmap} per column from the pool and
+ * each row that scrolls off puts its {@link Bitmap}s back, as a RecyclerView of thumbnails would.
+ * Thumbnail sizes vary with the aspect ratio of the source images. The trace is replayed by one
+ * thread and then by several threads sharing the pool. The time per pool operation, the hit rate
+ * and, for {@link SizeClassBitmapPool}, the internal fragmentation are logged under the {@code
+ * BitmapPoolBenchmark} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BitmapPoolBenchmark {
+  private static final String TAG = "BitmapPoolBenchmark";
+  private static final int COLUMNS = 3;
+  private static final int VISIBLE_ROWS = 6;
+  private static final int SCROLLED_ROWS = 2000;
+  private static final int THREADS = 4;
+  private static final int[][] THUMBNAIL_SIZES =
+      new int[][] {
+        {360, 360}, {360, 270}, {270, 360}, {360, 480}, {480, 360}, {360, 203},
+      };
+  // About four screens worth of ARGB_8888 thumbnails.
+  private static final long MAX_SIZE = 4L * COLUMNS * VISIBLE_ROWS * 480 * 360 * 4;
+
+  private int[][] trace;
+
+  @Before
+  public void setUp() {
+    Bundle arguments = InstrumentationRegistry.getArguments();
+    assumeTrue(Boolean.parseBoolean(arguments.getString("glide.benchmark")));
+
+    Random random = new Random(0);
+    trace = new int[SCROLLED_ROWS * COLUMNS][];
+    for (int i = 0; i < trace.length; i++) {
+      trace[i] = THUMBNAIL_SIZES[random.nextInt(THUMBNAIL_SIZES.length)];
+    }
+  }
+
+  @Test
+  public void thumbnailGrid() throws InterruptedException {
+    runBoth(/*threadCount=*/ 1);
+    runBoth(THREADS);
+  }
+
+  private void runBoth(int threadCount) throws InterruptedException {
+    LruBitmapPool lruPool =
+        new LruBitmapPool(
+            MAX_SIZE,
+            new SizeConfigStrategy(),
+            new HashSet<>(Arrays.asList(Bitmap.Config.ARGB_8888, Bitmap.Config.RGB_565)));
+    report("SizeConfigStrategy", threadCount, run(lruPool, threadCount), lruPool.hitCount(),
+        lruPool.missCount(), /*fragmentation=*/ 0);
+    lruPool.clearMemory();
+
+    SizeClassBitmapPool sizeClassPool = new SizeClassBitmapPool(MAX_SIZE);
+    report("SizeClassBitmapPool", threadCount, run(sizeClassPool, threadCount),
+        sizeClassPool.hitCount(), sizeClassPool.missCount(),
+        sizeClassPool.getInternalFragmentation());
+    sizeClassPool.clearMemory();
+  }
+
+  private long run(final BitmapPool pool, int threadCount) throws InterruptedException {
+    // Warm the pool and the code paths up before timing.
+    replay(pool, new AtomicLong());
+
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threadCount);
+    final AtomicLong elapsedNanos = new AtomicLong();
+    for (int i = 0; i < threadCount; i++) {
+      new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  try {
+                    start.await();
+                    replay(pool, elapsedNanos);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  } finally {
+                    done.countDown();
+                  }
+                }
+              })
+          .start();
+    }
+    start.countDown();
+    done.await();
+    // Two operations, a get and a put, per thumbnail.
+    return elapsedNanos.get() / (2L * trace.length * threadCount);
+  }
+
+  /** Replays the trace, adding the time spent in the pool to the given total. */
+  @Synthetic
+  void replay(BitmapPool pool, AtomicLong elapsedNanos) {
+    ArrayDeque<Bitmap[]> visibleRows = new ArrayDeque<>();
+    long elapsed = 0;
+    for (int row = 0; row < SCROLLED_ROWS; row++) {
+      Bitmap[] bitmaps = new Bitmap[COLUMNS];
+      for (int column = 0; column < COLUMNS; column++) {
+        int[] size = trace[row * COLUMNS + column];
+        long startTime = System.nanoTime();
+        bitmaps[column] = pool.getDirty(size[0], size[1], Bitmap.Config.ARGB_8888);
+        elapsed += System.nanoTime() - startTime;
+      }
+      visibleRows.addLast(bitmaps);
+      if (visibleRows.size() > VISIBLE_ROWS) {
+        elapsed += putAll(pool, visibleRows.removeFirst());
+      }
+    }
+    while (!visibleRows.isEmpty()) {
+      elapsed += putAll(pool, visibleRows.removeFirst());
+    }
+    elapsedNanos.addAndGet(elapsed);
+  }
+
+  private static long putAll(BitmapPool pool, Bitmap[] bitmaps) {
+    long startTime = System.nanoTime();
+    for (Bitmap bitmap : bitmaps) {
+      pool.put(bitmap);
+    }
+    return System.nanoTime() - startTime;
+  }
+
+  private static void report(
+      String name, int threadCount, long nanosPerOp, long hits, long misses, float fragmentation) {
+    Log.i(
+        TAG,
+        name
+            + ", threads="
+            + threadCount
+            + ": "
+            + nanosPerOp
+            + "ns/op, hitRate="
+            + (hits / (float) (hits + misses))
+            + ", internalFragmentation="
+            + fragmentation);
+  }
+}
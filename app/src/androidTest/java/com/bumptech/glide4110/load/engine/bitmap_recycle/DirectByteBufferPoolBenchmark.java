@@ -0,0 +1,159 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide4110.util.ByteBufferUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares the heap footprint of holding encoded images in arrays from a {@link LruArrayPool} with
+ * holding them in direct buffers from a {@link DirectByteBufferPool}, as Glide does before handing
+ * a {@link ByteBuffer} to a decoder.
+ *
+ * <p>Skipped unless the {@code glide.benchmark} instrumentation argument is set:
+ *
+ * <pre>
+ *   ./gradlew :app:connectedDebugAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.glide.benchmark=true \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.bumptech.glide4110.load.engine.bitmap_recycle.DirectByteBufferPoolBenchmark
+ * </pre>
+ *
+ * <p>Each iteration reads one of several encoded images of different sizes from a stream into a
+ * pooled buffer and returns the buffer to the pool. For each pool the bytes allocated on the Java
+ * heap, the number of garbage collections, the Java heap retained by the warm pool and the change
+ * in native heap are logged under the {@code DirectByteBufferPool} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DirectByteBufferPoolBenchmark {
+  private static final String TAG = "DirectByteBufferPool";
+  private static final int ITERATIONS = 500;
+  private static final int POOL_SIZE = 4 * 1024 * 1024;
+  private static final int[] IMAGE_DIMENSIONS = {256, 512, 768};
+
+  private byte[][] images;
+
+  @Before
+  public void setUp() {
+    Bundle arguments = InstrumentationRegistry.getArguments();
+    assumeTrue(Boolean.parseBoolean(arguments.getString("glide.benchmark")));
+
+    Random random = new Random(0);
+    images = new byte[IMAGE_DIMENSIONS.length][];
+    for (int i = 0; i < IMAGE_DIMENSIONS.length; i++) {
+      int dimension = IMAGE_DIMENSIONS[i];
+      int[] pixels = new int[dimension * dimension];
+      for (int j = 0; j < pixels.length; j++) {
+        // Noise keeps the encoded size close to that of a photo.
+        pixels[j] = 0xFF000000 | random.nextInt(0xFFFFFF);
+      }
+      Bitmap bitmap = Bitmap.createBitmap(pixels, dimension, dimension, Bitmap.Config.ARGB_8888);
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      bitmap.compress(Bitmap.CompressFormat.JPEG, 90, os);
+      bitmap.recycle();
+      images[i] = os.toByteArray();
+    }
+  }
+
+  @Test
+  public void heapFootprint() throws IOException {
+    final LruArrayPool arrayPool = new LruArrayPool(POOL_SIZE);
+    measure(
+        "LruArrayPool",
+        new Load() {
+          @Override
+          public void run(InputStream stream, int length) throws IOException {
+            byte[] bytes = arrayPool.get(length, byte[].class);
+            int read = 0;
+            int n;
+            while (read < length && (n = stream.read(bytes, read, length - read)) >= 0) {
+              read += n;
+            }
+            consume(ByteBuffer.wrap(bytes, 0, read));
+            arrayPool.put(bytes);
+          }
+        });
+
+    final DirectByteBufferPool directPool = new DirectByteBufferPool(POOL_SIZE);
+    measure(
+        "DirectByteBufferPool",
+        new Load() {
+          @Override
+          public void run(InputStream stream, int length) throws IOException {
+            ByteBuffer buffer = ByteBufferUtil.fromStream(stream, directPool);
+            consume(buffer);
+            directPool.put(buffer);
+          }
+        });
+  }
+
+  private void measure(String name, Load load) throws IOException {
+    long heapBefore = getUsedHeap();
+    long nativeBefore = Debug.getNativeHeapAllocatedSize();
+    // Warm the pool up so that only steady state allocations are counted.
+    for (byte[] image : images) {
+      load.run(new ByteArrayInputStream(image), image.length);
+    }
+
+    long allocatedBefore = getRuntimeStat("art.gc.bytes-allocated");
+    long gcsBefore = getRuntimeStat("art.gc.gc-count");
+    for (int i = 0; i < ITERATIONS; i++) {
+      byte[] image = images[i % images.length];
+      load.run(new ByteArrayInputStream(image), image.length);
+    }
+    long allocated = getRuntimeStat("art.gc.bytes-allocated") - allocatedBefore;
+    long gcs = getRuntimeStat("art.gc.gc-count") - gcsBefore;
+
+    Log.i(
+        TAG,
+        name
+            + ": heapAllocatedPerIteration="
+            + allocated / ITERATIONS
+            + "B, gcs="
+            + gcs
+            + ", retainedHeap="
+            + (getUsedHeap() - heapBefore)
+            + "B, nativeHeapDelta="
+            + (Debug.getNativeHeapAllocatedSize() - nativeBefore)
+            + "B");
+  }
+
+  static void consume(ByteBuffer buffer) {
+    // Touch the data so that reading it isn't optimized away.
+    if (buffer.get(buffer.limit() - 1) == 42) {
+      Log.v(TAG, "");
+    }
+  }
+
+  private static long getUsedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    runtime.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static long getRuntimeStat(String name) {
+    String value = Debug.getRuntimeStat(name);
+    return value == null ? 0 : Long.parseLong(value);
+  }
+
+  private interface Load {
+    void run(InputStream stream, int length) throws IOException;
+  }
+}
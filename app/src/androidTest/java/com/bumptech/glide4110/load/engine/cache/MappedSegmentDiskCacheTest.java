@@ -0,0 +1,272 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.signature.ObjectKey;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+/**
+ * Puts, deletes, reopens and evicts entries in a {@link MappedSegmentDiskCache} with small
+ * segments, so that a few entries fill a segment.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MappedSegmentDiskCacheTest {
+  private static final int SEGMENT_SIZE = 4096;
+  // With the header and the safe key, three entries fit in a segment.
+  private static final int DATA_SIZE = 1000;
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File directory;
+  private MappedSegmentDiskCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = temporaryFolder.newFolder();
+    cache = open(/*maxSize=*/ 1024 * 1024);
+  }
+
+  @Test
+  public void put_thenGetBuffer_returnsData() {
+    put(cache, "a");
+
+    assertData("a", cache.getBuffer(key("a")));
+  }
+
+  @Test
+  public void put_thenGet_returnsFileWithData() throws IOException {
+    put(cache, "a");
+
+    File file = cache.get(key("a"));
+    assertNotNull(file);
+    assertArrayEquals(data("a"), readFile(file));
+  }
+
+  @Test
+  public void put_thenReopen_returnsData() {
+    put(cache, "a");
+    put(cache, "b");
+
+    MappedSegmentDiskCache reopened = open(/*maxSize=*/ 1024 * 1024);
+    assertData("a", reopened.getBuffer(key("a")));
+    assertData("b", reopened.getBuffer(key("b")));
+  }
+
+  @Test
+  public void reopen_afterIncompleteWriteOfLastRecord_dropsOnlyThatRecord() throws IOException {
+    put(cache, "a");
+    put(cache, "b");
+    // As if the process died before the end of b's data reached the disk. The segment is
+    // already extended to its full size, so only the checksum can tell.
+    int recordLength =
+        MappedSegmentDiskCache.HEADER_SIZE
+            + new SafeKeyGenerator().getSafeKey(key("b")).length()
+            + DATA_SIZE;
+    RandomAccessFile segment = new RandomAccessFile(new File(directory, "segment-0.dat"), "rw");
+    try {
+      segment.seek(2L * recordLength - DATA_SIZE / 2);
+      segment.write(new byte[DATA_SIZE / 2]);
+    } finally {
+      segment.close();
+    }
+
+    MappedSegmentDiskCache reopened = open(/*maxSize=*/ 1024 * 1024);
+    assertData("a", reopened.getBuffer(key("a")));
+    assertNull(reopened.getBuffer(key("b")));
+    assertNull(reopened.get(key("b")));
+
+    put(reopened, "c");
+    assertData("c", open(/*maxSize=*/ 1024 * 1024).getBuffer(key("c")));
+  }
+
+  @Test
+  public void delete_removesEntryAndExtractedFile() {
+    put(cache, "a");
+    File file = cache.get(key("a"));
+    assertNotNull(file);
+
+    cache.delete(key("a"));
+
+    assertNull(cache.getBuffer(key("a")));
+    assertNull(cache.get(key("a")));
+    assertFalse(file.exists());
+  }
+
+  @Test
+  public void delete_thenReopen_doesNotReturnEntry() {
+    put(cache, "a");
+    cache.delete(key("a"));
+
+    assertNull(open(/*maxSize=*/ 1024 * 1024).getBuffer(key("a")));
+  }
+
+  @Test
+  public void delete_thenCompactTombstoneSegment_thenReopen_doesNotReturnEntry() {
+    // Segment 0, stays dense enough not to be compacted.
+    put(cache, "a");
+    put(cache, "b");
+    put(cache, "c");
+    // Segment 1, holds the tombstone for a and nothing live once x, y and z are deleted.
+    put(cache, "x");
+    put(cache, "y");
+    put(cache, "z");
+    cache.delete(key("a"));
+    cache.delete(key("x"));
+    cache.delete(key("y"));
+    cache.delete(key("z"));
+    // Segment 2.
+    put(cache, "w");
+
+    cache.compact();
+
+    MappedSegmentDiskCache reopened = open(/*maxSize=*/ 1024 * 1024);
+    assertNull(reopened.getBuffer(key("a")));
+    assertNull(reopened.getBuffer(key("x")));
+    assertData("b", reopened.getBuffer(key("b")));
+    assertData("w", reopened.getBuffer(key("w")));
+  }
+
+  @Test
+  public void put_overMaxSize_evictsLeastRecentlyUsed() {
+    cache = open(/*maxSize=*/ 3 * SEGMENT_SIZE);
+    put(cache, "0");
+    put(cache, "1");
+    put(cache, "2");
+    // Starts the second segment.
+    put(cache, "3");
+    assertNotNull(cache.getBuffer(key("0")));
+
+    for (int i = 4; i < 12; i++) {
+      put(cache, String.valueOf(i));
+    }
+
+    assertData("0", cache.getBuffer(key("0")));
+    assertNull(cache.getBuffer(key("1")));
+    assertNull(cache.getBuffer(key("2")));
+    assertData("11", cache.getBuffer(key("11")));
+  }
+
+  @Test
+  public void put_largerThanSegment_isRejected() {
+    final byte[] data = new byte[SEGMENT_SIZE];
+    cache.put(
+        key("large"),
+        new DiskCache.Writer() {
+          @Override
+          public boolean write(@NonNull File file) {
+            return writeFile(file, data);
+          }
+        });
+
+    assertNull(cache.getBuffer(key("large")));
+    put(cache, "a");
+    assertData("a", cache.getBuffer(key("a")));
+  }
+
+  @Test
+  public void get_countsExtractedFilesTowardsMaxSize() {
+    cache = open(/*maxSize=*/ 3 * SEGMENT_SIZE);
+    for (int i = 0; i < 8; i++) {
+      put(cache, String.valueOf(i));
+    }
+    for (int i = 0; i < 8; i++) {
+      cache.get(key(String.valueOf(i)));
+    }
+
+    assertTrue(getDirectorySize(directory) <= 3 * SEGMENT_SIZE + SEGMENT_SIZE);
+  }
+
+  private MappedSegmentDiskCache open(long maxSize) {
+    return new MappedSegmentDiskCache(directory, maxSize, SEGMENT_SIZE);
+  }
+
+  private static void put(MappedSegmentDiskCache cache, final String name) {
+    cache.put(
+        key(name),
+        new DiskCache.Writer() {
+          @Override
+          public boolean write(@NonNull File file) {
+            return writeFile(file, data(name));
+          }
+        });
+  }
+
+  private static void assertData(String name, ByteBuffer buffer) {
+    assertNotNull(name, buffer);
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    assertArrayEquals(data(name), bytes);
+  }
+
+  private static Key key(String name) {
+    return new ObjectKey(name);
+  }
+
+  private static byte[] data(String name) {
+    byte[] result = new byte[DATA_SIZE];
+    Arrays.fill(result, (byte) name.hashCode());
+    return result;
+  }
+
+  private static boolean writeFile(File file, byte[] data) {
+    try {
+      OutputStream os = new FileOutputStream(file);
+      try {
+        os.write(data);
+      } finally {
+        os.close();
+      }
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static byte[] readFile(File file) throws IOException {
+    byte[] result = new byte[(int) file.length()];
+    InputStream is = new FileInputStream(file);
+    try {
+      int read = 0;
+      while (read < result.length) {
+        read += is.read(result, read, result.length - read);
+      }
+    } finally {
+      is.close();
+    }
+    return result;
+  }
+
+  private static long getDirectorySize(File directory) {
+    long result = 0;
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        result += file.isDirectory() ? getDirectorySize(file) : file.length();
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,185 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide4110.load.ImageHeaderParser;
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide4110.util.ByteBufferUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Compares decoding a cached image with {@link Downsampler} from an {@link InputStream}, as a
+ * {@link com.bumptech.glide4110.load.engine.cache.DiskCache} File hit does, with decoding it from
+ * a memory mapped and a heap {@link ByteBuffer}, as a {@link
+ * com.bumptech.glide4110.load.engine.cache.ByteBufferDiskCache} hit does.
+ *
+ * <p>Skipped unless the {@code glide.benchmark} instrumentation argument is set:
+ *
+ * <pre>
+ *   ./gradlew :app:connectedDebugAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.glide.benchmark=true \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.bumptech.glide4110.load.resource.bitmap.ByteBufferDecodeBenchmark
+ * </pre>
+ *
+ * <p>A 1024x768 JPEG is decoded to a 360x360 thumbnail. Decoded Bitmaps are returned to the pool
+ * after each iteration, so the bytes allocated on the Java heap per decode are those of the source
+ * read path rather than of the Bitmap. The time and heap bytes allocated per decode are logged
+ * under the {@code ByteBufferDecode} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ByteBufferDecodeBenchmark {
+  private static final String TAG = "ByteBufferDecode";
+  private static final int SOURCE_WIDTH = 1024;
+  private static final int SOURCE_HEIGHT = 768;
+  private static final int TARGET_SIZE = 360;
+  private static final int WARMUP_ITERATIONS = 20;
+  private static final int ITERATIONS = 200;
+
+  private File file;
+  private Downsampler downsampler;
+  private LruBitmapPool bitmapPool;
+  private Options options;
+
+  @Before
+  public void setUp() throws IOException {
+    Bundle arguments = InstrumentationRegistry.getArguments();
+    assumeTrue(Boolean.parseBoolean(arguments.getString("glide.benchmark")));
+
+    Random random = new Random(0);
+    int[] pixels = new int[SOURCE_WIDTH * SOURCE_HEIGHT];
+    for (int i = 0; i < pixels.length; i++) {
+      // Noise keeps the encoded size close to that of a photo.
+      pixels[i] = 0xFF000000 | random.nextInt(0xFFFFFF);
+    }
+    Bitmap bitmap =
+        Bitmap.createBitmap(pixels, SOURCE_WIDTH, SOURCE_HEIGHT, Bitmap.Config.ARGB_8888);
+    file =
+        new File(
+            InstrumentationRegistry.getInstrumentation().getTargetContext().getCacheDir(),
+            "byte_buffer_decode_benchmark.jpg");
+    OutputStream os = new FileOutputStream(file);
+    try {
+      bitmap.compress(Bitmap.CompressFormat.JPEG, 90, os);
+    } finally {
+      os.close();
+    }
+    bitmap.recycle();
+
+    bitmapPool = new LruBitmapPool(4L * TARGET_SIZE * TARGET_SIZE * 4);
+    downsampler =
+        new Downsampler(
+            Collections.<ImageHeaderParser>singletonList(new DefaultImageHeaderParser()),
+            Resources.getSystem().getDisplayMetrics(),
+            bitmapPool,
+            new LruArrayPool());
+    options = new Options();
+  }
+
+  @After
+  public void tearDown() {
+    if (bitmapPool != null) {
+      bitmapPool.clearMemory();
+    }
+    if (file != null && !file.delete() && Log.isLoggable(TAG, Log.WARN)) {
+      Log.w(TAG, "Failed to delete " + file);
+    }
+  }
+
+  @Test
+  public void decode() throws IOException {
+    measure(
+        "InputStream",
+        new Decode() {
+          @Override
+          public Resource<Bitmap> run() throws IOException {
+            InputStream is = new FileInputStream(file);
+            try {
+              return downsampler.decode(is, TARGET_SIZE, TARGET_SIZE, options);
+            } finally {
+              is.close();
+            }
+          }
+        });
+
+    final ByteBuffer mapped = ByteBufferUtil.fromFile(file);
+    measure(
+        "MappedByteBuffer",
+        new Decode() {
+          @Override
+          public Resource<Bitmap> run() throws IOException {
+            return downsampler.decode(mapped, TARGET_SIZE, TARGET_SIZE, options);
+          }
+        });
+
+    byte[] bytes = new byte[mapped.capacity()];
+    ByteBufferUtil.rewind(mapped).get(bytes);
+    final ByteBuffer heap = ByteBuffer.wrap(bytes);
+    measure(
+        "HeapByteBuffer",
+        new Decode() {
+          @Override
+          public Resource<Bitmap> run() throws IOException {
+            return downsampler.decode(heap, TARGET_SIZE, TARGET_SIZE, options);
+          }
+        });
+  }
+
+  private void measure(String name, Decode decode) throws IOException {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      decode.run().recycle();
+    }
+
+    long allocatedBefore = getRuntimeStat("art.gc.bytes-allocated");
+    long start = SystemClock.elapsedRealtimeNanos();
+    for (int i = 0; i < ITERATIONS; i++) {
+      decode.run().recycle();
+    }
+    long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+    long allocated = getRuntimeStat("art.gc.bytes-allocated") - allocatedBefore;
+
+    Log.i(
+        TAG,
+        name
+            + ": timePerDecode="
+            + elapsed / ITERATIONS / 1000
+            + "us, heapAllocatedPerDecode="
+            + allocated / ITERATIONS
+            + "B");
+  }
+
+  private static long getRuntimeStat(String name) {
+    String value = Debug.getRuntimeStat(name);
+    return value == null ? 0 : Long.parseLong(value);
+  }
+
+  private interface Decode {
+    Resource<Bitmap> run() throws IOException;
+  }
+}
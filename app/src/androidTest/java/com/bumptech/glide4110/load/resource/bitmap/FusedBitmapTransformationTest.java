@@ -0,0 +1,195 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ComposeShader;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.Shader;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide4110.Glide;
+import com.bumptech.glide4110.load.MultiTransformation;
+import com.bumptech.glide4110.load.Transformation;
+import com.bumptech.glide4110.load.engine.Resource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Checks that {@link FusedBitmapTransformation} draws the same Bitmap as applying the same
+ * transformations one at a time with a {@link MultiTransformation}, for each transformation and
+ * chain in {@link TransformationBenchmark}.
+ *
+ * <p>Drawing once rather than once per transformation filters and anti-aliases the source
+ * differently, so pixels are compared with a small tolerance and a few pixels, mostly along
+ * rounded and circular edges, may differ by more. The source is made of smooth gradients that
+ * change across the whole image in both directions, so a result that is offset, scaled, rotated or
+ * flipped differently still fails.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FusedBitmapTransformationTest {
+  private static final int SOURCE_WIDTH = 1024;
+  private static final int SOURCE_HEIGHT = 768;
+  private static final int TARGET_SIZE = 360;
+  private static final int ROUNDING_RADIUS = 24;
+  // The largest difference in any premultiplied channel for pixels to be considered the same.
+  private static final int CHANNEL_TOLERANCE = 12;
+  // The fraction of pixels allowed to differ by more, for anti-aliased edges.
+  private static final float MAX_DIFFERENT_FRACTION = 0.02f;
+
+  private Context context;
+  private Bitmap source;
+
+  @Before
+  public void setUp() {
+    context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+    source = Bitmap.createBitmap(SOURCE_WIDTH, SOURCE_HEIGHT, Bitmap.Config.ARGB_8888);
+    // Red repeats across the width and green down the height, so small offsets show up, and blue
+    // increases across the width, so a horizontal flip shows up.
+    Shader red = new LinearGradient(0, 0, 128, 0, Color.BLACK, Color.RED, Shader.TileMode.MIRROR);
+    Shader green =
+        new LinearGradient(0, 0, 0, 128, Color.BLACK, Color.GREEN, Shader.TileMode.MIRROR);
+    Shader blue =
+        new LinearGradient(0, 0, SOURCE_WIDTH, 0, Color.BLACK, Color.BLUE, Shader.TileMode.CLAMP);
+    Paint paint = new Paint();
+    paint.setShader(
+        new ComposeShader(
+            new ComposeShader(red, green, PorterDuff.Mode.ADD), blue, PorterDuff.Mode.ADD));
+    new Canvas(source).drawPaint(paint);
+    // Opaque, like a decoded JPEG.
+    source.setHasAlpha(false);
+  }
+
+  @After
+  public void tearDown() {
+    Glide.tearDown();
+    if (source != null) {
+      source.recycle();
+    }
+  }
+
+  @Test
+  public void singleTransformations_matchMultiTransformation() {
+    assertMatchesMultiTransformation(new CenterCrop());
+    assertMatchesMultiTransformation(new FitCenter());
+    assertMatchesMultiTransformation(new CenterInside());
+    assertMatchesMultiTransformation(new CircleCrop());
+    assertMatchesMultiTransformation(new RoundedCorners(ROUNDING_RADIUS));
+    assertMatchesMultiTransformation(
+        new GranularRoundedCorners(ROUNDING_RADIUS, 0, ROUNDING_RADIUS, 0));
+    assertMatchesMultiTransformation(new Rotate(90));
+  }
+
+  @Test
+  public void centerCropRoundedCorners_matchesMultiTransformation() {
+    assertMatchesMultiTransformation(new CenterCrop(), new RoundedCorners(ROUNDING_RADIUS));
+  }
+
+  @Test
+  public void fitCenterCircleCrop_matchesMultiTransformation() {
+    assertMatchesMultiTransformation(new FitCenter(), new CircleCrop());
+  }
+
+  @Test
+  public void rotateCenterCropRoundedCorners_matchesMultiTransformation() {
+    assertMatchesMultiTransformation(
+        new Rotate(90), new CenterCrop(), new RoundedCorners(ROUNDING_RADIUS));
+  }
+
+  private void assertMatchesMultiTransformation(BitmapTransformation... transformations) {
+    List<BitmapTransformation> list = Arrays.asList(transformations);
+    MultiTransformation<Bitmap> multi = new MultiTransformation<>(list);
+    if (transformations.length > 1) {
+      // Make sure the chain is actually drawn in one pass rather than falling back.
+      Transformation<Bitmap> fused = FusedBitmapTransformation.fuse(multi);
+      assertTrue(list.toString(), fused instanceof FusedBitmapTransformation);
+    }
+
+    Resource<Bitmap> resource = BitmapResource.obtain(source, Glide.get(context).getBitmapPool());
+    Resource<Bitmap> expected = multi.transform(context, resource, TARGET_SIZE, TARGET_SIZE);
+    Resource<Bitmap> actual =
+        new FusedBitmapTransformation(list).transform(context, resource, TARGET_SIZE, TARGET_SIZE);
+    try {
+      assertSimilar(list.toString(), expected.get(), actual.get());
+    } finally {
+      if (expected != resource) {
+        expected.recycle();
+      }
+      if (actual != resource) {
+        actual.recycle();
+      }
+    }
+  }
+
+  private static void assertSimilar(String name, Bitmap expected, Bitmap actual) {
+    assertEquals(name + " width", expected.getWidth(), actual.getWidth());
+    assertEquals(name + " height", expected.getHeight(), actual.getHeight());
+
+    int width = expected.getWidth();
+    int height = expected.getHeight();
+    int[] expectedPixels = new int[width * height];
+    int[] actualPixels = new int[width * height];
+    expected.getPixels(expectedPixels, 0, width, 0, 0, width, height);
+    actual.getPixels(actualPixels, 0, width, 0, 0, width, height);
+
+    int differentPixels = 0;
+    int maxDifference = 0;
+    for (int i = 0; i < expectedPixels.length; i++) {
+      int difference = getMaxChannelDifference(expectedPixels[i], actualPixels[i]);
+      maxDifference = Math.max(maxDifference, difference);
+      if (difference > CHANNEL_TOLERANCE) {
+        differentPixels++;
+      }
+    }
+    float differentFraction = differentPixels / (float) expectedPixels.length;
+    assertTrue(
+        name
+            + ": "
+            + differentPixels
+            + " of "
+            + expectedPixels.length
+            + " pixels differ by more than "
+            + CHANNEL_TOLERANCE
+            + ", up to "
+            + maxDifference,
+        differentFraction <= MAX_DIFFERENT_FRACTION);
+  }
+
+  /**
+   * Returns the largest difference between the premultiplied channels of two colors, so that the
+   * color of mostly transparent pixels at anti-aliased edges counts for little.
+   */
+  private static int getMaxChannelDifference(int first, int second) {
+    int firstAlpha = Color.alpha(first);
+    int secondAlpha = Color.alpha(second);
+    int result = Math.abs(firstAlpha - secondAlpha);
+    result =
+        Math.max(
+            result,
+            Math.abs(Color.red(first) * firstAlpha - Color.red(second) * secondAlpha) / 255);
+    result =
+        Math.max(
+            result,
+            Math.abs(Color.green(first) * firstAlpha - Color.green(second) * secondAlpha) / 255);
+    result =
+        Math.max(
+            result,
+            Math.abs(Color.blue(first) * firstAlpha - Color.blue(second) * secondAlpha) / 255);
+    return result;
+  }
+}
@@ -0,0 +1,207 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide4110.request.target.Target;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Reads progressive, baseline, truncated and non JPEG data through a {@link
+ * ProgressiveJpegInputStream} and checks which previews are decoded.
+ *
+ * <p>{@code progressive.jpg} is a 64x48 progressive JPEG with ten scans, separated by DHT
+ * segments.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProgressiveJpegInputStreamTest {
+  private static final int WIDTH = 64;
+  private static final int HEIGHT = 48;
+  private static final int SCANS = 10;
+  private static final int MARKER_SOS = 0xDA;
+
+  private final List<Bitmap> frames = new ArrayList<>();
+  private final ProgressiveJpegInputStream.FrameListener listener =
+      new ProgressiveJpegInputStream.FrameListener() {
+        @Override
+        public void onFrame(@NonNull Bitmap frame) {
+          frames.add(frame);
+        }
+      };
+
+  private byte[] progressive;
+
+  @Before
+  public void setUp() throws IOException {
+    InputStream is =
+        InstrumentationRegistry.getInstrumentation()
+            .getContext()
+            .getAssets()
+            .open("progressive.jpg");
+    try {
+      progressive = readFully(is);
+    } finally {
+      is.close();
+    }
+  }
+
+  @Test
+  public void read_progressive_decodesFrameAtEndOfEachScanButTheLast() throws IOException {
+    byte[] read = readThrough(progressive, /*maxFrames=*/ Integer.MAX_VALUE);
+
+    assertArrayEquals(progressive, read);
+    // The last scan is followed by EOI, the final decode shows the complete image instead.
+    assertEquals(SCANS - 1, frames.size());
+  }
+
+  @Test
+  public void read_progressive_stopsAfterMaxFrames() throws IOException {
+    byte[] read = readThrough(progressive, /*maxFrames=*/ 2);
+
+    assertArrayEquals(progressive, read);
+    assertEquals(2, frames.size());
+  }
+
+  @Test
+  public void read_progressive_withZeroMaxFrames_decodesNothing() throws IOException {
+    readThrough(progressive, /*maxFrames=*/ 0);
+
+    assertEquals(0, frames.size());
+  }
+
+  @Test
+  public void read_progressive_downsamplesFramesToTarget() throws IOException {
+    ProgressiveJpegInputStream is =
+        new ProgressiveJpegInputStream(
+            new ByteArrayInputStream(progressive),
+            /*maxFrames=*/ 1,
+            WIDTH / 4,
+            HEIGHT / 4,
+            listener);
+    readFully(is);
+
+    assertEquals(1, frames.size());
+    assertEquals(WIDTH / 4, frames.get(0).getWidth());
+    assertEquals(HEIGHT / 4, frames.get(0).getHeight());
+  }
+
+  @Test
+  public void read_truncatedInFirstScan_decodesNothing() throws IOException {
+    // Ends just before the marker that ends the first scan.
+    byte[] truncated = Arrays.copyOf(progressive, getFirstScanEnd(progressive));
+
+    byte[] read = readThrough(truncated, /*maxFrames=*/ Integer.MAX_VALUE);
+
+    assertArrayEquals(truncated, read);
+    assertEquals(0, frames.size());
+  }
+
+  @Test
+  public void read_truncatedAfterFirstScan_decodesOneFrame() throws IOException {
+    // Ends with the marker that ends the first scan.
+    byte[] truncated = Arrays.copyOf(progressive, getFirstScanEnd(progressive) + 2);
+
+    byte[] read = readThrough(truncated, /*maxFrames=*/ Integer.MAX_VALUE);
+
+    assertArrayEquals(truncated, read);
+    assertEquals(1, frames.size());
+  }
+
+  @Test
+  public void read_baseline_decodesNothing() throws IOException {
+    Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    bitmap.compress(Bitmap.CompressFormat.JPEG, 90, os);
+    bitmap.recycle();
+    byte[] baseline = os.toByteArray();
+
+    byte[] read = readThrough(baseline, /*maxFrames=*/ Integer.MAX_VALUE);
+
+    assertArrayEquals(baseline, read);
+    assertEquals(0, frames.size());
+  }
+
+  @Test
+  public void read_notJpeg_passesThroughAndDecodesNothing() throws IOException {
+    byte[] data = new byte[4096];
+    Arrays.fill(data, (byte) 0xFF);
+    data[1] = (byte) MARKER_SOS;
+
+    byte[] read = readThrough(data, /*maxFrames=*/ Integer.MAX_VALUE);
+
+    assertArrayEquals(data, read);
+    assertEquals(0, frames.size());
+  }
+
+  @Test
+  public void skip_includesSkippedBytesInFrames() throws IOException {
+    ProgressiveJpegInputStream is =
+        new ProgressiveJpegInputStream(
+            new ByteArrayInputStream(progressive),
+            /*maxFrames=*/ Integer.MAX_VALUE,
+            Target.SIZE_ORIGINAL,
+            Target.SIZE_ORIGINAL,
+            listener);
+    assertEquals(progressive.length / 2, is.skip(progressive.length / 2));
+    readFully(is);
+
+    assertEquals(SCANS - 1, frames.size());
+  }
+
+  private byte[] readThrough(byte[] data, int maxFrames) throws IOException {
+    return readFully(
+        new ProgressiveJpegInputStream(
+            new ByteArrayInputStream(data),
+            maxFrames,
+            Target.SIZE_ORIGINAL,
+            Target.SIZE_ORIGINAL,
+            listener));
+  }
+
+  /** Returns the index of the marker that follows the entropy coded data of the first scan. */
+  private static int getFirstScanEnd(byte[] data) {
+    int sos = 0;
+    while ((data[sos] & 0xFF) != 0xFF || (data[sos + 1] & 0xFF) != MARKER_SOS) {
+      // Skips the SOI and each segment before the first SOS.
+      sos += sos == 0 ? 2 : 2 + (((data[sos + 2] & 0xFF) << 8) | (data[sos + 3] & 0xFF));
+    }
+    int i = sos + 2 + (((data[sos + 2] & 0xFF) << 8) | (data[sos + 3] & 0xFF));
+    // Within a scan 0xFF is followed by a stuffed zero or a restart marker.
+    while ((data[i] & 0xFF) != 0xFF || data[i + 1] == 0 || isRestartMarker(data[i + 1] & 0xFF)) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isRestartMarker(int marker) {
+    return marker >= 0xD0 && marker <= 0xD7;
+  }
+
+  private static byte[] readFully(InputStream is) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    // Small reads, so that markers are split across reads.
+    byte[] buffer = new byte[7];
+    int read;
+    while ((read = is.read(buffer)) != -1) {
+      os.write(buffer, 0, read);
+    }
+    return os.toByteArray();
+  }
+}
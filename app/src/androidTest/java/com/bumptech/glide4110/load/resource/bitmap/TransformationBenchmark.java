@@ -0,0 +1,171 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.bumptech.glide4110.load.engine.bitmap_recycle.LruBitmapPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Times Glide's Bitmap transformations one at a time and chained, with and without {@link
+ * FusedBitmapTransformation}.
+ *
+ * <p>Skipped unless the {@code glide.benchmark} instrumentation argument is set:
+ *
+ * <pre>
+ *   ./gradlew :app:connectedDebugAndroidTest \
+ *       -Pandroid.testInstrumentationRunnerArguments.glide.benchmark=true \
+ *       -Pandroid.testInstrumentationRunnerArguments.class=com.bumptech.glide4110.load.resource.bitmap.TransformationBenchmark
+ * </pre>
+ *
+ * <p>A decoded 1024x768 photo is transformed to a 360x360 thumbnail, as a grid of thumbnails would.
+ * Results are put back in the pool after each iteration, as they would be when a thumbnail scrolls
+ * off screen, so steady state timings include pool hits rather than allocations. The time per
+ * transformation and per chain, and the number of Bitmaps each takes from the pool, are logged
+ * under the {@code TransformationBenchmark} tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TransformationBenchmark {
+  private static final String TAG = "TransformationBenchmark";
+  private static final int SOURCE_WIDTH = 1024;
+  private static final int SOURCE_HEIGHT = 768;
+  private static final int TARGET_SIZE = 360;
+  private static final int WARMUP_ITERATIONS = 50;
+  private static final int ITERATIONS = 500;
+  private static final int ROUNDING_RADIUS = 24;
+
+  private Bitmap source;
+  private LruBitmapPool pool;
+
+  @Before
+  public void setUp() {
+    Bundle arguments = InstrumentationRegistry.getArguments();
+    assumeTrue(Boolean.parseBoolean(arguments.getString("glide.benchmark")));
+
+    source = Bitmap.createBitmap(SOURCE_WIDTH, SOURCE_HEIGHT, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(source);
+    canvas.drawColor(Color.BLUE);
+    Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    paint.setColor(Color.YELLOW);
+    canvas.drawCircle(SOURCE_WIDTH / 2f, SOURCE_HEIGHT / 2f, SOURCE_HEIGHT / 3f, paint);
+    // Opaque, like a decoded JPEG.
+    source.setHasAlpha(false);
+
+    // A handful of thumbnails worth.
+    pool =
+        new LruBitmapPool(
+            8L * TARGET_SIZE * TARGET_SIZE * 4 + 2L * SOURCE_WIDTH * SOURCE_HEIGHT * 4);
+  }
+
+  @After
+  public void tearDown() {
+    if (pool != null) {
+      pool.clearMemory();
+    }
+    if (source != null) {
+      source.recycle();
+    }
+  }
+
+  @Test
+  public void singleTransformations() {
+    run("CenterCrop", new CenterCrop());
+    run("FitCenter", new FitCenter());
+    run("CenterInside", new CenterInside());
+    run("CircleCrop", new CircleCrop());
+    run("RoundedCorners", new RoundedCorners(ROUNDING_RADIUS));
+    run(
+        "GranularRoundedCorners",
+        new GranularRoundedCorners(ROUNDING_RADIUS, 0, ROUNDING_RADIUS, 0));
+    run("Rotate", new Rotate(90));
+  }
+
+  @Test
+  public void chainedTransformations() {
+    runChain("CenterCrop+RoundedCorners", new CenterCrop(), new RoundedCorners(ROUNDING_RADIUS));
+    runChain("FitCenter+CircleCrop", new FitCenter(), new CircleCrop());
+    runChain(
+        "Rotate+CenterCrop+RoundedCorners",
+        new Rotate(90),
+        new CenterCrop(),
+        new RoundedCorners(ROUNDING_RADIUS));
+  }
+
+  private void run(String name, BitmapTransformation transformation) {
+    runChain(name, transformation);
+  }
+
+  private void runChain(String name, BitmapTransformation... transformations) {
+    FusedBitmapTransformation fused = new FusedBitmapTransformation(transformations);
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      release(applySequentially(transformations));
+      release(fused.transform(pool, source, TARGET_SIZE, TARGET_SIZE));
+    }
+
+    long sequentialMisses = pool.missCount();
+    long sequentialHits = pool.hitCount();
+    long startTime = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      release(applySequentially(transformations));
+    }
+    long sequentialNanos = (System.nanoTime() - startTime) / ITERATIONS;
+    long sequentialGets =
+        pool.missCount() - sequentialMisses + pool.hitCount() - sequentialHits;
+
+    long fusedMisses = pool.missCount();
+    long fusedHits = pool.hitCount();
+    startTime = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      release(fused.transform(pool, source, TARGET_SIZE, TARGET_SIZE));
+    }
+    long fusedNanos = (System.nanoTime() - startTime) / ITERATIONS;
+    long fusedGets = pool.missCount() - fusedMisses + pool.hitCount() - fusedHits;
+
+    report(name, "sequential", sequentialNanos, sequentialGets);
+    report(name, "fused", fusedNanos, fusedGets);
+  }
+
+  /** Applies each transformation to the output of the last, as MultiTransformation does. */
+  private Bitmap applySequentially(BitmapTransformation... transformations) {
+    Bitmap previous = source;
+    for (BitmapTransformation transformation : transformations) {
+      Bitmap transformed = transformation.transform(pool, previous, TARGET_SIZE, TARGET_SIZE);
+      if (previous != source && previous != transformed) {
+        pool.put(previous);
+      }
+      previous = transformed;
+    }
+    return previous;
+  }
+
+  private void release(Bitmap bitmap) {
+    if (bitmap != source) {
+      pool.put(bitmap);
+    }
+  }
+
+  private static void report(String name, String mode, long nanosPerOp, long poolGets) {
+    Log.i(
+        TAG,
+        name
+            + ", "
+            + mode
+            + ": "
+            + nanosPerOp
+            + "ns/op, poolGets/op="
+            + (poolGets / (float) ITERATIONS));
+  }
+}
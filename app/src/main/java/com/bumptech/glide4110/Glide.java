@@ -32,7 +32,11 @@ import com.bumptech.glide4110.load.Transformation;
 import com.bumptech.glide4110.load.engine.Engine;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.DirectByteBufferPool;
+import com.bumptech.glide4110.load.engine.cache.AdaptiveMemorySizeController;
+import com.bumptech.glide4110.load.engine.cache.DecodedSourceCache;
 import com.bumptech.glide4110.load.engine.cache.MemoryCache;
+import com.bumptech.glide4110.load.engine.executor.GlideExecutor;
 import com.bumptech.glide4110.load.engine.cache.DiskCache;
 import com.bumptech.glide4110.load.engine.prefill.BitmapPreFiller;
 import com.bumptech.glide4110.load.engine.prefill.PreFillType.Builder;
@@ -65,8 +69,12 @@ import com.bumptech.glide4110.load.resource.bitmap.Downsampler;
 import com.bumptech.glide4110.load.resource.bitmap.ExifInterfaceImageHeaderParser;
 import com.bumptech.glide4110.load.resource.bitmap.InputStreamBitmapImageDecoderResourceDecoder;
 import com.bumptech.glide4110.load.resource.bitmap.ParcelFileDescriptorBitmapDecoder;
+import com.bumptech.glide4110.load.resource.bitmap.RawBitmapDecoder;
+import com.bumptech.glide4110.load.resource.bitmap.RawBitmapEncoder;
 import com.bumptech.glide4110.load.resource.bitmap.ResourceBitmapDecoder;
 import com.bumptech.glide4110.load.resource.bitmap.StreamBitmapDecoder;
+import com.bumptech.glide4110.load.resource.bitmap.TiledImage;
+import com.bumptech.glide4110.load.resource.bitmap.TiledImageDecoder;
 import com.bumptech.glide4110.load.resource.bitmap.UnitBitmapDecoder;
 import com.bumptech.glide4110.load.resource.bitmap.VideoDecoder;
 import com.bumptech.glide4110.load.resource.bytes.ByteBufferRewinder;
@@ -90,6 +98,7 @@ import com.bumptech.glide4110.manager.ConnectivityMonitorFactory;
 import com.bumptech.glide4110.manager.RequestManagerRetriever;
 import com.bumptech.glide4110.module.GlideModule;
 import com.bumptech.glide4110.module.ManifestParser;
+import com.bumptech.glide4110.probe.ImageProber;
 import com.bumptech.glide4110.request.RequestListener;
 import com.bumptech.glide4110.request.RequestOptions;
 import com.bumptech.glide4110.request.target.ImageViewTargetFactory;
@@ -115,6 +124,12 @@ import java.util.Set;
  */
 public class Glide implements ComponentCallbacks2 {
     private static final String DEFAULT_DISK_CACHE_DIR = "image_manager_disk_cache";
+    private static final String DEFAULT_PROBE_INDEX_FILE = "glide_probe_index";
+    // Probes tend to come in bursts, there's no need to keep their threads around in between.
+    private static final long PROBE_THREAD_TIMEOUT_MS = 10_000;
+    // Registry lookups are only resolved in the background after initialization and saved when the
+    // UI is hidden.
+    private static final long REGISTRY_THREAD_TIMEOUT_MS = 1_000;
     private static final String TAG = "Glide";
     private static volatile Glide glide;
     private static volatile boolean isInitializing;
@@ -129,12 +144,30 @@ public class Glide implements ComponentCallbacks2 {
     private final com.bumptech.glide4110.manager.ConnectivityMonitorFactory connectivityMonitorFactory;
     private final List<RequestManager> managers = new ArrayList<>();
     private final RequestOptionsFactory defaultRequestOptionsFactory;
+    @Nullable
+    private final AdaptiveMemorySizeController memorySizeController;
+    @Nullable
+    private final DirectByteBufferPool directByteBufferPool;
+    @Nullable
+    private final DecodedSourceCache decodedSourceCache;
+    @Nullable
+    private RegistryGraphCompiler registryGraphCompiler;
+    @Nullable
+    private GlideExecutor registryExecutor;
     private com.bumptech.glide4110.MemoryCategory memoryCategory = com.bumptech.glide4110.MemoryCategory.NORMAL;
 
     @GuardedBy("this")
     @Nullable
     private BitmapPreFiller bitmapPreFiller;
 
+    @GuardedBy("this")
+    @Nullable
+    private ImageProber imageProber;
+
+    @GuardedBy("this")
+    @Nullable
+    private GlideExecutor probeExecutor;
+
     /**
      * Returns a directory with a default name in the private cache directory of the application to
      * use to store retrieved media and thumbnails.
@@ -238,6 +271,17 @@ public class Glide implements ComponentCallbacks2 {
         if (glide != null) {
             glide.getContext().getApplicationContext().unregisterComponentCallbacks(glide);
             glide.engine.shutdown();
+            if (glide.memorySizeController != null) {
+                glide.memorySizeController.stop();
+            }
+            if (glide.registryExecutor != null) {
+                glide.registryExecutor.shutdownNow();
+            }
+            synchronized (glide) {
+                if (glide.probeExecutor != null) {
+                    glide.probeExecutor.shutdownNow();
+                }
+            }
         }
         glide = null;
     }
@@ -312,10 +356,46 @@ public class Glide implements ComponentCallbacks2 {
         if (annotationGeneratedModule != null) {
             annotationGeneratedModule.registerComponents(applicationContext, glide, glide.registry);
         }
+        // All components are registered, optionally resolve lookups in the background rather than
+        // on the first requests.
+        if (builder.isRegistryGraphCompilationEnabled()) {
+            glide.registryExecutor = newRegistryExecutor();
+            glide.registryGraphCompiler =
+                    new RegistryGraphCompiler(
+                            applicationContext, glide.registry, glide.registryExecutor);
+            glide.registryGraphCompiler.restoreAsync();
+        } else if (builder.isRegistryPrecomputationEnabled()) {
+            glide.registryExecutor = newRegistryExecutor();
+            final Registry registry = glide.registry;
+            glide.registryExecutor.execute(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                registry.freeze();
+                            } catch (RuntimeException e) {
+                                // Lookups that failed here are resolved by requests as usual.
+                                if (Log.isLoggable(TAG, Log.WARN)) {
+                                    Log.w(TAG, "Failed to precompute registry lookups", e);
+                                }
+                            }
+                        }
+                    });
+        }
         applicationContext.registerComponentCallbacks(glide);
+        if (glide.memorySizeController != null) {
+            glide.memorySizeController.start();
+        }
         Glide.glide = glide;
     }
 
+    private static GlideExecutor newRegistryExecutor() {
+        return GlideExecutor.newDiskCacheBuilder()
+                .setName("registry")
+                .setThreadTimeoutMillis(REGISTRY_THREAD_TIMEOUT_MS)
+                .build();
+    }
+
     @Nullable
     @SuppressWarnings({"unchecked", "TryWithIdenticalCatches", "PMD.UnusedFormalParameter"})
     private static com.bumptech.glide4110.GeneratedAppGlideModule getAnnotationGeneratedGlideModules(Context context) {
@@ -370,8 +450,15 @@ public class Glide implements ComponentCallbacks2 {
             @NonNull Map<Class<?>, TransitionOptions<?, ?>> defaultTransitionOptions,
             @NonNull List<RequestListener<Object>> defaultRequestListeners,
             boolean isLoggingRequestOriginsEnabled,
-            boolean isImageDecoderEnabledForBitmaps) {
+            boolean isImageDecoderEnabledForBitmaps,
+            @NonNull GlideMetrics metrics,
+            @Nullable AdaptiveMemorySizeController memorySizeController,
+            @Nullable DirectByteBufferPool directByteBufferPool,
+            @Nullable DecodedSourceCache decodedSourceCache) {
         this.engine = engine;
+        this.memorySizeController = memorySizeController;
+        this.directByteBufferPool = directByteBufferPool;
+        this.decodedSourceCache = decodedSourceCache;
         this.bitmapPool = bitmapPool;
         this.arrayPool = arrayPool;
         this.memoryCache = memoryCache;
@@ -404,12 +491,17 @@ public class Glide implements ComponentCallbacks2 {
         ResourceDecoder<ByteBuffer, Bitmap> byteBufferBitmapDecoder;
         ResourceDecoder<InputStream, Bitmap> streamBitmapDecoder;
         if (isImageDecoderEnabledForBitmaps && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-            streamBitmapDecoder = new InputStreamBitmapImageDecoderResourceDecoder();
+            streamBitmapDecoder = new InputStreamBitmapImageDecoderResourceDecoder(directByteBufferPool);
             byteBufferBitmapDecoder = new ByteBufferBitmapImageDecoderResourceDecoder();
         } else {
             byteBufferBitmapDecoder = new ByteBufferBitmapDecoder(downsampler);
             streamBitmapDecoder = new StreamBitmapDecoder(downsampler, arrayPool);
         }
+        // Only handle resources written by RawBitmapEncoder, so they're tried first.
+        ResourceDecoder<ByteBuffer, Bitmap> byteBufferRawBitmapDecoder =
+                RawBitmapDecoder.byteBuffer(bitmapPool, arrayPool);
+        ResourceDecoder<InputStream, Bitmap> streamRawBitmapDecoder =
+                RawBitmapDecoder.stream(bitmapPool, arrayPool);
 
         ResourceDrawableDecoder resourceDrawableDecoder = new ResourceDrawableDecoder(context);
         ResourceLoader.StreamFactory resourceLoaderStreamFactory =
@@ -419,7 +511,8 @@ public class Glide implements ComponentCallbacks2 {
                 new ResourceLoader.FileDescriptorFactory(resources);
         ResourceLoader.AssetFileDescriptorFactory resourceLoaderAssetFileDescriptorFactory =
                 new ResourceLoader.AssetFileDescriptorFactory(resources);
-        BitmapEncoder bitmapEncoder = new BitmapEncoder(arrayPool);
+        RawBitmapEncoder bitmapEncoder =
+                new RawBitmapEncoder(new BitmapEncoder(arrayPool, metrics), arrayPool, metrics);
 
         BitmapBytesTranscoder bitmapBytesTranscoder = new BitmapBytesTranscoder();
         GifDrawableBytesTranscoder gifDrawableBytesTranscoder = new GifDrawableBytesTranscoder();
@@ -430,6 +523,8 @@ public class Glide implements ComponentCallbacks2 {
                 .append(ByteBuffer.class, new ByteBufferEncoder())
                 .append(InputStream.class, new StreamEncoder(arrayPool))
                 /* Bitmaps */
+                .append(Registry.BUCKET_BITMAP, ByteBuffer.class, Bitmap.class, byteBufferRawBitmapDecoder)
+                .append(Registry.BUCKET_BITMAP, InputStream.class, Bitmap.class, streamRawBitmapDecoder)
                 .append(Registry.BUCKET_BITMAP, ByteBuffer.class, Bitmap.class, byteBufferBitmapDecoder)
                 .append(Registry.BUCKET_BITMAP, InputStream.class, Bitmap.class, streamBitmapDecoder);
 
@@ -439,6 +534,10 @@ public class Glide implements ComponentCallbacks2 {
                     ParcelFileDescriptor.class,
                     Bitmap.class,
                     new ParcelFileDescriptorBitmapDecoder(downsampler));
+            registry.append(
+                    ParcelFileDescriptor.class,
+                    TiledImage.class,
+                    TiledImageDecoder.parcel(imageHeaderParsers, bitmapPool, arrayPool, memoryCache));
         }
 
         registry.append(
@@ -455,6 +554,16 @@ public class Glide implements ComponentCallbacks2 {
                 .append(Registry.BUCKET_BITMAP, Bitmap.class, Bitmap.class, new UnitBitmapDecoder())
                 .append(Bitmap.class, bitmapEncoder)
                 /* BitmapDrawables */
+                .append(
+                        Registry.BUCKET_BITMAP_DRAWABLE,
+                        ByteBuffer.class,
+                        BitmapDrawable.class,
+                        new BitmapDrawableDecoder<>(resources, byteBufferRawBitmapDecoder))
+                .append(
+                        Registry.BUCKET_BITMAP_DRAWABLE,
+                        InputStream.class,
+                        BitmapDrawable.class,
+                        new BitmapDrawableDecoder<>(resources, streamRawBitmapDecoder))
                 .append(
                         Registry.BUCKET_BITMAP_DRAWABLE,
                         ByteBuffer.class,
@@ -488,6 +597,16 @@ public class Glide implements ComponentCallbacks2 {
                         GifDecoder.class,
                         Bitmap.class,
                         new GifFrameResourceDecoder(bitmapPool))
+                /* Tiled images */
+                .append(
+                        InputStream.class,
+                        TiledImage.class,
+                        TiledImageDecoder.stream(imageHeaderParsers, bitmapPool, arrayPool, memoryCache))
+                .append(
+                        ByteBuffer.class,
+                        TiledImage.class,
+                        TiledImageDecoder.byteBuffer(
+                                imageHeaderParsers, bitmapPool, arrayPool, memoryCache))
                 /* Drawables */
                 .append(Uri.class, Drawable.class, resourceDrawableDecoder)
                 .append(
@@ -592,7 +711,9 @@ public class Glide implements ComponentCallbacks2 {
                         defaultRequestListeners,
                         engine,
                         isLoggingRequestOriginsEnabled,
-                        logLevel);
+                        logLevel,
+                        metrics,
+                        decodedSourceCache);
     }
 
     /**
@@ -683,8 +804,15 @@ public class Glide implements ComponentCallbacks2 {
         Util.assertMainThread();
         // memory cache needs to be cleared before bitmap pool to clear re-pooled Bitmaps too. See #687.
         memoryCache.clearMemory();
+        if (decodedSourceCache != null) {
+            // Before the bitmap pool, evicted Bitmaps are returned to it.
+            decodedSourceCache.clearMemory();
+        }
         bitmapPool.clearMemory();
         arrayPool.clearMemory();
+        if (directByteBufferPool != null) {
+            directByteBufferPool.clearMemory();
+        }
     }
 
     /**
@@ -702,8 +830,17 @@ public class Glide implements ComponentCallbacks2 {
         }
         // memory cache needs to be trimmed before bitmap pool to trim re-pooled Bitmaps too. See #687.
         memoryCache.trimMemory(level);
+        if (decodedSourceCache != null) {
+            decodedSourceCache.trimMemory(level);
+        }
         bitmapPool.trimMemory(level);
         arrayPool.trimMemory(level);
+        if (directByteBufferPool != null) {
+            directByteBufferPool.trimMemory(level);
+        }
+        if (registryGraphCompiler != null && level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            registryGraphCompiler.saveAsyncIfChanged();
+        }
     }
 
     /**
@@ -743,9 +880,16 @@ public class Glide implements ComponentCallbacks2 {
     public com.bumptech.glide4110.MemoryCategory setMemoryCategory(@NonNull com.bumptech.glide4110.MemoryCategory memoryCategory) {
         // Engine asserts this anyway when removing resources, fail faster and consistently
         Util.assertMainThread();
-        // memory cache needs to be trimmed before bitmap pool to trim re-pooled Bitmaps too. See #687.
-        memoryCache.setSizeMultiplier(memoryCategory.getMultiplier());
-        bitmapPool.setSizeMultiplier(memoryCategory.getMultiplier());
+        if (memorySizeController != null) {
+            memorySizeController.setBudgetMultiplier(memoryCategory.getMultiplier());
+        } else {
+            // memory cache needs to be trimmed before bitmap pool to trim re-pooled Bitmaps too. See #687.
+            memoryCache.setSizeMultiplier(memoryCategory.getMultiplier());
+            if (decodedSourceCache != null) {
+                decodedSourceCache.setSizeMultiplier(memoryCategory.getMultiplier());
+            }
+            bitmapPool.setSizeMultiplier(memoryCategory.getMultiplier());
+        }
         MemoryCategory oldCategory = this.memoryCategory;
         this.memoryCategory = memoryCategory;
         return oldCategory;
@@ -880,6 +1024,28 @@ public class Glide implements ComponentCallbacks2 {
         return registry;
     }
 
+    /**
+     * Returns the {@link ImageProber} used by {@link RequestManager#probe(List)}, creating it the
+     * first time it's needed so that apps that never probe don't pay for its threads.
+     */
+    @NonNull
+    public synchronized ImageProber getImageProber() {
+        if (imageProber == null) {
+            probeExecutor =
+                    GlideExecutor.newSourceBuilder()
+                            .setName("probe")
+                            .setThreadTimeoutMillis(PROBE_THREAD_TIMEOUT_MS)
+                            .build();
+            imageProber =
+                    new ImageProber(
+                            new File(getContext().getCacheDir(), DEFAULT_PROBE_INDEX_FILE),
+                            registry,
+                            arrayPool,
+                            probeExecutor);
+        }
+        return imageProber;
+    }
+
     boolean removeFromManagers(@NonNull Target<?> target) {
         synchronized (managers) {
             for (RequestManager requestManager : managers) {
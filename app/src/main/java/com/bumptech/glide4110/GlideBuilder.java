@@ -12,13 +12,17 @@ import androidx.core.os.BuildCompat;
 import com.bumptech.glide4110.load.DataSource;
 import com.bumptech.glide4110.load.Transformation;
 import com.bumptech.glide4110.load.engine.Engine;
+import com.bumptech.glide4110.load.engine.EngineOptions;
 import com.bumptech.glide4110.load.engine.GlideException;
 import com.bumptech.glide4110.load.engine.Resource;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPoolAdapter;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.DirectByteBufferPool;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.LruArrayPool;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide4110.load.engine.cache.AdaptiveMemorySizeController;
+import com.bumptech.glide4110.load.engine.cache.DecodedSourceCache;
 import com.bumptech.glide4110.load.engine.cache.DiskCache;
 import com.bumptech.glide4110.load.engine.cache.InternalCacheDiskCacheFactory;
 import com.bumptech.glide4110.load.engine.cache.LruResourceCache;
@@ -69,6 +73,16 @@ public final class GlideBuilder {
     private com.bumptech.glide4110.manager.RequestManagerRetriever.RequestManagerFactory requestManagerFactory;
     private GlideExecutor animationExecutor;
     private boolean isActiveResourceRetentionAllowed;
+    private boolean isEngineLockStripingEnabled;
+    private boolean isSourceFetchCoalescingEnabled;
+    private boolean isEngineProbeKeysEnabled;
+    private boolean isRegistryGraphCompilationEnabled;
+    private boolean isRegistryPrecomputationEnabled;
+    private boolean isAdaptiveMemorySizingEnabled;
+    @Nullable
+    private DirectByteBufferPool directByteBufferPool;
+    @Nullable
+    private GlideMetrics metrics;
     @Nullable
     private List<com.bumptech.glide4110.request.RequestListener<Object>> defaultRequestListeners;
     private boolean isLoggingRequestOriginsEnabled;
@@ -422,6 +436,195 @@ public final class GlideBuilder {
         return this;
     }
 
+    /**
+     * If set to {@code true}, {@link Engine} will guard memory cache lookups and in progress jobs with
+     * a small set of monitors selected by each load's key instead of a single lock on the {@link
+     * Engine}.
+     *
+     * <p>Defaults to {@code false}.
+     *
+     * <p>With the default single lock, every call to start a load on the main thread contends with
+     * every job that completes or is cancelled on Glide's background threads. Enabling lock striping
+     * lets loads and completions for different keys proceed in parallel, which reduces main thread
+     * stalls when many requests are started and finished at once, for example while flinging a large
+     * grid of images.
+     *
+     * <p>This is an experimental API that may be removed in the future.
+     *
+     * @return This builder.
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    @NonNull
+    public GlideBuilder setEngineLockStripingEnabled(boolean isEnabled) {
+        this.isEngineLockStripingEnabled = isEnabled;
+        return this;
+    }
+
+    /**
+     * If set to {@code true}, {@link Engine} will look up resources in memory using a reused key
+     * instead of allocating a new key for every load, and only allocate a key when a new load has to
+     * be started.
+     *
+     * <p>Defaults to {@code false}.
+     *
+     * <p>Most loads started while binding views in a list are satisfied by resources that are
+     * already in memory. Enabling probe keys avoids allocating and hashing a short lived key for each
+     * of those loads, reducing garbage collection while scrolling.
+     *
+     * <p>Keys passed to {@link GlideMetrics} memory cache events may be reused once the event returns
+     * when this is enabled.
+     *
+     * <p>This is an experimental API that may be removed in the future.
+     *
+     * @return This builder.
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    @NonNull
+    public GlideBuilder setEngineProbeKeysEnabled(boolean isEnabled) {
+        this.isEngineProbeKeysEnabled = isEnabled;
+        return this;
+    }
+
+    /**
+     * If set to {@code true}, records the model loaders and load paths resolved while the app runs
+     * and resolves the same ones on a background thread the next time Glide is initialized.
+     *
+     * <p>Defaults to {@code false}, in which case lookups are resolved as described in {@link
+     * #setRegistryPrecomputationEnabled(boolean)}.
+     *
+     * <p>The recorded graph is saved when the app's UI is hidden. It only holds class names, so it
+     * never needs to be invalidated when components change, although lookups for components that
+     * are no longer registered are wasted work until the next save. Apps that initialize Glide on
+     * the main thread during startup benefit the most.
+     *
+     * <p>This is an experimental API that may be removed in the future.
+     *
+     * @return This builder.
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    @NonNull
+    public GlideBuilder setRegistryGraphCompilationEnabled(boolean isEnabled) {
+        this.isRegistryGraphCompilationEnabled = isEnabled;
+        return this;
+    }
+
+    /**
+     * If set to {@code true}, resolves the model loaders and load paths for every registered
+     * component on a background thread once Glide is initialized, so that the first requests for
+     * each type don't have to.
+     *
+     * <p>Defaults to {@code false}, in which case each lookup is resolved by the first request that
+     * needs it. Ignored if {@link #setRegistryGraphCompilationEnabled(boolean)} is enabled, which
+     * resolves lookups in the background itself.
+     *
+     * <p>This is an experimental API that may be removed in the future.
+     *
+     * @return This builder.
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    @NonNull
+    public GlideBuilder setRegistryPrecomputationEnabled(boolean isEnabled) {
+        this.isRegistryPrecomputationEnabled = isEnabled;
+        return this;
+    }
+
+    /**
+     * If set to {@code true}, periodically moves bytes between the memory cache, {@link BitmapPool}
+     * and {@link ArrayPool} based on their observed miss rates, keeping their combined size within
+     * the budget from the {@link MemorySizeCalculator}.
+     *
+     * <p>Defaults to {@code false}. Only the default components and {@link
+     * com.bumptech.glide4110.load.engine.bitmap_recycle.SizeClassBitmapPool} are resized, see
+     * {@link AdaptiveMemorySizeController}. {@link Glide#setMemoryCategory(MemoryCategory)} scales the
+     * whole budget when this is enabled.
+     *
+     * <p>This is an experimental API that may be removed in the future.
+     *
+     * @return This builder.
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    @NonNull
+    public GlideBuilder setAdaptiveMemorySizingEnabled(boolean isEnabled) {
+        this.isAdaptiveMemorySizingEnabled = isEnabled;
+        return this;
+    }
+
+    /**
+     * Sets the {@link DirectByteBufferPool} used to hold encoded image data outside of the Java heap
+     * while it's decoded.
+     *
+     * <p>The pool is only used when {@link android.graphics.ImageDecoder} decodes Bitmaps, which is
+     * opt in, see {@link #setImageDecoderEnabledForBitmaps(boolean)}, and requires API 28. Only
+     * that path reads streams into a {@link java.nio.ByteBuffer}. The default {@link
+     * com.bumptech.glide4110.load.resource.bitmap.Downsampler} path decodes with {@link
+     * android.graphics.BitmapFactory}, which requires its temporary storage and stream buffers to be
+     * heap arrays, so those stay in the {@link ArrayPool} and setting a pool has no effect on them.
+     *
+     * <p>Defaults to {@code null}, in which case streams decoded with {@link
+     * android.graphics.ImageDecoder} are copied into a new buffer through arrays on the heap.
+     *
+     * <p>This is an experimental API that may be removed in the future.
+     *
+     * @param directByteBufferPool The pool to use, or {@code null} to not pool direct buffers.
+     * @return This builder.
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    @NonNull
+    public GlideBuilder setDirectByteBufferPool(@Nullable DirectByteBufferPool directByteBufferPool) {
+        this.directByteBufferPool = directByteBufferPool;
+        return this;
+    }
+
+    /**
+     * Sets the {@link GlideMetrics} that will receive structured events, such as cache hits and
+     * decode times, for every load.
+     *
+     * <p>Defaults to {@link GlideMetrics#NONE}, which ignores all events.
+     *
+     * <p>The default {@link LruBitmapPool} also reports reuse to the given metrics. Custom {@link
+     * BitmapPool}s set via {@link #setBitmapPool(BitmapPool)} do not.
+     *
+     * @param metrics The metrics to use, or {@code null} to use the default.
+     * @return This builder.
+     */
+    @NonNull
+    public GlideBuilder setMetrics(@Nullable GlideMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * If set to {@code true}, concurrent loads of the same model that can write their source data to
+     * the disk cache will share a single fetch, even if they're for different sizes or
+     * transformations.
+     *
+     * <p>Defaults to {@code false}.
+     *
+     * <p>The first load to start fetches and caches the data as usual. Loads that start while that
+     * fetch is in progress wait without holding a thread, then decode from the disk cache
+     * independently. If the first fetch fails or can't be cached, the waiting loads fetch the data
+     * themselves. Only loads whose {@link com.bumptech.glide4110.load.engine.DiskCacheStrategy}
+     * caches source data, such as the default {@link
+     * com.bumptech.glide4110.load.engine.DiskCacheStrategy#AUTOMATIC} for remote urls, are affected.
+     *
+     * <p>This is an experimental API that may be removed in the future.
+     *
+     * @return This builder.
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    @NonNull
+    public GlideBuilder setSourceFetchCoalescingEnabled(boolean isEnabled) {
+        this.isSourceFetchCoalescingEnabled = isEnabled;
+        return this;
+    }
+
     /**
      * Adds a global {@link com.bumptech.glide4110.request.RequestListener} that will be added to every request started with Glide.
      *
@@ -506,6 +709,14 @@ public final class GlideBuilder {
         return this;
     }
 
+    boolean isRegistryGraphCompilationEnabled() {
+        return isRegistryGraphCompilationEnabled;
+    }
+
+    boolean isRegistryPrecomputationEnabled() {
+        return isRegistryPrecomputationEnabled;
+    }
+
     @NonNull
     Glide build(@NonNull Context context) {
         if (sourceExecutor == null) {//资源线程池
@@ -528,11 +739,15 @@ public final class GlideBuilder {
             connectivityMonitorFactory = new DefaultConnectivityMonitorFactory();
         }
 
+        if (metrics == null) {
+            metrics = GlideMetrics.NONE;
+        }
+
         //创建Lru图片缓存池
         if (bitmapPool == null) {
             int size = memorySizeCalculator.getBitmapPoolSize();
             if (size > 0) {
-                bitmapPool = new LruBitmapPool(size);
+                bitmapPool = new LruBitmapPool(size, metrics);
             } else {
                 bitmapPool = new BitmapPoolAdapter();
             }
@@ -547,6 +762,19 @@ public final class GlideBuilder {
             memoryCache = new LruResourceCache(memorySizeCalculator.getMemoryCacheSize());
         }
 
+        DecodedSourceCache decodedSourceCache = null;
+        if (memorySizeCalculator.getDecodedSourceCacheSize() > 0) {
+            decodedSourceCache =
+                    new DecodedSourceCache(memorySizeCalculator.getDecodedSourceCacheSize(), bitmapPool);
+        }
+
+        GlideMetrics glideMetrics = metrics;
+        AdaptiveMemorySizeController memorySizeController = null;
+        if (isAdaptiveMemorySizingEnabled) {
+            memorySizeController = new AdaptiveMemorySizeController(memoryCache, bitmapPool, arrayPool);
+            glideMetrics = memorySizeController.wrapMetrics(metrics);
+        }
+
         //磁盘缓存Factory 核心缓存类是DiskLruCacheWrapper
         if (diskCacheFactory == null) {
             diskCacheFactory = new InternalCacheDiskCacheFactory(context);
@@ -561,7 +789,12 @@ public final class GlideBuilder {
                             sourceExecutor,
                             GlideExecutor.newUnlimitedSourceExecutor(),
                             animationExecutor,
-                            isActiveResourceRetentionAllowed);
+                            isActiveResourceRetentionAllowed,
+                            new EngineOptions.Builder()
+                                    .setLockStripingEnabled(isEngineLockStripingEnabled)
+                                    .setSourceFetchCoalescingEnabled(isSourceFetchCoalescingEnabled)
+                                    .setProbeKeyEnabled(isEngineProbeKeysEnabled)
+                                    .build());
         }
 
         if (defaultRequestListeners == null) {
@@ -587,6 +820,10 @@ public final class GlideBuilder {
                 defaultTransitionOptions,
                 defaultRequestListeners,
                 isLoggingRequestOriginsEnabled,
-                isImageDecoderEnabledForBitmaps);
+                isImageDecoderEnabledForBitmaps,
+                glideMetrics,
+                memorySizeController,
+                directByteBufferPool,
+                decodedSourceCache);
     }
 }
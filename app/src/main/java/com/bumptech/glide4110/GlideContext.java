@@ -11,6 +11,7 @@ import androidx.annotation.VisibleForTesting;
 import com.bumptech.glide4110.load.engine.Engine;
 import com.bumptech.glide4110.load.engine.GlideException;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide4110.load.engine.cache.DecodedSourceCache;
 import com.bumptech.glide4110.request.RequestListener;
 import com.bumptech.glide4110.request.RequestOptions;
 import com.bumptech.glide4110.request.target.ImageViewTargetFactory;
@@ -38,6 +39,8 @@ public class GlideContext extends ContextWrapper {
   private final Engine engine;
   private final boolean isLoggingRequestOriginsEnabled;
   private final int logLevel;
+  private final GlideMetrics metrics;
+  @Nullable private final DecodedSourceCache decodedSourceCache;
 
   @Nullable
   @GuardedBy("this")
@@ -53,7 +56,9 @@ public class GlideContext extends ContextWrapper {
       @NonNull List<com.bumptech.glide4110.request.RequestListener<Object>> defaultRequestListeners,
       @NonNull Engine engine,
       boolean isLoggingRequestOriginsEnabled,
-      int logLevel) {
+      int logLevel,
+      @NonNull GlideMetrics metrics,
+      @Nullable DecodedSourceCache decodedSourceCache) {
     super(context.getApplicationContext());
     this.arrayPool = arrayPool;
     this.registry = registry;
@@ -64,6 +69,8 @@ public class GlideContext extends ContextWrapper {
     this.engine = engine;
     this.isLoggingRequestOriginsEnabled = isLoggingRequestOriginsEnabled;
     this.logLevel = logLevel;
+    this.metrics = metrics;
+    this.decodedSourceCache = decodedSourceCache;
   }
 
   public List<RequestListener<Object>> getDefaultRequestListeners() {
@@ -120,6 +127,20 @@ public class GlideContext extends ContextWrapper {
     return arrayPool;
   }
 
+  /** Returns the {@link GlideMetrics} that receives events for every load. */
+  @NonNull
+  public GlideMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Returns the cache of decoded but untransformed Bitmaps, or {@code null} if it's disabled.
+   */
+  @Nullable
+  public DecodedSourceCache getDecodedSourceCache() {
+    return decodedSourceCache;
+  }
+
   /**
    * Returns {@code true} if Glide should populate {@link
    * GlideException#setOrigin(Exception)} for failed requests.
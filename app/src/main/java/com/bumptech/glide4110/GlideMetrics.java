@@ -0,0 +1,164 @@
+package com.bumptech.glide4110;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.DataSource;
+import com.bumptech.glide4110.load.Key;
+
+/**
+ * Receives structured events from the hot paths of every load.
+ *
+ * <p>Unlike {@link com.bumptech.glide4110.util.LogTime} based logging, which only runs when a tag
+ * is loggable and produces strings, these events are cheap enough to leave enabled in production.
+ * The default implementation, {@link #NONE}, ignores every event, and Glide only allocates to
+ * report an event, to count the bytes of streamed data, when another implementation is set via
+ * {@link GlideBuilder#setMetrics(GlideMetrics)}, so there's no cost to the hooks otherwise.
+ *
+ * <p>Methods are called synchronously on whichever thread produced the event, often the main thread
+ * for memory cache events and one of Glide's executors for everything else, and possibly on several
+ * threads at once. Implementations must be thread safe and should return quickly, for example by
+ * incrementing counters or adding to a histogram. Durations are in nanoseconds measured with {@link
+ * System#nanoTime()}. {@link Key}s must not be retained beyond the call that receives them, they
+ * may be reused for other loads.
+ *
+ * <p>Extend {@link Empty} to only override the events you're interested in.
+ */
+public interface GlideMetrics {
+  /** An implementation that ignores all events. */
+  GlideMetrics NONE = new Empty();
+
+  /** Called when a load is satisfied by a resource that is already in use elsewhere. */
+  void onActiveResourceHit(@NonNull Key key);
+
+  /** Called when a load is satisfied by the {@link com.bumptech.glide4110.load.engine.cache.MemoryCache}. */
+  void onMemoryCacheHit(@NonNull Key key);
+
+  /** Called when a memory cacheable load misses both active resources and the memory cache. */
+  void onMemoryCacheMiss(@NonNull Key key);
+
+  /**
+   * Called when the disk cache contains the given key.
+   *
+   * @param dataSource Either {@link DataSource#DATA_DISK_CACHE} for unmodified source data or
+   *     {@link DataSource#RESOURCE_DISK_CACHE} for transformed resources.
+   */
+  void onDiskCacheHit(@NonNull Key key, @NonNull DataSource dataSource);
+
+  /**
+   * Called when the disk cache does not contain the given key.
+   *
+   * @param dataSource See {@link #onDiskCacheHit(Key, DataSource)}.
+   */
+  void onDiskCacheMiss(@NonNull Key key, @NonNull DataSource dataSource);
+
+  /**
+   * Called when a {@link com.bumptech.glide4110.load.data.DataFetcher} has loaded all of its source
+   * data.
+   *
+   * <p>Streamed data is counted as it's read, by the disk cache or by a decoder, and reported once
+   * the end of the stream is reached, so nothing is reported for streams that aren't read to the
+   * end. Measuring a stream allocates a wrapper, which only happens when metrics are enabled.
+   *
+   * @param bytes The size of the data, or {@code -1} for data other than streams, buffers, arrays
+   *     and files.
+   * @param elapsedNanos The time between starting the fetch and the last byte being read, or the
+   *     data becoming available if it isn't a stream.
+   */
+  void onDataFetched(
+      @NonNull Class<?> dataClass, @NonNull DataSource dataSource, long bytes, long elapsedNanos);
+
+  /**
+   * Called when data has been decoded into a resource, before any transformation is applied.
+   *
+   * @param elapsedNanos The time spent decoding, including any failed attempts with other decoders.
+   */
+  void onResourceDecoded(
+      @NonNull Class<?> dataClass, @NonNull Class<?> resourceClass, long elapsedNanos);
+
+  /** Called when a {@link com.bumptech.glide4110.load.Transformation} has been applied. */
+  void onResourceTransformed(@NonNull Class<?> resourceClass, long elapsedNanos);
+
+  /**
+   * Called when a transformed resource has been written to the disk cache.
+   *
+   * @param format The name of the format it was written in, for example {@code WEBP_LOSSY}.
+   * @param bytes The size of the written file.
+   * @param elapsedNanos The time spent choosing a format and encoding.
+   */
+  void onResourceEncoded(
+      @NonNull Class<?> resourceClass, @NonNull String format, long bytes, long elapsedNanos);
+
+  /** Called when the {@link com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool} reuses a Bitmap. */
+  void onBitmapPoolHit(int width, int height, @Nullable Bitmap.Config config);
+
+  /**
+   * Called when the {@link com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool} has no
+   * Bitmap to reuse and a new one must be allocated.
+   */
+  void onBitmapPoolMiss(int width, int height, @Nullable Bitmap.Config config);
+
+  /** A {@link GlideMetrics} that ignores all events, suitable for extending. */
+  class Empty implements GlideMetrics {
+
+    @Override
+    public void onActiveResourceHit(@NonNull Key key) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onMemoryCacheHit(@NonNull Key key) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onMemoryCacheMiss(@NonNull Key key) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onDiskCacheHit(@NonNull Key key, @NonNull DataSource dataSource) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onDiskCacheMiss(@NonNull Key key, @NonNull DataSource dataSource) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onDataFetched(
+        @NonNull Class<?> dataClass, @NonNull DataSource dataSource, long bytes, long elapsedNanos) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onResourceDecoded(
+        @NonNull Class<?> dataClass, @NonNull Class<?> resourceClass, long elapsedNanos) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onResourceTransformed(@NonNull Class<?> resourceClass, long elapsedNanos) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onResourceEncoded(
+        @NonNull Class<?> resourceClass, @NonNull String format, long bytes, long elapsedNanos) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onBitmapPoolHit(int width, int height, @Nullable Bitmap.Config config) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onBitmapPoolMiss(int width, int height, @Nullable Bitmap.Config config) {
+      // Do nothing.
+    }
+  }
+}
@@ -1,20 +1,12 @@
 package com.bumptech.glide4110;
 
-import android.graphics.drawable.Drawable;
 import android.widget.AbsListView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.bumptech.glide4110.util.Util;
-import com.bumptech.glide4110.request.Request;
 import com.bumptech.glide4110.request.RequestOptions;
-import com.bumptech.glide4110.request.target.SizeReadyCallback;
-import com.bumptech.glide4110.request.target.Target;
-import com.bumptech.glide4110.request.transition.Transition;
-import com.bumptech.glide4110.util.Synthetic;
 
 import java.util.List;
-import java.util.Queue;
 
 /**
  * Loads a few resources ahead in the direction of scrolling in any {@link AbsListView} so that
@@ -22,6 +14,9 @@ import java.util.Queue;
  * the appearance of an infinitely large image cache, depending on scrolling speed, cpu speed, and
  * cache size.
  *
+ * <p>How far ahead is predicted from the scroll velocity by a {@link PredictivePreloader}, up to
+ * {@code maxPreload} items.
+ *
  * <p>Must be put using {@link
  * AbsListView#setOnScrollListener(AbsListView.OnScrollListener)}, or have its
  * corresponding methods called from another {@link AbsListView.OnScrollListener} to
@@ -30,18 +25,7 @@ import java.util.Queue;
  * @param <T> The type of the model being displayed in the list.
  */
 public class ListPreloader<T> implements AbsListView.OnScrollListener {
-  private final int maxPreload;
-  private final PreloadTargetQueue preloadTargetQueue;
-  private final RequestManager requestManager;
-  private final PreloadModelProvider<T> preloadModelProvider;
-  private final PreloadSizeProvider<T> preloadDimensionProvider;
-
-  private int lastEnd;
-  private int lastStart;
-  private int lastFirstVisible = -1;
-  private int totalItemCount;
-
-  private boolean isIncreasing = true;
+  private final PredictivePreloader<T> preloader;
 
   /**
    * An implementation of PreloadModelProvider should provide all the models that should be
@@ -129,11 +113,9 @@ public class ListPreloader<T> implements AbsListView.OnScrollListener {
       @NonNull PreloadModelProvider<T> preloadModelProvider,
       @NonNull PreloadSizeProvider<T> preloadDimensionProvider,
       int maxPreload) {
-    this.requestManager = requestManager;
-    this.preloadModelProvider = preloadModelProvider;
-    this.preloadDimensionProvider = preloadDimensionProvider;
-    this.maxPreload = maxPreload;
-    preloadTargetQueue = new PreloadTargetQueue(maxPreload + 1);
+    preloader =
+        new PredictivePreloader<>(
+            requestManager, preloadModelProvider, preloadDimensionProvider, maxPreload);
   }
 
   @Override
@@ -144,177 +126,20 @@ public class ListPreloader<T> implements AbsListView.OnScrollListener {
   @Override
   public void onScroll(
       AbsListView absListView, int firstVisible, int visibleCount, int totalCount) {
-    totalItemCount = totalCount;
-    if (firstVisible > lastFirstVisible) {
-      preload(firstVisible + visibleCount, true);
-    } else if (firstVisible < lastFirstVisible) {
-      preload(firstVisible, false);
-    }
-    lastFirstVisible = firstVisible;
-  }
-
-  private void preload(int start, boolean increasing) {
-    if (isIncreasing != increasing) {
-      isIncreasing = increasing;
-      cancelAll();
-    }
-    preload(start, start + (increasing ? maxPreload : -maxPreload));
-  }
-
-  private void preload(int from, int to) {
-    int start;
-    int end;
-    if (from < to) {
-      start = Math.max(lastEnd, from);
-      end = to;
-    } else {
-      start = to;
-      end = Math.min(lastStart, from);
-    }
-    end = Math.min(totalItemCount, end);
-    start = Math.min(totalItemCount, Math.max(0, start));
-
-    if (from < to) {
-      // Increasing
-      for (int i = start; i < end; i++) {
-        preloadAdapterPosition(preloadModelProvider.getPreloadItems(i), i, true);
-      }
-    } else {
-      // Decreasing
-      for (int i = end - 1; i >= start; i--) {
-        preloadAdapterPosition(preloadModelProvider.getPreloadItems(i), i, false);
-      }
-    }
-
-    lastStart = start;
-    lastEnd = end;
+    preloader.onScrolled(firstVisible, visibleCount, totalCount);
   }
 
-  private void preloadAdapterPosition(List<T> items, int position, boolean isIncreasing) {
-    final int numItems = items.size();
-    if (isIncreasing) {
-      for (int i = 0; i < numItems; ++i) {
-        preloadItem(items.get(i), position, i);
-      }
-    } else {
-      for (int i = numItems - 1; i >= 0; --i) {
-        preloadItem(items.get(i), position, i);
-      }
-    }
-  }
-
-  @SuppressWarnings("unchecked")
-  private void preloadItem(@Nullable T item, int position, int perItemPosition) {
-    if (item == null) {
-      return;
-    }
-    int[] dimensions = preloadDimensionProvider.getPreloadSize(item, position, perItemPosition);
-    if (dimensions == null) {
-      return;
-    }
-    RequestBuilder<Object> preloadRequestBuilder =
-        (RequestBuilder<Object>) preloadModelProvider.getPreloadRequestBuilder(item);
-    if (preloadRequestBuilder == null) {
-      return;
-    }
-
-    preloadRequestBuilder.into(preloadTargetQueue.next(dimensions[0], dimensions[1]));
-  }
-
-  private void cancelAll() {
-    for (int i = 0; i < preloadTargetQueue.queue.size(); i++) {
-      requestManager.clear(preloadTargetQueue.next(0, 0));
-    }
-  }
-
-  private static final class PreloadTargetQueue {
-    @com.bumptech.glide4110.util.Synthetic
-    final Queue<PreloadTarget> queue;
-
-    // The loop is short and the only point is to create the objects.
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-    PreloadTargetQueue(int size) {
-      queue = Util.createQueue(size);
-
-      for (int i = 0; i < size; i++) {
-        queue.offer(new PreloadTarget());
-      }
-    }
-
-    public PreloadTarget next(int width, int height) {
-      final PreloadTarget result = queue.poll();
-      queue.offer(result);
-      result.photoWidth = width;
-      result.photoHeight = height;
-      return result;
-    }
+  /**
+   * Call from {@link android.widget.Adapter#getView(int, android.view.View,
+   * android.view.ViewGroup)} to include the position in {@link #getStats()}.
+   */
+  public void onBind(int position) {
+    preloader.onBind(position);
   }
 
-  private static final class PreloadTarget implements Target<Object> {
-    @com.bumptech.glide4110.util.Synthetic
-    int photoHeight;
-    @com.bumptech.glide4110.util.Synthetic
-    int photoWidth;
-    @Nullable private com.bumptech.glide4110.request.Request request;
-
-    @Synthetic
-    PreloadTarget() {}
-
-    @Override
-    public void onLoadStarted(@Nullable Drawable placeholder) {
-      // Do nothing.
-    }
-
-    @Override
-    public void onLoadFailed(@Nullable Drawable errorDrawable) {
-      // Do nothing.
-    }
-
-    @Override
-    public void onResourceReady(
-        @NonNull Object resource, @Nullable Transition<? super Object> transition) {
-      // Do nothing.
-    }
-
-    @Override
-    public void onLoadCleared(@Nullable Drawable placeholder) {
-      // Do nothing.
-    }
-
-    @Override
-    public void getSize(@NonNull com.bumptech.glide4110.request.target.SizeReadyCallback cb) {
-      cb.onSizeReady(photoWidth, photoHeight);
-    }
-
-    @Override
-    public void removeCallback(@NonNull SizeReadyCallback cb) {
-      // Do nothing because we don't retain references to SizeReadyCallbacks.
-    }
-
-    @Override
-    public void setRequest(@Nullable com.bumptech.glide4110.request.Request request) {
-      this.request = request;
-    }
-
-    @Nullable
-    @Override
-    public Request getRequest() {
-      return request;
-    }
-
-    @Override
-    public void onStart() {
-      // Do nothing.
-    }
-
-    @Override
-    public void onStop() {
-      // Do nothing.
-    }
-
-    @Override
-    public void onDestroy() {
-      // Do nothing.
-    }
+  /** Returns how many items were preloaded before they were bound, see {@link #onBind(int)}. */
+  @NonNull
+  public PredictivePreloader.Stats getStats() {
+    return preloader.getStats();
   }
 }
@@ -0,0 +1,418 @@
+package com.bumptech.glide4110;
+
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.SparseArray;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.ListPreloader.PreloadModelProvider;
+import com.bumptech.glide4110.ListPreloader.PreloadSizeProvider;
+import com.bumptech.glide4110.request.Request;
+import com.bumptech.glide4110.request.target.SizeReadyCallback;
+import com.bumptech.glide4110.request.target.Target;
+import com.bumptech.glide4110.request.transition.Transition;
+import com.bumptech.glide4110.util.Synthetic;
+import com.bumptech.glide4110.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Loads resources for the items a list is about to show, sized by how fast the list is scrolling,
+ * so that they're in the memory cache by the time their views are bound.
+ *
+ * <p>The scroll velocity, in items per millisecond, is estimated from successive calls to {@link
+ * #onScrolled(float, int, int)}, typically one per frame, and used to predict where the list will
+ * be once a load has had time to finish. Slow scrolls preload at least a screen ahead, faster
+ * scrolls preload further. Flings faster than loads can keep up with skip the items that will only
+ * flash by and preload the items around the predicted position instead. At most {@code
+ * maxPreload} positions are preloaded at once.
+ *
+ * <p>Items are loaded in the order they're expected to appear. The next screen of items is loaded
+ * with {@link Priority#HIGH}, the one after with {@link Priority#NORMAL} and the rest with {@link
+ * Priority#LOW}. Loads for items that are neither visible nor predicted to become visible, for
+ * example after the user reverses direction, are cancelled with {@link
+ * RequestManager#clear(Target)}.
+ *
+ * <p>Hit rates are available from {@link #getStats()} if {@link #onBind(int)} is called as items
+ * are bound.
+ *
+ * <p>This class works with plain positions. {@link ListPreloader} and {@code
+ * com.bumptech.glide4110.integration.recyclerview.RecyclerViewPreloader} drive it from {@link
+ * android.widget.AbsListView}s and RecyclerViews. All methods must be called on the main thread.
+ *
+ * @param <T> The type of the model being displayed in the list.
+ */
+public class PredictivePreloader<T> {
+  // Roughly how long a preload takes from the disk cache, items predicted to become visible sooner
+  // than this are preloaded now.
+  private static final long DEFAULT_LOOKAHEAD_MILLIS = 500;
+  // A gap this long between updates means scrolling stopped in between, so older samples are
+  // ignored.
+  private static final long MAX_SAMPLE_GAP_MILLIS = 100;
+  // Weight of the newest sample in the smoothed velocity, per frame positions only change in whole
+  // items for lists without partial offsets.
+  private static final float VELOCITY_SMOOTHING = 0.3f;
+
+  private final RequestManager requestManager;
+  private final PreloadModelProvider<T> preloadModelProvider;
+  private final PreloadSizeProvider<T> preloadDimensionProvider;
+  private final int maxPreload;
+  private final long lookaheadMillis;
+  private final SparseArray<List<PreloadTarget>> activeTargets = new SparseArray<>();
+  private final Queue<PreloadTarget> targetPool = Util.createQueue(0);
+  private final Stats stats = new Stats();
+
+  private boolean hasPosition;
+  private float lastPosition;
+  private long lastUpdateMillis;
+  // Items per millisecond, negative when scrolling towards the start of the list.
+  private float velocity;
+  private boolean isIncreasing = true;
+
+  private int visibleStart;
+  private int visibleEnd;
+  private int windowStart;
+  private int windowEnd;
+
+  /**
+   * @param preloadModelProvider Provides models to load and requests capable of loading them.
+   * @param preloadDimensionProvider Provides the dimensions of images to load.
+   * @param maxPreload Maximum number of positions to preload.
+   */
+  public PredictivePreloader(
+      @NonNull RequestManager requestManager,
+      @NonNull PreloadModelProvider<T> preloadModelProvider,
+      @NonNull PreloadSizeProvider<T> preloadDimensionProvider,
+      int maxPreload) {
+    this(
+        requestManager,
+        preloadModelProvider,
+        preloadDimensionProvider,
+        maxPreload,
+        DEFAULT_LOOKAHEAD_MILLIS);
+  }
+
+  /**
+   * @param lookaheadMillis How far ahead to predict the scroll position, roughly how long a load
+   *     takes.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public PredictivePreloader(
+      @NonNull RequestManager requestManager,
+      @NonNull PreloadModelProvider<T> preloadModelProvider,
+      @NonNull PreloadSizeProvider<T> preloadDimensionProvider,
+      int maxPreload,
+      long lookaheadMillis) {
+    this.requestManager = requestManager;
+    this.preloadModelProvider = preloadModelProvider;
+    this.preloadDimensionProvider = preloadDimensionProvider;
+    this.maxPreload = maxPreload;
+    this.lookaheadMillis = lookaheadMillis;
+  }
+
+  /**
+   * Updates the predicted range of items and starts or cancels preloads to match.
+   *
+   * @param firstVisiblePosition The position of the first visible item, plus the fraction of it
+   *     that's scrolled out of view if it's known. Fractions give smoother velocity estimates, but
+   *     whole positions work too.
+   * @param visibleCount The number of visible items.
+   * @param totalCount The number of items in the list.
+   */
+  public void onScrolled(float firstVisiblePosition, int visibleCount, int totalCount) {
+    long now = SystemClock.uptimeMillis();
+    if (hasPosition) {
+      long elapsed = now - lastUpdateMillis;
+      if (elapsed > 0) {
+        float sample = (firstVisiblePosition - lastPosition) / elapsed;
+        velocity =
+            elapsed > MAX_SAMPLE_GAP_MILLIS
+                ? sample
+                : velocity + VELOCITY_SMOOTHING * (sample - velocity);
+        lastPosition = firstVisiblePosition;
+        lastUpdateMillis = now;
+      }
+    } else {
+      hasPosition = true;
+      lastPosition = firstVisiblePosition;
+      lastUpdateMillis = now;
+    }
+    if (velocity != 0) {
+      isIncreasing = velocity > 0;
+    }
+
+    visibleStart = Math.max(0, Math.min(totalCount, (int) firstVisiblePosition));
+    visibleEnd = Math.min(totalCount, visibleStart + visibleCount);
+    float predicted = firstVisiblePosition + velocity * lookaheadMillis;
+    // Always at least the next screen, so slow scrolls don't fall behind.
+    int minPreload = Math.min(maxPreload, Math.max(1, visibleCount));
+    if (isIncreasing) {
+      int predictedEnd = (int) Math.ceil(predicted) + visibleCount;
+      int end = Math.max(visibleEnd + minPreload, predictedEnd);
+      windowEnd = Math.min(totalCount, end);
+      windowStart = Math.min(windowEnd, Math.max(visibleEnd, end - maxPreload));
+    } else {
+      int predictedStart = (int) Math.floor(predicted);
+      int start = Math.min(visibleStart - minPreload, predictedStart);
+      windowStart = Math.max(0, start);
+      windowEnd = Math.max(windowStart, Math.min(visibleStart, start + maxPreload));
+    }
+
+    cancelStale();
+    preloadWindow(visibleCount);
+  }
+
+  /**
+   * Records whether the item at the given position was preloaded before it was bound, see {@link
+   * #getStats()}.
+   */
+  public void onBind(int position) {
+    if (!hasPosition) {
+      // The first screen is bound before there's anything to predict.
+      return;
+    }
+    List<PreloadTarget> targets = activeTargets.get(position);
+    if (targets == null) {
+      stats.notPreloaded++;
+      return;
+    }
+    for (int i = 0, size = targets.size(); i < size; i++) {
+      Request request = targets.get(i).getRequest();
+      if (request == null || !request.isComplete()) {
+        stats.inFlightAtBind++;
+        return;
+      }
+    }
+    stats.preloadedBeforeBind++;
+  }
+
+  /** Cancels all preloads and forgets the scroll position and velocity. */
+  public void clear() {
+    for (int i = activeTargets.size() - 1; i >= 0; i--) {
+      clearTargets(activeTargets.valueAt(i));
+    }
+    activeTargets.clear();
+    hasPosition = false;
+    velocity = 0;
+  }
+
+  /** Returns the counts recorded so far. */
+  @NonNull
+  public Stats getStats() {
+    return stats;
+  }
+
+  private void cancelStale() {
+    for (int i = activeTargets.size() - 1; i >= 0; i--) {
+      int position = activeTargets.keyAt(i);
+      boolean isVisible = position >= visibleStart && position < visibleEnd;
+      boolean isPredicted = position >= windowStart && position < windowEnd;
+      if (!isVisible && !isPredicted) {
+        clearTargets(activeTargets.valueAt(i));
+        activeTargets.removeAt(i);
+      }
+    }
+  }
+
+  private void clearTargets(List<PreloadTarget> targets) {
+    for (int i = 0, size = targets.size(); i < size; i++) {
+      PreloadTarget target = targets.get(i);
+      Request request = target.getRequest();
+      if (request != null && !request.isComplete()) {
+        stats.cancelled++;
+      }
+      // Completed preloads are released to the memory cache rather than thrown away.
+      requestManager.clear(target);
+      targetPool.offer(target);
+    }
+  }
+
+  private void preloadWindow(int visibleCount) {
+    int count = windowEnd - windowStart;
+    int screen = Math.max(1, visibleCount);
+    for (int rank = 0; rank < count; rank++) {
+      int position = isIncreasing ? windowStart + rank : windowEnd - 1 - rank;
+      if (activeTargets.get(position) != null) {
+        continue;
+      }
+      Priority priority =
+          rank < screen ? Priority.HIGH : rank < 2 * screen ? Priority.NORMAL : Priority.LOW;
+      preloadAdapterPosition(position, priority);
+    }
+  }
+
+  private void preloadAdapterPosition(int position, Priority priority) {
+    List<T> items = preloadModelProvider.getPreloadItems(position);
+    List<PreloadTarget> targets = new ArrayList<>(items.size());
+    for (int i = 0, size = items.size(); i < size; i++) {
+      PreloadTarget target = preloadItem(items.get(i), position, i, priority);
+      if (target != null) {
+        targets.add(target);
+      }
+    }
+    // Recorded even if empty so the position isn't asked for its items again every frame.
+    activeTargets.put(position, targets);
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private PreloadTarget preloadItem(
+      @Nullable T item, int position, int perItemPosition, Priority priority) {
+    if (item == null) {
+      return null;
+    }
+    int[] dimensions = preloadDimensionProvider.getPreloadSize(item, position, perItemPosition);
+    if (dimensions == null) {
+      return null;
+    }
+    RequestBuilder<Object> preloadRequestBuilder =
+        (RequestBuilder<Object>) preloadModelProvider.getPreloadRequestBuilder(item);
+    if (preloadRequestBuilder == null) {
+      return null;
+    }
+    PreloadTarget target = targetPool.poll();
+    if (target == null) {
+      target = new PreloadTarget();
+    }
+    target.photoWidth = dimensions[0];
+    target.photoHeight = dimensions[1];
+    // Providers often return the same builder for every item, which priority() would modify.
+    preloadRequestBuilder.clone().priority(priority).into(target);
+    stats.requested++;
+    return target;
+  }
+
+  /**
+   * Counts of preloads and of whether items were preloaded by the time they were bound.
+   *
+   * <p>Values are cumulative and read and written on the main thread.
+   */
+  public static final class Stats {
+    @Synthetic int requested;
+    @Synthetic int cancelled;
+    @Synthetic int preloadedBeforeBind;
+    @Synthetic int inFlightAtBind;
+    @Synthetic int notPreloaded;
+
+    @Synthetic
+    Stats() {}
+
+    /** Returns the number of preloads started. */
+    public int getRequested() {
+      return requested;
+    }
+
+    /** Returns the number of preloads cancelled before they finished. */
+    public int getCancelled() {
+      return cancelled;
+    }
+
+    /** Returns the number of binds whose items had all finished preloading. */
+    public int getPreloadedBeforeBind() {
+      return preloadedBeforeBind;
+    }
+
+    /** Returns the number of binds whose items were still preloading. */
+    public int getInFlightAtBind() {
+      return inFlightAtBind;
+    }
+
+    /** Returns the number of binds whose items were never preloaded. */
+    public int getNotPreloaded() {
+      return notPreloaded;
+    }
+
+    /** Returns the fraction of binds whose items had finished preloading, or 0 with no binds. */
+    public float getHitRate() {
+      int binds = preloadedBeforeBind + inFlightAtBind + notPreloaded;
+      return binds == 0 ? 0f : (float) preloadedBeforeBind / binds;
+    }
+
+    @Override
+    public String toString() {
+      return "Stats{"
+          + "requested="
+          + requested
+          + ", cancelled="
+          + cancelled
+          + ", preloadedBeforeBind="
+          + preloadedBeforeBind
+          + ", inFlightAtBind="
+          + inFlightAtBind
+          + ", notPreloaded="
+          + notPreloaded
+          + '}';
+    }
+  }
+
+  private static final class PreloadTarget implements Target<Object> {
+    @Synthetic int photoHeight;
+    @Synthetic int photoWidth;
+    @Nullable private Request request;
+
+    @Synthetic
+    PreloadTarget() {}
+
+    @Override
+    public void onLoadStarted(@Nullable Drawable placeholder) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onLoadFailed(@Nullable Drawable errorDrawable) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onResourceReady(
+        @NonNull Object resource, @Nullable Transition<? super Object> transition) {
+      // Do nothing.
+    }
+
+    @Override
+    public void onLoadCleared(@Nullable Drawable placeholder) {
+      // Do nothing.
+    }
+
+    @Override
+    public void getSize(@NonNull SizeReadyCallback cb) {
+      cb.onSizeReady(photoWidth, photoHeight);
+    }
+
+    @Override
+    public void removeCallback(@NonNull SizeReadyCallback cb) {
+      // Do nothing because we don't retain references to SizeReadyCallbacks.
+    }
+
+    @Override
+    public void setRequest(@Nullable Request request) {
+      this.request = request;
+    }
+
+    @Nullable
+    @Override
+    public Request getRequest() {
+      return request;
+    }
+
+    @Override
+    public void onStart() {
+      // Do nothing.
+    }
+
+    @Override
+    public void onStop() {
+      // Do nothing.
+    }
+
+    @Override
+    public void onDestroy() {
+      // Do nothing.
+    }
+  }
+}
@@ -1,5 +1,8 @@
 package com.bumptech.glide4110;
 
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.util.Pools.Pool;
@@ -18,6 +21,7 @@ import com.bumptech.glide4110.load.model.ModelLoaderRegistry;
 import com.bumptech.glide4110.load.resource.gif.GifDrawable;
 import com.bumptech.glide4110.load.resource.transcode.ResourceTranscoder;
 import com.bumptech.glide4110.load.resource.transcode.TranscoderRegistry;
+import com.bumptech.glide4110.util.MultiClassKey;
 import com.bumptech.glide4110.util.pool.FactoryPools;
 import com.bumptech.glide4110.load.data.DataRewinder;
 import com.bumptech.glide4110.load.data.DataRewinderRegistry;
@@ -28,10 +32,13 @@ import com.bumptech.glide4110.provider.ModelToResourceClassCache;
 import com.bumptech.glide4110.provider.ResourceDecoderRegistry;
 import com.bumptech.glide4110.provider.ResourceEncoderRegistry;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Manages component registration to extend or replace Glide's default loading, decoding, and
@@ -45,6 +52,9 @@ public class Registry {
     public static final String BUCKET_BITMAP_DRAWABLE = "BitmapDrawable";
     private static final String BUCKET_PREPEND_ALL = "legacy_prepend_all";
     private static final String BUCKET_APPEND_ALL = "legacy_append";
+    // The transcode classes exposed by RequestManager#as*, see freeze().
+    private static final List<Class<?>> PRECOMPUTED_TRANSCODE_CLASSES =
+            Arrays.<Class<?>>asList(Drawable.class, Bitmap.class, GifDrawable.class, File.class);
 
     private final ModelLoaderRegistry modelLoaderRegistry;
     private final com.bumptech.glide4110.provider.EncoderRegistry encoderRegistry;
@@ -471,6 +481,66 @@ public class Registry {
         return this;
     }
 
+    /**
+     * Resolves and caches the {@link ModelLoader}s, data classes, resource classes and {@link
+     * LoadPath}s for every registered model class so that the first request for each type doesn't
+     * have to, and so that lookups for registered types never lock.
+     *
+     * <p>{@link LoadPath}s are resolved from each data class to both {@link Object} and each
+     * registered resource class, and to each of the types requests can be made for by default:
+     * {@link Drawable}, {@link Bitmap}, {@link GifDrawable} and {@link File}.
+     *
+     * <p>Called by Glide on a background thread once all components have been registered if {@link
+     * GlideBuilder#setRegistryPrecomputationEnabled(boolean)} is enabled. Registering more
+     * components afterwards is allowed, but requests may then resolve new types on first use as
+     * usual.
+     */
+    public void freeze() {
+        modelLoaderRegistry.freeze();
+        Set<Class<?>> dataClasses = new HashSet<>();
+        for (Class<?> modelClass : modelLoaderRegistry.getModelClasses()) {
+            for (Class<?> transcodeClass : PRECOMPUTED_TRANSCODE_CLASSES) {
+                getRegisteredResourceClasses(modelClass, Object.class, transcodeClass);
+            }
+            for (Class<?> dataClass : modelLoaderRegistry.getDataClasses(modelClass)) {
+                if (!dataClasses.add(dataClass)) {
+                    continue;
+                }
+                List<Class<Object>> resourceClasses =
+                        decoderRegistry.getResourceClasses(dataClass, Object.class);
+                for (Class<?> transcodeClass : PRECOMPUTED_TRANSCODE_CLASSES) {
+                    getLoadPath(dataClass, Object.class, transcodeClass);
+                    for (Class<Object> resourceClass : resourceClasses) {
+                        getLoadPath(dataClass, resourceClass, transcodeClass);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Returns the model classes whose {@link ModelLoader}s have been resolved so far. */
+    @NonNull
+    List<Class<?>> getResolvedModelClasses() {
+        return modelLoaderRegistry.getCachedModelClasses();
+    }
+
+    /** Returns the model, resource and transcode classes of resolved registered resource classes. */
+    @NonNull
+    List<MultiClassKey> getResolvedRegisteredResourceClassKeys() {
+        return modelToResourceClassCache.getKeys();
+    }
+
+    /** Returns the data, resource and transcode classes of resolved, possibly empty, load paths. */
+    @NonNull
+    List<MultiClassKey> getResolvedLoadPathKeys() {
+        return loadPathCache.getKeys();
+    }
+
+    /** Resolves and caches the {@link ModelLoader}s and data classes for the given model class. */
+    void precomputeModelClass(@NonNull Class<?> modelClass) {
+        modelLoaderRegistry.precompute(modelClass);
+    }
+
     @Nullable
     public <Data, TResource, Transcode> LoadPath<Data, TResource, Transcode> getLoadPath(
             @NonNull Class<Data> dataClass,
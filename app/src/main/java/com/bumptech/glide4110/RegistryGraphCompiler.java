@@ -0,0 +1,236 @@
+package com.bumptech.glide4110;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.util.MultiClassKey;
+import com.bumptech.glide4110.util.Synthetic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Records the lookups that a {@link Registry} has resolved and replays them when Glide is next
+ * initialized, so that the first requests after a cold start find their {@link
+ * com.bumptech.glide4110.load.model.ModelLoader}s and {@link
+ * com.bumptech.glide4110.load.engine.LoadPath}s already built.
+ *
+ * <p>Decoders, transcoders and model loaders are arbitrary registered objects that can't be
+ * serialized, so only the class names that key each lookup are written. Restoring resolves every
+ * recorded lookup again against the current registry, which means an out of date file can cost
+ * some wasted work but never produces a wrong path. Classes that no longer exist are skipped. The
+ * file is kept in {@link Context#getCodeCacheDir()}, which the platform clears whenever the app or
+ * the platform is upgraded.
+ *
+ * <p>Both restoring and saving run on the given background {@link Executor}.
+ */
+final class RegistryGraphCompiler {
+    private static final String TAG = "RegistryGraph";
+    private static final String FILE_NAME = "glide_registry_graph";
+    private static final int MAGIC = 0x474c5247;
+    private static final int VERSION = 1;
+
+    private final Registry registry;
+    private final File file;
+    private final ClassLoader classLoader;
+    private final Executor executor;
+
+    // The number of resolved lookups written by the last save or read by the last restore.
+    private volatile int savedLookupCount;
+    private volatile boolean isSaving;
+
+    RegistryGraphCompiler(
+            @NonNull Context context, @NonNull Registry registry, @NonNull Executor executor) {
+        this.registry = registry;
+        this.file = new File(context.getCodeCacheDir(), FILE_NAME);
+        this.classLoader = context.getClassLoader();
+        this.executor = executor;
+    }
+
+    /**
+     * Resolves every lookup recorded by a previous save, or all registered components if no usable
+     * save exists, on a background thread.
+     */
+    void restoreAsync() {
+        executor.execute(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            restore();
+                        } catch (RuntimeException e) {
+                            // Lookups that failed here are resolved by requests as usual.
+                            if (Log.isLoggable(TAG, Log.WARN)) {
+                                Log.w(TAG, "Failed to resolve registry graph", e);
+                            }
+                        }
+                    }
+                });
+    }
+
+    /** Saves the resolved lookups on a background thread if any were added since the last save. */
+    void saveAsyncIfChanged() {
+        if (isSaving || getResolvedLookupCount() <= savedLookupCount) {
+            return;
+        }
+        // Set before executing so that the task can't clear it first, and clear it again if the
+        // task is rejected so that a later call can retry.
+        isSaving = true;
+        try {
+            executor.execute(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                save();
+                            } finally {
+                                isSaving = false;
+                            }
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            isSaving = false;
+            throw e;
+        }
+    }
+
+    @Synthetic
+    void restore() {
+        if (!file.exists()) {
+            registry.freeze();
+            return;
+        }
+        DataInputStream is = null;
+        try {
+            is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (is.readInt() != MAGIC || is.readInt() != VERSION) {
+                throw new IOException("Unrecognized header");
+            }
+            int modelClassCount = is.readInt();
+            for (int i = 0; i < modelClassCount; i++) {
+                Class<?> modelClass = readClass(is);
+                if (modelClass != null) {
+                    registry.precomputeModelClass(modelClass);
+                }
+            }
+            int resourceClassKeyCount = is.readInt();
+            for (int i = 0; i < resourceClassKeyCount; i++) {
+                Class<?> modelClass = readClass(is);
+                Class<?> resourceClass = readClass(is);
+                Class<?> transcodeClass = readClass(is);
+                if (modelClass != null && resourceClass != null && transcodeClass != null) {
+                    registry.getRegisteredResourceClasses(modelClass, resourceClass, transcodeClass);
+                }
+            }
+            int loadPathKeyCount = is.readInt();
+            for (int i = 0; i < loadPathKeyCount; i++) {
+                Class<?> dataClass = readClass(is);
+                Class<?> resourceClass = readClass(is);
+                Class<?> transcodeClass = readClass(is);
+                if (dataClass != null && resourceClass != null && transcodeClass != null) {
+                    registry.getLoadPath(dataClass, resourceClass, transcodeClass);
+                }
+            }
+            savedLookupCount = modelClassCount + resourceClassKeyCount + loadPathKeyCount;
+        } catch (IOException | RuntimeException e) {
+            if (Log.isLoggable(TAG, Log.WARN)) {
+                Log.w(TAG, "Failed to restore registry graph, resolving all components", e);
+            }
+            if (!file.delete() && Log.isLoggable(TAG, Log.WARN)) {
+                Log.w(TAG, "Failed to delete registry graph: " + file);
+            }
+            registry.freeze();
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    @Synthetic
+    void save() {
+        List<Class<?>> modelClasses = registry.getResolvedModelClasses();
+        List<MultiClassKey> resourceClassKeys = registry.getResolvedRegisteredResourceClassKeys();
+        List<MultiClassKey> loadPathKeys = registry.getResolvedLoadPathKeys();
+
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream os = null;
+        try {
+            os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            os.writeInt(MAGIC);
+            os.writeInt(VERSION);
+            os.writeInt(modelClasses.size());
+            for (Class<?> modelClass : modelClasses) {
+                os.writeUTF(modelClass.getName());
+            }
+            writeKeys(os, resourceClassKeys);
+            writeKeys(os, loadPathKeys);
+            os.close();
+            os = null;
+            if (!temp.renameTo(file)) {
+                throw new IOException("Failed to rename " + temp + " to " + file);
+            }
+            savedLookupCount = modelClasses.size() + resourceClassKeys.size() + loadPathKeys.size();
+        } catch (IOException e) {
+            if (Log.isLoggable(TAG, Log.WARN)) {
+                Log.w(TAG, "Failed to save registry graph", e);
+            }
+            // The temp file may be partially written.
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+        } finally {
+            closeQuietly(os);
+        }
+    }
+
+    private int getResolvedLookupCount() {
+        return registry.getResolvedModelClasses().size()
+                + registry.getResolvedRegisteredResourceClassKeys().size()
+                + registry.getResolvedLoadPathKeys().size();
+    }
+
+    private static void writeKeys(@NonNull DataOutputStream os, @NonNull List<MultiClassKey> keys)
+            throws IOException {
+        os.writeInt(keys.size());
+        for (MultiClassKey key : keys) {
+            Class<?> third = key.getThird();
+            os.writeUTF(key.getFirst().getName());
+            os.writeUTF(key.getSecond().getName());
+            os.writeUTF(third != null ? third.getName() : Object.class.getName());
+        }
+    }
+
+    @Nullable
+    private Class<?> readClass(@NonNull DataInputStream is) throws IOException {
+        String name = is.readUTF();
+        try {
+            return Class.forName(name, /*initialize=*/ false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Skipping missing class: " + name);
+            }
+            return null;
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // Ignored.
+            }
+        }
+    }
+}
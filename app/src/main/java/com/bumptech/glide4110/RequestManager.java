@@ -31,6 +31,8 @@ import com.bumptech.glide4110.manager.LifecycleListener;
 import com.bumptech.glide4110.manager.RequestManagerTreeNode;
 import com.bumptech.glide4110.manager.RequestTracker;
 import com.bumptech.glide4110.manager.TargetTracker;
+import com.bumptech.glide4110.probe.ImageProber;
+import com.bumptech.glide4110.probe.ProbeBatch;
 import com.bumptech.glide4110.request.BaseRequestOptions;
 import com.bumptech.glide4110.request.Request;
 import com.bumptech.glide4110.request.RequestListener;
@@ -600,6 +602,34 @@ public class RequestManager
         return as(File.class).apply(RequestOptions.skipMemoryCacheOf(true));
     }
 
+    /**
+     * Reads the type, EXIF orientation and size of each of the given models from the headers of
+     * their data, without decoding them or loading the rest of their data.
+     *
+     * <p>Useful for sizing views, for example in a staggered grid, before their images are loaded.
+     * Probes are kept in a small index on disk, so each image is only probed once. Unlike loads,
+     * probes aren't tied to this manager's lifecycle, cancel the returned batch if they're no longer
+     * needed.
+     *
+     * @param models The models to probe, any that Glide has a {@link
+     *               com.bumptech.glide4110.load.model.ModelLoader} for.
+     * @return A batch whose {@link ProbeBatch#get()} returns the probes in the same order as the
+     * models, with {@code null} for any that couldn't be probed.
+     */
+    @NonNull
+    public ProbeBatch probe(@NonNull List<?> models) {
+        return probe(models, /*listener=*/ null);
+    }
+
+    /**
+     * Like {@link #probe(List)}, but also notifies the given listener on the main thread as each
+     * model is probed.
+     */
+    @NonNull
+    public ProbeBatch probe(@NonNull List<?> models, @Nullable ImageProber.Listener listener) {
+        return glide.getImageProber().probe(models, listener);
+    }
+
     /**
      * Attempts to load the resource using any registered {@link
      * ResourceDecoder}s that can decode the given resource class or any
@@ -0,0 +1,145 @@
+package com.bumptech.glide4110.integration.okhttp3;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.Priority;
+import com.bumptech.glide4110.load.DataSource;
+import com.bumptech.glide4110.load.HttpException;
+import com.bumptech.glide4110.load.data.DataFetcher;
+import com.bumptech.glide4110.load.model.GlideUrl;
+import com.bumptech.glide4110.util.ContentLengthInputStream;
+import com.bumptech.glide4110.util.Preconditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Fetches an {@link InputStream} for a {@link GlideUrl} using an OkHttp {@link Call.Factory}.
+ *
+ * <p>Calls are enqueued rather than executed, so Glide's source threads aren't blocked on the
+ * network and OkHttp's dispatcher decides how many requests run at once for each host.
+ */
+public class OkHttpStreamFetcher implements DataFetcher<InputStream>, Callback {
+  private static final String TAG = "OkHttpFetcher";
+
+  private final Call.Factory client;
+  private final GlideUrl url;
+  private final long callTimeoutMillis;
+
+  @Nullable private InputStream stream;
+  @Nullable private ResponseBody responseBody;
+  @Nullable private DataCallback<? super InputStream> callback;
+  @Nullable private volatile Call call;
+
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public OkHttpStreamFetcher(@NonNull Call.Factory client, @NonNull GlideUrl url) {
+    this(client, url, /*callTimeoutMillis=*/ 0);
+  }
+
+  /**
+   * @param callTimeoutMillis The deadline for the whole call, from resolving the host until the
+   *     response body is read to its end or closed, or 0 to use the client's call timeout.
+   */
+  public OkHttpStreamFetcher(
+      @NonNull Call.Factory client, @NonNull GlideUrl url, long callTimeoutMillis) {
+    this.client = client;
+    this.url = url;
+    this.callTimeoutMillis = callTimeoutMillis;
+  }
+
+  @Override
+  public void loadData(
+      @NonNull Priority priority, @NonNull DataCallback<? super InputStream> callback) {
+    Request.Builder requestBuilder = new Request.Builder().url(url.toStringUrl());
+    for (Map.Entry<String, String> headerEntry : url.getHeaders().entrySet()) {
+      requestBuilder.addHeader(headerEntry.getKey(), headerEntry.getValue());
+    }
+    Request request = requestBuilder.build();
+    this.callback = callback;
+
+    Call call = client.newCall(request);
+    if (callTimeoutMillis > 0) {
+      call.timeout().timeout(callTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    this.call = call;
+    call.enqueue(this);
+  }
+
+  @Override
+  public void onFailure(@NonNull Call call, @NonNull IOException e) {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "OkHttp failed to obtain result", e);
+    }
+    DataCallback<? super InputStream> callback = this.callback;
+    if (callback != null) {
+      callback.onLoadFailed(e);
+    }
+  }
+
+  @Override
+  public void onResponse(@NonNull Call call, @NonNull Response response) {
+    DataCallback<? super InputStream> callback = this.callback;
+    responseBody = response.body();
+    if (callback == null) {
+      // Cleaned up while the call was in flight, release the connection straight away.
+      response.close();
+      return;
+    }
+    if (response.isSuccessful()) {
+      long contentLength = Preconditions.checkNotNull(responseBody).contentLength();
+      stream = ContentLengthInputStream.obtain(responseBody.byteStream(), contentLength);
+      callback.onDataReady(stream);
+    } else {
+      callback.onLoadFailed(new HttpException(response.message(), response.code()));
+    }
+  }
+
+  @Override
+  public void cleanup() {
+    try {
+      if (stream != null) {
+        stream.close();
+      }
+    } catch (IOException e) {
+      // Ignored
+    }
+    // Closing the body returns the connection to the pool if it was read to the end and discards
+    // it otherwise, for HTTP/2 only the stream is reset and the connection is kept.
+    if (responseBody != null) {
+      responseBody.close();
+    }
+    callback = null;
+  }
+
+  @Override
+  public void cancel() {
+    Call local = call;
+    if (local != null) {
+      local.cancel();
+    }
+  }
+
+  @NonNull
+  @Override
+  public Class<InputStream> getDataClass() {
+    return InputStream.class;
+  }
+
+  @NonNull
+  @Override
+  public DataSource getDataSource() {
+    return DataSource.REMOTE;
+  }
+}
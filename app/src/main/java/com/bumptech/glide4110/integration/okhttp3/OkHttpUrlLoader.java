@@ -0,0 +1,152 @@
+package com.bumptech.glide4110.integration.okhttp3;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide4110.load.Option;
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.model.GlideUrl;
+import com.bumptech.glide4110.load.model.ModelLoader;
+import com.bumptech.glide4110.load.model.ModelLoaderFactory;
+import com.bumptech.glide4110.load.model.MultiModelLoaderFactory;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * A {@link ModelLoader} for translating {@link GlideUrl} (http/https URLS) into {@link InputStream}
+ * data using OkHttp.
+ *
+ * <p>Unlike {@link com.bumptech.glide4110.load.model.stream.HttpGlideUrlLoader}, which opens a new
+ * connection for every request, all loads share one client, so connections to a host are kept
+ * alive and reused, and hosts that speak HTTP/2 multiplex every load over a single connection.
+ *
+ * <p>Replace the default loader from an {@link com.bumptech.glide4110.module.AppGlideModule}:
+ *
+ * <pre>{@code
+ * registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory());
+ * }</pre>
+ */
+public class OkHttpUrlLoader implements ModelLoader<GlideUrl, InputStream> {
+  /**
+   * An integer option for the deadline in milliseconds of a whole request, overriding the client's
+   * call timeout.
+   *
+   * <p>The deadline runs from resolving the host until the response body is read to its end or
+   * closed, so it also limits how long the decoder can spend downloading the body. Pick a value
+   * large enough for the biggest image expected over the slowest network.
+   *
+   * <p>Defaults to 0, which uses the client's call timeout. The client from {@link
+   * #newClientBuilder()} has none, only its connect and read timeouts apply.
+   */
+  public static final Option<Integer> CALL_TIMEOUT =
+      Option.memory("com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader.CallTimeout", 0);
+
+  // Enough for a screen of thumbnails from one CDN host over HTTP/1.1, OkHttp's default is 5.
+  private static final int MAX_REQUESTS_PER_HOST = 8;
+  private static final int MAX_REQUESTS = 64;
+  private static final int MAX_IDLE_CONNECTIONS = 10;
+  private static final long KEEP_ALIVE_MINUTES = 5;
+  private static final long CONNECT_TIMEOUT_MILLIS = 10_000;
+  private static final long READ_TIMEOUT_MILLIS = 15_000;
+
+  private final Call.Factory client;
+
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public OkHttpUrlLoader(@NonNull Call.Factory client) {
+    this.client = client;
+  }
+
+  @Override
+  public boolean handles(@NonNull GlideUrl url) {
+    return true;
+  }
+
+  @Override
+  public LoadData<InputStream> buildLoadData(
+      @NonNull GlideUrl model, int width, int height, @NonNull Options options) {
+    return new LoadData<>(
+        model, new OkHttpStreamFetcher(client, model, options.get(CALL_TIMEOUT)));
+  }
+
+  /**
+   * Returns a builder for a client with the settings {@link Factory#Factory()} uses, to adjust and
+   * pass to {@link Factory#Factory(Call.Factory)}.
+   *
+   * <ul>
+   *   <li>Up to {@value #MAX_REQUESTS_PER_HOST} concurrent requests per host and {@value
+   *       #MAX_REQUESTS} overall, further requests wait in OkHttp's dispatcher.
+   *   <li>Up to {@value #MAX_IDLE_CONNECTIONS} idle connections, kept alive for {@value
+   *       #KEEP_ALIVE_MINUTES} minutes.
+   *   <li>HTTP/2 when the server negotiates it, HTTP/1.1 otherwise.
+   *   <li>Separate connect and read timeouts. The read timeout applies to each read, so large
+   *       bodies that keep arriving aren't aborted. There's no whole call deadline, see {@link
+   *       #CALL_TIMEOUT}.
+   * </ul>
+   */
+  @NonNull
+  public static OkHttpClient.Builder newClientBuilder() {
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(MAX_REQUESTS);
+    dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+    return new OkHttpClient.Builder()
+        .dispatcher(dispatcher)
+        .connectionPool(
+            new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+        .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+        .connectTimeout(CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+        .readTimeout(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /** The default factory for {@link OkHttpUrlLoader}s. */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public static class Factory implements ModelLoaderFactory<GlideUrl, InputStream> {
+    private static volatile Call.Factory internalClient;
+    private final Call.Factory client;
+
+    private static Call.Factory getInternalClient() {
+      if (internalClient == null) {
+        synchronized (Factory.class) {
+          if (internalClient == null) {
+            internalClient = newClientBuilder().build();
+          }
+        }
+      }
+      return internalClient;
+    }
+
+    /** Constructor for a new Factory that runs requests using a static singleton client. */
+    public Factory() {
+      this(getInternalClient());
+    }
+
+    /**
+     * Constructor for a new Factory that runs requests using given client.
+     *
+     * @param client this is typed to Call.Factory instead of OkHttpClient to allow lazy
+     *     initialization and to share a client with the rest of the app.
+     */
+    public Factory(@NonNull Call.Factory client) {
+      this.client = client;
+    }
+
+    @NonNull
+    @Override
+    public ModelLoader<GlideUrl, InputStream> build(MultiModelLoaderFactory multiFactory) {
+      return new OkHttpUrlLoader(client);
+    }
+
+    @Override
+    public void teardown() {
+      // Do nothing, this instance doesn't own the client.
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.bumptech.glide4110.integration.recyclerview;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.recyclerview.widget.StaggeredGridLayoutManager;
+
+import com.bumptech.glide4110.ListPreloader.PreloadModelProvider;
+import com.bumptech.glide4110.ListPreloader.PreloadSizeProvider;
+import com.bumptech.glide4110.PredictivePreloader;
+import com.bumptech.glide4110.RequestManager;
+
+/**
+ * Drives a {@link PredictivePreloader} from a {@link RecyclerView} using a {@link
+ * LinearLayoutManager}, {@link GridLayoutManager} or {@link StaggeredGridLayoutManager}.
+ *
+ * <p>Scroll offsets within the first visible item are included in the position, which gives the
+ * preloader a smooth velocity estimate, and items are counted as bound when their views are
+ * attached, so {@link #getStats()} needs no calls from the adapter.
+ *
+ * <pre>{@code
+ * RecyclerViewPreloader<Photo> preloader =
+ *     new RecyclerViewPreloader<>(Glide.with(this), modelProvider, sizeProvider, 20);
+ * preloader.attach(recyclerView);
+ * }</pre>
+ *
+ * @param <T> The type of the model being displayed in the {@link RecyclerView}.
+ */
+public final class RecyclerViewPreloader<T> extends RecyclerView.OnScrollListener
+    implements RecyclerView.OnChildAttachStateChangeListener {
+  private final PredictivePreloader<T> preloader;
+
+  /**
+   * @param preloadModelProvider Provides models to load and requests capable of loading them.
+   * @param preloadDimensionProvider Provides the dimensions of images to load.
+   * @param maxPreload Maximum number of items to preload.
+   */
+  public RecyclerViewPreloader(
+      @NonNull RequestManager requestManager,
+      @NonNull PreloadModelProvider<T> preloadModelProvider,
+      @NonNull PreloadSizeProvider<T> preloadDimensionProvider,
+      int maxPreload) {
+    preloader =
+        new PredictivePreloader<>(
+            requestManager, preloadModelProvider, preloadDimensionProvider, maxPreload);
+  }
+
+  /** Starts preloading as the given view scrolls. */
+  public void attach(@NonNull RecyclerView recyclerView) {
+    recyclerView.addOnScrollListener(this);
+    recyclerView.addOnChildAttachStateChangeListener(this);
+  }
+
+  /** Stops preloading for the given view and cancels any preloads in progress. */
+  public void detach(@NonNull RecyclerView recyclerView) {
+    recyclerView.removeOnScrollListener(this);
+    recyclerView.removeOnChildAttachStateChangeListener(this);
+    preloader.clear();
+  }
+
+  @NonNull
+  public PredictivePreloader.Stats getStats() {
+    return preloader.getStats();
+  }
+
+  @Override
+  public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+    RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+    int first;
+    int last;
+    int perLine = 1;
+    boolean isVertical;
+    if (layoutManager instanceof LinearLayoutManager) {
+      LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+      first = linearLayoutManager.findFirstVisibleItemPosition();
+      last = linearLayoutManager.findLastVisibleItemPosition();
+      isVertical = linearLayoutManager.getOrientation() == RecyclerView.VERTICAL;
+      if (layoutManager instanceof GridLayoutManager) {
+        perLine = ((GridLayoutManager) layoutManager).getSpanCount();
+      }
+    } else if (layoutManager instanceof StaggeredGridLayoutManager) {
+      StaggeredGridLayoutManager staggeredLayoutManager =
+          (StaggeredGridLayoutManager) layoutManager;
+      first = min(staggeredLayoutManager.findFirstVisibleItemPositions(null));
+      last = max(staggeredLayoutManager.findLastVisibleItemPositions(null));
+      isVertical = staggeredLayoutManager.getOrientation() == RecyclerView.VERTICAL;
+      perLine = staggeredLayoutManager.getSpanCount();
+    } else {
+      return;
+    }
+    if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) {
+      return;
+    }
+    float offset = perLine * getHiddenFraction(layoutManager, first, isVertical);
+    preloader.onScrolled(first + offset, last - first + 1, layoutManager.getItemCount());
+  }
+
+  @Override
+  public void onChildViewAttachedToWindow(@NonNull View view) {
+    ViewGroup.LayoutParams layoutParams = view.getLayoutParams();
+    if (layoutParams instanceof RecyclerView.LayoutParams) {
+      int position = ((RecyclerView.LayoutParams) layoutParams).getAbsoluteAdapterPosition();
+      if (position != RecyclerView.NO_POSITION) {
+        preloader.onBind(position);
+      }
+    }
+  }
+
+  @Override
+  public void onChildViewDetachedFromWindow(@NonNull View view) {
+    // Do nothing.
+  }
+
+  /** Returns how much of the item at the given position is scrolled out of view, from 0 to 1. */
+  private static float getHiddenFraction(
+      RecyclerView.LayoutManager layoutManager, int position, boolean isVertical) {
+    View view = layoutManager.findViewByPosition(position);
+    if (view == null) {
+      return 0;
+    }
+    int size;
+    int hidden;
+    if (isVertical) {
+      size = layoutManager.getDecoratedMeasuredHeight(view);
+      hidden = layoutManager.getPaddingTop() - layoutManager.getDecoratedTop(view);
+    } else {
+      size = layoutManager.getDecoratedMeasuredWidth(view);
+      hidden = layoutManager.getPaddingLeft() - layoutManager.getDecoratedLeft(view);
+    }
+    if (size <= 0 || hidden <= 0) {
+      return 0;
+    }
+    return Math.min(1f, (float) hidden / size);
+  }
+
+  private static int min(int[] positions) {
+    int result = RecyclerView.NO_POSITION;
+    for (int position : positions) {
+      if (position != RecyclerView.NO_POSITION
+          && (result == RecyclerView.NO_POSITION || position < result)) {
+        result = position;
+      }
+    }
+    return result;
+  }
+
+  private static int max(int[] positions) {
+    int result = RecyclerView.NO_POSITION;
+    for (int position : positions) {
+      result = Math.max(result, position);
+    }
+    return result;
+  }
+}
@@ -154,6 +154,26 @@ public final class ImageHeaderParserUtils {
         });
   }
 
+  /** Returns the orientation for the given ByteBuffer. */
+  public static int getOrientation(
+      @NonNull List<ImageHeaderParser> parsers,
+      @Nullable final ByteBuffer buffer,
+      @NonNull final ArrayPool byteArrayPool)
+      throws IOException {
+    if (buffer == null) {
+      return ImageHeaderParser.UNKNOWN_ORIENTATION;
+    }
+
+    return getOrientationInternal(
+        parsers,
+        new OrientationReader() {
+          @Override
+          public int getOrientation(ImageHeaderParser parser) throws IOException {
+            return parser.getOrientation(buffer, byteArrayPool);
+          }
+        });
+  }
+
   @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
   public static int getOrientation(
       @NonNull List<ImageHeaderParser> parsers,
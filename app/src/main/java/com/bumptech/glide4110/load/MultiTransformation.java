@@ -51,6 +51,12 @@ public class MultiTransformation<T> implements Transformation<T> {
     return previous;
   }
 
+  /** Returns the transformations in the order they're applied. */
+  @NonNull
+  public Collection<? extends Transformation<T>> getTransformations() {
+    return transformations;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof MultiTransformation) {
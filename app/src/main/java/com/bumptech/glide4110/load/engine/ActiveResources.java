@@ -13,8 +13,10 @@ import com.bumptech.glide4110.util.Synthetic;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -23,7 +25,7 @@ final class ActiveResources {
     private final boolean isActiveResourceRetentionAllowed;
     private final Executor monitorClearedResourcesExecutor;
     @VisibleForTesting
-    final Map<Key, ResourceWeakReference> activeEngineResources = new HashMap<>();
+    final Map<Key, ResourceWeakReference> activeEngineResources;
     private final ReferenceQueue<EngineResource<?>> resourceReferenceQueue = new ReferenceQueue<>();
 
     private EngineResource.ResourceListener listener;
@@ -33,8 +35,17 @@ final class ActiveResources {
     private volatile DequeuedResourceCallback cb;
 
     ActiveResources(boolean isActiveResourceRetentionAllowed) {
+        this(isActiveResourceRetentionAllowed, /*isConcurrent=*/ false);
+    }
+
+    /**
+     * @param isConcurrent {@code true} to back the active resources with a {@link ConcurrentHashMap}
+     *                     so that gets and puts for different keys never block one another.
+     */
+    ActiveResources(boolean isActiveResourceRetentionAllowed, boolean isConcurrent) {
         this(
                 isActiveResourceRetentionAllowed,
+                isConcurrent,
                 java.util.concurrent.Executors.newSingleThreadExecutor(
                         new ThreadFactory() {
                             @Override
@@ -55,7 +66,21 @@ final class ActiveResources {
     @VisibleForTesting
     ActiveResources(
             boolean isActiveResourceRetentionAllowed, Executor monitorClearedResourcesExecutor) {
+        this(isActiveResourceRetentionAllowed, /*isConcurrent=*/ false, monitorClearedResourcesExecutor);
+    }
+
+    @VisibleForTesting
+    ActiveResources(
+            boolean isActiveResourceRetentionAllowed,
+            boolean isConcurrent,
+            Executor monitorClearedResourcesExecutor) {
         this.isActiveResourceRetentionAllowed = isActiveResourceRetentionAllowed;
+        // Each individual map operation is atomic in both modes, only the concurrent map lets
+        // operations on different keys proceed in parallel.
+        this.activeEngineResources =
+                isConcurrent
+                        ? new ConcurrentHashMap<Key, ResourceWeakReference>()
+                        : Collections.synchronizedMap(new HashMap<Key, ResourceWeakReference>());
         this.monitorClearedResourcesExecutor = monitorClearedResourcesExecutor;
 
         monitorClearedResourcesExecutor.execute(
@@ -81,7 +106,7 @@ final class ActiveResources {
      * @param key
      * @param resource
      */
-    synchronized void activate(Key key, EngineResource<?> resource) {
+    void activate(Key key, EngineResource<?> resource) {
         ResourceWeakReference toPut =
                 new ResourceWeakReference(
                         key, resource, resourceReferenceQueue, isActiveResourceRetentionAllowed);
@@ -92,7 +117,7 @@ final class ActiveResources {
         }
     }
 
-    synchronized void deactivate(Key key) {
+    void deactivate(Key key) {
         ResourceWeakReference removed = activeEngineResources.remove(key);
         if (removed != null) {
             removed.reset();
@@ -100,7 +125,7 @@ final class ActiveResources {
     }
 
     @Nullable
-    synchronized EngineResource<?> get(Key key) {
+    EngineResource<?> get(Key key) {
         ResourceWeakReference activeRef = activeEngineResources.get(key);
         if (activeRef == null) {
             return null;
@@ -116,12 +141,11 @@ final class ActiveResources {
     @SuppressWarnings({"WeakerAccess", "SynchronizeOnNonFinalField"})
     @Synthetic
     void cleanupActiveReference(@NonNull ResourceWeakReference ref) {
-        synchronized (this) {
-            activeEngineResources.remove(ref.key);
+        // Only remove the given reference, a newer one may have been activated for the same key.
+        activeEngineResources.remove(ref.key, ref);
 
-            if (!ref.isCacheable || ref.resource == null) {
-                return;
-            }
+        if (!ref.isCacheable || ref.resource == null) {
+            return;
         }
 
         EngineResource<?> newResource =
@@ -7,7 +7,7 @@ import com.bumptech.glide4110.load.Key;
 import com.bumptech.glide4110.load.data.DataFetcher;
 import com.bumptech.glide4110.load.model.ModelLoader;
 
-import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -23,13 +23,14 @@ class DataCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCallba
 
     private int sourceIdIndex = -1;
     private Key sourceKey;
-    private List<ModelLoader<File, ?>> modelLoaders;
+    private Key cacheKey;
+    private List<ModelLoader<Object, ?>> modelLoaders;
     private int modelLoaderIndex;
     private volatile ModelLoader.LoadData<?> loadData;
-    // PMD is wrong here, this File must be an instance variable because it may be used across
-    // multiple calls to startNext.
+    // PMD is wrong here, this File or ByteBuffer must be an instance variable because it may be used
+    // across multiple calls to startNext.
     @SuppressWarnings("PMD.SingularField")
-    private File cacheFile;
+    private Object cacheData;
 
     DataCacheGenerator(DecodeHelper<?> helper, FetcherReadyCallback cb) {
         this(helper.getCacheKeys(), helper, cb);
@@ -50,6 +51,15 @@ class DataCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCallba
     @Override
     public boolean startNext() {
         while (modelLoaders == null || !hasNextModelLoader()) {
+            if (cacheData instanceof ByteBuffer) {
+                // Nothing decoded the buffer, retry the entry as a File, which more loaders accept.
+                cacheData = helper.getDiskCacheFile(cacheKey);
+                if (cacheData != null) {
+                    modelLoaders = helper.getModelLoaders(cacheData);
+                    modelLoaderIndex = 0;
+                    continue;
+                }
+            }
             sourceIdIndex++;
             if (sourceIdIndex >= cacheKeys.size()) {
                 return false;
@@ -61,22 +71,26 @@ class DataCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCallba
             @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
             Key originalKey = new DataCacheKey(sourceId, helper.getSignature());
             //从磁盘缓存中获取原始数据
-            cacheFile = helper.getDiskCache().get(originalKey);
-            if (cacheFile != null) {
+            cacheData = helper.getDiskCacheData(originalKey);
+            if (cacheData != null) {
+                cacheKey = originalKey;
+                helper.getMetrics().onDiskCacheHit(originalKey, DataSource.DATA_DISK_CACHE);
                 this.sourceKey = sourceId;
-                modelLoaders = helper.getModelLoaders(cacheFile);
+                modelLoaders = helper.getModelLoaders(cacheData);
                 modelLoaderIndex = 0;
+            } else {
+                helper.getMetrics().onDiskCacheMiss(originalKey, DataSource.DATA_DISK_CACHE);
             }
         }
 
         loadData = null;
         boolean started = false;
         while (!started && hasNextModelLoader()) {
-            ModelLoader<File, ?> modelLoader = modelLoaders.get(modelLoaderIndex++);
+            ModelLoader<Object, ?> modelLoader = modelLoaders.get(modelLoaderIndex++);
             //他娘的 这一块太复杂
             loadData =
                     modelLoader.buildLoadData(
-                            cacheFile, helper.getWidth(), helper.getHeight(), helper.getOptions());
+                            cacheData, helper.getWidth(), helper.getHeight(), helper.getOptions());
             if (loadData != null && helper.hasLoadPath(loadData.fetcher.getDataClass())) {
                 started = true;
                 loadData.fetcher.loadData(helper.getPriority(), this);
@@ -1,5 +1,8 @@
 package com.bumptech.glide4110.load.engine;
 
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.bumptech.glide4110.load.DataSource;
@@ -49,6 +52,14 @@ interface DataFetcherGenerator {
          */
         void onDataFetcherFailed(
                 Key attemptedKey, Exception e, DataFetcher<?> fetcher, DataSource dataSource);
+
+        /**
+         * Notifies the callback that a low resolution preview was decoded from data that's still
+         * being loaded, on whatever thread is reading the data.
+         *
+         * @param frame An untransformed preview that isn't owned by any pool.
+         */
+        void onInterimFrame(@NonNull Bitmap frame);
     }
 
     /**
@@ -1,20 +1,27 @@
 package com.bumptech.glide4110.load.engine;
 
+import androidx.annotation.Nullable;
 import com.bumptech.glide4110.load.Encoder;
 import com.bumptech.glide4110.load.Key;
 import com.bumptech.glide4110.load.Options;
 import com.bumptech.glide4110.load.ResourceEncoder;
 import com.bumptech.glide4110.load.Transformation;
 import com.bumptech.glide4110.load.model.ModelLoader;
+import com.bumptech.glide4110.load.model.UnitModelLoader;
 import com.bumptech.glide4110.load.resource.UnitTransformation;
 import com.bumptech.glide4110.GlideContext;
+import com.bumptech.glide4110.GlideMetrics;
 import com.bumptech.glide4110.Priority;
 import com.bumptech.glide4110.Registry;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide4110.load.engine.cache.ByteBufferDiskCache;
+import com.bumptech.glide4110.load.engine.cache.DecodedSourceCache;
 import com.bumptech.glide4110.load.engine.cache.DiskCache;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -122,6 +129,15 @@ final class DecodeHelper<Transcode> {
     return glideContext.getArrayPool();
   }
 
+  GlideMetrics getMetrics() {
+    return glideContext.getMetrics();
+  }
+
+  @Nullable
+  DecodedSourceCache getDecodedSourceCache() {
+    return glideContext.getDecodedSourceCache();
+  }
+
   Class<?> getTranscodeClass() {
     return transcodeClass;
   }
@@ -182,9 +198,43 @@ final class DecodeHelper<Transcode> {
     return glideContext.getRegistry().getResultEncoder(resource);
   }
 
-  List<ModelLoader<File, ?>> getModelLoaders(File file)
+  /**
+   * Returns the model loaders for data returned by {@link #getDiskCacheData(Key)}.
+   *
+   * <p>{@link ByteBuffer}s from a {@link ByteBufferDiskCache} are passed to the decoders as is.
+   * That loader is deliberately not registered for {@link ByteBuffer} models in general, which
+   * would change how loads of other models pick their data.
+   */
+  List<ModelLoader<Object, ?>> getModelLoaders(Object cacheData)
       throws com.bumptech.glide4110.Registry.NoModelLoaderAvailableException {
-    return glideContext.getRegistry().getModelLoaders(file);
+    if (cacheData instanceof ByteBuffer) {
+      return Collections.<ModelLoader<Object, ?>>singletonList(
+          UnitModelLoader.<Object>getInstance());
+    }
+    return glideContext.getRegistry().getModelLoaders(cacheData);
+  }
+
+  /**
+   * Returns the data in the disk cache for the given key, either as a {@link ByteBuffer} if the
+   * disk cache can provide one and a load path from {@link ByteBuffer}s exists, or as a {@link
+   * File}, or {@code null} if there is none.
+   *
+   * <p>If the {@link ByteBuffer} can't be decoded, callers retry with {@link #getDiskCacheFile(Key)}
+   * so that loaders for other data, like {@link android.os.ParcelFileDescriptor}s for videos, are
+   * still tried.
+   */
+  @Nullable
+  Object getDiskCacheData(Key key) {
+    DiskCache diskCache = getDiskCache();
+    if (diskCache instanceof ByteBufferDiskCache && hasLoadPath(ByteBuffer.class)) {
+      return ((ByteBufferDiskCache) diskCache).getBuffer(key);
+    }
+    return diskCache.get(key);
+  }
+
+  @Nullable
+  File getDiskCacheFile(Key key) {
+    return getDiskCache().get(key);
   }
 
   boolean isSourceKey(Key key) {
@@ -1,9 +1,11 @@
 package com.bumptech.glide4110.load.engine;
 
+import android.graphics.Bitmap;
 import android.os.Build;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.util.Pools;
 
 import com.bumptech.glide4110.load.DataSource;
@@ -12,17 +14,22 @@ import com.bumptech.glide4110.load.Key;
 import com.bumptech.glide4110.load.Options;
 import com.bumptech.glide4110.load.ResourceEncoder;
 import com.bumptech.glide4110.load.Transformation;
+import com.bumptech.glide4110.load.resource.bitmap.BitmapResource;
 import com.bumptech.glide4110.load.resource.bitmap.Downsampler;
 import com.bumptech.glide4110.util.LogTime;
 import com.bumptech.glide4110.util.pool.FactoryPools.Poolable;
 import com.bumptech.glide4110.util.pool.GlideTrace;
 import com.bumptech.glide4110.util.pool.StateVerifier;
+import com.bumptech.glide4110.Glide;
 import com.bumptech.glide4110.GlideContext;
+import com.bumptech.glide4110.GlideMetrics;
 import com.bumptech.glide4110.Priority;
 import com.bumptech.glide4110.Registry;
 import com.bumptech.glide4110.load.data.DataFetcher;
 import com.bumptech.glide4110.load.data.DataRewinder;
+import com.bumptech.glide4110.load.engine.cache.DecodedSourceCache;
 import com.bumptech.glide4110.load.engine.cache.DiskCache;
+import com.bumptech.glide4110.load.engine.executor.PrioritizedRunnable;
 import com.bumptech.glide4110.util.Synthetic;
 
 import java.util.ArrayList;
@@ -41,7 +48,7 @@ import java.util.Map;
  */
 class DecodeJob<R>
         implements DataFetcherGenerator.FetcherReadyCallback,
-        Runnable,
+        PrioritizedRunnable,
         Comparable<DecodeJob<?>>,
         Poolable {
     private static final String TAG = "DecodeJob";
@@ -51,6 +58,8 @@ class DecodeJob<R>
     private final StateVerifier stateVerifier = StateVerifier.newInstance();
     private final DiskCacheProvider diskCacheProvider;
     private final Pools.Pool<DecodeJob<?>> pool;
+    @Nullable
+    private final SourceFetchCoalescer sourceFetchCoalescer;
     private final DeferredEncodeManager<?> deferredEncodeManager = new DeferredEncodeManager<>();
     private final ReleaseManager releaseManager = new ReleaseManager();
 
@@ -67,6 +76,7 @@ class DecodeJob<R>
     private Stage stage;
     private RunReason runReason;
     private long startFetchTime;
+    private long decodeStartNanos;
     private boolean onlyRetrieveFromCache;
     private Object model;
 
@@ -82,8 +92,16 @@ class DecodeJob<R>
     private volatile boolean isCancelled;
 
     DecodeJob(DiskCacheProvider diskCacheProvider, Pools.Pool<DecodeJob<?>> pool) {
+        this(diskCacheProvider, pool, /*sourceFetchCoalescer=*/ null);
+    }
+
+    DecodeJob(
+            DiskCacheProvider diskCacheProvider,
+            Pools.Pool<DecodeJob<?>> pool,
+            @Nullable SourceFetchCoalescer sourceFetchCoalescer) {
         this.diskCacheProvider = diskCacheProvider;
         this.pool = pool;
+        this.sourceFetchCoalescer = sourceFetchCoalescer;
     }
 
     DecodeJob<R> init(
@@ -141,7 +159,9 @@ class DecodeJob<R>
      */
     boolean willDecodeFromCache() {
         Stage firstStage = getNextStage(Stage.INITIALIZE);
-        return firstStage == Stage.RESOURCE_CACHE || firstStage == Stage.DATA_CACHE;
+        return firstStage == Stage.RESOURCE_CACHE
+                || firstStage == Stage.DECODED_SOURCE_CACHE
+                || firstStage == Stage.DATA_CACHE;
     }
 
     /**
@@ -209,10 +229,16 @@ class DecodeJob<R>
         return result;
     }
 
-    private int getPriority() {
+    @Override
+    public int getPriority() {
         return priority.ordinal();
     }
 
+    @Override
+    public long getOrder() {
+        return order;
+    }
+
     public void cancel() {
         isCancelled = true;
         DataFetcherGenerator local = currentGenerator;
@@ -290,6 +316,7 @@ class DecodeJob<R>
                 runGenerators();
                 break;
             case SWITCH_TO_SOURCE_SERVICE:
+            case YIELDED:
                 runGenerators();
                 break;
             case DECODE_DATA:
@@ -307,11 +334,13 @@ class DecodeJob<R>
         switch (stage) {
             case RESOURCE_CACHE:
                 return new ResourceCacheGenerator(decodeHelper, this);
+            case DECODED_SOURCE_CACHE:
+                return new DecodedSourceGenerator(decodeHelper, this);
             case DATA_CACHE:
                 return new DataCacheGenerator(decodeHelper, this);
             case SOURCE:
                 //如果未配置缓存策略的话 默认走source
-                return new SourceGenerator(decodeHelper, this);
+                return new SourceGenerator(decodeHelper, this, sourceFetchCoalescer);
             case FINISHED:
                 return null;
             default:
@@ -337,6 +366,14 @@ class DecodeJob<R>
                 reschedule();
                 return;
             }
+
+            // A stage boundary, give up the thread if more important work is waiting for it. This
+            // happens before the next generator fetches anything, so no data is held while queued.
+            if (currentGenerator != null && callback.shouldYield(this)) {
+                runReason = RunReason.YIELDED;
+                callback.requeue(this);
+                return;
+            }
         }
         // We've run out of stages and generators, give up.
         if ((stage == Stage.FINISHED || isCancelled) && !isStarted) {
@@ -375,6 +412,10 @@ class DecodeJob<R>
                         ? Stage.RESOURCE_CACHE
                         : getNextStage(Stage.RESOURCE_CACHE);
             case RESOURCE_CACHE:
+                return decodeHelper.getDecodedSourceCache() != null
+                        ? Stage.DECODED_SOURCE_CACHE
+                        : getNextStage(Stage.DECODED_SOURCE_CACHE);
+            case DECODED_SOURCE_CACHE:
                 return diskCacheStrategy.decodeCachedData()
                         ? Stage.DATA_CACHE
                         : getNextStage(Stage.DATA_CACHE);
@@ -441,6 +482,13 @@ class DecodeJob<R>
         }
     }
 
+    @Override
+    public void onInterimFrame(@NonNull Bitmap frame) {
+        if (!isCancelled) {
+            callback.onInterimFrame(frame);
+        }
+    }
+
     /**
      *
      */
@@ -557,6 +605,7 @@ class DecodeJob<R>
         Options options = getOptionsWithHardwareConfig(dataSource);
         DataRewinder<Data> rewinder = glideContext.getRegistry().getRewinder(data);
         try {
+            decodeStartNanos = System.nanoTime();
             // ResourceType in DecodeCallback below is required for compilation to work with gradle.
             return path.load(
                     rewinder, options, width, height, new DecodeCallback<ResourceType>(dataSource));
@@ -596,14 +645,21 @@ class DecodeJob<R>
     <Z> Resource<Z> onResourceDecoded(DataSource dataSource, @NonNull Resource<Z> decoded) {
         @SuppressWarnings("unchecked")
         Class<Z> resourceSubClass = (Class<Z>) decoded.get().getClass();
+        GlideMetrics metrics = glideContext.getMetrics();
+        long transformStartNanos = System.nanoTime();
+        metrics.onResourceDecoded(
+                currentData.getClass(), resourceSubClass, transformStartNanos - decodeStartNanos);
         Transformation<Z> appliedTransformation = null;
         Resource<Z> transformed = decoded;
         if (dataSource != DataSource.RESOURCE_DISK_CACHE) {
             appliedTransformation = decodeHelper.getTransformation(resourceSubClass);
             transformed = appliedTransformation.transform(glideContext, decoded, width, height);
+            metrics.onResourceTransformed(resourceSubClass, System.nanoTime() - transformStartNanos);
         }
         // TODO: Make this the responsibility of the Transformation.
-        if (!decoded.equals(transformed)) {
+        if (decoded.equals(transformed)) {
+            transformed = adoptDecodedSource(decoded);
+        } else if (!offerDecodedSource(dataSource, decoded)) {
             decoded.recycle();
         }
 
@@ -652,6 +708,51 @@ class DecodeJob<R>
         return result;
     }
 
+    /**
+     * Keeps an untransformed Bitmap that the transformation is done with in the {@link
+     * DecodedSourceCache}, if there is one, so that other transformations of it skip decoding.
+     *
+     * @return {@code true} if the cache took ownership of the Bitmap, and {@code false} if the
+     * caller should recycle the resource as usual.
+     */
+    private boolean offerDecodedSource(DataSource dataSource, Resource<?> decoded) {
+        DecodedSourceCache cache = decodeHelper.getDecodedSourceCache();
+        if (cache == null
+                || dataSource == DataSource.RESOURCE_DISK_CACHE
+                || !(decoded.get() instanceof Bitmap)) {
+            return false;
+        }
+        final DecodedSourceKey key;
+        if (currentAttemptingKey instanceof DecodedSourceKey) {
+            // Taken from the cache by DecodedSourceGenerator, put it back.
+            key = (DecodedSourceKey) currentAttemptingKey;
+        } else if (decoded instanceof BitmapResource) {
+            // Freshly decoded and owned by Glide. Other Bitmap resources, for example Bitmaps given
+            // as models, belong to someone else and must never end up in the pool.
+            key = new DecodedSourceKey(currentSourceKey, signature, width, height, options);
+        } else {
+            return false;
+        }
+        return cache.offer(key, (Bitmap) decoded.get());
+    }
+
+    /**
+     * Wraps a Bitmap taken from the {@link DecodedSourceCache} that the transformation returned
+     * unchanged in a {@link BitmapResource}, so that it goes back to the pool once released. The
+     * Bitmap to Bitmap decoder wraps it in a resource that never recycles, but the cache handed it
+     * to this job and nothing else references it.
+     */
+    @SuppressWarnings("unchecked")
+    private <Z> Resource<Z> adoptDecodedSource(Resource<Z> decoded) {
+        if (!(currentAttemptingKey instanceof DecodedSourceKey)
+                || decoded instanceof BitmapResource
+                || !(decoded.get() instanceof Bitmap)) {
+            return decoded;
+        }
+        return (Resource<Z>)
+                BitmapResource.obtain((Bitmap) decoded.get(), Glide.get(glideContext).getBitmapPool());
+    }
+
     private final class DecodeCallback<Z> implements DecodePath.DecodeCallback<Z> {
 
         private final DataSource dataSource;
@@ -757,6 +858,21 @@ class DecodeJob<R>
         void onLoadFailed(GlideException e);
 
         void reschedule(DecodeJob<?> job);
+
+        /**
+         * Returns {@code true} if the given job should stop at its current stage boundary and give
+         * up its thread to queued work of higher priority.
+         */
+        boolean shouldYield(DecodeJob<?> job);
+
+        /**
+         * Re-queues the given job on the executor it's currently running on, after it has returned
+         * from a stage boundary because {@link #shouldYield(DecodeJob)} returned {@code true}.
+         */
+        void requeue(DecodeJob<?> job);
+
+        /** Called when a low resolution preview of the resource is available, on any thread. */
+        void onInterimFrame(@NonNull Bitmap frame);
     }
 
     interface DiskCacheProvider {
@@ -780,6 +896,11 @@ class DecodeJob<R>
          * process the data.
          */
         DECODE_DATA,
+        /**
+         * We gave up our thread at a stage boundary to let higher priority work run and want to
+         * continue with the current generator.
+         */
+        YIELDED,
     }
 
     /**
@@ -794,6 +915,10 @@ class DecodeJob<R>
          * Decode from a cached resource.
          */
         RESOURCE_CACHE,
+        /**
+         * Transform an already decoded source held in memory.
+         */
+        DECODED_SOURCE_CACHE,
         /**
          * Decode from cached source data.
          */
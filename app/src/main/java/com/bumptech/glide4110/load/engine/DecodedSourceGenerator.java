@@ -0,0 +1,102 @@
+package com.bumptech.glide4110.load.engine;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide4110.Priority;
+import com.bumptech.glide4110.load.DataSource;
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.data.DataFetcher;
+import com.bumptech.glide4110.load.engine.cache.DecodedSourceCache;
+
+import java.util.List;
+
+/**
+ * Generates {@link DataFetcher DataFetchers} for decoded but untransformed Bitmaps held in the
+ * {@link DecodedSourceCache}, so that a request that only differs from an earlier one in its
+ * transformation skips reading and decoding the source.
+ *
+ * <p>The Bitmap is passed on as data and goes through the registered Bitmap to Bitmap decoder, the
+ * transformation and the transcoder like any other data. {@link DecodeJob} offers it back to the
+ * cache once the transformation no longer needs it.
+ */
+class DecodedSourceGenerator implements DataFetcherGenerator {
+
+    private final FetcherReadyCallback cb;
+    private final DecodeHelper<?> helper;
+
+    private int sourceIdIndex;
+
+    DecodedSourceGenerator(DecodeHelper<?> helper, FetcherReadyCallback cb) {
+        this.helper = helper;
+        this.cb = cb;
+    }
+
+    @Override
+    public boolean startNext() {
+        DecodedSourceCache cache = helper.getDecodedSourceCache();
+        if (cache == null || !helper.hasLoadPath(Bitmap.class)) {
+            return false;
+        }
+        List<Key> sourceIds = helper.getCacheKeys();
+        while (sourceIdIndex < sourceIds.size()) {
+            Key sourceId = sourceIds.get(sourceIdIndex++);
+            DecodedSourceKey key =
+                    new DecodedSourceKey( // NOPMD AvoidInstantiatingObjectsInLoops
+                            sourceId,
+                            helper.getSignature(),
+                            helper.getWidth(),
+                            helper.getHeight(),
+                            helper.getOptions());
+            Bitmap bitmap = cache.take(key);
+            if (bitmap != null) {
+                cb.onDataFetcherReady(
+                        sourceId, bitmap, new BitmapFetcher(bitmap), DataSource.MEMORY_CACHE, key);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void cancel() {
+        // Do nothing, the data is already in memory.
+    }
+
+    private static final class BitmapFetcher implements DataFetcher<Bitmap> {
+        private final Bitmap bitmap;
+
+        BitmapFetcher(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        public void loadData(
+                @NonNull Priority priority, @NonNull DataCallback<? super Bitmap> callback) {
+            callback.onDataReady(bitmap);
+        }
+
+        @Override
+        public void cleanup() {
+            // Do nothing, DecodeJob decides whether the Bitmap goes back to the cache.
+        }
+
+        @Override
+        public void cancel() {
+            // Do nothing.
+        }
+
+        @NonNull
+        @Override
+        public Class<Bitmap> getDataClass() {
+            return Bitmap.class;
+        }
+
+        @NonNull
+        @Override
+        public DataSource getDataSource() {
+            return DataSource.MEMORY_CACHE;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bumptech.glide4110.load.engine;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.Options;
+
+import java.security.MessageDigest;
+
+/**
+ * An in memory only cache key for a decoded but untransformed Bitmap, the equivalent of a {@link
+ * ResourceCacheKey} without the transformation.
+ *
+ * <p>The {@link Options} include the {@link
+ * com.bumptech.glide4110.load.resource.bitmap.DownsampleStrategy} and other decode options, so
+ * requests only share a Bitmap if it was decoded the same way.
+ */
+final class DecodedSourceKey implements Key {
+  private final Key sourceKey;
+  private final Key signature;
+  private final int width;
+  private final int height;
+  private final Options options;
+
+  DecodedSourceKey(Key sourceKey, Key signature, int width, int height, Options options) {
+    this.sourceKey = sourceKey;
+    this.signature = signature;
+    this.width = width;
+    this.height = height;
+    this.options = options;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof DecodedSourceKey) {
+      DecodedSourceKey other = (DecodedSourceKey) o;
+      return height == other.height
+          && width == other.width
+          && sourceKey.equals(other.sourceKey)
+          && signature.equals(other.signature)
+          && options.equals(other.options);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = sourceKey.hashCode();
+    result = 31 * result + signature.hashCode();
+    result = 31 * result + width;
+    result = 31 * result + height;
+    result = 31 * result + options.hashCode();
+    return result;
+  }
+
+  @Override
+  public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String toString() {
+    return "DecodedSourceKey{"
+        + "sourceKey="
+        + sourceKey
+        + ", signature="
+        + signature
+        + ", width="
+        + width
+        + ", height="
+        + height
+        + ", options="
+        + options
+        + '}';
+  }
+}
@@ -15,6 +15,7 @@ import com.bumptech.glide4110.load.engine.EngineResource.ResourceListener;
 import com.bumptech.glide4110.util.LogTime;
 import com.bumptech.glide4110.util.pool.FactoryPools;
 import com.bumptech.glide4110.GlideContext;
+import com.bumptech.glide4110.GlideMetrics;
 import com.bumptech.glide4110.Priority;
 import com.bumptech.glide4110.load.engine.cache.DiskCache;
 import com.bumptech.glide4110.load.engine.cache.DiskCacheAdapter;
@@ -35,6 +36,10 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
     private static final String TAG = "Engine";
     private static final int JOB_POOL_SIZE = 150;
     private static final boolean VERBOSE_IS_LOGGABLE = Log.isLoggable(TAG, Log.VERBOSE);
+    /**
+     * Number of monitors used when lock striping is enabled, must be a power of two.
+     */
+    private static final int LOCK_STRIPE_COUNT = 32;
     private final Jobs jobs;
     private final com.bumptech.glide4110.load.engine.EngineKeyFactory keyFactory;
     private final MemoryCache cache;
@@ -43,6 +48,12 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
     private final LazyDiskCacheProvider diskCacheProvider;
     private final DecodeJobFactory decodeJobFactory;
     private final ActiveResources activeResources;
+    /**
+     * Per key monitors, or {@code null} if every load and job completion synchronizes on the Engine.
+     */
+    @Nullable
+    private final Object[] keyLocks;
+    private final boolean isProbeKeyEnabled;
 
     public Engine(
             MemoryCache memoryCache,
@@ -52,6 +63,29 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
             GlideExecutor sourceUnlimitedExecutor,
             GlideExecutor animationExecutor,
             boolean isActiveResourceRetentionAllowed) {
+        this(
+                memoryCache,
+                diskCacheFactory,
+                diskCacheExecutor,
+                sourceExecutor,
+                sourceUnlimitedExecutor,
+                animationExecutor,
+                isActiveResourceRetentionAllowed,
+                EngineOptions.DEFAULT);
+    }
+
+    /**
+     * @param options Optional behaviors of the Engine, see {@link EngineOptions.Builder}.
+     */
+    public Engine(
+            MemoryCache memoryCache,
+            DiskCache.Factory diskCacheFactory,
+            GlideExecutor diskCacheExecutor,
+            GlideExecutor sourceExecutor,
+            GlideExecutor sourceUnlimitedExecutor,
+            GlideExecutor animationExecutor,
+            boolean isActiveResourceRetentionAllowed,
+            @NonNull EngineOptions options) {
         this(
                 memoryCache,
                 diskCacheFactory,
@@ -65,7 +99,8 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
                 /*engineJobFactory=*/ null,
                 /*decodeJobFactory=*/ null,
                 /*resourceRecycler=*/ null,
-                isActiveResourceRetentionAllowed);
+                isActiveResourceRetentionAllowed,
+                options);
     }
 
     @VisibleForTesting
@@ -82,15 +117,29 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
             EngineJobFactory engineJobFactory,
             DecodeJobFactory decodeJobFactory,
             com.bumptech.glide4110.load.engine.ResourceRecycler resourceRecycler,
-            boolean isActiveResourceRetentionAllowed) {
+            boolean isActiveResourceRetentionAllowed,
+            EngineOptions options) {
         //1. Lru内存缓存
         this.cache = cache;
         //2. 磁盘缓存Provider
         this.diskCacheProvider = new LazyDiskCacheProvider(diskCacheFactory);
 
+        this.isProbeKeyEnabled = options.isProbeKeyEnabled();
+        boolean isLockStripingEnabled = options.isLockStripingEnabled();
+        if (isLockStripingEnabled) {
+            keyLocks = new Object[LOCK_STRIPE_COUNT];
+            for (int i = 0; i < keyLocks.length; i++) {
+                keyLocks[i] = new Object();
+            }
+        } else {
+            keyLocks = null;
+        }
+
         //3. 创建活动缓存
         if (activeResources == null) {
-            activeResources = new ActiveResources(isActiveResourceRetentionAllowed);
+            activeResources =
+                    new ActiveResources(
+                            isActiveResourceRetentionAllowed, /*isConcurrent=*/ isLockStripingEnabled);
         }
         this.activeResources = activeResources;
         activeResources.setListener(this);
@@ -101,7 +150,7 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         this.keyFactory = keyFactory;
 
         if (jobs == null) {
-            jobs = new Jobs();
+            jobs = new Jobs(/*isConcurrent=*/ isLockStripingEnabled);
         }
         this.jobs = jobs;
 
@@ -118,7 +167,10 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         this.engineJobFactory = engineJobFactory;
 
         if (decodeJobFactory == null) {
-            decodeJobFactory = new DecodeJobFactory(diskCacheProvider);
+            decodeJobFactory =
+                    new DecodeJobFactory(
+                            diskCacheProvider,
+                            options.isSourceFetchCoalescingEnabled() ? new SourceFetchCoalescer() : null);
         }
         this.decodeJobFactory = decodeJobFactory;
 
@@ -180,8 +232,22 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         long startTime = VERBOSE_IS_LOGGABLE ? LogTime.getLogTime() : 0;
 
         //1. 通过签名 宽 高等信息构建一个key（用户从活动缓存 内存缓存查找图片）
-        EngineKey key =
-                keyFactory.buildKey(
+        Key key;
+        if (isProbeKeyEnabled && isMemoryCacheable) {
+            // Reused for the memory cache lookup and only materialized on a miss.
+            key =
+                    keyFactory.obtainProbeKey(
+                        model,
+                        signature,
+                        width,
+                        height,
+                        transformations,
+                        resourceClass,
+                        transcodeClass,
+                        options);
+        } else {
+            key =
+                    keyFactory.buildKey(
                         model,
                         signature,
                         width,
@@ -190,14 +256,24 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
                         resourceClass,
                         transcodeClass,
                         options);
+        }
 
         EngineResource<?> memoryResource;
-        synchronized (this) {
+        synchronized (getLock(key)) {
             //2. 查找内存缓存 活动缓存
-            memoryResource = loadFromMemory(key, isMemoryCacheable, startTime);
+            memoryResource = loadFromMemory(key, isMemoryCacheable, startTime, glideContext.getMetrics());
 
             //3. 内存缓存为空 创建新的任务
             if (memoryResource == null) {
+                EngineKey jobKey;
+                if (key instanceof EngineProbeKey) {
+                    // Equal keys share a lock, so it's safe to swap keys while holding it.
+                    EngineProbeKey probe = (EngineProbeKey) key;
+                    jobKey = probe.materialize();
+                    keyFactory.releaseProbeKey(probe);
+                } else {
+                    jobKey = (EngineKey) key;
+                }
                 return waitForExistingOrStartNewJob(
                         glideContext,
                         model,
@@ -218,11 +294,15 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
                         onlyRetrieveFromCache,
                         cb,
                         callbackExecutor,
-                        key,
+                        jobKey,
                         startTime);
             }
         }
 
+        if (key instanceof EngineProbeKey) {
+            keyFactory.releaseProbeKey((EngineProbeKey) key);
+        }
+
         //缓存中命中对应图片
         // Avoid calling back while holding the engine lock, doing so makes it easier for callers to
         // deadlock.
@@ -260,7 +340,7 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
             if (VERBOSE_IS_LOGGABLE) {
                 logWithTimeAndKey("Added to existing load", startTime, key);
             }
-            return new LoadStatus(cb, current);
+            return new LoadStatus(cb, current, key);
         }
 
         //2. EngineJob是一个用来管理图片加载回调的管理类 内部维护了很多线程池
@@ -301,12 +381,12 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         if (VERBOSE_IS_LOGGABLE) {
             logWithTimeAndKey("Started new load", startTime, key);
         }
-        return new LoadStatus(cb, engineJob);
+        return new LoadStatus(cb, engineJob, key);
     }
 
     @Nullable
     private EngineResource<?> loadFromMemory(
-            EngineKey key, boolean isMemoryCacheable, long startTime) {
+            Key key, boolean isMemoryCacheable, long startTime, GlideMetrics metrics) {
         if (!isMemoryCacheable) {
             return null;
         }
@@ -314,6 +394,7 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         //1. 从活动缓存中获取资源
         EngineResource<?> active = loadFromActiveResources(key);
         if (active != null) {
+            metrics.onActiveResourceHit(key);
             if (VERBOSE_IS_LOGGABLE) {
                 logWithTimeAndKey("Loaded resource from active resources", startTime, key);
             }
@@ -323,16 +404,32 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         //2. 从内存缓存中查找
         EngineResource<?> cached = loadFromCache(key);
         if (cached != null) {
+            metrics.onMemoryCacheHit(key);
             if (VERBOSE_IS_LOGGABLE) {
                 logWithTimeAndKey("Loaded resource from cache", startTime, key);
             }
             return cached;
         }
+        metrics.onMemoryCacheMiss(key);
 
         //如果内存缓存未获取到 返回null
         return null;
     }
 
+    /**
+     * Returns the monitor that guards memory cache lookups and {@link Jobs} updates for the given key.
+     */
+    @Synthetic
+    Object getLock(Key key) {
+        if (keyLocks == null) {
+            return this;
+        }
+        int hash = key.hashCode();
+        // Spread the high bits down, EngineKey hashes are poorly distributed in the low bits.
+        hash ^= (hash >>> 16);
+        return keyLocks[hash & (keyLocks.length - 1)];
+    }
+
     private static void logWithTimeAndKey(String log, long startTime, Key key) {
         Log.v(TAG, log + " in " + LogTime.getElapsedMillis(startTime) + "ms, key: " + key);
     }
@@ -358,7 +455,8 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         if (cached != null) {
             //2. 资源的引用计数+1 将资源保存进活动缓存
             cached.acquire();
-            activeResources.activate(key, cached);
+            // The resource's key is equal to ours and, unlike a probe key, safe to store.
+            activeResources.activate(cached.getKey(), cached);
         }
         return cached;
     }
@@ -376,7 +474,13 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
         } else {
             result =
                     new EngineResource<>(
-                            cached, /*isMemoryCacheable=*/ true, /*isRecyclable=*/ true, key, /*listener=*/ this);
+                            cached,
+                            /*isMemoryCacheable=*/ true,
+                            /*isRecyclable=*/ true,
+                            key instanceof EngineProbeKey
+                                    ? ((EngineProbeKey) key).materialize()
+                                    : key,
+                            /*listener=*/ this);
         }
         return result;
     }
@@ -397,19 +501,23 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
      */
     @SuppressWarnings("unchecked")
     @Override
-    public synchronized void onEngineJobComplete(
+    public void onEngineJobComplete(
             EngineJob<?> engineJob, Key key, EngineResource<?> resource) {
-        // A null resource indicates that the load failed, usually due to an exception.
-        if (resource != null && resource.isMemoryCacheable()) {
-            activeResources.activate(key, resource);
-        }
+        synchronized (getLock(key)) {
+            // A null resource indicates that the load failed, usually due to an exception.
+            if (resource != null && resource.isMemoryCacheable()) {
+                activeResources.activate(key, resource);
+            }
 
-        jobs.removeIfCurrent(key, engineJob);
+            jobs.removeIfCurrent(key, engineJob);
+        }
     }
 
     @Override
-    public synchronized void onEngineJobCancelled(EngineJob<?> engineJob, Key key) {
-        jobs.removeIfCurrent(key, engineJob);
+    public void onEngineJobCancelled(EngineJob<?> engineJob, Key key) {
+        synchronized (getLock(key)) {
+            jobs.removeIfCurrent(key, engineJob);
+        }
     }
 
     @Override
@@ -448,18 +556,21 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
     public class LoadStatus {
         private final EngineJob<?> engineJob;
         private final ResourceCallback cb;
+        private final Key key;
 
-        LoadStatus(ResourceCallback cb, EngineJob<?> engineJob) {
+        LoadStatus(ResourceCallback cb, EngineJob<?> engineJob, Key key) {
             this.cb = cb;
             this.engineJob = engineJob;
+            this.key = key;
         }
 
         public void cancel() {
             // Acquire the Engine lock so that a new request can't get access to a particular EngineJob
             // just after the EngineJob has been cancelled. Without this lock, we'd allow new requests
             // to find the cancelling EngineJob in our Jobs data structure. With this lock, the EngineJob
-            // is both cancelled and removed from Jobs atomically.
-            synchronized (Engine.this) {
+            // is both cancelled and removed from Jobs atomically. When lock striping is enabled only
+            // the monitor for this job's key needs to be held.
+            synchronized (getLock(key)) {
                 engineJob.removeCallback(cb);
             }
         }
@@ -502,6 +613,9 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
     static class DecodeJobFactory {
         @Synthetic
         final DecodeJob.DiskCacheProvider diskCacheProvider;
+        @Synthetic
+        @Nullable
+        final SourceFetchCoalescer sourceFetchCoalescer;
 
         @Synthetic
         final Pools.Pool<DecodeJob<?>> pool =
@@ -510,14 +624,21 @@ public class Engine implements EngineJobListener, MemoryCache.ResourceRemovedLis
                         new FactoryPools.Factory<DecodeJob<?>>() {
                             @Override
                             public DecodeJob<?> create() {
-                                return new DecodeJob<>(diskCacheProvider, pool);
+                                return new DecodeJob<>(diskCacheProvider, pool, sourceFetchCoalescer);
                             }
                         });
 
         private int creationOrder;
 
         DecodeJobFactory(DecodeJob.DiskCacheProvider diskCacheProvider) {
+            this(diskCacheProvider, /*sourceFetchCoalescer=*/ null);
+        }
+
+        DecodeJobFactory(
+                DecodeJob.DiskCacheProvider diskCacheProvider,
+                @Nullable SourceFetchCoalescer sourceFetchCoalescer) {
             this.diskCacheProvider = diskCacheProvider;
+            this.sourceFetchCoalescer = sourceFetchCoalescer;
         }
 
         @SuppressWarnings("unchecked")
@@ -1,5 +1,7 @@
 package com.bumptech.glide4110.load.engine;
 
+import android.graphics.Bitmap;
+
 import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
@@ -11,6 +13,7 @@ import com.bumptech.glide4110.load.engine.EngineResource.ResourceListener;
 import com.bumptech.glide4110.util.pool.FactoryPools.Poolable;
 import com.bumptech.glide4110.util.pool.StateVerifier;
 import com.bumptech.glide4110.load.engine.executor.GlideExecutor;
+import com.bumptech.glide4110.request.InterimResourceCallback;
 import com.bumptech.glide4110.request.ResourceCallback;
 import com.bumptech.glide4110.util.Executors;
 import com.bumptech.glide4110.util.Preconditions;
@@ -74,6 +77,9 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
     // Checked primarily on the main thread, but also on other threads in reschedule.
     private volatile boolean isCancelled;
 
+    // The executor the DecodeJob was most recently submitted to.
+    private volatile GlideExecutor currentExecutor;
+
     EngineJob(
             com.bumptech.glide4110.load.engine.executor.GlideExecutor diskCacheExecutor,
             com.bumptech.glide4110.load.engine.executor.GlideExecutor sourceExecutor,
@@ -132,6 +138,7 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
         this.decodeJob = decodeJob;
         com.bumptech.glide4110.load.engine.executor.GlideExecutor executor =
                 decodeJob.willDecodeFromCache() ? diskCacheExecutor : getActiveSourceExecutor();
+        currentExecutor = executor;
         executor.execute(decodeJob);
     }
 
@@ -218,7 +225,9 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
         return isCancelled;
     }
 
-    private boolean isDone() {
+    @Synthetic
+    @GuardedBy("this")
+    boolean isDone() {
         return hasLoadFailed || hasResource || isCancelled;
     }
 
@@ -312,6 +321,7 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
         hasResource = false;
         decodeJob.release(/*isRemovedFromQueue=*/ false);
         decodeJob = null;
+        currentExecutor = null;
         exception = null;
         dataSource = null;
         pool.release(this);
@@ -338,7 +348,37 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
     public void reschedule(com.bumptech.glide4110.load.engine.DecodeJob<?> job) {
         // Even if the job is cancelled here, it still needs to be scheduled so that it can clean itself
         // up.
-        getActiveSourceExecutor().execute(job);
+        GlideExecutor executor = getActiveSourceExecutor();
+        currentExecutor = executor;
+        executor.execute(job);
+    }
+
+    @Override
+    public boolean shouldYield(DecodeJob<?> job) {
+        GlideExecutor executor = currentExecutor;
+        return !isCancelled && executor != null && executor.shouldYield(job);
+    }
+
+    @Override
+    public void requeue(DecodeJob<?> job) {
+        currentExecutor.requeue(job);
+    }
+
+    @Override
+    public void onInterimFrame(@NonNull Bitmap frame) {
+        ResourceCallbacksAndExecutors copy;
+        synchronized (this) {
+            if (isDone()) {
+                return;
+            }
+            copy = cbs.copy();
+        }
+        for (ResourceCallbackAndExecutor entry : copy) {
+            if (entry.cb instanceof InterimResourceCallback) {
+                entry.executor.execute(
+                        new CallInterimResourceReady((InterimResourceCallback) entry.cb, frame));
+            }
+        }
     }
 
     // We have to post Runnables in a loop. Typically there will be very few callbacks. Acessor method
@@ -410,6 +450,29 @@ class EngineJob<R> implements DecodeJob.Callback<R>, Poolable {
         }
     }
 
+    private class CallInterimResourceReady implements Runnable {
+
+        private final InterimResourceCallback cb;
+        private final Bitmap frame;
+
+        CallInterimResourceReady(InterimResourceCallback cb, Bitmap frame) {
+            this.cb = cb;
+            this.frame = frame;
+        }
+
+        @Override
+        public void run() {
+            synchronized (cb.getLock()) {
+                synchronized (EngineJob.this) {
+                    // The final resource or failure may have been delivered while we were queued.
+                    if (cbs.contains(cb) && !isDone()) {
+                        cb.onInterimResourceReady(frame);
+                    }
+                }
+            }
+        }
+    }
+
     private class CallResourceReady implements Runnable {
 
         private final com.bumptech.glide4110.request.ResourceCallback cb;
@@ -9,7 +9,12 @@ import com.bumptech.glide4110.util.Preconditions;
 import java.security.MessageDigest;
 import java.util.Map;
 
-/** An in memory only cache key used to multiplex loads. */
+/**
+ * An in memory only cache key used to multiplex loads.
+ *
+ * <p>Keys are equal to {@link EngineProbeKey}s initialized with the same arguments, so that memory
+ * cache lookups can use a reusable probe instead.
+ */
 class EngineKey implements Key {
   private final Object model;
   private final int width;
@@ -54,6 +59,9 @@ class EngineKey implements Key {
           && resourceClass.equals(other.resourceClass)
           && transcodeClass.equals(other.transcodeClass)
           && options.equals(other.options);
+    } else if (o instanceof EngineProbeKey) {
+      return ((EngineProbeKey) o).matches(
+          model, signature, width, height, transformations, resourceClass, transcodeClass, options);
     }
     return false;
   }
@@ -61,18 +69,41 @@ class EngineKey implements Key {
   @Override
   public int hashCode() {
     if (hashCode == 0) {
-      hashCode = model.hashCode();
-      hashCode = 31 * hashCode + signature.hashCode();
-      hashCode = 31 * hashCode + width;
-      hashCode = 31 * hashCode + height;
-      hashCode = 31 * hashCode + transformations.hashCode();
-      hashCode = 31 * hashCode + resourceClass.hashCode();
-      hashCode = 31 * hashCode + transcodeClass.hashCode();
-      hashCode = 31 * hashCode + options.hashCode();
+      hashCode =
+          hash(
+              model,
+              signature,
+              width,
+              height,
+              transformations,
+              resourceClass,
+              transcodeClass,
+              options);
     }
     return hashCode;
   }
 
+  /** Returns the hash code of a key with the given fields, shared with {@link EngineProbeKey}. */
+  static int hash(
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Map<Class<?>, Transformation<?>> transformations,
+      Class<?> resourceClass,
+      Class<?> transcodeClass,
+      Options options) {
+    int result = model.hashCode();
+    result = 31 * result + signature.hashCode();
+    result = 31 * result + width;
+    result = 31 * result + height;
+    result = 31 * result + transformations.hashCode();
+    result = 31 * result + resourceClass.hashCode();
+    result = 31 * result + transcodeClass.hashCode();
+    result = 31 * result + options.hashCode();
+    return result;
+  }
+
   @Override
   public String toString() {
     return "EngineKey{"
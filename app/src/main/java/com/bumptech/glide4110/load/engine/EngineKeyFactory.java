@@ -1,11 +1,19 @@
 package com.bumptech.glide4110.load.engine;
 
+import androidx.core.util.Pools;
+
 import com.bumptech.glide4110.load.Key;
 import com.bumptech.glide4110.load.Options;
 import com.bumptech.glide4110.load.Transformation;
 import java.util.Map;
 
 class EngineKeyFactory {
+  // Loads are almost always started on the main thread, a few extra keys cover the rare
+  // background callers.
+  private static final int PROBE_KEY_POOL_SIZE = 4;
+
+  private final Pools.Pool<EngineProbeKey> probeKeyPool =
+      new Pools.SynchronizedPool<>(PROBE_KEY_POOL_SIZE);
 
   @SuppressWarnings("rawtypes")
   EngineKey buildKey(
@@ -20,4 +28,35 @@ class EngineKeyFactory {
     return new EngineKey(
         model, signature, width, height, transformations, resourceClass, transcodeClass, options);
   }
+
+  /**
+   * Returns a reusable key equal to the key that {@link #buildKey} would return for the same
+   * arguments, for memory cache lookups that shouldn't allocate.
+   *
+   * <p>The returned key must not be stored and must be returned via {@link #releaseProbeKey} once
+   * the lookup is complete. Use {@link EngineProbeKey#materialize()} to obtain a key that can be
+   * stored.
+   */
+  EngineProbeKey obtainProbeKey(
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Map<Class<?>, Transformation<?>> transformations,
+      Class<?> resourceClass,
+      Class<?> transcodeClass,
+      Options options) {
+    EngineProbeKey result = probeKeyPool.acquire();
+    if (result == null) {
+      result = new EngineProbeKey();
+    }
+    result.init(
+        model, signature, width, height, transformations, resourceClass, transcodeClass, options);
+    return result;
+  }
+
+  void releaseProbeKey(EngineProbeKey key) {
+    key.clear();
+    probeKeyPool.release(key);
+  }
 }
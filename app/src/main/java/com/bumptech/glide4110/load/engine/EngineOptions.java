@@ -0,0 +1,83 @@
+package com.bumptech.glide4110.load.engine;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Optional behaviors of the {@link Engine}, all disabled by default.
+ *
+ * <p>Use {@link Builder} to create an instance.
+ */
+public final class EngineOptions {
+    /**
+     * Options with every behavior disabled.
+     */
+    public static final EngineOptions DEFAULT = new Builder().build();
+
+    private final boolean isLockStripingEnabled;
+    private final boolean isSourceFetchCoalescingEnabled;
+    private final boolean isProbeKeyEnabled;
+
+    EngineOptions(Builder builder) {
+        isLockStripingEnabled = builder.isLockStripingEnabled;
+        isSourceFetchCoalescingEnabled = builder.isSourceFetchCoalescingEnabled;
+        isProbeKeyEnabled = builder.isProbeKeyEnabled;
+    }
+
+    public boolean isLockStripingEnabled() {
+        return isLockStripingEnabled;
+    }
+
+    public boolean isSourceFetchCoalescingEnabled() {
+        return isSourceFetchCoalescingEnabled;
+    }
+
+    public boolean isProbeKeyEnabled() {
+        return isProbeKeyEnabled;
+    }
+
+    /**
+     * Builds {@link EngineOptions}.
+     */
+    public static final class Builder {
+        boolean isLockStripingEnabled;
+        boolean isSourceFetchCoalescingEnabled;
+        boolean isProbeKeyEnabled;
+
+        /**
+         * @param isEnabled {@code true} to guard loads and job completions with one of several
+         *                  monitors chosen by the {@link EngineKey} instead of the Engine itself, so
+         *                  that loads for different keys never contend.
+         */
+        @NonNull
+        public Builder setLockStripingEnabled(boolean isEnabled) {
+            isLockStripingEnabled = isEnabled;
+            return this;
+        }
+
+        /**
+         * @param isEnabled {@code true} to let concurrent loads of the same source data, for
+         *                  example at different sizes, share a single fetch via the disk cache and
+         *                  then decode independently.
+         */
+        @NonNull
+        public Builder setSourceFetchCoalescingEnabled(boolean isEnabled) {
+            isSourceFetchCoalescingEnabled = isEnabled;
+            return this;
+        }
+
+        /**
+         * @param isEnabled {@code true} to look up resources in memory with a lookup-only key and
+         *                  only allocate an {@link EngineKey} when a new load has to start.
+         */
+        @NonNull
+        public Builder setProbeKeyEnabled(boolean isEnabled) {
+            isProbeKeyEnabled = isEnabled;
+            return this;
+        }
+
+        @NonNull
+        public EngineOptions build() {
+            return new EngineOptions(this);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.bumptech.glide4110.load.engine;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.Transformation;
+import com.bumptech.glide4110.util.Preconditions;
+
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * A reusable, lookup only key that is equal to the {@link EngineKey} built from the same arguments.
+ *
+ * <p>Obtained from {@link EngineKeyFactory#obtainProbeKey} for memory cache lookups that shouldn't
+ * allocate. Probe keys must never be stored, use {@link #materialize()} to obtain an {@link
+ * EngineKey} that can be.
+ */
+final class EngineProbeKey implements Key {
+  private Object model;
+  private int width;
+  private int height;
+  private Class<?> resourceClass;
+  private Class<?> transcodeClass;
+  private Key signature;
+  private Map<Class<?>, Transformation<?>> transformations;
+  private Options options;
+  private int hashCode;
+
+  void init(
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Map<Class<?>, Transformation<?>> transformations,
+      Class<?> resourceClass,
+      Class<?> transcodeClass,
+      Options options) {
+    this.model = Preconditions.checkNotNull(model);
+    this.signature = Preconditions.checkNotNull(signature, "Signature must not be null");
+    this.width = width;
+    this.height = height;
+    this.transformations = Preconditions.checkNotNull(transformations);
+    this.resourceClass =
+        Preconditions.checkNotNull(resourceClass, "Resource class must not be null");
+    this.transcodeClass =
+        Preconditions.checkNotNull(transcodeClass, "Transcode class must not be null");
+    this.options = Preconditions.checkNotNull(options);
+    hashCode = 0;
+  }
+
+  /** Returns a new immutable key equal to this key. */
+  @NonNull
+  EngineKey materialize() {
+    return new EngineKey(
+        model, signature, width, height, transformations, resourceClass, transcodeClass, options);
+  }
+
+  /** Drops the references held by this key so that it doesn't keep the last model alive. */
+  void clear() {
+    model = null;
+    signature = null;
+    transformations = null;
+    resourceClass = null;
+    transcodeClass = null;
+    options = null;
+    hashCode = 0;
+  }
+
+  /** Returns {@code true} if this key was initialized with the given arguments. */
+  boolean matches(
+      Object model,
+      Key signature,
+      int width,
+      int height,
+      Map<Class<?>, Transformation<?>> transformations,
+      Class<?> resourceClass,
+      Class<?> transcodeClass,
+      Options options) {
+    return this.model.equals(model)
+        && this.signature.equals(signature)
+        && this.height == height
+        && this.width == width
+        && this.transformations.equals(transformations)
+        && this.resourceClass.equals(resourceClass)
+        && this.transcodeClass.equals(transcodeClass)
+        && this.options.equals(options);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof EngineProbeKey) {
+      EngineProbeKey other = (EngineProbeKey) o;
+      return matches(
+          other.model,
+          other.signature,
+          other.width,
+          other.height,
+          other.transformations,
+          other.resourceClass,
+          other.transcodeClass,
+          other.options);
+    } else if (o instanceof EngineKey) {
+      return o.equals(this);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    if (hashCode == 0) {
+      hashCode =
+          EngineKey.hash(
+              model,
+              signature,
+              width,
+              height,
+              transformations,
+              resourceClass,
+              transcodeClass,
+              options);
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "EngineProbeKey{"
+        + "model="
+        + model
+        + ", width="
+        + width
+        + ", height="
+        + height
+        + ", resourceClass="
+        + resourceClass
+        + ", transcodeClass="
+        + transcodeClass
+        + ", signature="
+        + signature
+        + ", hashCode="
+        + hashCode
+        + ", transformations="
+        + transformations
+        + ", options="
+        + options
+        + '}';
+  }
+
+  @Override
+  public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+    throw new UnsupportedOperationException();
+  }
+}
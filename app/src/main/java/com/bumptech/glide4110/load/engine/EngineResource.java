@@ -38,6 +38,10 @@ class EngineResource<Z> implements Resource<Z> {
         this.listener = Preconditions.checkNotNull(listener);
     }
 
+    Key getKey() {
+        return key;
+    }
+
     Resource<Z> getResource() {
         return resource;
     }
@@ -6,10 +6,29 @@ import com.bumptech.glide4110.load.Key;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 final class Jobs {
-  private final Map<Key, com.bumptech.glide4110.load.engine.EngineJob<?>> jobs = new HashMap<>();
-  private final Map<Key, com.bumptech.glide4110.load.engine.EngineJob<?>> onlyCacheJobs = new HashMap<>();
+  private final Map<Key, com.bumptech.glide4110.load.engine.EngineJob<?>> jobs;
+  private final Map<Key, com.bumptech.glide4110.load.engine.EngineJob<?>> onlyCacheJobs;
+
+  Jobs() {
+    this(/*isConcurrent=*/ false);
+  }
+
+  /**
+   * @param isConcurrent {@code true} if callers only hold a per key lock rather than a single lock
+   *     for all keys, in which case the backing maps must be safe for concurrent access.
+   */
+  Jobs(boolean isConcurrent) {
+    if (isConcurrent) {
+      jobs = new ConcurrentHashMap<>();
+      onlyCacheJobs = new ConcurrentHashMap<>();
+    } else {
+      jobs = new HashMap<>();
+      onlyCacheJobs = new HashMap<>();
+    }
+  }
 
   @VisibleForTesting
   Map<Key, com.bumptech.glide4110.load.engine.EngineJob<?>> getAll() {
@@ -25,10 +44,7 @@ final class Jobs {
   }
 
   void removeIfCurrent(Key key, com.bumptech.glide4110.load.engine.EngineJob<?> expected) {
-    Map<Key, com.bumptech.glide4110.load.engine.EngineJob<?>> jobMap = getJobMap(expected.onlyRetrieveFromCache());
-    if (expected.equals(jobMap.get(key))) {
-      jobMap.remove(key);
-    }
+    getJobMap(expected.onlyRetrieveFromCache()).remove(key, expected);
   }
 
   private Map<Key, com.bumptech.glide4110.load.engine.EngineJob<?>> getJobMap(boolean onlyRetrieveFromCache) {
@@ -0,0 +1,82 @@
+package com.bumptech.glide4110.load.engine;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide4110.GlideMetrics;
+import com.bumptech.glide4110.load.DataSource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from fetched source data and reports them to {@link
+ * GlideMetrics#onDataFetched(Class, DataSource, long, long)} once the end of the stream is reached,
+ * so that both the size and the duration include the whole body rather than stopping when the
+ * stream becomes available.
+ *
+ * <p>Nothing is reported if the stream isn't read to its end, for example if the load is cancelled.
+ */
+final class MeasuredInputStream extends FilterInputStream {
+    private final GlideMetrics metrics;
+    private final Class<?> dataClass;
+    private final DataSource dataSource;
+    private final long startNanos;
+    private long bytesRead;
+    private boolean isReported;
+
+    MeasuredInputStream(
+            @NonNull InputStream in,
+            @NonNull GlideMetrics metrics,
+            @NonNull Class<?> dataClass,
+            @NonNull DataSource dataSource,
+            long startNanos) {
+        super(in);
+        this.metrics = metrics;
+        this.dataClass = dataClass;
+        this.dataSource = dataSource;
+        this.startNanos = startNanos;
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+        int value = super.read();
+        onRead(value >= 0 ? 1 : -1);
+        return value;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer) throws IOException {
+        return read(buffer, 0 /*byteOffset*/, buffer.length /*byteCount*/);
+    }
+
+    @Override
+    public synchronized int read(@NonNull byte[] buffer, int byteOffset, int byteCount)
+            throws IOException {
+        int read = super.read(buffer, byteOffset, byteCount);
+        onRead(read);
+        return read;
+    }
+
+    @Override
+    public synchronized long skip(long byteCount) throws IOException {
+        long skipped = super.skip(byteCount);
+        bytesRead += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        // Bytes read again after a reset would be counted twice.
+        return false;
+    }
+
+    private void onRead(int read) {
+        if (read >= 0) {
+            bytesRead += read;
+        } else if (!isReported) {
+            isReported = true;
+            metrics.onDataFetched(dataClass, dataSource, bytesRead, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.bumptech.glide4110.load.data.DataFetcher;
 import com.bumptech.glide4110.load.model.ModelLoader;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -24,13 +25,13 @@ class ResourceCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCa
     private int sourceIdIndex;
     private int resourceClassIndex = -1;
     private com.bumptech.glide4110.load.Key sourceKey;
-    private List<ModelLoader<File, ?>> modelLoaders;
+    private List<ModelLoader<Object, ?>> modelLoaders;
     private int modelLoaderIndex;
     private volatile ModelLoader.LoadData<?> loadData;
-    // PMD is wrong here, this File must be an instance variable because it may be used across
-    // multiple calls to startNext.
+    // PMD is wrong here, this File or ByteBuffer must be an instance variable because it may be used
+    // across multiple calls to startNext.
     @SuppressWarnings("PMD.SingularField")
-    private File cacheFile;
+    private Object cacheData;
 
     private ResourceCacheKey currentKey;
 
@@ -59,6 +60,15 @@ class ResourceCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCa
                             + helper.getTranscodeClass());
         }
         while (modelLoaders == null || !hasNextModelLoader()) {
+            if (cacheData instanceof ByteBuffer) {
+                // Nothing decoded the buffer, retry the entry as a File, which more loaders accept.
+                cacheData = helper.getDiskCacheFile(currentKey);
+                if (cacheData != null) {
+                    modelLoaders = helper.getModelLoaders(cacheData);
+                    modelLoaderIndex = 0;
+                    continue;
+                }
+            }
             resourceClassIndex++;
             if (resourceClassIndex >= resourceClasses.size()) {
                 sourceIdIndex++;
@@ -85,21 +95,24 @@ class ResourceCacheGenerator implements DataFetcherGenerator, DataFetcher.DataCa
                             resourceClass,
                             helper.getOptions());
             //从磁盘缓存中获取资源
-            cacheFile = helper.getDiskCache().get(currentKey);
-            if (cacheFile != null) {
+            cacheData = helper.getDiskCacheData(currentKey);
+            if (cacheData != null) {
+                helper.getMetrics().onDiskCacheHit(currentKey, DataSource.RESOURCE_DISK_CACHE);
                 sourceKey = sourceId;
-                modelLoaders = helper.getModelLoaders(cacheFile);
+                modelLoaders = helper.getModelLoaders(cacheData);
                 modelLoaderIndex = 0;
+            } else {
+                helper.getMetrics().onDiskCacheMiss(currentKey, DataSource.RESOURCE_DISK_CACHE);
             }
         }
 
         loadData = null;
         boolean started = false;
         while (!started && hasNextModelLoader()) {
-            ModelLoader<File, ?> modelLoader = modelLoaders.get(modelLoaderIndex++);
+            ModelLoader<Object, ?> modelLoader = modelLoaders.get(modelLoaderIndex++);
             loadData =
                     modelLoader.buildLoadData(
-                            cacheFile, helper.getWidth(), helper.getHeight(), helper.getOptions());
+                            cacheData, helper.getWidth(), helper.getHeight(), helper.getOptions());
             if (loadData != null && helper.hasLoadPath(loadData.fetcher.getDataClass())) {
                 started = true;
                 loadData.fetcher.loadData(helper.getPriority(), this);
@@ -0,0 +1,76 @@
+package com.bumptech.glide4110.load.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks which {@link DataCacheKey}s are currently being fetched from source so that concurrent
+ * loads of the same source data, for example at different target sizes, share a single fetch.
+ *
+ * <p>The first {@link SourceGenerator} to ask for a key becomes its leader and fetches and writes
+ * the data to the disk cache as usual. Any others that ask for the same key while the leader is in
+ * flight wait without holding a thread and are notified when the leader finishes, at which point
+ * they read the shared data from the disk cache and decode it independently. If the leader fails,
+ * is cancelled or doesn't write to the disk cache, the waiters find nothing in the cache and fetch
+ * the data themselves.
+ *
+ * <p>Only data that the request's {@link DiskCacheStrategy} allows to be written to the disk cache
+ * can be shared.
+ */
+final class SourceFetchCoalescer {
+  private final Map<DataCacheKey, List<Waiter>> inFlight = new HashMap<>();
+
+  /** Notified when the leader for a key has finished, successfully or otherwise. */
+  interface Waiter {
+    void onCoalescedFetchComplete();
+  }
+
+  /**
+   * Returns {@code true} if the caller should fetch the data for the given key itself, or {@code
+   * false} if another fetch is already in flight and the given waiter will be notified when it
+   * completes.
+   */
+  synchronized boolean acquireOrWait(@NonNull DataCacheKey key, @NonNull Waiter waiter) {
+    List<Waiter> waiters = inFlight.get(key);
+    if (waiters == null) {
+      inFlight.put(key, new ArrayList<Waiter>());
+      return true;
+    }
+    waiters.add(waiter);
+    return false;
+  }
+
+  /** Marks the fetch for the given key as finished and notifies any waiters. */
+  void release(@NonNull DataCacheKey key) {
+    List<Waiter> waiters;
+    synchronized (this) {
+      waiters = inFlight.remove(key);
+    }
+    if (waiters == null) {
+      return;
+    }
+    //noinspection ForLoopReplaceableByForEach to improve perf
+    for (int i = 0, size = waiters.size(); i < size; i++) {
+      waiters.get(i).onCoalescedFetchComplete();
+    }
+  }
+
+  /**
+   * Stops waiting on the given key and returns {@code true} if the waiter was removed before it was
+   * notified.
+   */
+  synchronized boolean removeWaiter(@NonNull DataCacheKey key, @NonNull Waiter waiter) {
+    List<Waiter> waiters = inFlight.get(key);
+    return waiters != null && waiters.remove(waiter);
+  }
+
+  @VisibleForTesting
+  synchronized int getInFlightCount() {
+    return inFlight.size();
+  }
+}
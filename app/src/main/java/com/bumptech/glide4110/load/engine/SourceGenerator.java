@@ -1,18 +1,24 @@
 package com.bumptech.glide4110.load.engine;
 
+import android.graphics.Bitmap;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.bumptech.glide4110.GlideMetrics;
 import com.bumptech.glide4110.load.DataSource;
 import com.bumptech.glide4110.load.Encoder;
 import com.bumptech.glide4110.load.Key;
 import com.bumptech.glide4110.load.data.DataFetcher;
 import com.bumptech.glide4110.load.model.ModelLoader;
+import com.bumptech.glide4110.load.resource.bitmap.ProgressiveJpegInputStream;
 import com.bumptech.glide4110.util.LogTime;
 import com.bumptech.glide4110.util.Synthetic;
 
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 
 /**
@@ -23,21 +29,37 @@ import java.util.Collections;
  * <p>Depending on the disk cache strategy, source data may first be written to disk and then loaded
  * from the cache file rather than returned directly.
  */
-class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.FetcherReadyCallback {
+class SourceGenerator
+        implements DataFetcherGenerator,
+        DataFetcherGenerator.FetcherReadyCallback,
+        SourceFetchCoalescer.Waiter {
     private static final String TAG = "SourceGenerator";
 
     private final DecodeHelper<?> helper;
     private final FetcherReadyCallback cb;
+    @Nullable
+    private final SourceFetchCoalescer coalescer;
 
     private int loadDataListIndex;
     private DataCacheGenerator sourceCacheGenerator;
     private Object dataToCache;
     private volatile ModelLoader.LoadData<?> loadData;
     private DataCacheKey originalKey;
+    // The key we're fetching on behalf of other loads, or waiting on another load to fetch.
+    private volatile DataCacheKey coalescedKey;
+    private boolean isCoalescedLeader;
+    // Set once a coalesced fetch we waited on is done so that we fetch ourselves if it failed.
+    private boolean isCoalescingBypassed;
 
     SourceGenerator(DecodeHelper<?> helper, FetcherReadyCallback cb) {
+        this(helper, cb, /*coalescer=*/ null);
+    }
+
+    SourceGenerator(
+            DecodeHelper<?> helper, FetcherReadyCallback cb, @Nullable SourceFetchCoalescer coalescer) {
         this.helper = helper;
         this.cb = cb;
+        this.coalescer = coalescer;
     }
 
     /**
@@ -66,25 +88,71 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
                     && (helper.getDiskCacheStrategy().isDataCacheable(loadData.fetcher.getDataSource())
                     || helper.hasLoadPath(loadData.fetcher.getDataClass()))) {
                 started = true;
+                if (!acquireOrWait(loadData)) {
+                    // Another load is fetching the same data, we'll be rescheduled once it's cached.
+                    return true;
+                }
                 startNextLoad(loadData);
             }
         }
         return started;
     }
 
+    /**
+     * Returns {@code true} if the given data should be fetched now, or {@code false} if we'll wait
+     * for another load to fetch and cache it.
+     */
+    private boolean acquireOrWait(ModelLoader.LoadData<?> toStart) {
+        if (isCoalescingBypassed) {
+            isCoalescingBypassed = false;
+            return true;
+        }
+        if (coalescer == null
+                || !helper.getDiskCacheStrategy().isDataCacheable(toStart.fetcher.getDataSource())) {
+            return true;
+        }
+        DataCacheKey key = new DataCacheKey(toStart.sourceKey, helper.getSignature());
+        coalescedKey = key;
+        isCoalescedLeader = coalescer.acquireOrWait(key, this);
+        return isCoalescedLeader;
+    }
+
+    /** Lets any loads waiting on our fetch continue, called once we're done with the source. */
+    private void releaseCoalescedFetch() {
+        DataCacheKey key = coalescedKey;
+        if (coalescer != null && isCoalescedLeader && key != null) {
+            isCoalescedLeader = false;
+            coalescedKey = null;
+            coalescer.release(key);
+        }
+    }
+
+    @Override
+    public void onCoalescedFetchComplete() {
+        // Called on the leader's thread. Try the disk cache for the data the leader wrote, and
+        // fall back to fetching the same load data ourselves if it's not there.
+        coalescedKey = null;
+        isCoalescingBypassed = true;
+        loadDataListIndex--;
+        sourceCacheGenerator =
+                new DataCacheGenerator(Collections.singletonList(loadData.sourceKey), helper, this);
+        cb.reschedule();
+    }
+
     /**
      * 加载数据的地方
      *
      * @param toStart
      */
     private void startNextLoad(final ModelLoader.LoadData<?> toStart) {
+        final long fetchStartNanos = System.nanoTime();
         loadData.fetcher.loadData(
                 helper.getPriority(),
                 new DataFetcher.DataCallback<Object>() {
                     @Override
                     public void onDataReady(@Nullable Object data) {
                         if (isCurrentRequest(toStart)) {
-                            onDataReadyInternal(toStart, data);
+                            onDataReadyInternal(toStart, measure(toStart, data, fetchStartNanos));
                         }
                     }
 
@@ -128,6 +196,7 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
             originalKey = new DataCacheKey(loadData.sourceKey, helper.getSignature());
             //将数据缓存到磁盘缓存
             helper.getDiskCache().put(originalKey, writer);
+            releaseCoalescedFetch();
             if (Log.isLoggable(TAG, Log.VERBOSE)) {
                 Log.v(
                         TAG,
@@ -143,23 +212,66 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
             }
         } finally {
             loadData.fetcher.cleanup();
+            // No-op if the write above succeeded.
+            releaseCoalescedFetch();
         }
 
         sourceCacheGenerator =
                 new DataCacheGenerator(Collections.singletonList(loadData.sourceKey), helper, this);
     }
 
+    /**
+     * Reports fetched data to {@link com.bumptech.glide4110.GlideMetrics}, immediately if its size
+     * is known or, for streams, once they've been read to the end.
+     */
+    @Nullable
+    @Synthetic
+    Object measure(ModelLoader.LoadData<?> loadData, @Nullable Object data, long startNanos) {
+        GlideMetrics metrics = helper.getMetrics();
+        if (data == null || metrics == GlideMetrics.NONE) {
+            return data;
+        }
+        Class<?> dataClass = loadData.fetcher.getDataClass();
+        DataSource dataSource = loadData.fetcher.getDataSource();
+        if (data instanceof InputStream) {
+            return new MeasuredInputStream(
+                    (InputStream) data, metrics, dataClass, dataSource, startNanos);
+        }
+        long bytes;
+        if (data instanceof ByteBuffer) {
+            bytes = ((ByteBuffer) data).remaining();
+        } else if (data instanceof byte[]) {
+            bytes = ((byte[]) data).length;
+        } else if (data instanceof File) {
+            bytes = ((File) data).length();
+        } else {
+            bytes = -1;
+        }
+        metrics.onDataFetched(dataClass, dataSource, bytes, System.nanoTime() - startNanos);
+        return data;
+    }
+
     @Override
     public void cancel() {
         ModelLoader.LoadData<?> local = loadData;
         if (local != null) {
             local.fetcher.cancel();
         }
+        if (isCoalescedLeader) {
+            releaseCoalescedFetch();
+            return;
+        }
+        DataCacheKey key = coalescedKey;
+        if (coalescer != null && key != null && coalescer.removeWaiter(key, this)) {
+            // Nothing else will run us again, reschedule so that the cancelled job can clean up.
+            cb.reschedule();
+        }
     }
 
     @SuppressWarnings("WeakerAccess")
     @Synthetic
     void onDataReadyInternal(ModelLoader.LoadData<?> loadData, Object data) {
+        data = maybeDecodeInterimFrames(loadData, data);
         DiskCacheStrategy diskCacheStrategy = helper.getDiskCacheStrategy();
         if (data != null && diskCacheStrategy.isDataCacheable(loadData.fetcher.getDataSource())) {
             dataToCache = data;
@@ -167,6 +279,7 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
             // reschedule to get back onto Glide's thread.
             cb.reschedule();
         } else {
+            releaseCoalescedFetch();
             cb.onDataFetcherReady(
                     loadData.sourceKey,
                     data,
@@ -176,9 +289,36 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
         }
     }
 
+    /**
+     * Wraps remote streams so that previews are decoded as the data is read, either by the source
+     * encoder while it's written to the disk cache or by the decoder.
+     */
+    private Object maybeDecodeInterimFrames(ModelLoader.LoadData<?> loadData, Object data) {
+        if (!(data instanceof InputStream)
+                || loadData.fetcher.getDataSource() != DataSource.REMOTE) {
+            return data;
+        }
+        Integer maxFrames = helper.getOptions().get(ProgressiveJpegInputStream.MAX_INTERIM_FRAMES);
+        if (maxFrames == null || maxFrames <= 0) {
+            return data;
+        }
+        return new ProgressiveJpegInputStream(
+                (InputStream) data,
+                maxFrames,
+                helper.getWidth(),
+                helper.getHeight(),
+                new ProgressiveJpegInputStream.FrameListener() {
+                    @Override
+                    public void onFrame(@NonNull Bitmap frame) {
+                        onInterimFrame(frame);
+                    }
+                });
+    }
+
     @SuppressWarnings("WeakerAccess")
     @Synthetic
     void onLoadFailedInternal(ModelLoader.LoadData<?> loadData, @NonNull Exception e) {
+        releaseCoalescedFetch();
         cb.onDataFetcherFailed(originalKey, e, loadData.fetcher, loadData.fetcher.getDataSource());
     }
 
@@ -203,4 +343,9 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcherGenerator.Fetc
             Key sourceKey, Exception e, DataFetcher<?> fetcher, DataSource dataSource) {
         cb.onDataFetcherFailed(sourceKey, e, fetcher, loadData.fetcher.getDataSource());
     }
+
+    @Override
+    public void onInterimFrame(@NonNull Bitmap frame) {
+        cb.onInterimFrame(frame);
+    }
 }
@@ -0,0 +1,186 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * A pool of direct {@link ByteBuffer}s, whose memory is allocated outside of the Java heap, for
+ * holding encoded image data while it's decoded.
+ *
+ * <p>Reading a stream into a {@link ByteBuffer} for the {@link ByteBuffer} based decoders otherwise
+ * copies the data through several heap arrays that grow as the stream is read, which counts against
+ * the heap limit and causes garbage collections while scrolling through large images. Buffers from
+ * this pool are reused across decodes, so neither the heap nor the native allocator is involved
+ * once the pool is warm.
+ *
+ * <p>Capacities are rounded up to powers of two, starting at {@link #MIN_CAPACITY}, and each
+ * capacity has its own free list. When the pool is over its maximum size, buffers of the largest
+ * capacity are evicted first, since they're the least likely to be reused.
+ *
+ * <p>Use via {@link com.bumptech.glide4110.GlideBuilder#setDirectByteBufferPool(DirectByteBufferPool)}.
+ */
+public final class DirectByteBufferPool {
+    private static final String TAG = "DirectByteBufferPool";
+    // 4MB, the same as LruArrayPool.
+    private static final int DEFAULT_SIZE = 4 * 1024 * 1024;
+    private static final int MIN_CAPACITY_SHIFT = 14;
+    /** The smallest capacity of the buffers returned by {@link #get(int)}. */
+    public static final int MIN_CAPACITY = 1 << MIN_CAPACITY_SHIFT;
+    /**
+     * Used to calculate the maximum % of the total pool size a single buffer may consume.
+     */
+    private static final int SINGLE_BUFFER_MAX_SIZE_DIVISOR = 2;
+
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<ByteBuffer>[] freeLists = new ArrayDeque[31 - MIN_CAPACITY_SHIFT];
+    private final long initialMaxSize;
+    private long maxSize;
+    private long currentSize;
+    private int hits;
+    private int misses;
+    private int evictions;
+
+    public DirectByteBufferPool() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor for a new pool.
+     *
+     * @param maxSize The maximum size in bytes of the buffers held by the pool.
+     */
+    public DirectByteBufferPool(long maxSize) {
+        this.initialMaxSize = maxSize;
+        this.maxSize = maxSize;
+        for (int i = 0; i < freeLists.length; i++) {
+            freeLists[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Returns a direct {@link ByteBuffer} with a capacity of at least the given size, a position of
+     * zero and a limit equal to its capacity.
+     */
+    @NonNull
+    public synchronized ByteBuffer get(int minCapacity) {
+        int index = getIndex(minCapacity);
+        ByteBuffer result = index < freeLists.length ? freeLists[index].pollFirst() : null;
+        if (result == null) {
+            misses++;
+            int capacity = index < freeLists.length ? getCapacity(index) : minCapacity;
+            if (Log.isLoggable(TAG, Log.VERBOSE)) {
+                Log.v(TAG, "Allocated " + capacity + " bytes");
+            }
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        hits++;
+        currentSize -= result.capacity();
+        result.clear();
+        return result;
+    }
+
+    /**
+     * Returns the given buffer to the pool, if it was obtained from {@link #get(int)} and is small
+     * enough to be reused.
+     *
+     * <p>Callers must not use the buffer, or any buffer sharing its memory, after calling this method.
+     */
+    public synchronized void put(@NonNull ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        if (!buffer.isDirect()
+                || Integer.bitCount(capacity) != 1
+                || capacity < MIN_CAPACITY
+                || capacity > maxSize / SINGLE_BUFFER_MAX_SIZE_DIVISOR) {
+            return;
+        }
+        freeLists[getIndex(capacity)].addFirst(buffer);
+        currentSize += capacity;
+        evictToSize(maxSize);
+    }
+
+    /** Returns the number of requests satisfied by a buffer in the pool. */
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    /** Returns the number of requests that required a new buffer to be allocated. */
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    /** Returns the number of buffers that have been evicted from the pool. */
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    /** Returns the current size of the pool in bytes. */
+    public synchronized long getCurrentSize() {
+        return currentSize;
+    }
+
+    /** Returns the current maximum size of the pool in bytes. */
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Multiplies the size given in the constructor by the given multiplier, evicting buffers if the
+     * pool is now larger than the new maximum size.
+     *
+     * @param sizeMultiplier The size multiplier to apply, which must be >= 0.
+     */
+    public synchronized void setSizeMultiplier(float sizeMultiplier) {
+        if (sizeMultiplier < 0) {
+            throw new IllegalArgumentException("Multiplier must be >= 0");
+        }
+        maxSize = Math.round(initialMaxSize * sizeMultiplier);
+        evictToSize(maxSize);
+    }
+
+    /** Removes all buffers from the pool. */
+    public synchronized void clearMemory() {
+        evictToSize(0);
+    }
+
+    /**
+     * Reduces the size of the pool based on the given level.
+     *
+     * @see ComponentCallbacks2
+     */
+    public synchronized void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            clearMemory();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            evictToSize(maxSize / 2);
+        }
+    }
+
+    private void evictToSize(long size) {
+        for (int i = freeLists.length - 1; i >= 0 && currentSize > size; i--) {
+            ArrayDeque<ByteBuffer> freeList = freeLists[i];
+            while (currentSize > size && !freeList.isEmpty()) {
+                // Direct memory is released when the buffer is garbage collected.
+                ByteBuffer evicted = freeList.pollLast();
+                currentSize -= evicted.capacity();
+                evictions++;
+            }
+        }
+    }
+
+    private static int getIndex(int capacity) {
+        if (capacity <= MIN_CAPACITY) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_CAPACITY_SHIFT;
+    }
+
+    private static int getCapacity(int index) {
+        return 1 << (index + MIN_CAPACITY_SHIFT);
+    }
+}
@@ -37,12 +37,16 @@ public final class LruArrayPool implements ArrayPool {
     private final KeyPool keyPool = new KeyPool();
     private final Map<Class<?>, NavigableMap<Integer, Integer>> sortedSizes = new HashMap<>();
     private final Map<Class<?>, ArrayAdapterInterface<?>> adapters = new HashMap<>();
-    private final int maxSize;
+    private final int initialMaxSize;
+    private int maxSize;
     private int currentSize;
+    private int hits;
+    private int misses;
+    private int evictions;
 
     @VisibleForTesting
     public LruArrayPool() {
-        maxSize = DEFAULT_SIZE;
+        this(DEFAULT_SIZE);
     }
 
     /**
@@ -51,9 +55,49 @@ public final class LruArrayPool implements ArrayPool {
      * @param maxSize The maximum size in integers of the pool.
      */
     public LruArrayPool(int maxSize) {
+        this.initialMaxSize = maxSize;
         this.maxSize = maxSize;
     }
 
+    /** Returns the number of requests satisfied by an array in the pool. */
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    /** Returns the number of requests that required a new array to be allocated. */
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    /** Returns the number of arrays that have been evicted from the pool. */
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    /** Returns the current size of the pool in bytes. */
+    public synchronized int getCurrentSize() {
+        return currentSize;
+    }
+
+    /** Returns the current maximum size of the pool in bytes. */
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Multiplies the size given in the constructor by the given multiplier, evicting arrays if the
+     * pool is now larger than the new maximum size.
+     *
+     * @param sizeMultiplier The size multiplier to apply, which must be >= 0.
+     */
+    public synchronized void setSizeMultiplier(float sizeMultiplier) {
+        if (sizeMultiplier < 0) {
+            throw new IllegalArgumentException("Multiplier must be >= 0");
+        }
+        maxSize = Math.round(initialMaxSize * sizeMultiplier);
+        evict();
+    }
+
     @Deprecated
     @Override
     public <T> void put(T array, Class<T> arrayClass) {
@@ -103,11 +147,13 @@ public final class LruArrayPool implements ArrayPool {
         ArrayAdapterInterface<T> arrayAdapter = getAdapterFromType(arrayClass);
         T result = getArrayForKey(key);
         if (result != null) {
+            hits++;
             currentSize -= arrayAdapter.getArrayLength(result) * arrayAdapter.getElementSizeInBytes();
             decrementArrayOfSize(arrayAdapter.getArrayLength(result), arrayClass);
         }
 
         if (result == null) {
+            misses++;
             if (Log.isLoggable(arrayAdapter.getTag(), Log.VERBOSE)) {
                 Log.v(arrayAdapter.getTag(), "Allocated " + key.size + " bytes");
             }
@@ -161,6 +207,7 @@ public final class LruArrayPool implements ArrayPool {
             Preconditions.checkNotNull(evicted);
             ArrayAdapterInterface<Object> arrayAdapter = getAdapterFromObject(evicted);
             currentSize -= arrayAdapter.getArrayLength(evicted) * arrayAdapter.getElementSizeInBytes();
+            evictions++;
             decrementArrayOfSize(arrayAdapter.getArrayLength(evicted), evicted.getClass());
             if (Log.isLoggable(arrayAdapter.getTag(), Log.VERBOSE)) {
                 Log.v(arrayAdapter.getTag(), "evicted: " + arrayAdapter.getArrayLength(evicted));
@@ -213,18 +260,6 @@ public final class LruArrayPool implements ArrayPool {
         return (ArrayAdapterInterface<T>) adapter;
     }
 
-    // VisibleForTesting
-    int getCurrentSize() {
-        int currentSize = 0;
-        for (Class<?> type : sortedSizes.keySet()) {
-            for (Integer size : sortedSizes.get(type).keySet()) {
-                ArrayAdapterInterface<?> adapter = getAdapterFromType(type);
-                currentSize += size * sortedSizes.get(type).get(size) * adapter.getElementSizeInBytes();
-            }
-        }
-        return currentSize;
-    }
-
     private static final class KeyPool extends BaseKeyPool<Key> {
 
         @com.bumptech.glide4110.util.Synthetic
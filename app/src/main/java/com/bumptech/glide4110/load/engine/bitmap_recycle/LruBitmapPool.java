@@ -10,6 +10,7 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.bumptech.glide4110.GlideMetrics;
 import com.bumptech.glide4110.util.Synthetic;
 
 import java.util.Arrays;
@@ -32,6 +33,7 @@ public class LruBitmapPool implements BitmapPool {
   private final Set<Bitmap.Config> allowedConfigs;
   private final long initialMaxSize;
   private final BitmapTracker tracker;
+  private final GlideMetrics metrics;
 
   private long maxSize;
   private long currentSize;
@@ -42,7 +44,16 @@ public class LruBitmapPool implements BitmapPool {
 
   // Exposed for testing only.
   LruBitmapPool(long maxSize, LruPoolStrategy strategy, Set<Bitmap.Config> allowedConfigs) {
+    this(maxSize, strategy, allowedConfigs, GlideMetrics.NONE);
+  }
+
+  private LruBitmapPool(
+      long maxSize,
+      LruPoolStrategy strategy,
+      Set<Bitmap.Config> allowedConfigs,
+      GlideMetrics metrics) {
     this.initialMaxSize = maxSize;
+    this.metrics = metrics;
     this.maxSize = maxSize;
     this.strategy = strategy;
     this.allowedConfigs = allowedConfigs;
@@ -71,6 +82,16 @@ public class LruBitmapPool implements BitmapPool {
     this(maxSize, getDefaultStrategy(), allowedConfigs);
   }
 
+  /**
+   * Constructor for LruBitmapPool.
+   *
+   * @param maxSize The initial maximum size of the pool in bytes.
+   * @param metrics Notified each time a Bitmap is or isn't available for reuse.
+   */
+  public LruBitmapPool(long maxSize, @NonNull GlideMetrics metrics) {
+    this(maxSize, getDefaultStrategy(), getDefaultAllowedConfigs(), metrics);
+  }
+
   /** Returns the number of cache hits for bitmaps in the pool. */
   public long hitCount() {
     return hits;
@@ -152,11 +173,13 @@ public class LruBitmapPool implements BitmapPool {
   public Bitmap get(int width, int height, Bitmap.Config config) {
     Bitmap result = getDirtyOrNull(width, height, config);
     if (result != null) {
+      metrics.onBitmapPoolHit(width, height, config);
       // Bitmaps in the pool contain random data that in some cases must be cleared for an image
       // to be rendered correctly. we shouldn't force all consumers to independently erase the
       // contents individually, so we do so here. See issue #131.
       result.eraseColor(Color.TRANSPARENT);
     } else {
+      metrics.onBitmapPoolMiss(width, height, config);
       result = createBitmap(width, height, config);
     }
 
@@ -168,7 +191,10 @@ public class LruBitmapPool implements BitmapPool {
   public Bitmap getDirty(int width, int height, Bitmap.Config config) {
     Bitmap result = getDirtyOrNull(width, height, config);
     if (result == null) {
+      metrics.onBitmapPoolMiss(width, height, config);
       result = createBitmap(width, height, config);
+    } else {
+      metrics.onBitmapPoolHit(width, height, config);
     }
     return result;
   }
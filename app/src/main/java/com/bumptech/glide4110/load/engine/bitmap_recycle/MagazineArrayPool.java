@@ -0,0 +1,362 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import android.content.ComponentCallbacks2;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.util.Synthetic;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link ArrayPool} that serves the buffer sizes Glide requests on every load from small per
+ * thread magazines without taking a lock.
+ *
+ * <p>{@link LruArrayPool} synchronizes every get and put, and each decode obtains several {@link
+ * ArrayPool#STANDARD_BUFFER_SIZE_BYTES} buffers through it from {@link
+ * com.bumptech.glide4110.load.resource.bitmap.Downsampler}, {@link
+ * com.bumptech.glide4110.load.resource.bitmap.RecyclableBufferedInputStream} and {@link
+ * com.bumptech.glide4110.load.model.StreamEncoder}, so Glide's threads contend on it constantly.
+ * This pool keeps a few arrays of each standard size in a magazine owned by the calling thread.
+ * Arrays that don't fit in the magazine overflow into a lock free queue shared by all threads,
+ * which is also where a thread looks when its magazine is empty. Arrays left in the magazine of a
+ * thread that has finished move back to the shared queues when another thread first uses the pool
+ * or when the pool is trimmed. Arrays of any other size are pooled by a {@link LruArrayPool}.
+ *
+ * <p>Half of the maximum size is available to the magazines and shared queues combined, the other
+ * half to the {@link LruArrayPool}, so the pool as a whole uses no more memory than a {@link
+ * LruArrayPool} of the same size. Per size hit statistics are available from {@link #getStats()}.
+ *
+ * <p>Use via {@link com.bumptech.glide4110.GlideBuilder#setArrayPool(ArrayPool)}.
+ */
+public final class MagazineArrayPool implements ArrayPool {
+    // 4MB, the same as LruArrayPool.
+    private static final int DEFAULT_SIZE = 4 * 1024 * 1024;
+    private static final int MAGAZINE_CAPACITY = 2;
+    // Used by ResourceCacheKey for every resource disk cache lookup.
+    private static final int RESOURCE_CACHE_KEY_DIMENSIONS_SIZE = 8;
+
+    private final StandardSize[] standardSizes;
+    private final LruArrayPool otherSizes;
+    private final int maxStandardSizeBytes;
+    private final AtomicInteger standardSizeBytes = new AtomicInteger();
+    private final List<Magazine> magazines = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Magazine> localMagazine =
+            new ThreadLocal<Magazine>() {
+                @Override
+                protected Magazine initialValue() {
+                    return newMagazine();
+                }
+            };
+
+    public MagazineArrayPool() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor for a new pool.
+     *
+     * @param maxSize The maximum size in bytes of the pool.
+     */
+    public MagazineArrayPool(int maxSize) {
+        ByteArrayAdapter byteArrayAdapter = new ByteArrayAdapter();
+        standardSizes =
+                new StandardSize[] {
+                    new StandardSize(byteArrayAdapter, byte[].class, ArrayPool.STANDARD_BUFFER_SIZE_BYTES),
+                    new StandardSize(byteArrayAdapter, byte[].class, RESOURCE_CACHE_KEY_DIMENSIONS_SIZE),
+                };
+        maxStandardSizeBytes = maxSize / 2;
+        otherSizes = new LruArrayPool(maxSize - maxStandardSizeBytes);
+    }
+
+    @Deprecated
+    @Override
+    public <T> void put(T array, Class<T> arrayClass) {
+        put(array);
+    }
+
+    @Override
+    public <T> void put(T array) {
+        int index = getStandardSizeIndex(array);
+        if (index < 0) {
+            otherSizes.put(array);
+            return;
+        }
+        StandardSize standardSize = standardSizes[index];
+        if (standardSizeBytes.addAndGet(standardSize.byteSize) > maxStandardSizeBytes) {
+            standardSizeBytes.addAndGet(-standardSize.byteSize);
+            return;
+        }
+        if (!localMagazine.get().offer(index, array)) {
+            standardSize.shared.offer(array);
+        }
+    }
+
+    @Override
+    public <T> T get(int size, Class<T> arrayClass) {
+        int index = getStandardSizeIndex(size, arrayClass);
+        return index < 0 ? otherSizes.get(size, arrayClass) : getStandardSize(index, arrayClass);
+    }
+
+    @Override
+    public <T> T getExact(int size, Class<T> arrayClass) {
+        int index = getStandardSizeIndex(size, arrayClass);
+        return index < 0 ? otherSizes.getExact(size, arrayClass) : getStandardSize(index, arrayClass);
+    }
+
+    private <T> T getStandardSize(int index, Class<T> arrayClass) {
+        StandardSize standardSize = standardSizes[index];
+        Object result = localMagazine.get().poll(index);
+        if (result != null) {
+            standardSize.magazineHits.increment();
+        } else {
+            result = standardSize.shared.poll();
+            if (result != null) {
+                standardSize.sharedHits.increment();
+            }
+        }
+        if (result == null) {
+            standardSize.misses.increment();
+            result = standardSize.adapter.newArray(standardSize.length);
+        } else {
+            standardSizeBytes.addAndGet(-standardSize.byteSize);
+        }
+        return arrayClass.cast(result);
+    }
+
+    private int getStandardSizeIndex(int size, Class<?> arrayClass) {
+        for (int i = 0; i < standardSizes.length; i++) {
+            StandardSize standardSize = standardSizes[i];
+            if (standardSize.length == size && standardSize.arrayClass == arrayClass) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int getStandardSizeIndex(Object array) {
+        for (int i = 0; i < standardSizes.length; i++) {
+            StandardSize standardSize = standardSizes[i];
+            if (standardSize.arrayClass == array.getClass()
+                    && standardSize.adapter.getArrayLength(array) == standardSize.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void clearMemory() {
+        trimStandardSizesToSize(0);
+        otherSizes.clearMemory();
+    }
+
+    @Override
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            clearMemory();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimStandardSizesToSize(maxStandardSizeBytes / 2);
+            otherSizes.trimMemory(level);
+        }
+    }
+
+    /**
+     * Returns hit statistics for each standard size, followed by combined statistics for all other
+     * sizes.
+     */
+    @NonNull
+    public List<SizeStats> getStats() {
+        List<SizeStats> result = new ArrayList<>(standardSizes.length + 1);
+        for (StandardSize standardSize : standardSizes) {
+            result.add(
+                    new SizeStats(
+                            standardSize.arrayClass,
+                            standardSize.length,
+                            standardSize.magazineHits.sum(),
+                            standardSize.sharedHits.sum(),
+                            standardSize.misses.sum()));
+        }
+        result.add(
+                new SizeStats(
+                        Object.class,
+                        SizeStats.OTHER_SIZES,
+                        /*magazineHits=*/ 0,
+                        otherSizes.hitCount(),
+                        otherSizes.missCount()));
+        return Collections.unmodifiableList(result);
+    }
+
+    @Synthetic
+    Magazine newMagazine() {
+        // Threads come and go in Glide's executors, so a new thread is a good time to recover the
+        // arrays held for threads that have finished, which still count against the pool's size.
+        reclaimDeadMagazines();
+        Magazine magazine = new Magazine(Thread.currentThread(), standardSizes.length);
+        magazines.add(magazine);
+        return magazine;
+    }
+
+    /**
+     * Hands the arrays held for threads that have finished back to the shared queues, where they can
+     * be reused by other threads or trimmed. They're unreachable from anywhere else.
+     */
+    private void reclaimDeadMagazines() {
+        for (Magazine magazine : magazines) {
+            Thread owner = magazine.owner.get();
+            if (owner == null || !owner.isAlive()) {
+                magazines.remove(magazine);
+                for (int index = 0; index < standardSizes.length; index++) {
+                    Object array;
+                    while ((array = magazine.poll(index)) != null) {
+                        standardSizes[index].shared.offer(array);
+                    }
+                }
+            }
+        }
+    }
+
+    private void trimStandardSizesToSize(int size) {
+        reclaimDeadMagazines();
+        for (StandardSize standardSize : standardSizes) {
+            while (standardSizeBytes.get() > size && standardSize.shared.poll() != null) {
+                standardSizeBytes.addAndGet(-standardSize.byteSize);
+            }
+        }
+        for (Magazine magazine : magazines) {
+            for (int index = 0; index < standardSizes.length; index++) {
+                while (standardSizeBytes.get() > size && magazine.poll(index) != null) {
+                    standardSizeBytes.addAndGet(-standardSizes[index].byteSize);
+                }
+            }
+        }
+    }
+
+    /** Hit statistics for arrays of one size. */
+    public static final class SizeStats {
+        /** The size reported for the statistics of all sizes that aren't served from magazines. */
+        public static final int OTHER_SIZES = -1;
+
+        private final Class<?> arrayClass;
+        private final int size;
+        private final long magazineHits;
+        private final long sharedHits;
+        private final long misses;
+
+        @Synthetic
+        SizeStats(Class<?> arrayClass, int size, long magazineHits, long sharedHits, long misses) {
+            this.arrayClass = arrayClass;
+            this.size = size;
+            this.magazineHits = magazineHits;
+            this.sharedHits = sharedHits;
+            this.misses = misses;
+        }
+
+        /** The array class, or {@code Object.class} for the statistics of {@link #OTHER_SIZES}. */
+        public Class<?> getArrayClass() {
+            return arrayClass;
+        }
+
+        /** The length of the arrays, or {@link #OTHER_SIZES}. */
+        public int getSize() {
+            return size;
+        }
+
+        /** Requests served from the requesting thread's own magazine. */
+        public long getMagazineHits() {
+            return magazineHits;
+        }
+
+        /** Requests served from arrays shared between threads. */
+        public long getSharedHits() {
+            return sharedHits;
+        }
+
+        /** Requests that allocated a new array. */
+        public long getMisses() {
+            return misses;
+        }
+
+        @Override
+        public String toString() {
+            return "SizeStats{"
+                    + "arrayClass="
+                    + arrayClass.getSimpleName()
+                    + ", size="
+                    + size
+                    + ", magazineHits="
+                    + magazineHits
+                    + ", sharedHits="
+                    + sharedHits
+                    + ", misses="
+                    + misses
+                    + '}';
+        }
+    }
+
+    private static final class StandardSize {
+        @Synthetic final ArrayAdapterInterface<Object> adapter;
+        @Synthetic final Class<?> arrayClass;
+        @Synthetic final int length;
+        @Synthetic final int byteSize;
+        @Synthetic final ConcurrentLinkedQueue<Object> shared = new ConcurrentLinkedQueue<>();
+        @Synthetic final LongAdder magazineHits = new LongAdder();
+        @Synthetic final LongAdder sharedHits = new LongAdder();
+        @Synthetic final LongAdder misses = new LongAdder();
+
+        @SuppressWarnings("unchecked")
+        StandardSize(ArrayAdapterInterface<?> adapter, Class<?> arrayClass, int length) {
+            this.adapter = (ArrayAdapterInterface<Object>) adapter;
+            this.arrayClass = arrayClass;
+            this.length = length;
+            this.byteSize = length * adapter.getElementSizeInBytes();
+        }
+    }
+
+    /**
+     * The arrays held for one thread. Only the owning thread adds arrays, but any thread may remove
+     * them when the pool is trimmed, so slots are updated atomically.
+     */
+    private static final class Magazine {
+        @Synthetic final WeakReference<Thread> owner;
+        private final AtomicReferenceArray<Object> slots;
+
+        @Synthetic
+        Magazine(Thread owner, int standardSizeCount) {
+            this.owner = new WeakReference<>(owner);
+            this.slots = new AtomicReferenceArray<>(standardSizeCount * MAGAZINE_CAPACITY);
+        }
+
+        boolean offer(int index, Object array) {
+            int start = index * MAGAZINE_CAPACITY;
+            for (int i = start; i < start + MAGAZINE_CAPACITY; i++) {
+                if (slots.get(i) == null && slots.compareAndSet(i, null, array)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Nullable
+        Object poll(int index) {
+            int start = index * MAGAZINE_CAPACITY;
+            for (int i = start; i < start + MAGAZINE_CAPACITY; i++) {
+                Object array = slots.get(i);
+                if (array != null && slots.compareAndSet(i, array, null)) {
+                    return array;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import android.annotation.SuppressLint;
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.bumptech.glide4110.GlideMetrics;
+import com.bumptech.glide4110.util.Util;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link BitmapPool} that rounds byte sizes up to a fixed set of size classes and keeps a
+ * separately locked free list for each {@link Bitmap.Config} and size class.
+ *
+ * <p>{@link LruBitmapPool} with {@link SizeConfigStrategy} searches a sorted map of sizes for each
+ * get and maintains a single LRU list, all while holding the pool's lock. This pool instead maps a
+ * request directly to one free list, so gets and puts are constant time and requests for different
+ * configs or size classes never contend.
+ *
+ * <p>Each power of two range of sizes is split into four size classes, starting at {@link
+ * #MIN_POOLED_SIZE}. A {@link Bitmap} is pooled in the largest class its allocation can hold and is
+ * handed out for any request that rounds up to that class, after being reconfigured. A returned
+ * {@link Bitmap} can therefore hold up to about 50% more memory than the request needs, where
+ * {@link SizeConfigStrategy} would have found a closer fit. {@link #getInternalFragmentation()}
+ * reports the fraction actually wasted so far. Bitmaps smaller than {@link #MIN_POOLED_SIZE} are
+ * not pooled.
+ *
+ * <p>Eviction visits the free lists in turn and removes the oldest {@link Bitmap} from each, so it
+ * only approximates LRU order across the whole pool.
+ *
+ * <p>Use via {@link com.bumptech.glide4110.GlideBuilder#setBitmapPool(BitmapPool)}.
+ */
+@TargetApi(Build.VERSION_CODES.KITKAT)
+public class SizeClassBitmapPool implements BitmapPool {
+  private static final String TAG = "SizeClassBitmapPool";
+  private static final Bitmap.Config DEFAULT_CONFIG = Bitmap.Config.ARGB_8888;
+  private static final int MIN_SHIFT = 12;
+  private static final int MAX_SHIFT = 30;
+  private static final int CLASSES_PER_SHIFT_BITS = 2;
+  private static final int CLASSES_PER_SHIFT = 1 << CLASSES_PER_SHIFT_BITS;
+  private static final int CLASS_COUNT = (MAX_SHIFT - MIN_SHIFT) * CLASSES_PER_SHIFT + 1;
+  /** The smallest allocation, in bytes, that will be pooled. */
+  public static final int MIN_POOLED_SIZE = 1 << MIN_SHIFT;
+
+  private static final Bitmap.Config[] CONFIGS = Bitmap.Config.values();
+
+  private final FreeList[] freeLists;
+  private final long initialMaxSize;
+  private final GlideMetrics metrics;
+  private final AtomicLong currentSize = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong puts = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong requestedBytes = new AtomicLong();
+  private final AtomicLong servedBytes = new AtomicLong();
+  private final Object evictionLock = new Object();
+
+  private volatile long maxSize;
+  private int evictionCursor;
+
+  /**
+   * Constructor for SizeClassBitmapPool.
+   *
+   * @param maxSize The initial maximum size of the pool in bytes.
+   */
+  public SizeClassBitmapPool(long maxSize) {
+    this(maxSize, GlideMetrics.NONE);
+  }
+
+  /**
+   * Constructor for SizeClassBitmapPool.
+   *
+   * @param maxSize The initial maximum size of the pool in bytes.
+   * @param metrics Notified each time a Bitmap is or isn't available for reuse.
+   */
+  public SizeClassBitmapPool(long maxSize, @NonNull GlideMetrics metrics) {
+    this.initialMaxSize = maxSize;
+    this.maxSize = maxSize;
+    this.metrics = metrics;
+    // One extra slot for Bitmaps whose config is hidden and therefore null.
+    freeLists = new FreeList[(CONFIGS.length + 1) * CLASS_COUNT];
+    for (int i = 0; i < freeLists.length; i++) {
+      freeLists[i] = new FreeList();
+    }
+  }
+
+  /** Returns the number of cache hits for bitmaps in the pool. */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /** Returns the number of cache misses for bitmaps in the pool. */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Returns the number of bitmaps that have been evicted from the pool. */
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  /** Returns the current size of the pool in bytes. */
+  public long getCurrentSize() {
+    return currentSize.get();
+  }
+
+  /**
+   * Returns the fraction of the memory held by {@link Bitmap}s returned from this pool that the
+   * callers didn't ask for, or {@code 0} if no {@link Bitmap} has been reused yet.
+   */
+  public float getInternalFragmentation() {
+    long served = servedBytes.get();
+    if (served == 0) {
+      return 0;
+    }
+    return 1f - requestedBytes.get() / (float) served;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public void setSizeMultiplier(float sizeMultiplier) {
+    maxSize = Math.round(initialMaxSize * sizeMultiplier);
+    trimToSize(maxSize);
+  }
+
+  @Override
+  public void put(Bitmap bitmap) {
+    if (bitmap == null) {
+      throw new NullPointerException("Bitmap must not be null");
+    }
+    if (bitmap.isRecycled()) {
+      throw new IllegalStateException("Cannot pool recycled bitmap");
+    }
+    int size = Util.getBitmapByteSize(bitmap);
+    int sizeClass = getFloorSizeClass(size);
+    if (!bitmap.isMutable() || size > maxSize || sizeClass < 0 || isHardwareConfig(bitmap)) {
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(
+            TAG,
+            "Reject bitmap from pool, bitmap: "
+                + bitmap
+                + ", size: "
+                + size
+                + ", is mutable: "
+                + bitmap.isMutable());
+      }
+      bitmap.recycle();
+      return;
+    }
+
+    freeLists[getIndex(bitmap.getConfig(), sizeClass)].put(bitmap);
+    puts.incrementAndGet();
+    if (currentSize.addAndGet(size) > maxSize) {
+      trimToSize(maxSize);
+    }
+  }
+
+  @NonNull
+  @Override
+  public Bitmap get(int width, int height, Bitmap.Config config) {
+    Bitmap result = getDirtyOrNull(width, height, config);
+    if (result != null) {
+      metrics.onBitmapPoolHit(width, height, config);
+      // See LruBitmapPool#get.
+      result.eraseColor(Color.TRANSPARENT);
+    } else {
+      metrics.onBitmapPoolMiss(width, height, config);
+      result = createBitmap(width, height, config);
+    }
+    return result;
+  }
+
+  @NonNull
+  @Override
+  public Bitmap getDirty(int width, int height, Bitmap.Config config) {
+    Bitmap result = getDirtyOrNull(width, height, config);
+    if (result == null) {
+      metrics.onBitmapPoolMiss(width, height, config);
+      result = createBitmap(width, height, config);
+    } else {
+      metrics.onBitmapPoolHit(width, height, config);
+    }
+    return result;
+  }
+
+  @Nullable
+  private Bitmap getDirtyOrNull(int width, int height, @Nullable Bitmap.Config config) {
+    if (config == null) {
+      config = DEFAULT_CONFIG;
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.HARDWARE) {
+      throw new IllegalArgumentException(
+          "Cannot create a mutable Bitmap with config: "
+              + config
+              + ". Consider setting Downsampler#ALLOW_HARDWARE_CONFIG to false in your"
+              + " RequestOptions and/or in GlideBuilder.setDefaultRequestOptions");
+    }
+    int requested = Util.getBitmapByteSize(width, height, config);
+    int sizeClass = getCeilingSizeClass(requested);
+    Bitmap result = null;
+    if (sizeClass < CLASS_COUNT) {
+      result = freeLists[getIndex(config, sizeClass)].poll();
+      // Bitmaps with the hidden config can be reconfigured to ARGB_8888, see SizeConfigStrategy.
+      if (result == null && config == Bitmap.Config.ARGB_8888) {
+        result = freeLists[getIndex(null, sizeClass)].poll();
+      }
+    }
+    if (result == null) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Missing bitmap=[" + width + "x" + height + "], " + config);
+      }
+      misses.incrementAndGet();
+      return null;
+    }
+
+    int size = Util.getBitmapByteSize(result);
+    currentSize.addAndGet(-size);
+    hits.incrementAndGet();
+    requestedBytes.addAndGet(requested);
+    servedBytes.addAndGet(size);
+    result.reconfigure(width, height, config);
+    result.setHasAlpha(true);
+    result.setPremultiplied(true);
+    return result;
+  }
+
+  @NonNull
+  private static Bitmap createBitmap(int width, int height, @Nullable Bitmap.Config config) {
+    return Bitmap.createBitmap(width, height, config != null ? config : DEFAULT_CONFIG);
+  }
+
+  @Override
+  public void clearMemory() {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "clearMemory");
+    }
+    trimToSize(0);
+  }
+
+  @SuppressLint("InlinedApi")
+  @Override
+  public void trimMemory(int level) {
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "trimMemory, level=" + level);
+    }
+    if ((level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND)
+        || ((Build.VERSION.SDK_INT >= Build.VERSION_CODES.M)
+            && (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN))) {
+      clearMemory();
+    } else if ((level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN)
+        || (level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL)) {
+      trimToSize(getMaxSize() / 2);
+    }
+  }
+
+  private void trimToSize(long size) {
+    synchronized (evictionLock) {
+      int emptyListsVisited = 0;
+      while (currentSize.get() > size && emptyListsVisited < freeLists.length) {
+        evictionCursor = (evictionCursor + 1) % freeLists.length;
+        Bitmap removed = freeLists[evictionCursor].removeOldest();
+        if (removed == null) {
+          emptyListsVisited++;
+          continue;
+        }
+        emptyListsVisited = 0;
+        currentSize.addAndGet(-Util.getBitmapByteSize(removed));
+        evictions.incrementAndGet();
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+          Log.d(TAG, "Evicting bitmap=" + removed);
+        }
+        removed.recycle();
+      }
+    }
+  }
+
+  private static boolean isHardwareConfig(@NonNull Bitmap bitmap) {
+    return Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+        && bitmap.getConfig() == Bitmap.Config.HARDWARE;
+  }
+
+  private static int getIndex(@Nullable Bitmap.Config config, int sizeClass) {
+    int configIndex = config == null ? CONFIGS.length : config.ordinal();
+    return configIndex * CLASS_COUNT + sizeClass;
+  }
+
+  /**
+   * Returns the smallest size class whose size is at least the given number of bytes, which may be
+   * {@link #CLASS_COUNT} or more if the size is too large to be pooled.
+   */
+  @VisibleForTesting
+  static int getCeilingSizeClass(int size) {
+    if (size <= MIN_POOLED_SIZE) {
+      return 0;
+    }
+    int shift = 31 - Integer.numberOfLeadingZeros(size - 1);
+    int step = shift - CLASSES_PER_SHIFT_BITS;
+    int sub = ((size - 1 - (1 << shift)) >>> step) + 1;
+    return (shift - MIN_SHIFT) * CLASSES_PER_SHIFT + sub;
+  }
+
+  /**
+   * Returns the largest size class whose size is at most the given number of bytes, or {@code -1}
+   * if the size is smaller than every class.
+   */
+  @VisibleForTesting
+  static int getFloorSizeClass(int size) {
+    int sizeClass = getCeilingSizeClass(size);
+    if (sizeClass >= CLASS_COUNT) {
+      return CLASS_COUNT - 1;
+    }
+    return getSizeClassSize(sizeClass) > size ? sizeClass - 1 : sizeClass;
+  }
+
+  /** Returns the number of bytes a {@link Bitmap} needs to be pooled in the given size class. */
+  @VisibleForTesting
+  static int getSizeClassSize(int sizeClass) {
+    if (sizeClass == 0) {
+      return MIN_POOLED_SIZE;
+    }
+    int shift = (sizeClass - 1) / CLASSES_PER_SHIFT + MIN_SHIFT;
+    int sub = (sizeClass - 1) % CLASSES_PER_SHIFT + 1;
+    return (1 << shift) + (sub << (shift - CLASSES_PER_SHIFT_BITS));
+  }
+
+  @Override
+  public String toString() {
+    return "SizeClassBitmapPool{"
+        + "hits="
+        + hits
+        + ", misses="
+        + misses
+        + ", puts="
+        + puts
+        + ", evictions="
+        + evictions
+        + ", currentSize="
+        + currentSize
+        + ", maxSize="
+        + maxSize
+        + ", internalFragmentation="
+        + getInternalFragmentation()
+        + '}';
+  }
+
+  /** Most recently put {@link Bitmap}s are at the head, the oldest at the tail. */
+  private static final class FreeList {
+    private final ArrayDeque<Bitmap> bitmaps = new ArrayDeque<>();
+
+    synchronized void put(Bitmap bitmap) {
+      bitmaps.addFirst(bitmap);
+    }
+
+    @Nullable
+    synchronized Bitmap poll() {
+      return bitmaps.pollFirst();
+    }
+
+    @Nullable
+    synchronized Bitmap removeOldest() {
+      return bitmaps.pollLast();
+    }
+  }
+}
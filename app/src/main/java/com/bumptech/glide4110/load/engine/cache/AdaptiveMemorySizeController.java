@@ -0,0 +1,447 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.GlideMetrics;
+import com.bumptech.glide4110.load.DataSource;
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.SizeClassBitmapPool;
+import com.bumptech.glide4110.util.Synthetic;
+import com.bumptech.glide4110.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically moves bytes between the {@link MemoryCache}, {@link BitmapPool} and {@link ArrayPool}
+ * based on how often each one misses while full, keeping their combined size within the budget
+ * given to them by {@link MemorySizeCalculator}.
+ *
+ * <p>{@link MemorySizeCalculator} picks each size once, from the screen size and memory class, which
+ * suits some workloads better than others. A feed of small avatars may thrash the memory cache while
+ * its bitmap pool sits idle, whereas full screen images that are rarely revisited gain more from a
+ * large bitmap pool. Every {@link #DEFAULT_SAMPLE_INTERVAL_MS} this controller compares the misses
+ * of each component since the previous sample, counting only components that are full or evicting,
+ * and moves a small step of the budget from the component with the least demand to the one with the
+ * most. Memory cache misses are weighted more heavily than pool misses because they cost a fetch and
+ * a decode rather than an allocation. Each component stays between half and twice its initial size.
+ *
+ * <p>Memory cache hits are counted from the {@link GlideMetrics} returned by {@link
+ * #wrapMetrics(GlideMetrics)}. Pool statistics are read from {@link LruBitmapPool}, {@link
+ * SizeClassBitmapPool} and {@link LruArrayPool}. Components of other types keep a fixed size.
+ *
+ * <p>Use via {@link com.bumptech.glide4110.GlideBuilder#setAdaptiveMemorySizingEnabled(boolean)}.
+ */
+public final class AdaptiveMemorySizeController {
+  private static final String TAG = "AdaptiveMemorySize";
+  private static final long DEFAULT_SAMPLE_INTERVAL_MS = 5000;
+  private static final float STEP_FRACTION = 0.05f;
+  private static final float MIN_MULTIPLIER = 0.5f;
+  private static final float MAX_MULTIPLIER = 2f;
+  private static final float FULL_FRACTION = 0.9f;
+  // Below this many requests in a sample the miss counts are mostly noise.
+  private static final int MIN_SAMPLE_REQUESTS = 32;
+  private static final int MEMORY_CACHE_MISS_WEIGHT = 4;
+
+  @Synthetic final Handler handler = new Handler(Looper.getMainLooper());
+  private final AtomicLong memoryCacheHits = new AtomicLong();
+  private final AtomicLong memoryCacheMisses = new AtomicLong();
+  private final List<Component> components = new ArrayList<>();
+  @Synthetic final long sampleIntervalMs;
+  private final Runnable sampleRunnable =
+      new Runnable() {
+        @Override
+        public void run() {
+          sample();
+          handler.postDelayed(this, sampleIntervalMs);
+        }
+      };
+
+  private float budgetMultiplier = 1f;
+
+  public AdaptiveMemorySizeController(
+      @NonNull MemoryCache memoryCache, @NonNull BitmapPool bitmapPool, @NonNull ArrayPool arrayPool) {
+    this(memoryCache, bitmapPool, arrayPool, DEFAULT_SAMPLE_INTERVAL_MS);
+  }
+
+  public AdaptiveMemorySizeController(
+      @NonNull MemoryCache memoryCache,
+      @NonNull BitmapPool bitmapPool,
+      @NonNull ArrayPool arrayPool,
+      long sampleIntervalMs) {
+    this.sampleIntervalMs = sampleIntervalMs;
+    components.add(new MemoryCacheComponent(memoryCache, memoryCacheHits, memoryCacheMisses));
+    if (bitmapPool instanceof LruBitmapPool || bitmapPool instanceof SizeClassBitmapPool) {
+      components.add(new BitmapPoolComponent(bitmapPool));
+    }
+    if (arrayPool instanceof LruArrayPool) {
+      components.add(new ArrayPoolComponent((LruArrayPool) arrayPool));
+    }
+  }
+
+  /**
+   * Returns a {@link GlideMetrics} that counts memory cache hits and misses for this controller and
+   * passes every event on to the given {@link GlideMetrics}.
+   */
+  @NonNull
+  public GlideMetrics wrapMetrics(@NonNull GlideMetrics metrics) {
+    return new CountingMetrics(metrics, memoryCacheHits, memoryCacheMisses);
+  }
+
+  /** Starts sampling on the main thread. */
+  public void start() {
+    handler.removeCallbacks(sampleRunnable);
+    handler.postDelayed(sampleRunnable, sampleIntervalMs);
+  }
+
+  /** Stops sampling, leaving every component at its current size. */
+  public void stop() {
+    handler.removeCallbacks(sampleRunnable);
+  }
+
+  /**
+   * Scales the total budget, and so the size of every component, by the given multiplier, in place
+   * of calling {@code setSizeMultiplier} on each component directly.
+   *
+   * <p>Must be called on the main thread.
+   */
+  public void setBudgetMultiplier(float multiplier) {
+    Util.assertMainThread();
+    float scale = multiplier / budgetMultiplier;
+    budgetMultiplier = multiplier;
+    for (Component component : components) {
+      component.targetSize = Math.round(component.targetSize * (double) scale);
+      component.apply();
+    }
+  }
+
+  @Synthetic
+  void sample() {
+    if (components.size() < 2) {
+      return;
+    }
+    Component receiver = null;
+    for (Component component : components) {
+      component.updateDemand();
+      if (component.demand > 0
+          && component.targetSize < component.getMaxTargetSize(budgetMultiplier)
+          && (receiver == null || component.demand > receiver.demand)) {
+        receiver = component;
+      }
+    }
+    if (receiver == null) {
+      return;
+    }
+    Component donor = null;
+    for (Component component : components) {
+      // Require a clear difference in demand so that sizes don't oscillate between samples.
+      if (component != receiver
+          && component.demand * 2 < receiver.demand
+          && component.targetSize > component.getMinTargetSize(budgetMultiplier)
+          && (donor == null || component.demand < donor.demand)) {
+        donor = component;
+      }
+    }
+    if (donor == null) {
+      return;
+    }
+
+    long budget = 0;
+    for (Component component : components) {
+      budget += component.targetSize;
+    }
+    long step =
+        Math.min(
+            (long) (budget * STEP_FRACTION),
+            Math.min(
+                receiver.getMaxTargetSize(budgetMultiplier) - receiver.targetSize,
+                donor.targetSize - donor.getMinTargetSize(budgetMultiplier)));
+    if (step <= 0) {
+      return;
+    }
+    // Shrink first so that the combined size never exceeds the budget.
+    donor.targetSize -= step;
+    donor.apply();
+    receiver.targetSize += step;
+    receiver.apply();
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "Moved " + step + " bytes from " + donor + " to " + receiver);
+    }
+  }
+
+  private abstract static class Component {
+    private final long initialSize;
+    private long lastHits;
+    private long lastMisses;
+    private long lastEvictions;
+    @Synthetic long targetSize;
+    @Synthetic long demand;
+
+    Component(long initialSize) {
+      this.initialSize = initialSize;
+      this.targetSize = initialSize;
+    }
+
+    abstract long getHits();
+
+    abstract long getMisses();
+
+    /** Returns the number of evictions, or {@code -1} if evictions aren't counted. */
+    abstract long getEvictions();
+
+    abstract long getCurrentSize();
+
+    abstract void setSizeMultiplier(float multiplier);
+
+    int getMissWeight() {
+      return 1;
+    }
+
+    long getMinTargetSize(float budgetMultiplier) {
+      return (long) (initialSize * budgetMultiplier * MIN_MULTIPLIER);
+    }
+
+    long getMaxTargetSize(float budgetMultiplier) {
+      return (long) (initialSize * budgetMultiplier * MAX_MULTIPLIER);
+    }
+
+    void apply() {
+      setSizeMultiplier(initialSize == 0 ? 0 : targetSize / (float) initialSize);
+    }
+
+    void updateDemand() {
+      long hits = getHits();
+      long misses = getMisses();
+      long evictions = getEvictions();
+      long missesInSample = misses - lastMisses;
+      long requestsInSample = missesInSample + hits - lastHits;
+      boolean isFull =
+          evictions >= 0
+              ? evictions > lastEvictions
+              : getCurrentSize() >= targetSize * FULL_FRACTION;
+      lastHits = hits;
+      lastMisses = misses;
+      lastEvictions = evictions;
+
+      demand =
+          isFull && requestsInSample >= MIN_SAMPLE_REQUESTS ? missesInSample * getMissWeight() : 0;
+    }
+  }
+
+  private static final class MemoryCacheComponent extends Component {
+    private final MemoryCache memoryCache;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    MemoryCacheComponent(MemoryCache memoryCache, AtomicLong hits, AtomicLong misses) {
+      super(memoryCache.getMaxSize());
+      this.memoryCache = memoryCache;
+      this.hits = hits;
+      this.misses = misses;
+    }
+
+    @Override
+    long getHits() {
+      return hits.get();
+    }
+
+    @Override
+    long getMisses() {
+      return misses.get();
+    }
+
+    @Override
+    long getEvictions() {
+      return -1;
+    }
+
+    @Override
+    long getCurrentSize() {
+      return memoryCache.getCurrentSize();
+    }
+
+    @Override
+    void setSizeMultiplier(float multiplier) {
+      memoryCache.setSizeMultiplier(multiplier);
+    }
+
+    @Override
+    int getMissWeight() {
+      return MEMORY_CACHE_MISS_WEIGHT;
+    }
+
+    @Override
+    public String toString() {
+      return "MemoryCache";
+    }
+  }
+
+  private static final class BitmapPoolComponent extends Component {
+    private final BitmapPool bitmapPool;
+
+    BitmapPoolComponent(BitmapPool bitmapPool) {
+      super(bitmapPool.getMaxSize());
+      this.bitmapPool = bitmapPool;
+    }
+
+    @Override
+    long getHits() {
+      return bitmapPool instanceof LruBitmapPool
+          ? ((LruBitmapPool) bitmapPool).hitCount()
+          : ((SizeClassBitmapPool) bitmapPool).hitCount();
+    }
+
+    @Override
+    long getMisses() {
+      return bitmapPool instanceof LruBitmapPool
+          ? ((LruBitmapPool) bitmapPool).missCount()
+          : ((SizeClassBitmapPool) bitmapPool).missCount();
+    }
+
+    @Override
+    long getEvictions() {
+      return bitmapPool instanceof LruBitmapPool
+          ? ((LruBitmapPool) bitmapPool).evictionCount()
+          : ((SizeClassBitmapPool) bitmapPool).evictionCount();
+    }
+
+    @Override
+    long getCurrentSize() {
+      return bitmapPool instanceof LruBitmapPool
+          ? ((LruBitmapPool) bitmapPool).getCurrentSize()
+          : ((SizeClassBitmapPool) bitmapPool).getCurrentSize();
+    }
+
+    @Override
+    void setSizeMultiplier(float multiplier) {
+      bitmapPool.setSizeMultiplier(multiplier);
+    }
+
+    @Override
+    public String toString() {
+      return "BitmapPool";
+    }
+  }
+
+  private static final class ArrayPoolComponent extends Component {
+    private final LruArrayPool arrayPool;
+
+    ArrayPoolComponent(LruArrayPool arrayPool) {
+      super(arrayPool.getMaxSize());
+      this.arrayPool = arrayPool;
+    }
+
+    @Override
+    long getHits() {
+      return arrayPool.hitCount();
+    }
+
+    @Override
+    long getMisses() {
+      return arrayPool.missCount();
+    }
+
+    @Override
+    long getEvictions() {
+      return arrayPool.evictionCount();
+    }
+
+    @Override
+    long getCurrentSize() {
+      return arrayPool.getCurrentSize();
+    }
+
+    @Override
+    void setSizeMultiplier(float multiplier) {
+      arrayPool.setSizeMultiplier(multiplier);
+    }
+
+    @Override
+    public String toString() {
+      return "ArrayPool";
+    }
+  }
+
+  private static final class CountingMetrics implements GlideMetrics {
+    private final GlideMetrics delegate;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    CountingMetrics(GlideMetrics delegate, AtomicLong hits, AtomicLong misses) {
+      this.delegate = delegate;
+      this.hits = hits;
+      this.misses = misses;
+    }
+
+    @Override
+    public void onActiveResourceHit(@NonNull Key key) {
+      delegate.onActiveResourceHit(key);
+    }
+
+    @Override
+    public void onMemoryCacheHit(@NonNull Key key) {
+      hits.incrementAndGet();
+      delegate.onMemoryCacheHit(key);
+    }
+
+    @Override
+    public void onMemoryCacheMiss(@NonNull Key key) {
+      misses.incrementAndGet();
+      delegate.onMemoryCacheMiss(key);
+    }
+
+    @Override
+    public void onDiskCacheHit(@NonNull Key key, @NonNull DataSource dataSource) {
+      delegate.onDiskCacheHit(key, dataSource);
+    }
+
+    @Override
+    public void onDiskCacheMiss(@NonNull Key key, @NonNull DataSource dataSource) {
+      delegate.onDiskCacheMiss(key, dataSource);
+    }
+
+    @Override
+    public void onDataFetched(
+        @NonNull Class<?> dataClass, @NonNull DataSource dataSource, long bytes, long elapsedNanos) {
+      delegate.onDataFetched(dataClass, dataSource, bytes, elapsedNanos);
+    }
+
+    @Override
+    public void onResourceDecoded(
+        @NonNull Class<?> dataClass, @NonNull Class<?> resourceClass, long elapsedNanos) {
+      delegate.onResourceDecoded(dataClass, resourceClass, elapsedNanos);
+    }
+
+    @Override
+    public void onResourceTransformed(@NonNull Class<?> resourceClass, long elapsedNanos) {
+      delegate.onResourceTransformed(resourceClass, elapsedNanos);
+    }
+
+    @Override
+    public void onResourceEncoded(
+        @NonNull Class<?> resourceClass, @NonNull String format, long bytes, long elapsedNanos) {
+      delegate.onResourceEncoded(resourceClass, format, bytes, elapsedNanos);
+    }
+
+    @Override
+    public void onBitmapPoolHit(int width, int height, @Nullable Bitmap.Config config) {
+      delegate.onBitmapPoolHit(width, height, config);
+    }
+
+    @Override
+    public void onBitmapPoolMiss(int width, int height, @Nullable Bitmap.Config config) {
+      delegate.onBitmapPoolMiss(width, height, config);
+    }
+  }
+}
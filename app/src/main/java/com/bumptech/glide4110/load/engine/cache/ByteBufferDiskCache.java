@@ -0,0 +1,25 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import androidx.annotation.Nullable;
+import com.bumptech.glide4110.load.Key;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DiskCache} that can return cached data as a {@link ByteBuffer} without first
+ * materializing it as a {@link java.io.File}.
+ *
+ * <p>When the active disk cache implements this interface, cache hits are loaded through the
+ * {@link ByteBuffer} decoders registered in {@link com.bumptech.glide4110.Registry} rather than the
+ * {@link java.io.File} model loaders.
+ */
+public interface ByteBufferDiskCache extends DiskCache {
+
+  /**
+   * Returns a read only view of the data stored for the given key, or {@code null} if there is
+   * none.
+   *
+   * @param key The key in the cache.
+   */
+  @Nullable
+  ByteBuffer getBuffer(Key key);
+}
@@ -0,0 +1,97 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import android.annotation.SuppressLint;
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide4110.util.LruCache;
+import com.bumptech.glide4110.util.Util;
+
+/**
+ * An LRU in memory cache for decoded {@link Bitmap}s before any {@link
+ * com.bumptech.glide4110.load.Transformation} is applied.
+ *
+ * <p>Requests for the same source at the same size that only differ in their transformation, for
+ * example a rounded and a circular thumbnail of the same avatar, each miss the memory cache and
+ * would otherwise each read and decode the source again. Instead the first decode leaves its
+ * untransformed Bitmap here, and later requests transform it directly.
+ *
+ * <p>Bitmaps are handed out exclusively, see {@link #take(Key)}, so a transformation never reads a
+ * Bitmap that is concurrently evicted and reused. Evicted Bitmaps are returned to the {@link
+ * BitmapPool}.
+ *
+ * <p>The size is set by {@link MemorySizeCalculator.Builder#setDecodedSourceCacheScreens(float)}.
+ */
+public class DecodedSourceCache extends LruCache<Key, Bitmap> {
+    private final BitmapPool bitmapPool;
+
+    /**
+     * Constructor for DecodedSourceCache.
+     *
+     * @param size       The maximum size in bytes the cache can use.
+     * @param bitmapPool The pool that evicted Bitmaps are returned to.
+     */
+    public DecodedSourceCache(long size, @NonNull BitmapPool bitmapPool) {
+        super(size);
+        this.bitmapPool = bitmapPool;
+    }
+
+    /**
+     * Removes and returns the Bitmap for the given key, or {@code null} if there is none.
+     *
+     * <p>The caller owns the returned Bitmap and should either {@link #offer(Key, Bitmap)} it back
+     * once it's done reading from it or hand it off for display.
+     */
+    @Nullable
+    public Bitmap take(@NonNull Key key) {
+        return remove(key);
+    }
+
+    /**
+     * Adds the given Bitmap, which must not be referenced anywhere else, and returns {@code true}, or
+     * returns {@code false} without taking ownership if the Bitmap can't be cached.
+     */
+    public boolean offer(@NonNull Key key, @NonNull Bitmap bitmap) {
+        if (bitmap.isRecycled()
+                || !bitmap.isMutable()
+                || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                && bitmap.getConfig() == Bitmap.Config.HARDWARE)
+                || getSize(bitmap) >= getMaxSize()) {
+            return false;
+        }
+        put(key, bitmap);
+        return true;
+    }
+
+    @Override
+    protected void onItemEvicted(@NonNull Key key, @Nullable Bitmap item) {
+        if (item != null) {
+            bitmapPool.put(item);
+        }
+    }
+
+    @Override
+    protected int getSize(@Nullable Bitmap item) {
+        if (item == null) {
+            return super.getSize(null);
+        } else {
+            return Util.getBitmapByteSize(item);
+        }
+    }
+
+    /** See {@link LruResourceCache#trimMemory(int)}. */
+    @SuppressLint("InlinedApi")
+    public void trimMemory(int level) {
+        if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            clearMemory();
+        } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimToSize(getMaxSize() / 2);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.bumptech.glide4110.load.engine.cache;
 
+import androidx.annotation.Nullable;
+
 import java.io.File;
 
 /**
@@ -14,6 +16,8 @@ import java.io.File;
 public class DiskLruCacheFactory implements DiskCache.Factory {
     private final long diskCacheSize;
     private final CacheDirectoryGetter cacheDirectoryGetter;
+    @Nullable
+    private final SafeKeyGenerator safeKeyGenerator;
 
     /**
      * Interface called out of UI thread to get the cache folder.
@@ -55,8 +59,22 @@ public class DiskLruCacheFactory implements DiskCache.Factory {
     // Public API.
     @SuppressWarnings("WeakerAccess")
     public DiskLruCacheFactory(CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize) {
+        this(cacheDirectoryGetter, diskCacheSize, /*safeKeyGenerator=*/ null);
+    }
+
+    /**
+     * @param safeKeyGenerator Generates file names for keys, or {@code null} to use the default
+     *                         SHA-256 names. Keep a reference to read its hit rate.
+     */
+    // Public API.
+    @SuppressWarnings("WeakerAccess")
+    public DiskLruCacheFactory(
+            CacheDirectoryGetter cacheDirectoryGetter,
+            long diskCacheSize,
+            @Nullable SafeKeyGenerator safeKeyGenerator) {
         this.diskCacheSize = diskCacheSize;
         this.cacheDirectoryGetter = cacheDirectoryGetter;
+        this.safeKeyGenerator = safeKeyGenerator;
     }
 
     @Override
@@ -71,6 +89,9 @@ public class DiskLruCacheFactory implements DiskCache.Factory {
             return null;
         }
 
+        if (safeKeyGenerator != null) {
+            return DiskLruCacheWrapper.create(cacheDir, diskCacheSize, safeKeyGenerator);
+        }
         return DiskLruCacheWrapper.create(cacheDir, diskCacheSize);
     }
 }
@@ -5,6 +5,7 @@
 package com.bumptech.glide4110.load.engine.cache;
 
 import android.util.Log;
+import androidx.annotation.NonNull;
 import com.bumptech.glide.disklrucache.DiskLruCache;
 import com.bumptech.glide.disklrucache.DiskLruCache.Value;
 import com.bumptech.glide4110.load.Key;
@@ -66,14 +67,32 @@ public class DiskLruCacheWrapper implements DiskCache {
     return new DiskLruCacheWrapper(directory, maxSize);
   }
 
+  /**
+   * Create a new DiskCache in the given directory with a specified max size that names its entries
+   * using the given {@link SafeKeyGenerator}.
+   *
+   * @param directory The directory for the disk cache
+   * @param maxSize The max size for the disk cache
+   * @param safeKeyGenerator Generates file names for keys, see {@link SafeKeyGenerator.Algorithm}
+   * @return The new disk cache with the given arguments
+   */
+  public static DiskCache create(
+      File directory, long maxSize, @NonNull SafeKeyGenerator safeKeyGenerator) {
+    return new DiskLruCacheWrapper(directory, maxSize, safeKeyGenerator);
+  }
+
   /** @deprecated Do not extend this class. */
   @Deprecated
   // Deprecated public API.
   @SuppressWarnings({"WeakerAccess", "DeprecatedIsStillUsed"})
   protected DiskLruCacheWrapper(File directory, long maxSize) {
+    this(directory, maxSize, new SafeKeyGenerator());
+  }
+
+  private DiskLruCacheWrapper(File directory, long maxSize, SafeKeyGenerator safeKeyGenerator) {
     this.directory = directory;
     this.maxSize = maxSize;
-    this.safeKeyGenerator = new SafeKeyGenerator();
+    this.safeKeyGenerator = safeKeyGenerator;
   }
 
   private synchronized DiskLruCache getDiskCache() throws IOException {
@@ -0,0 +1,864 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.util.Synthetic;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link DiskCache} that appends entries to a small number of large segment files and serves
+ * reads from memory mapped views of those files.
+ *
+ * <p>{@link DiskLruCacheWrapper} stores one file per entry and replays a text journal on startup,
+ * which gets slow when the cache holds tens of thousands of small thumbnails. This cache instead
+ * keeps an in memory hash index from safe key to (segment, offset, length) that is rebuilt on open
+ * by scanning the fixed size record headers in each segment. Each record is laid out as:
+ *
+ * <pre>
+ *   int magic | int keyLength | long dataLength | int checksum | key bytes | data bytes
+ * </pre>
+ *
+ * <p>The checksum is the CRC32 of the key and data bytes. A record's key and data are written
+ * before its header, and the record is forced to disk before it's added to the index and before
+ * the next record is written. So only the last record of the newest segment can be incomplete
+ * after process death, and replay verifies the checksums of that segment's records and drops the
+ * first one that doesn't match, along with everything after it.
+ *
+ * <p>A {@code dataLength} of {@code -1} marks a deletion. Tombstones are kept, and rewritten if
+ * their segment is compacted, for as long as an older segment that may hold the deleted record
+ * exists, so deleted entries don't reappear when the segments are replayed.
+ *
+ * <p>Each segment is mapped read only once, the active segment at its maximum size when it's
+ * created and sealed segments at their final size, so {@link #getBuffer(Key)} returns a slice of
+ * an existing mapping without copying. Entries larger than a segment are rejected.
+ *
+ * <p>When the total size exceeds the maximum size, the oldest segment is dropped. Entries in it that
+ * were read since the next segment was started are first copied into the active segment, up to
+ * half of the dropped segment's size, so eviction approximates least recently used order rather
+ * than insertion order. Sealed segments whose live bytes fall below half of their size are
+ * compacted by copying their live records into the active segment.
+ *
+ * <p>{@link #get(Key)} is required to return a {@link File} and is supported by extracting the entry
+ * into a separate file the first time it is requested. Extracted files count towards the maximum
+ * size and are deleted along with their entry. Callers that can consume a {@link ByteBuffer} should
+ * use {@link #getBuffer(Key)} instead.
+ *
+ * <p>There must be no more than one active instance for a given directory at a time.
+ */
+public class MappedSegmentDiskCache implements ByteBufferDiskCache {
+  private static final String TAG = "MappedDiskCache";
+
+  /** 16 MB per segment. */
+  static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+  private static final int RECORD_MAGIC = 0x474c4d32;
+  @VisibleForTesting
+  static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+  private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+  private static final long TOMBSTONE = -1;
+  private static final int MAX_KEY_LENGTH = 256;
+  private static final float COMPACTION_THRESHOLD = 0.5f;
+  private static final float MAX_RESCUED_FRACTION = 0.5f;
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".dat";
+  private static final String TEMP_DIR = "tmp";
+  private static final String EXTRACTED_DIR = "files";
+
+  private final SafeKeyGenerator safeKeyGenerator = new SafeKeyGenerator();
+  private final DiskCacheWriteLocker writeLocker = new DiskCacheWriteLocker();
+  private final Map<String, Entry> index = new ConcurrentHashMap<>();
+  // Stamps segment creation and entry reads, so that recently read entries survive eviction.
+  private final AtomicLong clock = new AtomicLong();
+  // Ordered from oldest to newest, guarded by this.
+  private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+  // Deleted keys to the segment holding their tombstone, guarded by this.
+  private final Map<String, Segment> tombstones = new HashMap<>();
+  // Files extracted by get(Key) to their size, guarded by this.
+  private final Map<String, Long> extractedFiles = new HashMap<>();
+  private final File directory;
+  private final File tempDirectory;
+  private final File extractedDirectory;
+  private final long maxSize;
+  private final int segmentSize;
+
+  private Segment activeSegment;
+  private long totalSize;
+  private long extractedSize;
+  private boolean isRewriting;
+  private volatile boolean isOpen;
+
+  /**
+   * Create a new DiskCache in the given directory with a specified max size.
+   *
+   * @param directory The directory for the disk cache
+   * @param maxSize   The max size for the disk cache
+   * @return The new disk cache with the given arguments
+   */
+  public static DiskCache create(File directory, long maxSize) {
+    return new MappedSegmentDiskCache(directory, maxSize, DEFAULT_SEGMENT_SIZE);
+  }
+
+  @VisibleForTesting
+  MappedSegmentDiskCache(File directory, long maxSize, int segmentSize) {
+    if (segmentSize <= HEADER_SIZE + MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+    }
+    this.directory = directory;
+    this.tempDirectory = new File(directory, TEMP_DIR);
+    this.extractedDirectory = new File(directory, EXTRACTED_DIR);
+    this.maxSize = maxSize;
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * Returns a read only view of the data stored for the given key, or {@code null} if there is
+   * none.
+   *
+   * <p>The returned buffer is backed by a memory mapped segment file, no data is copied onto the
+   * Java heap. The buffer remains valid even if the entry is later evicted or deleted.
+   */
+  @Nullable
+  @Override
+  public ByteBuffer getBuffer(Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    try {
+      ensureOpen();
+      Entry entry = index.get(safeKey);
+      if (entry == null) {
+        return null;
+      }
+      entry.lastUsed = clock.incrementAndGet();
+      return entry.segment.slice(entry.dataOffset, entry.dataLength);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to get from disk cache", e);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public File get(Key key) {
+    ByteBuffer buffer = getBuffer(key);
+    if (buffer == null) {
+      return null;
+    }
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    File result = new File(extractedDirectory, safeKey);
+    synchronized (this) {
+      if (extractedFiles.containsKey(safeKey)) {
+        return result;
+      }
+    }
+    File temp = null;
+    try {
+      temp = newTempFile();
+      FileOutputStream os = new FileOutputStream(temp);
+      try {
+        FileChannel channel = os.getChannel();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      } finally {
+        os.close();
+      }
+      if (!extractedDirectory.mkdirs() && !extractedDirectory.isDirectory()) {
+        throw new IOException("Failed to create directory: " + extractedDirectory);
+      }
+      synchronized (this) {
+        if (!index.containsKey(safeKey)) {
+          // Deleted or evicted while it was being copied.
+          return null;
+        }
+        if (!extractedFiles.containsKey(safeKey)) {
+          if (!temp.renameTo(result)) {
+            throw new IOException("Failed to rename " + temp + " to " + result);
+          }
+          temp = null;
+          long length = result.length();
+          extractedFiles.put(safeKey, length);
+          extractedSize += length;
+          trimToSize();
+        }
+        if (!extractedFiles.containsKey(safeKey)) {
+          // Evicted to make room for the extracted file.
+          return null;
+        }
+      }
+      return result;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to extract from disk cache", e);
+      }
+      return null;
+    } finally {
+      deleteIfExists(temp);
+    }
+  }
+
+  @Override
+  public void put(Key key, Writer writer) {
+    // We want to make sure that puts block so that data is available when put completes. We may
+    // actually not write any data if we find that data is written by the time we acquire the lock.
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    writeLocker.acquire(safeKey);
+    File temp = null;
+    try {
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(TAG, "Put: Obtained: " + safeKey + " for for Key: " + key);
+      }
+      ensureOpen();
+      // We assume we only need to put once, so if data was written while we were trying to get
+      // the lock, we can simply abort.
+      if (index.containsKey(safeKey)) {
+        return;
+      }
+      temp = newTempFile();
+      if (!writer.write(temp)) {
+        return;
+      }
+      long recordLength = getRecordLength(safeKey, temp.length());
+      if (recordLength > segmentSize) {
+        if (Log.isLoggable(TAG, Log.WARN)) {
+          Log.w(
+              TAG,
+              "Rejecting entry of "
+                  + temp.length()
+                  + " bytes for key: "
+                  + key
+                  + ", larger than the segment size: "
+                  + segmentSize);
+        }
+        return;
+      }
+      append(safeKey, temp);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to put to disk cache", e);
+      }
+    } finally {
+      deleteIfExists(temp);
+      writeLocker.release(safeKey);
+    }
+  }
+
+  @Override
+  public void delete(Key key) {
+    String safeKey = safeKeyGenerator.getSafeKey(key);
+    try {
+      ensureOpen();
+      synchronized (this) {
+        if (index.containsKey(safeKey)) {
+          writeRecord(safeKey, /*source=*/ null, /*sourcePosition=*/ 0, TOMBSTONE, /*lastUsed=*/ 0);
+        }
+      }
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to delete from disk cache", e);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    for (Segment segment : segments.values()) {
+      segment.close();
+    }
+    segments.clear();
+    index.clear();
+    tombstones.clear();
+    extractedFiles.clear();
+    activeSegment = null;
+    totalSize = 0;
+    extractedSize = 0;
+    isOpen = false;
+    deleteContents(directory);
+  }
+
+  /**
+   * Rewrites the live entries of sparsely populated sealed segments into the active segment and
+   * deletes the old segments.
+   */
+  public synchronized void compact() {
+    isRewriting = true;
+    try {
+      ensureOpen();
+      List<Segment> candidates = new ArrayList<>();
+      for (Segment segment : segments.values()) {
+        if (segment != activeSegment && segment.liveBytes < segment.size * COMPACTION_THRESHOLD) {
+          candidates.add(segment);
+        }
+      }
+      for (Segment segment : candidates) {
+        for (Map.Entry<String, Entry> mapEntry : getEntries(segment)) {
+          Entry entry = mapEntry.getValue();
+          writeRecord(
+              mapEntry.getKey(),
+              segment.channel,
+              entry.dataOffset,
+              entry.dataLength,
+              entry.lastUsed);
+        }
+        // Older segments may still hold the records these tombstones delete.
+        if (segments.firstKey() < segment.id) {
+          for (String safeKey : getTombstones(segment)) {
+            writeRecord(safeKey, /*source=*/ null, /*sourcePosition=*/ 0, TOMBSTONE, /*lastUsed=*/ 0);
+          }
+        }
+        removeSegment(segment);
+      }
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Unable to compact disk cache", e);
+      }
+    } finally {
+      isRewriting = false;
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (!isOpen) {
+      synchronized (this) {
+        if (!isOpen) {
+          open();
+          isOpen = true;
+        }
+      }
+    }
+  }
+
+  private void open() throws IOException {
+    if (!directory.mkdirs() && !directory.isDirectory()) {
+      throw new IOException("Failed to create directory: " + directory);
+    }
+    // Left over from puts that were interrupted by process death.
+    deleteContents(tempDirectory);
+
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+          try {
+            int id =
+                Integer.parseInt(
+                    name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(id, new Segment(id, file));
+          } catch (NumberFormatException e) {
+            deleteIfExists(file);
+          }
+        }
+      }
+    }
+
+    Segment newest = segments.isEmpty() ? null : segments.lastEntry().getValue();
+    for (Segment segment : segments.values()) {
+      segment.createdStamp = clock.incrementAndGet();
+      // Every other segment was forced to disk record by record before the newest was started.
+      replay(segment, /*verifyChecksums=*/ segment == newest);
+      totalSize += segment.size;
+    }
+
+    if (!segments.isEmpty() && segments.lastEntry().getValue().size < segmentSize) {
+      activeSegment = segments.lastEntry().getValue();
+      activeSegment.activate(segmentSize);
+    } else {
+      rollSegment();
+    }
+    for (Segment segment : segments.values()) {
+      if (segment != activeSegment) {
+        segment.seal();
+      }
+    }
+    openExtractedFiles();
+    trimToSize();
+  }
+
+  /** Counts files extracted by a previous instance, and deletes those without a live entry. */
+  private void openExtractedFiles() {
+    File[] files = extractedDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      Entry entry = index.get(file.getName());
+      long length = file.length();
+      if (entry != null && entry.dataLength == length) {
+        extractedFiles.put(file.getName(), length);
+        extractedSize += length;
+      } else {
+        deleteIfExists(file);
+      }
+    }
+  }
+
+  /**
+   * Rebuilds the index from the record headers in the given segment.
+   *
+   * @param verifyChecksums {@code true} to also read each record's key and data and stop at the
+   *     first record whose checksum doesn't match.
+   */
+  private void replay(Segment segment, boolean verifyChecksums) throws IOException {
+    FileChannel channel = segment.channel;
+    long fileSize = channel.size();
+    long position = 0;
+    int magic = 0;
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (position + HEADER_SIZE <= fileSize) {
+      header.clear();
+      readFully(channel, header, position);
+      header.flip();
+      magic = header.getInt();
+      int keyLength = header.getInt();
+      long dataLength = header.getLong();
+      int checksum = header.getInt();
+      long recordLength = HEADER_SIZE + keyLength + Math.max(dataLength, 0);
+      if (magic != RECORD_MAGIC
+          || keyLength <= 0
+          || keyLength > MAX_KEY_LENGTH
+          || dataLength < TOMBSTONE
+          || position + recordLength > fileSize) {
+        break;
+      }
+      ByteBuffer keyBuffer = ByteBuffer.allocate(keyLength);
+      readFully(channel, keyBuffer, position + HEADER_SIZE);
+      if (verifyChecksums
+          && checksum
+              != getChecksum(
+                  keyBuffer.array(),
+                  channel,
+                  position + HEADER_SIZE + keyLength,
+                  Math.max(dataLength, 0))) {
+        break;
+      }
+      String safeKey = new String(keyBuffer.array(), Key.CHARSET);
+
+      Entry previous;
+      if (dataLength == TOMBSTONE) {
+        previous = index.remove(safeKey);
+        tombstones.put(safeKey, segment);
+      } else {
+        Entry entry =
+            new Entry(
+                segment,
+                (int) (position + HEADER_SIZE + keyLength),
+                (int) dataLength,
+                recordLength,
+                segment.createdStamp);
+        previous = index.put(safeKey, entry);
+        tombstones.remove(safeKey);
+        segment.liveBytes += recordLength;
+      }
+      if (previous != null) {
+        previous.segment.liveBytes -= previous.recordLength;
+      }
+      position += recordLength;
+    }
+
+    if (position < fileSize) {
+      // The active segment is zero filled past its last record, anything else is a partially
+      // written record from a write that was interrupted by process death. Either way, drop it.
+      if (magic != 0 && Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Truncating " + segment.file + " from " + fileSize + " to " + position);
+      }
+      channel.truncate(position);
+    }
+    segment.size = position;
+  }
+
+  private synchronized void append(String safeKey, File file) throws IOException {
+    RandomAccessFile source = new RandomAccessFile(file, "r");
+    try {
+      writeRecord(
+          safeKey,
+          source.getChannel(),
+          /*sourcePosition=*/ 0,
+          source.length(),
+          clock.incrementAndGet());
+    } finally {
+      source.close();
+    }
+    trimToSize();
+  }
+
+  /**
+   * Appends a record to the active segment and updates the index, must be called while holding the
+   * cache lock.
+   *
+   * @param source   The channel to copy data from, or {@code null} for a tombstone.
+   * @param length   The number of bytes to copy from source, or {@link #TOMBSTONE}.
+   * @param lastUsed The stamp of the last read of the entry, ignored for a tombstone.
+   */
+  private void writeRecord(
+      String safeKey,
+      @Nullable FileChannel source,
+      long sourcePosition,
+      long length,
+      long lastUsed)
+      throws IOException {
+    byte[] keyBytes = safeKey.getBytes(Key.CHARSET);
+    long recordLength = HEADER_SIZE + keyBytes.length + Math.max(length, 0);
+    if (recordLength > segmentSize) {
+      throw new IOException("Entry of " + length + " bytes exceeds segment size " + segmentSize);
+    }
+    if (activeSegment.size + recordLength > segmentSize) {
+      boolean shouldCompact = rollSegment();
+      if (shouldCompact && !isRewriting) {
+        compact();
+      }
+    }
+
+    Segment segment = activeSegment;
+    long position = segment.size;
+    long dataPosition = position + HEADER_SIZE + keyBytes.length;
+    try {
+      // The header goes last and carries the checksum of everything before it, so that replay
+      // can tell a complete record from one that was interrupted by process death.
+      writeFully(segment.channel, ByteBuffer.wrap(keyBytes), position + HEADER_SIZE);
+      if (source != null) {
+        long transferred = 0;
+        source.position(sourcePosition);
+        while (transferred < length) {
+          long count =
+              segment.channel.transferFrom(source, dataPosition + transferred, length - transferred);
+          if (count <= 0) {
+            throw new IOException("Unexpected end of data for: " + safeKey);
+          }
+          transferred += count;
+        }
+      }
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(RECORD_MAGIC);
+      header.putInt(keyBytes.length);
+      header.putLong(length);
+      header.putInt(getChecksum(keyBytes, segment.channel, dataPosition, Math.max(length, 0)));
+      header.flip();
+      writeFully(segment.channel, header, position);
+      // Readers may hold on to the data once it's indexed, so it must be on disk by then.
+      segment.channel.force(/*metaData=*/ false);
+    } catch (IOException e) {
+      // Zero the header of the partial record so that it isn't found when the segment is next
+      // replayed, the active segment is mapped so it can't be truncated.
+      ByteBuffer zeros = ByteBuffer.allocate(HEADER_SIZE);
+      writeFully(segment.channel, zeros, position);
+      throw e;
+    }
+    segment.size += recordLength;
+    totalSize += recordLength;
+
+    Entry previous;
+    if (source == null) {
+      previous = index.remove(safeKey);
+      tombstones.put(safeKey, segment);
+      deleteExtractedFile(safeKey);
+    } else {
+      Entry entry =
+          new Entry(segment, (int) dataPosition, (int) length, recordLength, lastUsed);
+      previous = index.put(safeKey, entry);
+      tombstones.remove(safeKey);
+      segment.liveBytes += recordLength;
+    }
+    if (previous != null) {
+      previous.segment.liveBytes -= previous.recordLength;
+    }
+  }
+
+  /**
+   * Seals the active segment, if any, and starts a new one.
+   *
+   * @return {@code true} if any sealed segment is sparse enough to be worth compacting.
+   */
+  private boolean rollSegment() throws IOException {
+    boolean shouldCompact = false;
+    if (activeSegment != null) {
+      activeSegment.seal();
+    }
+    for (Segment segment : segments.values()) {
+      if (segment.liveBytes < segment.size * COMPACTION_THRESHOLD) {
+        shouldCompact = true;
+        break;
+      }
+    }
+    int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+    Segment segment = new Segment(id, new File(directory, SEGMENT_PREFIX + id + SEGMENT_SUFFIX));
+    segment.createdStamp = clock.incrementAndGet();
+    segment.activate(segmentSize);
+    segments.put(id, segment);
+    activeSegment = segment;
+    return shouldCompact;
+  }
+
+  private void trimToSize() throws IOException {
+    while (totalSize + extractedSize > maxSize && segments.size() > 1) {
+      evictOldestSegment();
+    }
+  }
+
+  /**
+   * Drops the oldest segment after copying the entries in it that were read more recently than the
+   * next segment was started into the active segment.
+   */
+  private void evictOldestSegment() throws IOException {
+    Segment oldest = segments.firstEntry().getValue();
+    long nextSegmentStamp = segments.higherEntry(oldest.id).getValue().createdStamp;
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "Evicting " + oldest.file + ", size: " + oldest.size);
+    }
+
+    List<Map.Entry<String, Entry>> recentlyUsed = new ArrayList<>();
+    for (Map.Entry<String, Entry> mapEntry : getEntries(oldest)) {
+      if (mapEntry.getValue().lastUsed > nextSegmentStamp) {
+        recentlyUsed.add(mapEntry);
+      }
+    }
+    Collections.sort(
+        recentlyUsed,
+        new Comparator<Map.Entry<String, Entry>>() {
+          @Override
+          public int compare(Map.Entry<String, Entry> first, Map.Entry<String, Entry> second) {
+            return Long.compare(second.getValue().lastUsed, first.getValue().lastUsed);
+          }
+        });
+
+    // Limit the copy so that every eviction frees at least half of a segment.
+    long rescueBudget = (long) (oldest.size * MAX_RESCUED_FRACTION);
+    isRewriting = true;
+    try {
+      for (Map.Entry<String, Entry> mapEntry : recentlyUsed) {
+        Entry entry = mapEntry.getValue();
+        if (entry.recordLength > rescueBudget) {
+          continue;
+        }
+        rescueBudget -= entry.recordLength;
+        writeRecord(
+            mapEntry.getKey(), oldest.channel, entry.dataOffset, entry.dataLength, entry.lastUsed);
+      }
+    } finally {
+      isRewriting = false;
+    }
+    removeSegment(oldest);
+  }
+
+  private List<Map.Entry<String, Entry>> getEntries(Segment segment) {
+    List<Map.Entry<String, Entry>> result = new ArrayList<>();
+    for (Map.Entry<String, Entry> mapEntry : index.entrySet()) {
+      if (mapEntry.getValue().segment == segment) {
+        result.add(mapEntry);
+      }
+    }
+    return result;
+  }
+
+  private List<String> getTombstones(Segment segment) {
+    List<String> result = new ArrayList<>();
+    for (Map.Entry<String, Segment> mapEntry : tombstones.entrySet()) {
+      if (mapEntry.getValue() == segment) {
+        result.add(mapEntry.getKey());
+      }
+    }
+    return result;
+  }
+
+  private void removeSegment(Segment segment) {
+    Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Entry> mapEntry = iterator.next();
+      if (mapEntry.getValue().segment == segment) {
+        iterator.remove();
+        deleteExtractedFile(mapEntry.getKey());
+      }
+    }
+    // Either rewritten by compaction or, for the oldest segment, no longer needed.
+    tombstones.values().removeAll(Collections.singleton(segment));
+    segments.remove(segment.id);
+    totalSize -= segment.size;
+    segment.close();
+    deleteIfExists(segment.file);
+  }
+
+  private void deleteExtractedFile(String safeKey) {
+    Long length = extractedFiles.remove(safeKey);
+    if (length != null) {
+      extractedSize -= length;
+      deleteIfExists(new File(extractedDirectory, safeKey));
+    }
+  }
+
+  private File newTempFile() throws IOException {
+    if (!tempDirectory.mkdirs() && !tempDirectory.isDirectory()) {
+      throw new IOException("Failed to create directory: " + tempDirectory);
+    }
+    return File.createTempFile("entry", ".tmp", tempDirectory);
+  }
+
+  private static long getRecordLength(String safeKey, long dataLength) {
+    return HEADER_SIZE + safeKey.getBytes(Key.CHARSET).length + dataLength;
+  }
+
+  /** Returns the CRC32 of the key and of {@code length} bytes of data at the given position. */
+  private static int getChecksum(byte[] keyBytes, FileChannel channel, long position, long length)
+      throws IOException {
+    CRC32 crc = new CRC32();
+    crc.update(keyBytes, 0, keyBytes.length);
+    if (length > 0) {
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, CHECKSUM_BUFFER_SIZE));
+      long read = 0;
+      while (read < length) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), length - read));
+        readFully(channel, buffer, position + read);
+        crc.update(buffer.array(), 0, buffer.limit());
+        read += buffer.limit();
+      }
+    }
+    return (int) crc.getValue();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    int start = buffer.position();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position() - start);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        throw new IOException("Unexpected end of file");
+      }
+    }
+  }
+
+  private static void deleteContents(File directory) {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      if (file.isDirectory()) {
+        deleteContents(file);
+      }
+      deleteIfExists(file);
+    }
+  }
+
+  @Synthetic
+  static void deleteIfExists(@Nullable File file) {
+    if (file != null && file.exists() && !file.delete() && Log.isLoggable(TAG, Log.WARN)) {
+      Log.w(TAG, "Failed to delete: " + file);
+    }
+  }
+
+  private static final class Entry {
+    @Synthetic
+    final Segment segment;
+    @Synthetic
+    final int dataOffset;
+    @Synthetic
+    final int dataLength;
+    @Synthetic
+    final long recordLength;
+    // Written without the cache lock on reads, the latest value wins.
+    @Synthetic
+    volatile long lastUsed;
+
+    Entry(Segment segment, int dataOffset, int dataLength, long recordLength, long lastUsed) {
+      this.segment = segment;
+      this.dataOffset = dataOffset;
+      this.dataLength = dataLength;
+      this.recordLength = recordLength;
+      this.lastUsed = lastUsed;
+    }
+  }
+
+  private static final class Segment {
+    @Synthetic
+    final int id;
+    @Synthetic
+    final File file;
+    @Synthetic
+    final FileChannel channel;
+    private final RandomAccessFile randomAccessFile;
+    // Guarded by the cache lock.
+    @Synthetic
+    long size;
+    @Synthetic
+    long liveBytes;
+    @Synthetic
+    long createdStamp;
+    @Nullable
+    private volatile MappedByteBuffer mappedBuffer;
+
+    Segment(int id, File file) throws IOException {
+      this.id = id;
+      this.file = file;
+      randomAccessFile = new RandomAccessFile(file, "rw");
+      channel = randomAccessFile.getChannel();
+    }
+
+    /**
+     * Extends the file to the given capacity and maps all of it, so that records appended later are
+     * readable through the same mapping.
+     */
+    void activate(int capacity) throws IOException {
+      randomAccessFile.setLength(capacity);
+      mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+    }
+
+    /** Trims the file to the size of its records and maps it once it will no longer be written to. */
+    void seal() throws IOException {
+      // Slices of an earlier mapping stay valid, they only cover records before size.
+      channel.truncate(size);
+      mappedBuffer = size > 0 ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+    }
+
+    @NonNull
+    ByteBuffer slice(int offset, int length) throws IOException {
+      MappedByteBuffer mapped = mappedBuffer;
+      if (mapped == null) {
+        throw new IOException("Segment is not mapped: " + file);
+      }
+      ByteBuffer result = mapped.duplicate();
+      result.position(offset);
+      result.limit(offset + length);
+      return result.slice();
+    }
+
+    void close() {
+      mappedBuffer = null;
+      try {
+        randomAccessFile.close();
+      } catch (IOException e) {
+        if (Log.isLoggable(TAG, Log.WARN)) {
+          Log.w(TAG, "Failed to close: " + file, e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import android.content.Context;
+
+import java.io.File;
+
+/**
+ * Creates a {@link MappedSegmentDiskCache} in the specified disk cache directory.
+ *
+ * <p>Can be used in place of {@link InternalCacheDiskCacheFactory} via {@link
+ * com.bumptech.glide4110.GlideBuilder#setDiskCache(DiskCache.Factory)}. The two caches use different
+ * on disk formats, so they must not share a directory.
+ */
+// Public API.
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class MappedSegmentDiskCacheFactory implements DiskCache.Factory {
+    public static final String DEFAULT_MAPPED_DISK_CACHE_DIR = "image_manager_mapped_disk_cache";
+
+    private final long diskCacheSize;
+    private final DiskLruCacheFactory.CacheDirectoryGetter cacheDirectoryGetter;
+
+    public MappedSegmentDiskCacheFactory(Context context) {
+        this(context, DEFAULT_MAPPED_DISK_CACHE_DIR, DiskCache.Factory.DEFAULT_DISK_CACHE_SIZE);
+    }
+
+    public MappedSegmentDiskCacheFactory(Context context, long diskCacheSize) {
+        this(context, DEFAULT_MAPPED_DISK_CACHE_DIR, diskCacheSize);
+    }
+
+    public MappedSegmentDiskCacheFactory(
+            final Context context, final String diskCacheName, long diskCacheSize) {
+        this(
+                new DiskLruCacheFactory.CacheDirectoryGetter() {
+                    @Override
+                    public File getCacheDirectory() {
+                        File cacheDirectory = context.getCacheDir();
+                        if (cacheDirectory == null) {
+                            return null;
+                        }
+                        if (diskCacheName != null) {
+                            return new File(cacheDirectory, diskCacheName);
+                        }
+                        return cacheDirectory;
+                    }
+                },
+                diskCacheSize);
+    }
+
+    /**
+     * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder.
+     * @param diskCacheSize        Desired max bytes size for the disk cache.
+     */
+    public MappedSegmentDiskCacheFactory(
+            DiskLruCacheFactory.CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize) {
+        this.diskCacheSize = diskCacheSize;
+        this.cacheDirectoryGetter = cacheDirectoryGetter;
+    }
+
+    @Override
+    public DiskCache build() {
+        File cacheDir = cacheDirectoryGetter.getCacheDirectory();
+
+        if (cacheDir == null) {
+            return null;
+        }
+
+        if (!cacheDir.mkdirs() && (!cacheDir.exists() || !cacheDir.isDirectory())) {
+            return null;
+        }
+
+        return MappedSegmentDiskCache.create(cacheDir, diskCacheSize);
+    }
+}
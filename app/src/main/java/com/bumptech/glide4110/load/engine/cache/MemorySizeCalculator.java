@@ -25,6 +25,7 @@ public final class MemorySizeCalculator {
 
   private final int bitmapPoolSize;
   private final int memoryCacheSize;
+  private final int decodedSourceCacheSize;
   private final Context context;
   private final int arrayPoolSize;
 
@@ -53,15 +54,23 @@ public final class MemorySizeCalculator {
     int targetBitmapPoolSize = Math.round(screenSize * builder.bitmapPoolScreens);
 
     int targetMemoryCacheSize = Math.round(screenSize * builder.memoryCacheScreens);
+    int targetDecodedSourceCacheSize = Math.round(screenSize * builder.decodedSourceCacheScreens);
     int availableSize = maxSize - arrayPoolSize;
 
-    if (targetMemoryCacheSize + targetBitmapPoolSize <= availableSize) {
+    if (targetMemoryCacheSize + targetBitmapPoolSize + targetDecodedSourceCacheSize
+        <= availableSize) {
       memoryCacheSize = targetMemoryCacheSize;
       bitmapPoolSize = targetBitmapPoolSize;
+      decodedSourceCacheSize = targetDecodedSourceCacheSize;
     } else {
-      float part = availableSize / (builder.bitmapPoolScreens + builder.memoryCacheScreens);
+      float part =
+          availableSize
+              / (builder.bitmapPoolScreens
+                  + builder.memoryCacheScreens
+                  + builder.decodedSourceCacheScreens);
       memoryCacheSize = Math.round(part * builder.memoryCacheScreens);
       bitmapPoolSize = Math.round(part * builder.bitmapPoolScreens);
+      decodedSourceCacheSize = Math.round(part * builder.decodedSourceCacheScreens);
     }
 
     if (Log.isLoggable(TAG, Log.DEBUG)) {
@@ -72,10 +81,13 @@ public final class MemorySizeCalculator {
               + toMb(memoryCacheSize)
               + ", pool size: "
               + toMb(bitmapPoolSize)
+              + ", decoded source cache size: "
+              + toMb(decodedSourceCacheSize)
               + ", byte array size: "
               + toMb(arrayPoolSize)
               + ", memory class limited? "
-              + (targetMemoryCacheSize + targetBitmapPoolSize > maxSize)
+              + (targetMemoryCacheSize + targetBitmapPoolSize + targetDecodedSourceCacheSize
+                  > maxSize)
               + ", max size: "
               + toMb(maxSize)
               + ", memoryClass: "
@@ -95,6 +107,14 @@ public final class MemorySizeCalculator {
     return bitmapPoolSize;
   }
 
+  /**
+   * Returns the recommended {@link DecodedSourceCache} size for the device it is run on in bytes, or
+   * 0 if it's disabled.
+   */
+  public int getDecodedSourceCacheSize() {
+    return decodedSourceCacheSize;
+  }
+
   /** Returns the recommended array pool size for the device it is run on in bytes. */
   public int getArrayPoolSizeInBytes() {
     return arrayPoolSize;
@@ -142,6 +162,9 @@ public final class MemorySizeCalculator {
     static final int BITMAP_POOL_TARGET_SCREENS =
         Build.VERSION.SDK_INT < Build.VERSION_CODES.O ? 4 : 1;
 
+    // Disabled unless requested, see setDecodedSourceCacheScreens.
+    static final float DECODED_SOURCE_CACHE_TARGET_SCREENS = 0;
+
     static final float MAX_SIZE_MULTIPLIER = 0.4f;
     static final float LOW_MEMORY_MAX_SIZE_MULTIPLIER = 0.33f;
     // 4MB.
@@ -160,6 +183,8 @@ public final class MemorySizeCalculator {
     float memoryCacheScreens = MEMORY_CACHE_TARGET_SCREENS;
     @com.bumptech.glide4110.util.Synthetic
     float bitmapPoolScreens = BITMAP_POOL_TARGET_SCREENS;
+    @Synthetic
+    float decodedSourceCacheScreens = DECODED_SOURCE_CACHE_TARGET_SCREENS;
     @com.bumptech.glide4110.util.Synthetic
     float maxSizeMultiplier = MAX_SIZE_MULTIPLIER;
     @com.bumptech.glide4110.util.Synthetic
@@ -206,6 +231,23 @@ public final class MemorySizeCalculator {
       return this;
     }
 
+    /**
+     * Sets the number of device screens worth of pixels the {@link DecodedSourceCache} should be
+     * able to hold and returns this Builder.
+     *
+     * <p>Defaults to 0, which disables the cache. The size is taken from the same budget as the
+     * {@link MemoryCache} and {@link BitmapPool}, so those shrink if the total doesn't fit. A
+     * screen or two suits apps that show the same images with several transformations, for example
+     * a circular avatar in a list and a rounded one in a header.
+     */
+    public Builder setDecodedSourceCacheScreens(float decodedSourceCacheScreens) {
+      Preconditions.checkArgument(
+          decodedSourceCacheScreens >= 0,
+          "Decoded source cache screens must be greater than or equal to 0");
+      this.decodedSourceCacheScreens = decodedSourceCacheScreens;
+      return this;
+    }
+
     /**
      * Sets the maximum percentage of the device's memory class for standard devices that can be
      * taken up by Glide's {@link MemoryCache} and {@link
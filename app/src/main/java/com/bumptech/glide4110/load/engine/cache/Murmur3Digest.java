@@ -0,0 +1,158 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+
+/**
+ * A {@link MessageDigest} that computes the 128 bit x64 variant of MurmurHash3 with a seed of 0.
+ *
+ * <p>Much faster than SHA-256 and, with 128 bits, still extremely unlikely to produce accidental
+ * collisions, but not cryptographically secure. Exists so that {@link
+ * com.bumptech.glide4110.load.Key#updateDiskCacheKey(MessageDigest)} can be used unmodified.
+ */
+final class Murmur3Digest extends MessageDigest {
+  private static final int BLOCK_SIZE_BYTES = 16;
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private final ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+  private long h1;
+  private long h2;
+  private long length;
+
+  Murmur3Digest() {
+    super("MURMUR3-128");
+  }
+
+  @Override
+  protected int engineGetDigestLength() {
+    return BLOCK_SIZE_BYTES;
+  }
+
+  @Override
+  protected void engineUpdate(byte input) {
+    length++;
+    buffer.put(input);
+    if (!buffer.hasRemaining()) {
+      processBuffer();
+    }
+  }
+
+  @Override
+  protected void engineUpdate(byte[] input, int offset, int len) {
+    length += len;
+    if (buffer.position() > 0) {
+      int toCopy = Math.min(len, buffer.remaining());
+      buffer.put(input, offset, toCopy);
+      offset += toCopy;
+      len -= toCopy;
+      if (buffer.hasRemaining()) {
+        return;
+      }
+      processBuffer();
+    }
+    while (len >= BLOCK_SIZE_BYTES) {
+      mixBlock(getLongLittleEndian(input, offset), getLongLittleEndian(input, offset + 8));
+      offset += BLOCK_SIZE_BYTES;
+      len -= BLOCK_SIZE_BYTES;
+    }
+    buffer.put(input, offset, len);
+  }
+
+  @Override
+  protected byte[] engineDigest() {
+    int remaining = buffer.position();
+    long k1 = 0;
+    long k2 = 0;
+    for (int i = remaining - 1; i >= 8; i--) {
+      k2 ^= (buffer.get(i) & 0xFFL) << ((i - 8) * 8);
+    }
+    for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+      k1 ^= (buffer.get(i) & 0xFFL) << (i * 8);
+    }
+    if (remaining > 8) {
+      h2 ^= mixK2(k2);
+    }
+    if (remaining > 0) {
+      h1 ^= mixK1(k1);
+    }
+
+    h1 ^= length;
+    h2 ^= length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    h1 += h2;
+    h2 += h1;
+
+    byte[] result =
+        ByteBuffer.allocate(BLOCK_SIZE_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putLong(h1)
+            .putLong(h2)
+            .array();
+    engineReset();
+    return result;
+  }
+
+  @Override
+  protected void engineReset() {
+    h1 = 0;
+    h2 = 0;
+    length = 0;
+    buffer.clear();
+  }
+
+  private void processBuffer() {
+    mixBlock(buffer.getLong(0), buffer.getLong(8));
+    buffer.clear();
+  }
+
+  private void mixBlock(long k1, long k2) {
+    h1 ^= mixK1(k1);
+    h1 = Long.rotateLeft(h1, 27);
+    h1 += h2;
+    h1 = h1 * 5 + 0x52dce729;
+
+    h2 ^= mixK2(k2);
+    h2 = Long.rotateLeft(h2, 31);
+    h2 += h1;
+    h2 = h2 * 5 + 0x38495ab5;
+  }
+
+  private static long mixK1(long k1) {
+    k1 *= C1;
+    k1 = Long.rotateLeft(k1, 31);
+    k1 *= C2;
+    return k1;
+  }
+
+  private static long mixK2(long k2) {
+    k2 *= C2;
+    k2 = Long.rotateLeft(k2, 33);
+    k2 *= C1;
+    return k2;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private static long getLongLittleEndian(byte[] input, int offset) {
+    return (input[offset] & 0xFFL)
+        | (input[offset + 1] & 0xFFL) << 8
+        | (input[offset + 2] & 0xFFL) << 16
+        | (input[offset + 3] & 0xFFL) << 24
+        | (input[offset + 4] & 0xFFL) << 32
+        | (input[offset + 5] & 0xFFL) << 40
+        | (input[offset + 6] & 0xFFL) << 48
+        | (input[offset + 7] & 0xFFL) << 56;
+  }
+}
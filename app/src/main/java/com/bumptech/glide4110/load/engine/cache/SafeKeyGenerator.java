@@ -3,7 +3,6 @@ package com.bumptech.glide4110.load.engine.cache;
 import androidx.annotation.NonNull;
 import androidx.core.util.Pools;
 import com.bumptech.glide4110.load.Key;
-import com.bumptech.glide4110.util.LruCache;
 import com.bumptech.glide4110.util.Util;
 import com.bumptech.glide4110.util.pool.FactoryPools;
 import com.bumptech.glide4110.util.pool.StateVerifier;
@@ -12,54 +11,134 @@ import com.bumptech.glide4110.util.Synthetic;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A class that generates and caches safe and unique string file names from {@link
  * Key}s.
+ *
+ * <p>Recently generated names are cached in a fixed size table indexed by each {@link Key}'s hash
+ * code. Lookups and updates don't lock, so disk cache threads never wait on each other to obtain a
+ * name. A newer key replaces an older one that maps to the same slot, so the cache is only
+ * approximately LRU.
  */
 // Public API.
 @SuppressWarnings("WeakerAccess")
 public class SafeKeyGenerator {
-  private final LruCache<Key, String> loadIdToSafeHash = new LruCache<>(1000);
-  private final Pools.Pool<PoolableDigestContainer> digestPool =
-      FactoryPools.threadSafe(
-          10,
-          new FactoryPools.Factory<PoolableDigestContainer>() {
-            @Override
-            public PoolableDigestContainer create() {
-              try {
-                return new PoolableDigestContainer(MessageDigest.getInstance("SHA-256"));
-              } catch (NoSuchAlgorithmException e) {
-                throw new RuntimeException(e);
+  // A power of two at least as large as the previous LRU cache size of 1000.
+  private static final int CACHE_SIZE = 1024;
+
+  /** The hash function used to generate safe keys. */
+  public enum Algorithm {
+    /** SHA-256, producing 64 character names. The default. */
+    SHA_256,
+    /**
+     * The 128 bit x64 variant of MurmurHash3, producing 32 character names.
+     *
+     * <p>Several times faster than {@link #SHA_256}, but not cryptographically secure, so it should
+     * not be used if untrusted models could be crafted to collide with and replace other entries.
+     * Changing algorithms changes every name, so existing disk cache entries will be missed.
+     */
+    MURMUR3_128,
+  }
+
+  private final AtomicReferenceArray<Entry> loadIdToSafeHash =
+      new AtomicReferenceArray<>(CACHE_SIZE);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final Pools.Pool<PoolableDigestContainer> digestPool;
+
+  public SafeKeyGenerator() {
+    this(Algorithm.SHA_256);
+  }
+
+  public SafeKeyGenerator(@NonNull final Algorithm algorithm) {
+    Preconditions.checkNotNull(algorithm);
+    digestPool =
+        FactoryPools.threadSafe(
+            10,
+            new FactoryPools.Factory<PoolableDigestContainer>() {
+              @Override
+              public PoolableDigestContainer create() {
+                return new PoolableDigestContainer(newMessageDigest(algorithm));
               }
-            }
-          });
+            });
+  }
 
-  public String getSafeKey(Key key) {
-    String safeKey;
-    synchronized (loadIdToSafeHash) {
-      safeKey = loadIdToSafeHash.get(key);
-    }
-    if (safeKey == null) {
-      safeKey = calculateHexStringDigest(key);
+  @Synthetic
+  static MessageDigest newMessageDigest(Algorithm algorithm) {
+    switch (algorithm) {
+      case SHA_256:
+        try {
+          return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+          throw new RuntimeException(e);
+        }
+      case MURMUR3_128:
+        return new Murmur3Digest();
+      default:
+        throw new IllegalArgumentException("Unrecognized algorithm: " + algorithm);
     }
-    synchronized (loadIdToSafeHash) {
-      loadIdToSafeHash.put(key, safeKey);
+  }
+
+  public String getSafeKey(Key key) {
+    int index = indexFor(key);
+    Entry entry = loadIdToSafeHash.get(index);
+    if (entry != null && entry.key.equals(key)) {
+      hits.incrementAndGet();
+      return entry.safeKey;
     }
+    misses.incrementAndGet();
+    String safeKey = calculateHexStringDigest(key);
+    loadIdToSafeHash.set(index, new Entry(key, safeKey));
     return safeKey;
   }
 
+  /** Returns the number of safe keys returned from the cache. */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /** Returns the number of safe keys that had to be calculated. */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Returns the fraction of safe keys returned from the cache, or 0 if none have been requested. */
+  public double hitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  private static int indexFor(Key key) {
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return hash & (CACHE_SIZE - 1);
+  }
+
   private String calculateHexStringDigest(Key key) {
     PoolableDigestContainer container = Preconditions.checkNotNull(digestPool.acquire());
     try {
       key.updateDiskCacheKey(container.messageDigest);
       // calling digest() will automatically reset()
-      return Util.sha256BytesToHex(container.messageDigest.digest());
+      return Util.bytesToHex(container.messageDigest.digest());
     } finally {
       digestPool.release(container);
     }
   }
 
+  private static final class Entry {
+    @Synthetic final Key key;
+    @Synthetic final String safeKey;
+
+    Entry(Key key, String safeKey) {
+      this.key = key;
+      this.safeKey = safeKey;
+    }
+  }
+
   private static final class PoolableDigestContainer implements FactoryPools.Poolable {
 
     @Synthetic
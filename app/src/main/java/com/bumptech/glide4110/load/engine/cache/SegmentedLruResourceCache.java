@@ -0,0 +1,252 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import android.annotation.SuppressLint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.util.Synthetic;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An LRU in memory cache for {@link Resource}s that splits its contents into several independently
+ * locked segments.
+ *
+ * <p>{@link LruResourceCache} guards every get, put and eviction with a single monitor, so memory
+ * cache hits on the main thread wait on evictions triggered by Glide's background threads. This
+ * cache instead assigns each {@link Key} to one of a fixed number of segments by its hash code and
+ * keeps a separate LRU per segment, so puts and removes of keys in different segments never
+ * contend.
+ *
+ * <p>The size is accounted for across all segments, so like {@link LruResourceCache} any
+ * {@link Resource} smaller than the whole cache can be stored. Every entry is stamped from a shared
+ * clock when it's put, and eviction removes whichever segment's least recently used entry has the
+ * oldest stamp, which keeps eviction order LRU across the whole cache. Evictions are serialized
+ * with each other, but only hold a segment's lock while removing a single entry.
+ *
+ * <p>Use via {@link com.bumptech.glide4110.GlideBuilder#setMemoryCache(MemoryCache)}.
+ */
+public class SegmentedLruResourceCache implements MemoryCache {
+    private static final int DEFAULT_SEGMENT_COUNT = 4;
+
+    private final Segment[] segments;
+    private final AtomicLong currentSize = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private final long initialMaxSize;
+    private volatile long maxSize;
+    @Nullable
+    private volatile ResourceRemovedListener listener;
+
+    /**
+     * Constructor for SegmentedLruResourceCache using the default number of segments.
+     *
+     * @param size The maximum size in bytes the in memory cache can use.
+     */
+    public SegmentedLruResourceCache(long size) {
+        this(size, DEFAULT_SEGMENT_COUNT);
+    }
+
+    /**
+     * Constructor for SegmentedLruResourceCache.
+     *
+     * @param size         The maximum size in bytes the in memory cache can use.
+     * @param segmentCount The number of independently locked segments, rounded up to a power of two.
+     */
+    public SegmentedLruResourceCache(long size, int segmentCount) {
+        if (segmentCount < 1) {
+            throw new IllegalArgumentException("Segment count must be >= 1");
+        }
+        int count = Integer.highestOneBit(segmentCount - 1) << 1;
+        if (count == 0) {
+            count = 1;
+        }
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+        initialMaxSize = size;
+        maxSize = size;
+    }
+
+    @Override
+    public void setResourceRemovedListener(@NonNull ResourceRemovedListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public long getCurrentSize() {
+        return currentSize.get();
+    }
+
+    @Override
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void setSizeMultiplier(float multiplier) {
+        if (multiplier < 0) {
+            throw new IllegalArgumentException("Multiplier must be >= 0");
+        }
+        maxSize = Math.round(initialMaxSize * multiplier);
+        trimToSize(maxSize);
+    }
+
+    @Nullable
+    @Override
+    public Resource<?> remove(@NonNull Key key) {
+        Segment segment = segmentFor(key);
+        Entry removed;
+        synchronized (segment) {
+            removed = segment.entries.remove(key);
+            if (removed != null) {
+                currentSize.addAndGet(-removed.size);
+            }
+        }
+        return removed != null ? removed.resource : null;
+    }
+
+    @Nullable
+    @Override
+    public Resource<?> put(@NonNull Key key, @Nullable Resource<?> resource) {
+        int size = resource == null ? 0 : resource.getSize();
+        if (size >= maxSize) {
+            onRemoved(resource);
+            return null;
+        }
+
+        Segment segment = segmentFor(key);
+        Entry previous;
+        synchronized (segment) {
+            // Taken under the segment's lock so that stamps increase along each segment's LRU order.
+            previous = segment.entries.put(key, new Entry(resource, size, clock.incrementAndGet()));
+            currentSize.addAndGet(previous == null ? size : size - previous.size);
+        }
+        Resource<?> old = previous != null ? previous.resource : null;
+        if (old != null && !old.equals(resource)) {
+            onRemoved(old);
+        }
+        trimToSize(maxSize);
+        return old;
+    }
+
+    @Override
+    public void clearMemory() {
+        trimToSize(0);
+    }
+
+    @SuppressLint("InlinedApi")
+    @Override
+    public void trimMemory(int level) {
+        if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            // Entering list of cached background apps
+            // Evict our entire bitmap cache
+            clearMemory();
+        } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            // The app's UI is no longer visible, or app is in the foreground but system is running
+            // critically low on memory
+            // Evict oldest half of our bitmap cache
+            trimToSize(getMaxSize() / 2);
+        }
+    }
+
+    private void trimToSize(long size) {
+        if (currentSize.get() <= size) {
+            return;
+        }
+        synchronized (evictionLock) {
+            while (currentSize.get() > size) {
+                Entry evicted = evictOldest();
+                if (evicted == null) {
+                    break;
+                }
+                onRemoved(evicted.resource);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the least recently used entry across all segments, or {@code null} if
+     * every segment is empty.
+     */
+    @Nullable
+    private Entry evictOldest() {
+        while (true) {
+            Segment oldest = null;
+            long oldestStamp = Long.MAX_VALUE;
+            for (Segment segment : segments) {
+                synchronized (segment) {
+                    Entry head = segment.head();
+                    if (head != null && head.stamp < oldestStamp) {
+                        oldest = segment;
+                        oldestStamp = head.stamp;
+                    }
+                }
+            }
+            if (oldest == null) {
+                return null;
+            }
+            synchronized (oldest) {
+                // The head may have been removed or replaced since it was compared, in which case
+                // the new head is still among the oldest entries.
+                Iterator<Map.Entry<Key, Entry>> iterator = oldest.entries.entrySet().iterator();
+                if (iterator.hasNext()) {
+                    Entry result = iterator.next().getValue();
+                    iterator.remove();
+                    currentSize.addAndGet(-result.size);
+                    return result;
+                }
+            }
+        }
+    }
+
+    private Segment segmentFor(@NonNull Key key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    @Synthetic
+    void onRemoved(@Nullable Resource<?> item) {
+        ResourceRemovedListener current = listener;
+        if (current != null && item != null) {
+            current.onResourceRemoved(item);
+        }
+    }
+
+    private static final class Segment {
+        // Access ordered, so a put for an existing key moves it to the tail.
+        @Synthetic
+        final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        @Nullable
+        Entry head() {
+            Iterator<Entry> iterator = entries.values().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    private static final class Entry {
+        @Nullable
+        @Synthetic
+        final Resource<?> resource;
+        @Synthetic
+        final int size;
+        @Synthetic
+        final long stamp;
+
+        Entry(@Nullable Resource<?> resource, int size, long stamp) {
+            this.resource = resource;
+            this.size = size;
+            this.stamp = stamp;
+        }
+    }
+}
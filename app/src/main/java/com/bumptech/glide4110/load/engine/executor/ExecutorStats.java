@@ -0,0 +1,85 @@
+package com.bumptech.glide4110.load.engine.executor;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide4110.Priority;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Queue depth and queue wait time statistics, broken down by {@link Priority}, for a {@link
+ * GlideExecutor} built with {@link GlideExecutor.Builder#setPreemptionEnabled(boolean)}.
+ *
+ * <p>Wait times are recorded in a fixed set of exponentially sized buckets, see {@link
+ * #getWaitTimeBucketUpperBoundsMillis()}. All methods are safe to call from any thread.
+ */
+public final class ExecutorStats {
+  private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {
+    1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, 2048, Long.MAX_VALUE
+  };
+  private static final int PRIORITY_COUNT = Priority.values().length;
+
+  private final AtomicIntegerArray queueDepths = new AtomicIntegerArray(PRIORITY_COUNT);
+  private final AtomicLongArray waitTimeHistograms =
+      new AtomicLongArray(PRIORITY_COUNT * BUCKET_UPPER_BOUNDS_MILLIS.length);
+  private final AtomicLong preemptionCount = new AtomicLong();
+
+  ExecutorStats() {}
+
+  /** Returns the number of runnables of the given priority currently waiting for a thread. */
+  public int getQueueDepth(@NonNull Priority priority) {
+    return queueDepths.get(priority.ordinal());
+  }
+
+  /**
+   * Returns a copy of the wait time histogram for the given priority, where each value is the
+   * number of runnables whose wait fell into the bucket at the same index in {@link
+   * #getWaitTimeBucketUpperBoundsMillis()}.
+   */
+  @NonNull
+  public long[] getWaitTimeHistogram(@NonNull Priority priority) {
+    long[] result = new long[BUCKET_UPPER_BOUNDS_MILLIS.length];
+    int offset = priority.ordinal() * BUCKET_UPPER_BOUNDS_MILLIS.length;
+    for (int i = 0; i < result.length; i++) {
+      result[i] = waitTimeHistograms.get(offset + i);
+    }
+    return result;
+  }
+
+  /** Returns the inclusive upper bound in milliseconds of each wait time histogram bucket. */
+  @NonNull
+  public long[] getWaitTimeBucketUpperBoundsMillis() {
+    return BUCKET_UPPER_BOUNDS_MILLIS.clone();
+  }
+
+  /** Returns the number of times running work gave up its thread to higher priority work. */
+  public long getPreemptionCount() {
+    return preemptionCount.get();
+  }
+
+  void onEnqueued(int priority) {
+    queueDepths.incrementAndGet(clamp(priority));
+  }
+
+  void onDequeued(int priority, long waitTimeMillis) {
+    int index = clamp(priority);
+    queueDepths.decrementAndGet(index);
+    int bucket = 0;
+    while (waitTimeMillis > BUCKET_UPPER_BOUNDS_MILLIS[bucket]) {
+      bucket++;
+    }
+    waitTimeHistograms.incrementAndGet(index * BUCKET_UPPER_BOUNDS_MILLIS.length + bucket);
+  }
+
+  void onRejected(int priority) {
+    queueDepths.decrementAndGet(clamp(priority));
+  }
+
+  void onPreempted() {
+    preemptionCount.incrementAndGet();
+  }
+
+  private static int clamp(int priority) {
+    return Math.max(0, Math.min(PRIORITY_COUNT - 1, priority));
+  }
+}
@@ -6,17 +6,23 @@ import android.text.TextUtils;
 import android.util.Log;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
+import com.bumptech.glide4110.Priority;
+import com.bumptech.glide4110.util.LogTime;
 import com.bumptech.glide4110.util.Synthetic;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -53,6 +59,9 @@ public final class GlideExecutor implements ExecutorService {
 
   private static final String DEFAULT_ANIMATION_EXECUTOR_NAME = "animation";
 
+  /** The initial capacity of the queue, matching {@link PriorityBlockingQueue}'s default. */
+  private static final int INITIAL_QUEUE_CAPACITY = 11;
+
   /** The default keep alive time for threads in our cached thread pools in milliseconds. */
   private static final long KEEP_ALIVE_TIME_MS = TimeUnit.SECONDS.toMillis(10);
 
@@ -64,6 +73,9 @@ public final class GlideExecutor implements ExecutorService {
   private static volatile int bestThreadCount;
 
   private final ExecutorService delegate;
+  // Only set if preemption is enabled.
+  @Nullable private final BlockingQueue<Runnable> queue;
+  @Nullable private final ExecutorStats stats;
 
   /**
    * Returns a new {@link Builder} with the {@link #DEFAULT_DISK_CACHE_EXECUTOR_THREADS} threads,
@@ -214,12 +226,68 @@ public final class GlideExecutor implements ExecutorService {
 
   @VisibleForTesting
   GlideExecutor(ExecutorService delegate) {
+    this(delegate, /*queue=*/ null, /*stats=*/ null);
+  }
+
+  private GlideExecutor(
+      ExecutorService delegate,
+      @Nullable BlockingQueue<Runnable> queue,
+      @Nullable ExecutorStats stats) {
     this.delegate = delegate;
+    this.queue = queue;
+    this.stats = stats;
   }
 
   @Override
   public void execute(@NonNull Runnable command) {
-    delegate.execute(command);
+    if (stats != null && command instanceof PrioritizedRunnable) {
+      PrioritizedRunnable prioritized = (PrioritizedRunnable) command;
+      stats.onEnqueued(prioritized.getPriority());
+      try {
+        delegate.execute(new TrackedRunnable(prioritized, stats));
+      } catch (RejectedExecutionException e) {
+        stats.onRejected(prioritized.getPriority());
+        throw e;
+      }
+    } else {
+      delegate.execute(command);
+    }
+  }
+
+  /**
+   * Returns {@code true} if the given running work should give up its thread because work of a
+   * strictly higher priority is waiting in this executor's queue.
+   *
+   * <p>Always returns {@code false} unless this executor was built with {@link
+   * Builder#setPreemptionEnabled(boolean)}.
+   */
+  public boolean shouldYield(@NonNull PrioritizedRunnable running) {
+    if (queue == null) {
+      return false;
+    }
+    Runnable head = queue.peek();
+    return head instanceof PrioritizedRunnable
+        && ((PrioritizedRunnable) head).getPriority() < running.getPriority();
+  }
+
+  /**
+   * Queues work that gave up its thread because {@link #shouldYield(PrioritizedRunnable)} returned
+   * {@code true}, counting it as a preemption in {@link #getStats()}.
+   */
+  public void requeue(@NonNull PrioritizedRunnable yielded) {
+    if (stats != null) {
+      stats.onPreempted();
+    }
+    execute(yielded);
+  }
+
+  /**
+   * Returns queue statistics for this executor, or {@code null} unless this executor was built with
+   * {@link Builder#setPreemptionEnabled(boolean)}.
+   */
+  @Nullable
+  public ExecutorStats getStats() {
+    return stats;
   }
 
   @NonNull
@@ -405,6 +473,72 @@ public final class GlideExecutor implements ExecutorService {
     }
   }
 
+  /**
+   * Orders queued work by {@link PrioritizedRunnable#getPriority()} and then {@link
+   * PrioritizedRunnable#getOrder()}. Other {@link Runnable}s, like the {@link Future}s from {@link
+   * #submit(Runnable)}, run at {@link Priority#NORMAL}.
+   */
+  private static final class PriorityComparator implements Comparator<Runnable> {
+    private static final int UNPRIORITIZED = Priority.NORMAL.ordinal();
+
+    @Synthetic
+    PriorityComparator() {}
+
+    @Override
+    public int compare(Runnable first, Runnable second) {
+      int result = Integer.compare(getPriority(first), getPriority(second));
+      if (result == 0) {
+        result = Long.compare(getOrder(first), getOrder(second));
+      }
+      return result;
+    }
+
+    private static int getPriority(Runnable runnable) {
+      return runnable instanceof PrioritizedRunnable
+          ? ((PrioritizedRunnable) runnable).getPriority()
+          : UNPRIORITIZED;
+    }
+
+    private static long getOrder(Runnable runnable) {
+      return runnable instanceof PrioritizedRunnable
+          ? ((PrioritizedRunnable) runnable).getOrder()
+          : 0;
+    }
+  }
+
+  /**
+   * Wraps queued {@link PrioritizedRunnable}s to record how long they waited, keeping the priority
+   * and order of the wrapped runnable in the {@link PriorityBlockingQueue}.
+   */
+  private static final class TrackedRunnable implements PrioritizedRunnable {
+    @Synthetic final PrioritizedRunnable delegate;
+    private final ExecutorStats stats;
+    private final long enqueuedTime;
+
+    @Synthetic
+    TrackedRunnable(PrioritizedRunnable delegate, ExecutorStats stats) {
+      this.delegate = delegate;
+      this.stats = stats;
+      enqueuedTime = LogTime.getLogTime();
+    }
+
+    @Override
+    public void run() {
+      stats.onDequeued(delegate.getPriority(), (long) LogTime.getElapsedMillis(enqueuedTime));
+      delegate.run();
+    }
+
+    @Override
+    public int getPriority() {
+      return delegate.getPriority();
+    }
+
+    @Override
+    public long getOrder() {
+      return delegate.getOrder();
+    }
+  }
+
   /** A builder for {@link GlideExecutor}s. */
   public static final class Builder {
     /**
@@ -423,6 +557,7 @@ public final class GlideExecutor implements ExecutorService {
 
     private String name;
     private long threadTimeoutMillis;
+    private boolean isPreemptionEnabled;
 
     @Synthetic
     Builder(boolean preventNetworkOperations) {
@@ -465,25 +600,46 @@ public final class GlideExecutor implements ExecutorService {
       return this;
     }
 
+    /**
+     * Allows lower priority work to yield its thread to queued higher priority work.
+     *
+     * <p>When enabled, {@link PrioritizedRunnable}s, including Glide's decode jobs, check {@link
+     * GlideExecutor#shouldYield(PrioritizedRunnable)} at stage boundaries and re-queue themselves
+     * if more important work is waiting, so that requests for visible images can overtake
+     * prefetches that already hold a thread. Queue depth and wait time statistics are also
+     * recorded and are available from {@link GlideExecutor#getStats()}.
+     *
+     * <p>Defaults to {@code false}.
+     */
+    public Builder setPreemptionEnabled(boolean isPreemptionEnabled) {
+      this.isPreemptionEnabled = isPreemptionEnabled;
+      return this;
+    }
+
     /** Builds a new {@link GlideExecutor} with any previously specified options. */
     public GlideExecutor build() {
       if (TextUtils.isEmpty(name)) {
         throw new IllegalArgumentException(
             "Name must be non-null and non-empty, but given: " + name);
       }
+      BlockingQueue<Runnable> queue =
+          new PriorityBlockingQueue<>(INITIAL_QUEUE_CAPACITY, new PriorityComparator());
       ThreadPoolExecutor executor =
           new ThreadPoolExecutor(
               corePoolSize,
               maximumPoolSize,
               /*keepAliveTime=*/ threadTimeoutMillis,
               TimeUnit.MILLISECONDS,
-              new PriorityBlockingQueue<Runnable>(),
+              queue,
               new DefaultThreadFactory(name, uncaughtThrowableStrategy, preventNetworkOperations));
 
       if (threadTimeoutMillis != NO_THREAD_TIMEOUT) {
         executor.allowCoreThreadTimeOut(true);
       }
 
+      if (isPreemptionEnabled) {
+        return new GlideExecutor(executor, queue, new ExecutorStats());
+      }
       return new GlideExecutor(executor);
     }
   }
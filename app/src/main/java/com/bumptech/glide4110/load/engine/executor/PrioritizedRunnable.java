@@ -0,0 +1,20 @@
+package com.bumptech.glide4110.load.engine.executor;
+
+/**
+ * A {@link Runnable} with a priority that a {@link GlideExecutor} uses to order its queue and to
+ * decide whether running work should give up its thread to queued work of higher priority.
+ *
+ * <p>Everything queued on a {@link GlideExecutor} is ordered by {@link #getPriority()} and then by
+ * {@link #getOrder()}, so different kinds of work can share an executor.
+ */
+public interface PrioritizedRunnable extends Runnable {
+
+  /**
+   * Returns the priority of this work, lower values are more important, matching {@link
+   * com.bumptech.glide4110.Priority#ordinal()}.
+   */
+  int getPriority();
+
+  /** Orders work of equal priority, lower values run first. */
+  long getOrder();
+}
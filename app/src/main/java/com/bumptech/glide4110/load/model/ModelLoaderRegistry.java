@@ -9,13 +9,17 @@ import com.bumptech.glide4110.util.Synthetic;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Maintains an ordered put of {@link ModelLoader}s and the model and data types they handle in
  * order from highest priority to lowest.
+ *
+ * <p>Loaders and data classes are cached per model class. Cached lookups don't lock, only building
+ * the loaders for a model class for the first time and registering components do. Use {@link
+ * #freeze()} to build them for every registered model class up front.
  */
 // Hides Model throughout.
 @SuppressWarnings("TypeParameterHidesVisibleType")
@@ -23,6 +27,7 @@ public class ModelLoaderRegistry {
 
   private final com.bumptech.glide4110.load.model.MultiModelLoaderFactory multiModelLoaderFactory;
   private final ModelLoaderCache cache = new ModelLoaderCache();
+  private final Map<Class<?>, List<Class<?>>> dataClassesCache = new ConcurrentHashMap<>();
 
   public ModelLoaderRegistry(@NonNull Pool<List<Throwable>> throwableListPool) {
     this(new com.bumptech.glide4110.load.model.MultiModelLoaderFactory(throwableListPool));
@@ -37,7 +42,7 @@ public class ModelLoaderRegistry {
       @NonNull Class<Data> dataClass,
       @NonNull com.bumptech.glide4110.load.model.ModelLoaderFactory<? extends Model, ? extends Data> factory) {
     multiModelLoaderFactory.append(modelClass, dataClass, factory);
-    cache.clear();
+    clearCaches();
   }
 
   public synchronized <Model, Data> void prepend(
@@ -45,13 +50,13 @@ public class ModelLoaderRegistry {
       @NonNull Class<Data> dataClass,
       @NonNull com.bumptech.glide4110.load.model.ModelLoaderFactory<? extends Model, ? extends Data> factory) {
     multiModelLoaderFactory.prepend(modelClass, dataClass, factory);
-    cache.clear();
+    clearCaches();
   }
 
   public synchronized <Model, Data> void remove(
       @NonNull Class<Model> modelClass, @NonNull Class<Data> dataClass) {
     tearDown(multiModelLoaderFactory.remove(modelClass, dataClass));
-    cache.clear();
+    clearCaches();
   }
 
   public synchronized <Model, Data> void replace(
@@ -59,7 +64,45 @@ public class ModelLoaderRegistry {
       @NonNull Class<Data> dataClass,
       @NonNull com.bumptech.glide4110.load.model.ModelLoaderFactory<? extends Model, ? extends Data> factory) {
     tearDown(multiModelLoaderFactory.replace(modelClass, dataClass, factory));
+    clearCaches();
+  }
+
+  private void clearCaches() {
     cache.clear();
+    dataClassesCache.clear();
+  }
+
+  /**
+   * Builds and caches the {@link ModelLoader}s and data classes for every registered model class
+   * so that later lookups for those exact classes never lock.
+   *
+   * <p>Registering more components afterwards is allowed, but discards everything cached so far.
+   */
+  public synchronized void freeze() {
+    for (Class<?> modelClass : multiModelLoaderFactory.getModelClasses()) {
+      precompute(modelClass);
+    }
+  }
+
+  /**
+   * Builds and caches the {@link ModelLoader}s and data classes for the given model class, which
+   * need not be registered itself, for example a subclass of a registered class.
+   */
+  public void precompute(@NonNull Class<?> modelClass) {
+    getModelLoadersForClass(modelClass);
+    getDataClasses(modelClass);
+  }
+
+  /** Returns every model class whose {@link ModelLoader}s are currently cached. */
+  @NonNull
+  public List<Class<?>> getCachedModelClasses() {
+    return cache.getModelClasses();
+  }
+
+  /** Returns every model class with at least one registered {@link ModelLoaderFactory}. */
+  @NonNull
+  public synchronized List<Class<?>> getModelClasses() {
+    return multiModelLoaderFactory.getModelClasses();
   }
 
   private <Model, Data> void tearDown(
@@ -104,17 +147,33 @@ public class ModelLoaderRegistry {
   }
 
   @NonNull
-  public synchronized List<Class<?>> getDataClasses(@NonNull Class<?> modelClass) {
-    return multiModelLoaderFactory.getDataClasses(modelClass);
+  public List<Class<?>> getDataClasses(@NonNull Class<?> modelClass) {
+    List<Class<?>> result = dataClassesCache.get(modelClass);
+    if (result == null) {
+      synchronized (this) {
+        result = dataClassesCache.get(modelClass);
+        if (result == null) {
+          result = Collections.unmodifiableList(multiModelLoaderFactory.getDataClasses(modelClass));
+          dataClassesCache.put(modelClass, result);
+        }
+      }
+    }
+    return result;
   }
 
   @NonNull
-  private synchronized <A> List<ModelLoader<A, ?>> getModelLoadersForClass(
-      @NonNull Class<A> modelClass) {
+  private <A> List<ModelLoader<A, ?>> getModelLoadersForClass(@NonNull Class<A> modelClass) {
     List<ModelLoader<A, ?>> loaders = cache.get(modelClass);
     if (loaders == null) {
-      loaders = Collections.unmodifiableList(multiModelLoaderFactory.build(modelClass));
-      cache.put(modelClass, loaders);
+      // Registration clears the cache while holding the same lock, so loaders built here are
+      // never stale.
+      synchronized (this) {
+        loaders = cache.get(modelClass);
+        if (loaders == null) {
+          loaders = Collections.unmodifiableList(multiModelLoaderFactory.build(modelClass));
+          cache.put(modelClass, loaders);
+        }
+      }
     }
     return loaders;
   }
@@ -126,7 +185,7 @@ public class ModelLoaderRegistry {
   }
 
   private static class ModelLoaderCache {
-    private final Map<Class<?>, Entry<?>> cachedModelLoaders = new HashMap<>();
+    private final Map<Class<?>, Entry<?>> cachedModelLoaders = new ConcurrentHashMap<>();
 
     @com.bumptech.glide4110.util.Synthetic
     ModelLoaderCache() {}
@@ -135,6 +194,10 @@ public class ModelLoaderRegistry {
       cachedModelLoaders.clear();
     }
 
+    public List<Class<?>> getModelClasses() {
+      return new ArrayList<>(cachedModelLoaders.keySet());
+    }
+
     public <Model> void put(Class<Model> modelClass, List<ModelLoader<Model, ?>> loaders) {
       Entry<?> previous = cachedModelLoaders.put(modelClass, new Entry<>(loaders));
       if (previous != null) {
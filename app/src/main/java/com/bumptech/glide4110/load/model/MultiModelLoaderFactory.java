@@ -115,6 +115,17 @@ public class MultiModelLoaderFactory {
     }
   }
 
+  @NonNull
+  synchronized List<Class<?>> getModelClasses() {
+    List<Class<?>> result = new ArrayList<>();
+    for (Entry<?, ?> entry : entries) {
+      if (!result.contains(entry.modelClass)) {
+        result.add(entry.modelClass);
+      }
+    }
+    return result;
+  }
+
   @NonNull
   synchronized List<Class<?>> getDataClasses(@NonNull Class<?> modelClass) {
     List<Class<?>> result = new ArrayList<>();
@@ -187,7 +198,8 @@ public class MultiModelLoaderFactory {
   }
 
   private static class Entry<Model, Data> {
-    private final Class<Model> modelClass;
+    @com.bumptech.glide4110.util.Synthetic
+    final Class<Model> modelClass;
     @com.bumptech.glide4110.util.Synthetic
     final Class<Data> dataClass;
     @com.bumptech.glide4110.util.Synthetic
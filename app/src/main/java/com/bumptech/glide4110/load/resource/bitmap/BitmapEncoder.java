@@ -1,9 +1,11 @@
 package com.bumptech.glide4110.load.resource.bitmap;
 
 import android.graphics.Bitmap;
+import android.os.Build;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.bumptech.glide4110.GlideMetrics;
 import com.bumptech.glide4110.load.EncodeStrategy;
 import com.bumptech.glide4110.load.Option;
 import com.bumptech.glide4110.load.Options;
@@ -24,10 +26,14 @@ import java.io.OutputStream;
  * An {@link ResourceEncoder} that writes {@link Bitmap}s
  * to {@link OutputStream}s.
  *
- * <p>{@link Bitmap}s that return true from {@link Bitmap#hasAlpha
- * ()}} are written using {@link Bitmap.CompressFormat#PNG} to preserve alpha and
+ * <p>The format is chosen by the {@link EncodeFormatStrategy} in {@link #ENCODE_FORMAT_STRATEGY},
+ * unless {@link #COMPRESSION_FORMAT} is set. By default {@link Bitmap}s that return true from {@link
+ * Bitmap#hasAlpha ()}} are written using {@link Bitmap.CompressFormat#PNG} to preserve alpha and
  * all other bitmaps are written using {@link Bitmap.CompressFormat#JPEG}.
  *
+ * <p>The time taken and bytes written for each Bitmap are reported to {@link
+ * GlideMetrics#onResourceEncoded(Class, String, long, long)}.
+ *
  * @see Bitmap#compress(Bitmap.CompressFormat, int,
  *     OutputStream)
  */
@@ -44,35 +50,64 @@ public class BitmapEncoder implements ResourceEncoder<Bitmap> {
    * An {@link Bitmap.CompressFormat} option used as the format to encode the
    * {@link Bitmap}.
    *
-   * <p>Defaults to {@link Bitmap.CompressFormat#JPEG} for images without alpha and
-   * {@link Bitmap.CompressFormat#PNG} for images with alpha.
+   * <p>Defaults to {@code null}, in which case the format is chosen by {@link
+   * #ENCODE_FORMAT_STRATEGY}.
    */
   public static final Option<Bitmap.CompressFormat> COMPRESSION_FORMAT =
       Option.memory("com.bumptech.glide.load.resource.bitmap.BitmapEncoder.CompressionFormat");
 
+  /**
+   * An {@link EncodeFormatStrategy} option used to choose the format for each {@link Bitmap} when
+   * {@link #COMPRESSION_FORMAT} isn't set.
+   *
+   * <p>Defaults to {@link EncodeFormatStrategy#DEFAULT}.
+   */
+  public static final Option<EncodeFormatStrategy> ENCODE_FORMAT_STRATEGY =
+      Option.memory(
+          "com.bumptech.glide.load.resource.bitmap.BitmapEncoder.EncodeFormatStrategy",
+          EncodeFormatStrategy.DEFAULT);
+
   private static final String TAG = "BitmapEncoder";
   @Nullable private final com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool arrayPool;
+  private final GlideMetrics metrics;
 
   public BitmapEncoder(@NonNull com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool arrayPool) {
+    this(arrayPool, GlideMetrics.NONE);
+  }
+
+  public BitmapEncoder(@NonNull ArrayPool arrayPool, @NonNull GlideMetrics metrics) {
     this.arrayPool = arrayPool;
+    this.metrics = metrics;
   }
 
   /** @deprecated Use {@link #BitmapEncoder(ArrayPool)} instead. */
   @Deprecated
   public BitmapEncoder() {
     arrayPool = null;
+    metrics = GlideMetrics.NONE;
   }
 
   @Override
   public boolean encode(
           @NonNull Resource<Bitmap> resource, @NonNull File file, @NonNull Options options) {
     final Bitmap bitmap = resource.get();
-    Bitmap.CompressFormat format = getFormat(bitmap, options);
+    long startNanos = System.nanoTime();
+    Bitmap.CompressFormat format = options.get(COMPRESSION_FORMAT);
+    int quality = options.get(COMPRESSION_QUALITY);
+    String formatName;
+    if (format != null) {
+      formatName = format.name();
+    } else {
+      EncodeFormatStrategy.Format strategyFormat =
+          options.get(ENCODE_FORMAT_STRATEGY).getFormat(bitmap);
+      format = getCompressFormat(strategyFormat);
+      quality = getQuality(strategyFormat, quality);
+      formatName = strategyFormat.name();
+    }
     GlideTrace.beginSectionFormat(
-        "encode: [%dx%d] %s", bitmap.getWidth(), bitmap.getHeight(), format);
+        "encode: [%dx%d] %s", bitmap.getWidth(), bitmap.getHeight(), formatName);
     try {
       long start = LogTime.getLogTime();
-      int quality = options.get(COMPRESSION_QUALITY);
 
       boolean success = false;
       OutputStream os = null;
@@ -84,6 +119,8 @@ public class BitmapEncoder implements ResourceEncoder<Bitmap> {
         bitmap.compress(format, quality, os);
         os.close();
         success = true;
+        metrics.onResourceEncoded(
+            Bitmap.class, formatName, file.length(), System.nanoTime() - startNanos);
       } catch (IOException e) {
         if (Log.isLoggable(TAG, Log.DEBUG)) {
           Log.d(TAG, "Failed to encode Bitmap", e);
@@ -102,7 +139,7 @@ public class BitmapEncoder implements ResourceEncoder<Bitmap> {
         Log.v(
             TAG,
             "Compressed with type: "
-                + format
+                + formatName
                 + " of size "
                 + Util.getBitmapByteSize(bitmap)
                 + " in "
@@ -118,15 +155,41 @@ public class BitmapEncoder implements ResourceEncoder<Bitmap> {
     }
   }
 
-  private Bitmap.CompressFormat getFormat(Bitmap bitmap, Options options) {
-    Bitmap.CompressFormat format = options.get(COMPRESSION_FORMAT);
-    if (format != null) {
-      return format;
-    } else if (bitmap.hasAlpha()) {
-      return Bitmap.CompressFormat.PNG;
-    } else {
-      return Bitmap.CompressFormat.JPEG;
+  // WEBP is deprecated in R, but the only WebP format before it.
+  @SuppressWarnings("deprecation")
+  private static Bitmap.CompressFormat getCompressFormat(EncodeFormatStrategy.Format format) {
+    switch (format) {
+      case JPEG:
+        return Bitmap.CompressFormat.JPEG;
+      case PNG:
+        return Bitmap.CompressFormat.PNG;
+      case WEBP_LOSSY:
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+            ? Bitmap.CompressFormat.WEBP_LOSSY
+            : Bitmap.CompressFormat.WEBP;
+      case WEBP_LOSSLESS:
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+          return Bitmap.CompressFormat.WEBP_LOSSLESS;
+        } else if (Build.VERSION.SDK_INT == Build.VERSION_CODES.Q) {
+          return Bitmap.CompressFormat.WEBP;
+        } else {
+          return Bitmap.CompressFormat.PNG;
+        }
+      default:
+        throw new IllegalArgumentException("Unrecognized format: " + format);
+    }
+  }
+
+  private static int getQuality(EncodeFormatStrategy.Format format, int quality) {
+    if (Build.VERSION.SDK_INT == Build.VERSION_CODES.Q) {
+      // On Q, WEBP is lossless at a quality of 100 and lossy otherwise.
+      if (format == EncodeFormatStrategy.Format.WEBP_LOSSY) {
+        return Math.min(quality, 99);
+      } else if (format == EncodeFormatStrategy.Format.WEBP_LOSSLESS) {
+        return 100;
+      }
     }
+    return quality;
   }
 
   @NonNull
@@ -5,10 +5,8 @@ import androidx.annotation.NonNull;
 import com.bumptech.glide4110.load.Options;
 import com.bumptech.glide4110.load.ResourceDecoder;
 import com.bumptech.glide4110.load.engine.Resource;
-import com.bumptech.glide4110.util.ByteBufferUtil;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.ByteBuffer;
 
 /** Decodes {@link Bitmap Bitmaps} from {@link ByteBuffer ByteBuffers}. */
@@ -28,7 +26,6 @@ public class ByteBufferBitmapDecoder implements ResourceDecoder<ByteBuffer, Bitm
   public Resource<Bitmap> decode(
       @NonNull ByteBuffer source, int width, int height, @NonNull Options options)
       throws IOException {
-    InputStream is = ByteBufferUtil.toStream(source);
-    return downsampler.decode(is, width, height, options);
+    return downsampler.decode(source, width, height, options);
   }
 }
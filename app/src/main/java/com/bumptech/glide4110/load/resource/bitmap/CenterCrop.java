@@ -15,7 +15,7 @@ import java.security.MessageDigest;
  *
  * <p>Does not maintain the image's aspect ratio
  */
-public class CenterCrop extends BitmapTransformation {
+public class CenterCrop extends BitmapTransformation implements FusibleTransformation {
   private static final String ID = "com.bumptech.glide.load.resource.bitmap.CenterCrop";
   private static final byte[] ID_BYTES = ID.getBytes(Key.CHARSET);
 
@@ -25,6 +25,17 @@ public class CenterCrop extends BitmapTransformation {
     return TransformationUtils.centerCrop(pool, toTransform, outWidth, outHeight);
   }
 
+  @Override
+  public boolean canFuse() {
+    // Subclasses may override transform, which fusing would skip.
+    return getClass() == CenterCrop.class;
+  }
+
+  @Override
+  public void fuse(@NonNull FusedGeometry geometry, int outWidth, int outHeight) {
+    geometry.centerCrop(outWidth, outHeight);
+  }
+
   @Override
   public boolean equals(Object o) {
     return o instanceof CenterCrop;
@@ -15,7 +15,7 @@ import java.security.MessageDigest;
  * to the given dimension and the other will be less than the given dimension (maintaining the
  * image's aspect ratio).
  */
-public class CenterInside extends BitmapTransformation {
+public class CenterInside extends BitmapTransformation implements FusibleTransformation {
   private static final String ID = "com.bumptech.glide.load.resource.bitmap.CenterInside";
   private static final byte[] ID_BYTES = ID.getBytes(Key.CHARSET);
 
@@ -25,6 +25,17 @@ public class CenterInside extends BitmapTransformation {
     return TransformationUtils.centerInside(pool, toTransform, outWidth, outHeight);
   }
 
+  @Override
+  public boolean canFuse() {
+    // Subclasses may override transform, which fusing would skip.
+    return getClass() == CenterInside.class;
+  }
+
+  @Override
+  public void fuse(@NonNull FusedGeometry geometry, int outWidth, int outHeight) {
+    geometry.centerInside(outWidth, outHeight);
+  }
+
   @Override
   public boolean equals(Object o) {
     return o instanceof CenterInside;
@@ -14,7 +14,7 @@ import java.security.MessageDigest;
  *
  * <p>Uses a PorterDuff blend mode, see http://ssp.impulsetrain.com/porterduff.html.
  */
-public class CircleCrop extends BitmapTransformation {
+public class CircleCrop extends BitmapTransformation implements FusibleTransformation {
   // The version of this transformation, incremented to correct an error in a previous version.
   // See #455.
   private static final int VERSION = 1;
@@ -29,6 +29,17 @@ public class CircleCrop extends BitmapTransformation {
     return TransformationUtils.circleCrop(pool, toTransform, outWidth, outHeight);
   }
 
+  @Override
+  public boolean canFuse() {
+    // Subclasses may override transform, which fusing would skip.
+    return getClass() == CircleCrop.class;
+  }
+
+  @Override
+  public void fuse(@NonNull FusedGeometry geometry, int outWidth, int outHeight) {
+    geometry.circleCrop(outWidth, outHeight);
+  }
+
   @Override
   public boolean equals(Object o) {
     return o instanceof CircleCrop;
@@ -214,6 +214,26 @@ public final class Downsampler {
         callbacks);
   }
 
+  /**
+   * Returns a Bitmap decoded from the given {@link ByteBuffer} that is rotated to match any EXIF
+   * data present in the buffer and that is downsampled according to the given dimensions.
+   *
+   * <p>Unlike {@link #decode(InputStream, int, int, Options)}, header parsing reads the buffer in
+   * place, so no part of the data is copied into a {@link RecyclableBufferedInputStream} buffer.
+   * Heap buffers are decoded from their backing array, but direct and memory mapped buffers are
+   * read by {@link BitmapFactory} as a stream, in chunks copied through its temporary buffer.
+   */
+  public com.bumptech.glide4110.load.engine.Resource<Bitmap> decode(
+      ByteBuffer buffer, int requestedWidth, int requestedHeight, Options options)
+      throws IOException {
+    return decode(
+        new ImageReader.ByteBufferImageReader(buffer, parsers, byteArrayPool),
+        requestedWidth,
+        requestedHeight,
+        options,
+        EMPTY_CALLBACKS);
+  }
+
   @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
   public com.bumptech.glide4110.load.engine.Resource<Bitmap> decode(
       ParcelFileDescriptor parcelFileDescriptor, int outWidth, int outHeight, Options options)
@@ -0,0 +1,115 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Chooses the format {@link BitmapEncoder} uses to write a transformed {@link Bitmap} to the disk
+ * cache, see {@link BitmapEncoder#ENCODE_FORMAT_STRATEGY}.
+ *
+ * <p>The format only affects the size of the disk cache and the time taken to encode and later
+ * decode the resource, not cache keys, so the strategy can be changed at any time. Set {@link
+ * BitmapEncoder#COMPRESSION_FORMAT} to use a single format regardless of the strategy.
+ */
+// Public API.
+@SuppressWarnings("WeakerAccess")
+public abstract class EncodeFormatStrategy {
+
+  /**
+   * Writes {@link Format#PNG} for Bitmaps with alpha and {@link Format#JPEG} for everything else.
+   */
+  public static final EncodeFormatStrategy LEGACY = new Legacy();
+
+  /**
+   * Writes {@link Format#WEBP_LOSSLESS} for Bitmaps with few distinct colors, like icons, UI art
+   * and screenshots, and {@link Format#WEBP_LOSSY} for everything else, including photos with
+   * alpha such as circle cropped avatars.
+   *
+   * <p>The number of colors is estimated from a sparse grid of pixels, so the cost doesn't depend
+   * on the size of the Bitmap.
+   */
+  public static final EncodeFormatStrategy ADAPTIVE_WEBP = new AdaptiveWebp();
+
+  /** Default strategy, currently {@link #LEGACY}. */
+  public static final EncodeFormatStrategy DEFAULT = LEGACY;
+
+  /** Returns the format to write the given Bitmap in. */
+  @NonNull
+  public abstract Format getFormat(@NonNull Bitmap bitmap);
+
+  /**
+   * The formats {@link BitmapEncoder} can write.
+   *
+   * <p>{@link android.graphics.Bitmap.CompressFormat#WEBP_LOSSY} and {@link
+   * android.graphics.Bitmap.CompressFormat#WEBP_LOSSLESS} were only added in Android R, the WebP
+   * formats are written with the closest equivalent available on older versions.
+   */
+  public enum Format {
+    /** Lossy, without alpha. */
+    JPEG,
+    /** Lossless, slow to encode and large for photos. */
+    PNG,
+    /** Lossy, with alpha. */
+    WEBP_LOSSY,
+    /**
+     * Lossless, much smaller than PNG for flat colors. Written as PNG before Android Q, which has no
+     * lossless WebP encoder.
+     */
+    WEBP_LOSSLESS,
+  }
+
+  private static final class Legacy extends EncodeFormatStrategy {
+
+    @NonNull
+    @Override
+    public Format getFormat(@NonNull Bitmap bitmap) {
+      return bitmap.hasAlpha() ? Format.PNG : Format.JPEG;
+    }
+  }
+
+  private static final class AdaptiveWebp extends EncodeFormatStrategy {
+    // Samples along each axis, 256 in total.
+    private static final int SAMPLES_PER_SIDE = 16;
+    // Photos almost never repeat exact colors across a sparse grid, flat art almost always does.
+    private static final int MAX_LOSSLESS_DISTINCT_COLORS = SAMPLES_PER_SIDE * SAMPLES_PER_SIDE / 8;
+
+    @NonNull
+    @Override
+    public Format getFormat(@NonNull Bitmap bitmap) {
+      return hasFewColors(bitmap) ? Format.WEBP_LOSSLESS : Format.WEBP_LOSSY;
+    }
+
+    private static boolean hasFewColors(Bitmap bitmap) {
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+          && bitmap.getConfig() == Bitmap.Config.HARDWARE) {
+        // Pixels can't be read without a copy, assume a photo.
+        return false;
+      }
+      int width = bitmap.getWidth();
+      int height = bitmap.getHeight();
+      int columns = Math.min(SAMPLES_PER_SIDE, width);
+      int rows = Math.min(SAMPLES_PER_SIDE, height);
+      int[] samples = new int[columns * rows];
+      int count = 0;
+      for (int row = 0; row < rows; row++) {
+        int y = (int) ((row + 0.5f) * height / rows);
+        for (int column = 0; column < columns; column++) {
+          int x = (int) ((column + 0.5f) * width / columns);
+          samples[count++] = bitmap.getPixel(x, y);
+        }
+      }
+      Arrays.sort(samples);
+      int distinct = 1;
+      for (int i = 1; i < samples.length; i++) {
+        if (samples[i] != samples[i - 1] && ++distinct > MAX_LOSSLESS_DISTINCT_COLORS) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
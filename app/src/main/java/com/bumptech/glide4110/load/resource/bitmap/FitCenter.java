@@ -13,7 +13,7 @@ import java.security.MessageDigest;
  * of the image will be equal to the given dimension and the other will be less than the given
  * dimension.
  */
-public class FitCenter extends BitmapTransformation {
+public class FitCenter extends BitmapTransformation implements FusibleTransformation {
   private static final String ID = "com.bumptech.glide.load.resource.bitmap.FitCenter";
   private static final byte[] ID_BYTES = ID.getBytes(Key.CHARSET);
 
@@ -23,6 +23,17 @@ public class FitCenter extends BitmapTransformation {
     return TransformationUtils.fitCenter(pool, toTransform, outWidth, outHeight);
   }
 
+  @Override
+  public boolean canFuse() {
+    // Subclasses may override transform, which fusing would skip.
+    return getClass() == FitCenter.class;
+  }
+
+  @Override
+  public void fuse(@NonNull FusedGeometry geometry, int outWidth, int outHeight) {
+    geometry.fitCenter(outWidth, outHeight);
+  }
+
   @Override
   public boolean equals(Object o) {
     return o instanceof FitCenter;
@@ -0,0 +1,175 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.bumptech.glide4110.Glide;
+import com.bumptech.glide4110.load.MultiTransformation;
+import com.bumptech.glide4110.load.Transformation;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide4110.request.target.Target;
+import com.bumptech.glide4110.util.Util;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Applies {@link Transformation}s in order like {@link MultiTransformation}, but draws each run of
+ * consecutive Glide transformations that only resize, rotate or clip, such as {@link CenterCrop}
+ * followed by {@link RoundedCorners}, as a single matrix and clip.
+ *
+ * <p>Each fused run allocates one Bitmap from the pool and draws once, where a {@link
+ * MultiTransformation} allocates and draws once per transformation. Other transformations are
+ * applied on their own, between runs.
+ *
+ * <p>{@link com.bumptech.glide4110.request.BaseRequestOptions} fuses chains of Bitmap
+ * transformations automatically, see {@link #fuse(Transformation)}. The disk cache key is the same
+ * as that of the equivalent {@link MultiTransformation}.
+ */
+public final class FusedBitmapTransformation implements Transformation<Bitmap> {
+  private final List<Transformation<Bitmap>> transformations;
+
+  @SafeVarargs
+  @SuppressWarnings("varargs")
+  public FusedBitmapTransformation(@NonNull Transformation<Bitmap>... transformations) {
+    this(Arrays.asList(transformations));
+  }
+
+  public FusedBitmapTransformation(
+      @NonNull Collection<? extends Transformation<Bitmap>> transformations) {
+    if (transformations.isEmpty()) {
+      throw new IllegalArgumentException(
+          "FusedBitmapTransformation must contain at least one Transformation");
+    }
+    this.transformations = new ArrayList<>(transformations);
+  }
+
+  /**
+   * Returns a {@link FusedBitmapTransformation} equivalent to the given transformation if it's a
+   * {@link MultiTransformation} with at least two consecutive transformations that can be fused,
+   * or the given transformation otherwise.
+   */
+  @NonNull
+  public static Transformation<Bitmap> fuse(@NonNull Transformation<Bitmap> transformation) {
+    if (!(transformation instanceof MultiTransformation)) {
+      return transformation;
+    }
+    Collection<? extends Transformation<Bitmap>> transformations =
+        ((MultiTransformation<Bitmap>) transformation).getTransformations();
+    boolean previousCanFuse = false;
+    for (Transformation<Bitmap> current : transformations) {
+      boolean currentCanFuse = canFuse(current);
+      if (previousCanFuse && currentCanFuse) {
+        return new FusedBitmapTransformation(transformations);
+      }
+      previousCanFuse = currentCanFuse;
+    }
+    return transformation;
+  }
+
+  @NonNull
+  @Override
+  public Resource<Bitmap> transform(
+      @NonNull Context context, @NonNull Resource<Bitmap> resource, int outWidth, int outHeight) {
+    if (!Util.isValidDimensions(outWidth, outHeight)) {
+      throw new IllegalArgumentException(
+          "Cannot apply transformation on width: "
+              + outWidth
+              + " or height: "
+              + outHeight
+              + " less than or equal to zero and not Target.SIZE_ORIGINAL");
+    }
+    BitmapPool bitmapPool = Glide.get(context).getBitmapPool();
+    Resource<Bitmap> previous = resource;
+    int size = transformations.size();
+    int start = 0;
+    while (start < size) {
+      int end = start;
+      while (end < size && canFuse(transformations.get(end))) {
+        end++;
+      }
+      Resource<Bitmap> transformed;
+      if (end > start) {
+        Bitmap toTransform = previous.get();
+        Bitmap result = drawRun(bitmapPool, toTransform, start, end, outWidth, outHeight);
+        transformed =
+            toTransform.equals(result) ? previous : BitmapResource.obtain(result, bitmapPool);
+        start = end;
+      } else {
+        transformed = transformations.get(start).transform(context, previous, outWidth, outHeight);
+        start++;
+      }
+      if (!previous.equals(resource) && !previous.equals(transformed)) {
+        previous.recycle();
+      }
+      previous = transformed;
+    }
+    return previous;
+  }
+
+  /**
+   * Applies all of the transformations, which must all be fusible, to the given Bitmap in a single
+   * draw, returning toTransform if they leave it unchanged.
+   */
+  @VisibleForTesting
+  Bitmap transform(
+      @NonNull BitmapPool pool, @NonNull Bitmap toTransform, int outWidth, int outHeight) {
+    for (Transformation<Bitmap> transformation : transformations) {
+      if (!canFuse(transformation)) {
+        throw new IllegalStateException("Cannot fuse: " + transformation);
+      }
+    }
+    return drawRun(pool, toTransform, 0, transformations.size(), outWidth, outHeight);
+  }
+
+  private Bitmap drawRun(
+      @NonNull BitmapPool pool,
+      @NonNull Bitmap toTransform,
+      int start,
+      int end,
+      int outWidth,
+      int outHeight) {
+    FusedGeometry geometry = new FusedGeometry(toTransform.getWidth(), toTransform.getHeight());
+    for (int i = start; i < end; i++) {
+      // Like BitmapTransformation, resolved against the output of the previous transformation.
+      int targetWidth = outWidth == Target.SIZE_ORIGINAL ? geometry.getWidth() : outWidth;
+      int targetHeight = outHeight == Target.SIZE_ORIGINAL ? geometry.getHeight() : outHeight;
+      ((FusibleTransformation) transformations.get(i)).fuse(geometry, targetWidth, targetHeight);
+    }
+    return TransformationUtils.drawFused(pool, toTransform, geometry);
+  }
+
+  private static boolean canFuse(@NonNull Transformation<Bitmap> transformation) {
+    return transformation instanceof FusibleTransformation
+        && ((FusibleTransformation) transformation).canFuse();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof FusedBitmapTransformation) {
+      FusedBitmapTransformation other = (FusedBitmapTransformation) o;
+      return transformations.equals(other.transformations);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return transformations.hashCode();
+  }
+
+  @Override
+  public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+    // Matches MultiTransformation so that resources it cached are still found.
+    for (Transformation<Bitmap> transformation : transformations) {
+      transformation.updateDiskCacheKey(messageDigest);
+    }
+  }
+}
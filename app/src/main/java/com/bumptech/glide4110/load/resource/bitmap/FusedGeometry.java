@@ -0,0 +1,186 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * The combined effect of a run of {@link FusibleTransformation}s: the size of the image they
+ * produce, the matrix from the source {@link android.graphics.Bitmap} to that image, and the shape
+ * the image is clipped to, if any.
+ *
+ * <p>Each method mirrors the equivalent method in {@link TransformationUtils}, including its
+ * rounding and the cases in which it returns its input unchanged.
+ */
+final class FusedGeometry {
+  // Steps may leave up to half a pixel of the new image uncovered because of rounding, the same
+  // draw without fusion wouldn't clip that either.
+  private static final float BOUNDS_TOLERANCE = 0.5f;
+
+  private final Matrix matrix = new Matrix();
+  private int width;
+  private int height;
+  @Nullable private Path clip;
+
+  FusedGeometry(int width, int height) {
+    this.width = width;
+    this.height = height;
+  }
+
+  int getWidth() {
+    return width;
+  }
+
+  int getHeight() {
+    return height;
+  }
+
+  @NonNull
+  Matrix getMatrix() {
+    return matrix;
+  }
+
+  /** Returns the shape to clip to in the coordinates of the final image, or {@code null}. */
+  @Nullable
+  Path getClip() {
+    return clip;
+  }
+
+  /** Returns {@code true} if drawing would reproduce a source of the given size unchanged. */
+  boolean isIdentity(int sourceWidth, int sourceHeight) {
+    return width == sourceWidth && height == sourceHeight && clip == null && matrix.isIdentity();
+  }
+
+  /** See {@link TransformationUtils#centerCrop}. */
+  void centerCrop(int outWidth, int outHeight) {
+    if (width == outWidth && height == outHeight) {
+      return;
+    }
+    final float scale;
+    final float dx;
+    final float dy;
+    if (width * outHeight > outWidth * height) {
+      scale = (float) outHeight / (float) height;
+      dx = (outWidth - width * scale) * 0.5f;
+      dy = 0;
+    } else {
+      scale = (float) outWidth / (float) width;
+      dx = 0;
+      dy = (outHeight - height * scale) * 0.5f;
+    }
+    Matrix step = new Matrix();
+    step.setScale(scale, scale);
+    step.postTranslate((int) (dx + 0.5f), (int) (dy + 0.5f));
+    transform(step, outWidth, outHeight);
+  }
+
+  /** See {@link TransformationUtils#fitCenter}. */
+  void fitCenter(int outWidth, int outHeight) {
+    if (width == outWidth && height == outHeight) {
+      return;
+    }
+    final float minPercentage = Math.min(outWidth / (float) width, outHeight / (float) height);
+    if (Math.round(minPercentage * width) == width
+        && Math.round(minPercentage * height) == height) {
+      return;
+    }
+    Matrix step = new Matrix();
+    step.setScale(minPercentage, minPercentage);
+    transform(step, (int) (minPercentage * width), (int) (minPercentage * height));
+  }
+
+  /** See {@link TransformationUtils#centerInside}. */
+  void centerInside(int outWidth, int outHeight) {
+    if (width <= outWidth && height <= outHeight) {
+      return;
+    }
+    fitCenter(outWidth, outHeight);
+  }
+
+  /** See {@link TransformationUtils#rotateImage}. */
+  void rotate(int degreesToRotate) {
+    if (degreesToRotate == 0) {
+      return;
+    }
+    Matrix step = new Matrix();
+    step.setRotate(degreesToRotate);
+    // From Bitmap.createBitmap.
+    RectF bounds = new RectF(0, 0, width, height);
+    step.mapRect(bounds);
+    step.postTranslate(-bounds.left, -bounds.top);
+    transform(step, Math.round(bounds.width()), Math.round(bounds.height()));
+  }
+
+  /** See {@link TransformationUtils#circleCrop}. */
+  void circleCrop(int outWidth, int outHeight) {
+    int destMinEdge = Math.min(outWidth, outHeight);
+    float radius = destMinEdge / 2f;
+    float maxScale = Math.max(destMinEdge / (float) width, destMinEdge / (float) height);
+    float left = (destMinEdge - maxScale * width) / 2f;
+    float top = (destMinEdge - maxScale * height) / 2f;
+
+    Matrix step = new Matrix();
+    step.setScale(maxScale, maxScale);
+    step.postTranslate(left, top);
+    transform(step, destMinEdge, destMinEdge);
+
+    Path circle = new Path();
+    circle.addCircle(radius, radius, radius, Path.Direction.CW);
+    clip(circle);
+  }
+
+  /** See {@link TransformationUtils}'s {@code roundedCorners} with a single radius. */
+  void roundedCorners(float radius) {
+    Path path = new Path();
+    path.addRoundRect(new RectF(0, 0, width, height), radius, radius, Path.Direction.CW);
+    clip(path);
+  }
+
+  /** See {@link TransformationUtils}'s {@code roundedCorners} with a radius per corner. */
+  void roundedCorners(float topLeft, float topRight, float bottomRight, float bottomLeft) {
+    Path path = new Path();
+    path.addRoundRect(
+        new RectF(0, 0, width, height),
+        new float[] {
+          topLeft, topLeft, topRight, topRight, bottomRight, bottomRight, bottomLeft, bottomLeft
+        },
+        Path.Direction.CW);
+    clip(path);
+  }
+
+  /** Maps the current image through the given matrix onto a new image of the given size. */
+  private void transform(@NonNull Matrix step, int newWidth, int newHeight) {
+    RectF bounds = new RectF(0, 0, width, height);
+    step.mapRect(bounds);
+    boolean coversNewImage =
+        step.rectStaysRect()
+            && bounds.left <= BOUNDS_TOLERANCE
+            && bounds.top <= BOUNDS_TOLERANCE
+            && bounds.right >= newWidth - BOUNDS_TOLERANCE
+            && bounds.bottom >= newHeight - BOUNDS_TOLERANCE;
+    if (!coversNewImage) {
+      // Without fusion, parts of the new image outside the current one would be empty rather than
+      // filled with pixels of the source that an earlier step cropped away.
+      Path currentBounds = new Path();
+      currentBounds.addRect(0, 0, width, height, Path.Direction.CW);
+      clip(currentBounds);
+    }
+    matrix.postConcat(step);
+    if (clip != null) {
+      clip.transform(step);
+    }
+    width = newWidth;
+    height = newHeight;
+  }
+
+  private void clip(@NonNull Path path) {
+    if (clip == null) {
+      clip = path;
+    } else {
+      clip.op(path, Path.Op.INTERSECT);
+    }
+  }
+}
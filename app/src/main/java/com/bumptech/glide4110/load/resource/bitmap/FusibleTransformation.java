@@ -0,0 +1,30 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A {@link BitmapTransformation} whose effect can be expressed as a change of size, a matrix and a
+ * clip, so that {@link FusedBitmapTransformation} can combine it with its neighbours into a single
+ * draw.
+ *
+ * <p>Implementations must produce the same image as their {@link
+ * BitmapTransformation#transform(com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool,
+ * android.graphics.Bitmap, int, int)}, up to anti-aliasing and rounding.
+ */
+interface FusibleTransformation {
+
+  /**
+   * Returns {@code true} if {@link #fuse(FusedGeometry, int, int)} describes this transformation,
+   * which isn't the case for subclasses that override {@code transform}.
+   */
+  boolean canFuse();
+
+  /**
+   * Applies this transformation to the given geometry instead of to pixels.
+   *
+   * @param outWidth The width to transform to, already resolved if the request used {@link
+   *     com.bumptech.glide4110.request.target.Target#SIZE_ORIGINAL}.
+   * @param outHeight The height to transform to, resolved in the same way.
+   */
+  void fuse(@NonNull FusedGeometry geometry, int outWidth, int outHeight);
+}
@@ -11,7 +11,8 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 
 /** A {@link BitmapTransformation} which has a different radius for each corner of a bitmap. */
-public final class GranularRoundedCorners extends BitmapTransformation {
+public final class GranularRoundedCorners extends BitmapTransformation
+    implements FusibleTransformation {
   private static final String ID = "com.bumptech.glide.load.resource.bitmap.GranularRoundedCorners";
   private static final byte[] ID_BYTES = ID.getBytes(Key.CHARSET);
 
@@ -36,6 +37,16 @@ public final class GranularRoundedCorners extends BitmapTransformation {
         pool, toTransform, topLeft, topRight, bottomRight, bottomLeft);
   }
 
+  @Override
+  public boolean canFuse() {
+    return true;
+  }
+
+  @Override
+  public void fuse(@NonNull FusedGeometry geometry, int outWidth, int outHeight) {
+    geometry.roundedCorners(topLeft, topRight, bottomRight, bottomLeft);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof GranularRoundedCorners) {
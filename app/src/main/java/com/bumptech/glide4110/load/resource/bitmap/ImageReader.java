@@ -2,6 +2,7 @@ package com.bumptech.glide4110.load.resource.bitmap;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
 import android.os.Build;
 import android.os.ParcelFileDescriptor;
 import androidx.annotation.Nullable;
@@ -12,10 +13,12 @@ import com.bumptech.glide4110.load.data.DataRewinder;
 import com.bumptech.glide4110.load.data.InputStreamRewinder;
 import com.bumptech.glide4110.load.data.ParcelFileDescriptorRewinder;
 import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide4110.util.ByteBufferUtil;
 import com.bumptech.glide4110.util.Preconditions;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -32,6 +35,9 @@ interface ImageReader {
 
   void stopGrowingBuffers();
 
+  /** Returns a decoder for arbitrary regions of the image, which the caller must recycle. */
+  BitmapRegionDecoder newRegionDecoder() throws IOException;
+
   final class InputStreamImageReader implements ImageReader {
     private final com.bumptech.glide4110.load.data.InputStreamRewinder dataRewinder;
     private final com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool byteArrayPool;
@@ -66,6 +72,75 @@ interface ImageReader {
     public void stopGrowingBuffers() {
       dataRewinder.fixMarkLimits();
     }
+
+    @Override
+    public BitmapRegionDecoder newRegionDecoder() throws IOException {
+      return BitmapRegionDecoder.newInstance(dataRewinder.rewindAndGet(), /*isShareable=*/ false);
+    }
+  }
+
+  /**
+   * Reads directly from a {@link ByteBuffer}, which may be memory mapped.
+   *
+   * <p>Unlike {@link InputStreamImageReader}, the data is never copied into a mark buffer. Header
+   * parsing reads the buffer in place and each decode simply rewinds it. Heap buffers are decoded
+   * from their backing array without a copy. {@link BitmapFactory} can only decode a byte array or
+   * a stream, so direct and memory mapped buffers are still streamed through its small, reused
+   * temporary buffer, which copies the data in chunks but never holds all of it on the heap.
+   */
+  final class ByteBufferImageReader implements ImageReader {
+    private final ByteBuffer buffer;
+    private final List<ImageHeaderParser> parsers;
+    private final ArrayPool byteArrayPool;
+
+    ByteBufferImageReader(
+        ByteBuffer buffer, List<ImageHeaderParser> parsers, ArrayPool byteArrayPool) {
+      this.buffer = Preconditions.checkNotNull(buffer);
+      this.parsers = Preconditions.checkNotNull(parsers);
+      this.byteArrayPool = Preconditions.checkNotNull(byteArrayPool);
+    }
+
+    @Nullable
+    @Override
+    public Bitmap decodeBitmap(BitmapFactory.Options options) throws IOException {
+      ByteBuffer data = ByteBufferUtil.rewind(buffer);
+      if (data.hasArray()) {
+        return BitmapFactory.decodeByteArray(
+            data.array(), data.arrayOffset() + data.position(), data.remaining(), options);
+      }
+      return BitmapFactory.decodeStream(ByteBufferUtil.toStream(data), null, options);
+    }
+
+    @Override
+    public ImageHeaderParser.ImageType getImageType() throws IOException {
+      return ImageHeaderParserUtils.getType(parsers, ByteBufferUtil.rewind(buffer));
+    }
+
+    @Override
+    public int getImageOrientation() throws IOException {
+      return ImageHeaderParserUtils.getOrientation(
+          parsers, ByteBufferUtil.rewind(buffer), byteArrayPool);
+    }
+
+    @Override
+    public void stopGrowingBuffers() {
+      // Nothing to do here.
+    }
+
+    @Override
+    public BitmapRegionDecoder newRegionDecoder() throws IOException {
+      ByteBuffer rewound = ByteBufferUtil.rewind(buffer);
+      if (rewound.hasArray()) {
+        // Avoids copying the data through a stream.
+        return BitmapRegionDecoder.newInstance(
+            rewound.array(),
+            rewound.arrayOffset() + rewound.position(),
+            rewound.remaining(),
+            /*isShareable=*/ false);
+      }
+      return BitmapRegionDecoder.newInstance(
+          ByteBufferUtil.toStream(rewound), /*isShareable=*/ false);
+    }
   }
 
   @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
@@ -105,5 +180,11 @@ interface ImageReader {
     public void stopGrowingBuffers() {
       // Nothing to do here.
     }
+
+    @Override
+    public BitmapRegionDecoder newRegionDecoder() throws IOException {
+      return BitmapRegionDecoder.newInstance(
+          dataRewinder.rewindAndGet().getFileDescriptor(), /*isShareable=*/ false);
+    }
   }
 }
@@ -8,6 +8,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import com.bumptech.glide4110.load.Options;
 import com.bumptech.glide4110.load.ResourceDecoder;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.DirectByteBufferPool;
 import com.bumptech.glide4110.load.engine.Resource;
 import com.bumptech.glide4110.util.ByteBufferUtil;
 
@@ -20,6 +21,20 @@ import java.nio.ByteBuffer;
 public final class InputStreamBitmapImageDecoderResourceDecoder
     implements ResourceDecoder<InputStream, Bitmap> {
   private final BitmapImageDecoderResourceDecoder wrapped = new BitmapImageDecoderResourceDecoder();
+  @Nullable private final DirectByteBufferPool directByteBufferPool;
+
+  public InputStreamBitmapImageDecoderResourceDecoder() {
+    this(null);
+  }
+
+  /**
+   * @param directByteBufferPool If non-null, streams are read into reused direct buffers from this
+   *     pool rather than into newly allocated buffers copied through the heap.
+   */
+  public InputStreamBitmapImageDecoderResourceDecoder(
+      @Nullable DirectByteBufferPool directByteBufferPool) {
+    this.directByteBufferPool = directByteBufferPool;
+  }
 
   @Override
   public boolean handles(@NonNull InputStream source, @NonNull Options options) throws IOException {
@@ -31,8 +46,18 @@ public final class InputStreamBitmapImageDecoderResourceDecoder
   public Resource<Bitmap> decode(
       @NonNull InputStream stream, int width, int height, @NonNull Options options)
       throws IOException {
-    ByteBuffer buffer = ByteBufferUtil.fromStream(stream);
-    Source source = ImageDecoder.createSource(buffer);
-    return wrapped.decode(source, width, height, options);
+    if (directByteBufferPool == null) {
+      ByteBuffer buffer = ByteBufferUtil.fromStream(stream);
+      Source source = ImageDecoder.createSource(buffer);
+      return wrapped.decode(source, width, height, options);
+    }
+    ByteBuffer buffer = ByteBufferUtil.fromStream(stream, directByteBufferPool);
+    try {
+      // Decoding to a Bitmap reads the whole buffer before returning, so it can be reused after.
+      Source source = ImageDecoder.createSource(buffer);
+      return wrapped.decode(source, width, height, options);
+    } finally {
+      directByteBufferPool.put(buffer);
+    }
   }
 }
@@ -0,0 +1,194 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compresses and decompresses single blocks in the LZ4 block format.
+ *
+ * <p>Pixels decompress at close to the speed of a memory copy, which is why {@link
+ * RawBitmapEncoder} uses LZ4 rather than deflate. The compressor is a simple greedy one without
+ * frames or checksums, the length of the uncompressed data is stored by the caller.
+ *
+ * @see <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4 Block Format</a>
+ */
+final class Lz4Block {
+  private static final int MIN_MATCH = 4;
+  // The last 5 bytes are always literals and the last match must start 12 bytes before the end.
+  private static final int LAST_LITERALS = 5;
+  private static final int MF_LIMIT = 12;
+  private static final int MAX_OFFSET = 0xFFFF;
+  private static final int HASH_LOG = 12;
+  private static final int RUN_MASK = 0x0F;
+
+  private Lz4Block() {
+    // Utility class.
+  }
+
+  /** Returns the largest number of bytes {@link #compress} can write for the given input length. */
+  static int maxCompressedLength(int length) {
+    return length + length / 255 + 16;
+  }
+
+  /**
+   * Compresses {@code length} bytes of {@code src} into {@code dst}, which must hold at least
+   * {@link #maxCompressedLength(int)} bytes, and returns the number of bytes written.
+   */
+  static int compress(@NonNull byte[] src, int length, @NonNull byte[] dst) {
+    int[] table = new int[1 << HASH_LOG];
+    Arrays.fill(table, -1);
+    int anchor = 0;
+    int out = 0;
+    if (length > MF_LIMIT) {
+      int matchStartLimit = length - MF_LIMIT;
+      int matchEndLimit = length - LAST_LITERALS;
+      int i = 0;
+      while (i < matchStartLimit) {
+        int sequence = readInt(src, i);
+        int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+        int ref = table[hash];
+        table[hash] = i;
+        if (ref < 0 || i - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+          i++;
+          continue;
+        }
+        int matchLength = MIN_MATCH;
+        while (i + matchLength < matchEndLimit && src[ref + matchLength] == src[i + matchLength]) {
+          matchLength++;
+        }
+        out = writeSequence(src, anchor, i - anchor, i - ref, matchLength, dst, out);
+        i += matchLength;
+        anchor = i;
+      }
+    }
+    return writeLastLiterals(src, anchor, length - anchor, dst, out);
+  }
+
+  /**
+   * Decompresses {@code srcLength} bytes of {@code src} into exactly {@code dstLength} bytes of
+   * {@code dst}.
+   *
+   * @throws IOException If the data is malformed or doesn't decompress to {@code dstLength} bytes.
+   */
+  static void decompress(@NonNull byte[] src, int srcLength, @NonNull byte[] dst, int dstLength)
+      throws IOException {
+    int in = 0;
+    int out = 0;
+    while (in < srcLength) {
+      int token = src[in++] & 0xFF;
+      int literalLength = token >>> 4;
+      if (literalLength == RUN_MASK) {
+        int value;
+        do {
+          if (in >= srcLength) {
+            throw new IOException("Truncated literal length");
+          }
+          value = src[in++] & 0xFF;
+          literalLength += value;
+        } while (value == 0xFF);
+      }
+      if (literalLength > srcLength - in || literalLength > dstLength - out) {
+        throw new IOException("Literals out of bounds");
+      }
+      System.arraycopy(src, in, dst, out, literalLength);
+      in += literalLength;
+      out += literalLength;
+      if (in == srcLength) {
+        // The last sequence has no match.
+        break;
+      }
+
+      if (in + 2 > srcLength) {
+        throw new IOException("Truncated offset");
+      }
+      int offset = (src[in++] & 0xFF) | (src[in++] & 0xFF) << 8;
+      if (offset == 0 || offset > out) {
+        throw new IOException("Invalid offset: " + offset);
+      }
+      int matchLength = token & RUN_MASK;
+      if (matchLength == RUN_MASK) {
+        int value;
+        do {
+          if (in >= srcLength) {
+            throw new IOException("Truncated match length");
+          }
+          value = src[in++] & 0xFF;
+          matchLength += value;
+        } while (value == 0xFF);
+      }
+      matchLength += MIN_MATCH;
+      if (matchLength > dstLength - out) {
+        throw new IOException("Match out of bounds");
+      }
+      // Byte by byte because matches may overlap their own output, for example runs of one pixel.
+      int ref = out - offset;
+      for (int i = 0; i < matchLength; i++) {
+        dst[out++] = dst[ref + i];
+      }
+    }
+    if (out != dstLength) {
+      throw new IOException("Expected " + dstLength + " bytes, but decompressed " + out);
+    }
+  }
+
+  private static int writeSequence(
+      byte[] src,
+      int literalStart,
+      int literalLength,
+      int offset,
+      int matchLength,
+      byte[] dst,
+      int out) {
+    int tokenIndex = out++;
+    int token;
+    if (literalLength >= RUN_MASK) {
+      token = RUN_MASK << 4;
+      out = writeLength(literalLength - RUN_MASK, dst, out);
+    } else {
+      token = literalLength << 4;
+    }
+    System.arraycopy(src, literalStart, dst, out, literalLength);
+    out += literalLength;
+    dst[out++] = (byte) offset;
+    dst[out++] = (byte) (offset >>> 8);
+    int extraMatchLength = matchLength - MIN_MATCH;
+    if (extraMatchLength >= RUN_MASK) {
+      token |= RUN_MASK;
+      out = writeLength(extraMatchLength - RUN_MASK, dst, out);
+    } else {
+      token |= extraMatchLength;
+    }
+    dst[tokenIndex] = (byte) token;
+    return out;
+  }
+
+  private static int writeLastLiterals(
+      byte[] src, int literalStart, int literalLength, byte[] dst, int out) {
+    if (literalLength >= RUN_MASK) {
+      dst[out++] = (byte) (RUN_MASK << 4);
+      out = writeLength(literalLength - RUN_MASK, dst, out);
+    } else {
+      dst[out++] = (byte) (literalLength << 4);
+    }
+    System.arraycopy(src, literalStart, dst, out, literalLength);
+    return out + literalLength;
+  }
+
+  private static int writeLength(int length, byte[] dst, int out) {
+    while (length >= 0xFF) {
+      dst[out++] = (byte) 0xFF;
+      length -= 0xFF;
+    }
+    dst[out++] = (byte) length;
+    return out;
+  }
+
+  private static int readInt(byte[] src, int index) {
+    return (src[index] & 0xFF)
+        | (src[index + 1] & 0xFF) << 8
+        | (src[index + 2] & 0xFF) << 16
+        | (src[index + 3] & 0xFF) << 24;
+  }
+}
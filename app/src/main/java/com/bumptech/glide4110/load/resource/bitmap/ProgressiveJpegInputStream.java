@@ -0,0 +1,359 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.Option;
+import com.bumptech.glide4110.request.target.Target;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Wraps a stream of a progressive JPEG and decodes a low resolution preview of the image each time
+ * a scan is completed, while the stream is read by whatever consumes it.
+ *
+ * <p>Progressive JPEGs are made of a series of scans, each of which refines the image produced by
+ * the scans before it. Once the first scan has arrived, the bytes read so far can be decoded into a
+ * blurry but complete image long before the rest of the data arrives on a slow connection. This
+ * stream keeps a copy of the bytes read through it and, at the end of each scan but the last,
+ * decodes that copy, downsampled to the size of the target, and hands the result to a {@link
+ * FrameListener}.
+ *
+ * <p>Baseline JPEGs and any other format are passed through untouched, as are all bytes once
+ * {@link #MAX_INTERIM_FRAMES} previews have been decoded or more than {@link #MAX_BUFFERED_BYTES}
+ * have been read.
+ */
+public final class ProgressiveJpegInputStream extends FilterInputStream {
+  private static final String TAG = "ProgressiveJpeg";
+
+  /**
+   * The maximum number of low resolution frames to decode and display while the source data of a
+   * remote load arrives, or 0 to only display the final image.
+   *
+   * <p>Only applies to progressive JPEGs. Frames aren't transformed and aren't passed to {@link
+   * com.bumptech.glide4110.request.RequestListener}s.
+   *
+   * <p>Defaults to 0.
+   */
+  public static final Option<Integer> MAX_INTERIM_FRAMES =
+      Option.memory("com.bumptech.glide.load.resource.bitmap.ProgressiveJpeg.MaxInterimFrames", 0);
+
+  /** The number of bytes after which we stop decoding previews and stop copying the stream. */
+  public static final int MAX_BUFFERED_BYTES = 8 * 1024 * 1024;
+
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+  private static final int MARKER_SOI = 0xD8;
+  private static final int MARKER_EOI = 0xD9;
+  private static final int MARKER_SOS = 0xDA;
+  private static final int MARKER_SOF2 = 0xC2;
+  private static final int MARKER_DHT = 0xC4;
+  private static final int MARKER_JPG = 0xC8;
+  private static final int MARKER_DAC = 0xCC;
+  private static final int MARKER_RST0 = 0xD0;
+  private static final int MARKER_RST7 = 0xD7;
+  private static final int MARKER_TEM = 0x01;
+
+  // Where we are in the JPEG structure, which is walked one byte at a time as it's read.
+  private static final int STATE_PREFIX = 0;
+  private static final int STATE_MARKER = 1;
+  private static final int STATE_LENGTH_HIGH = 2;
+  private static final int STATE_LENGTH_LOW = 3;
+  private static final int STATE_SEGMENT = 4;
+  private static final int STATE_ENTROPY = 5;
+  private static final int STATE_ENTROPY_PREFIX = 6;
+  private static final int STATE_DONE = 7;
+
+  /** Receives the previews decoded from a {@link ProgressiveJpegInputStream}. */
+  public interface FrameListener {
+    /**
+     * Called on the thread reading the stream each time a preview has been decoded.
+     *
+     * <p>The {@link Bitmap} is not obtained from, and must not be returned to, a {@link
+     * com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool}.
+     */
+    void onFrame(@NonNull Bitmap frame);
+  }
+
+  private final int maxFrames;
+  private final int targetWidth;
+  private final int targetHeight;
+  private final FrameListener listener;
+
+  @Nullable private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+  private int count;
+  private int state = STATE_PREFIX;
+  private int marker;
+  private int segmentRemaining;
+  private boolean isStarted;
+  private boolean isProgressive;
+  private int scanCount;
+  private int frameCount;
+  private int sampleSize;
+
+  /**
+   * @param in The stream to read.
+   * @param maxFrames The maximum number of previews to decode.
+   * @param targetWidth The width the image will be displayed at, or {@link Target#SIZE_ORIGINAL}.
+   * @param targetHeight The height the image will be displayed at, or {@link Target#SIZE_ORIGINAL}.
+   * @param listener Receives the previews.
+   */
+  public ProgressiveJpegInputStream(
+      @NonNull InputStream in,
+      int maxFrames,
+      int targetWidth,
+      int targetHeight,
+      @NonNull FrameListener listener) {
+    super(in);
+    this.maxFrames = maxFrames;
+    this.targetWidth = targetWidth;
+    this.targetHeight = targetHeight;
+    this.listener = listener;
+    if (maxFrames <= 0) {
+      stop();
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    int result = super.read();
+    if (result != -1 && buffer != null) {
+      append(result);
+    }
+    return result;
+  }
+
+  @Override
+  public int read(@NonNull byte[] b, int off, int len) throws IOException {
+    int read = super.read(b, off, len);
+    for (int i = off; i < off + read && buffer != null; i++) {
+      append(b[i] & 0xFF);
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (buffer == null) {
+      return super.skip(n);
+    }
+    // Skipped bytes still need to be part of the previews.
+    byte[] scratch = new byte[(int) Math.min(n, 8 * 1024)];
+    long skipped = 0;
+    while (skipped < n) {
+      int read = read(scratch, 0, (int) Math.min(n - skipped, scratch.length));
+      if (read == -1) {
+        break;
+      }
+      skipped += read;
+    }
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void mark(int readLimit) {
+    // Not supported.
+  }
+
+  @Override
+  public void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  private void append(int value) {
+    if (count == buffer.length) {
+      if (count >= MAX_BUFFERED_BYTES) {
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+          Log.d(TAG, "Image is larger than " + MAX_BUFFERED_BYTES + " bytes, stopping previews");
+        }
+        stop();
+        return;
+      }
+      buffer = Arrays.copyOf(buffer, Math.min(count * 2, MAX_BUFFERED_BYTES));
+    }
+    buffer[count++] = (byte) value;
+    parse(value);
+  }
+
+  private void parse(int value) {
+    switch (state) {
+      case STATE_PREFIX:
+        if (value != 0xFF) {
+          // Not a JPEG, or not one we understand.
+          stop();
+        } else {
+          state = STATE_MARKER;
+        }
+        break;
+      case STATE_MARKER:
+        if (value != 0xFF) {
+          onMarker(value);
+        }
+        // Otherwise this is a fill byte before the marker.
+        break;
+      case STATE_LENGTH_HIGH:
+        segmentRemaining = value << 8;
+        state = STATE_LENGTH_LOW;
+        break;
+      case STATE_LENGTH_LOW:
+        segmentRemaining = (segmentRemaining | value) - 2;
+        if (segmentRemaining < 0) {
+          stop();
+        } else if (segmentRemaining == 0) {
+          onSegmentEnd();
+        } else {
+          state = STATE_SEGMENT;
+        }
+        break;
+      case STATE_SEGMENT:
+        if (--segmentRemaining == 0) {
+          onSegmentEnd();
+        }
+        break;
+      case STATE_ENTROPY:
+        if (value == 0xFF) {
+          state = STATE_ENTROPY_PREFIX;
+        }
+        break;
+      case STATE_ENTROPY_PREFIX:
+        if (value == 0 || (value >= MARKER_RST0 && value <= MARKER_RST7)) {
+          // A stuffed zero or a restart marker, both of which are part of the scan.
+          state = STATE_ENTROPY;
+        } else if (value == MARKER_EOI) {
+          // The final decode will show the complete image.
+          stop();
+        } else if (value != 0xFF) {
+          // The marker bytes aren't needed to decode the scans before it.
+          onScanEnd(count - 2);
+          if (buffer != null) {
+            onMarker(value);
+          }
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unexpected state: " + state);
+    }
+  }
+
+  private void onMarker(int value) {
+    marker = value;
+    if (!isStarted) {
+      if (value != MARKER_SOI) {
+        stop();
+        return;
+      }
+      isStarted = true;
+      state = STATE_PREFIX;
+    } else if (value == MARKER_EOI) {
+      // The final decode will show the complete image.
+      stop();
+    } else if (value == MARKER_TEM || (value >= MARKER_RST0 && value <= MARKER_RST7)) {
+      state = STATE_PREFIX;
+    } else {
+      if (isStartOfFrame(value) && value != MARKER_SOF2) {
+        // Baseline images are decoded from top to bottom, there are no coarser scans to show.
+        stop();
+        return;
+      }
+      isProgressive |= value == MARKER_SOF2;
+      state = STATE_LENGTH_HIGH;
+    }
+  }
+
+  private void onSegmentEnd() {
+    if (marker == MARKER_SOS) {
+      if (!isProgressive) {
+        stop();
+        return;
+      }
+      scanCount++;
+      state = STATE_ENTROPY;
+    } else {
+      state = STATE_PREFIX;
+    }
+  }
+
+  private void onScanEnd(int length) {
+    state = STATE_MARKER;
+    if (frameCount < maxFrames) {
+      decodeFrame(length);
+    }
+    if (frameCount >= maxFrames) {
+      stop();
+    }
+  }
+
+  private void decodeFrame(int length) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    if (sampleSize == 0) {
+      options.inJustDecodeBounds = true;
+      BitmapFactory.decodeByteArray(buffer, 0, length, options);
+      if (options.outWidth <= 0 || options.outHeight <= 0) {
+        return;
+      }
+      sampleSize = getSampleSize(options.outWidth, options.outHeight);
+      options.inJustDecodeBounds = false;
+    }
+    options.inSampleSize = sampleSize;
+    // Previews are blurry anyway and JPEGs have no alpha, so half the memory is enough.
+    options.inPreferredConfig = Bitmap.Config.RGB_565;
+    Bitmap frame = BitmapFactory.decodeByteArray(buffer, 0, length, options);
+    if (frame == null) {
+      return;
+    }
+    frameCount++;
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(
+          TAG,
+          "Decoded preview "
+              + frameCount
+              + " after scan "
+              + scanCount
+              + " from "
+              + length
+              + " bytes, size: ["
+              + frame.getWidth()
+              + "x"
+              + frame.getHeight()
+              + "]");
+    }
+    listener.onFrame(frame);
+  }
+
+  private int getSampleSize(int sourceWidth, int sourceHeight) {
+    if (targetWidth == Target.SIZE_ORIGINAL || targetHeight == Target.SIZE_ORIGINAL) {
+      return 1;
+    }
+    int result = 1;
+    while (sourceWidth / (result * 2) >= targetWidth
+        && sourceHeight / (result * 2) >= targetHeight) {
+      result *= 2;
+    }
+    return result;
+  }
+
+  private void stop() {
+    state = STATE_DONE;
+    buffer = null;
+  }
+
+  private static boolean isStartOfFrame(int value) {
+    return value >= 0xC0
+        && value <= 0xCF
+        && value != MARKER_DHT
+        && value != MARKER_JPG
+        && value != MARKER_DAC;
+  }
+}
@@ -0,0 +1,163 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.ResourceDecoder;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide4110.util.pool.GlideTrace;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads Bitmaps written by {@link RawBitmapEncoder} by copying their pixels into a Bitmap from the
+ * {@link BitmapPool}, without decoding.
+ *
+ * <p>Only handles data that starts with a raw Bitmap header, so it can be registered ahead of
+ * {@link Downsampler} based decoders for data from the disk cache. The Bitmap is returned at its
+ * stored size, like a resource from the disk cache decoded by {@link Downsampler}.
+ *
+ * @param <T> The type of data, either a {@link ByteBuffer} or an {@link InputStream}.
+ */
+public final class RawBitmapDecoder<T> implements ResourceDecoder<T, Bitmap> {
+  private final DataReader<T> reader;
+  private final BitmapPool bitmapPool;
+  private final ArrayPool arrayPool;
+
+  @NonNull
+  public static ResourceDecoder<ByteBuffer, Bitmap> byteBuffer(
+      @NonNull BitmapPool bitmapPool, @NonNull ArrayPool arrayPool) {
+    return new RawBitmapDecoder<>(new ByteBufferReader(), bitmapPool, arrayPool);
+  }
+
+  @NonNull
+  public static ResourceDecoder<InputStream, Bitmap> stream(
+      @NonNull BitmapPool bitmapPool, @NonNull ArrayPool arrayPool) {
+    return new RawBitmapDecoder<>(new StreamReader(), bitmapPool, arrayPool);
+  }
+
+  private RawBitmapDecoder(
+      DataReader<T> reader, BitmapPool bitmapPool, ArrayPool arrayPool) {
+    this.reader = reader;
+    this.bitmapPool = bitmapPool;
+    this.arrayPool = arrayPool;
+  }
+
+  @Override
+  public boolean handles(@NonNull T data, @NonNull Options options) throws IOException {
+    return reader.isRawBitmap(data, arrayPool);
+  }
+
+  @Nullable
+  @Override
+  public Resource<Bitmap> decode(
+      @NonNull T data, int width, int height, @NonNull Options options) throws IOException {
+    byte[] headerBytes = arrayPool.get(RawBitmapHeader.SIZE, byte[].class);
+    RawBitmapHeader header;
+    try {
+      reader.readFully(data, headerBytes, RawBitmapHeader.SIZE);
+      header = RawBitmapHeader.read(headerBytes);
+    } finally {
+      arrayPool.put(headerBytes);
+    }
+
+    GlideTrace.beginSectionFormat("decode raw: [%dx%d]", header.width, header.height);
+    byte[] pixels = arrayPool.get(header.pixelBytes, byte[].class);
+    byte[] payload = null;
+    try {
+      if (header.isLz4) {
+        payload = arrayPool.get(header.payloadBytes, byte[].class);
+        reader.readFully(data, payload, header.payloadBytes);
+        Lz4Block.decompress(payload, header.payloadBytes, pixels, header.pixelBytes);
+      } else if (header.payloadBytes == header.pixelBytes) {
+        reader.readFully(data, pixels, header.pixelBytes);
+      } else {
+        throw new IOException(
+            "Expected " + header.pixelBytes + " bytes of pixels, but found " + header.payloadBytes);
+      }
+
+      // Every pixel is overwritten below.
+      Bitmap result = bitmapPool.getDirty(header.width, header.height, header.config);
+      if (result.getByteCount() != header.pixelBytes) {
+        bitmapPool.put(result);
+        throw new IOException(
+            "Stored " + header.pixelBytes + " bytes, but Bitmap has " + result.getByteCount());
+      }
+      // Pixels are copied as is, so the Bitmap must interpret them the way the original did.
+      result.setHasAlpha(header.hasAlpha);
+      if (header.hasAlpha) {
+        result.setPremultiplied(header.isPremultiplied);
+      }
+      result.copyPixelsFromBuffer(ByteBuffer.wrap(pixels, 0, header.pixelBytes));
+      return BitmapResource.obtain(result, bitmapPool);
+    } finally {
+      arrayPool.put(pixels);
+      if (payload != null) {
+        arrayPool.put(payload);
+      }
+      GlideTrace.endSection();
+    }
+  }
+
+  private interface DataReader<T> {
+    boolean isRawBitmap(@NonNull T data, @NonNull ArrayPool arrayPool) throws IOException;
+
+    void readFully(@NonNull T data, @NonNull byte[] buffer, int length) throws IOException;
+  }
+
+  private static final class ByteBufferReader implements DataReader<ByteBuffer> {
+
+    @Override
+    public boolean isRawBitmap(@NonNull ByteBuffer data, @NonNull ArrayPool arrayPool) {
+      return RawBitmapHeader.isRawBitmap(data);
+    }
+
+    @Override
+    public void readFully(@NonNull ByteBuffer data, @NonNull byte[] buffer, int length)
+        throws IOException {
+      if (data.remaining() < length) {
+        throw new IOException("Expected " + length + " bytes, but found " + data.remaining());
+      }
+      data.get(buffer, 0, length);
+    }
+  }
+
+  private static final class StreamReader implements DataReader<InputStream> {
+
+    @Override
+    public boolean isRawBitmap(@NonNull InputStream data, @NonNull ArrayPool arrayPool)
+        throws IOException {
+      byte[] magic = arrayPool.get(4, byte[].class);
+      try {
+        int read = 0;
+        int count;
+        while (read < 4 && (count = data.read(magic, read, 4 - read)) != -1) {
+          read += count;
+        }
+        return RawBitmapHeader.isRawBitmap(magic, read);
+      } finally {
+        arrayPool.put(magic);
+      }
+    }
+
+    @Override
+    public void readFully(@NonNull InputStream data, @NonNull byte[] buffer, int length)
+        throws IOException {
+      int read = 0;
+      while (read < length) {
+        int count = data.read(buffer, read, length - read);
+        if (count == -1) {
+          throw new IOException("Expected " + length + " bytes, but found " + read);
+        }
+        read += count;
+      }
+    }
+  }
+}
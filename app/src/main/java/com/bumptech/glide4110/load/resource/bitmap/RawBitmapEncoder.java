@@ -0,0 +1,142 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide4110.GlideMetrics;
+import com.bumptech.glide4110.load.EncodeStrategy;
+import com.bumptech.glide4110.load.Option;
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.ResourceEncoder;
+import com.bumptech.glide4110.load.data.BufferedOutputStream;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide4110.util.pool.GlideTrace;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ResourceEncoder} that writes the pixels of {@link Bitmap}s to the disk cache as they are
+ * in memory, optionally compressed with LZ4, when {@link #RAW_PIXELS} is set, and delegates to
+ * another encoder otherwise.
+ *
+ * <p>Raw pixels are several times larger on disk than JPEG or WebP, but {@link RawBitmapDecoder}
+ * reads them back with a copy instead of a decode, which suits small thumbnails that are loaded
+ * from the disk cache often, like avatars in a grid. {@link Compression#LZ4} usually halves the size
+ * of flat or transparent images for little extra cost.
+ *
+ * <p>Bitmaps with a config that can't be read as a buffer, like {@link Bitmap.Config#HARDWARE},
+ * always use the delegate.
+ */
+public final class RawBitmapEncoder implements ResourceEncoder<Bitmap> {
+  /**
+   * A {@link Compression} option that makes Bitmaps be written as raw pixels.
+   *
+   * <p>Defaults to {@code null}, in which case Bitmaps are compressed by the delegate, usually
+   * {@link BitmapEncoder}.
+   */
+  public static final Option<Compression> RAW_PIXELS =
+      Option.memory("com.bumptech.glide.load.resource.bitmap.RawBitmapEncoder.RawPixels");
+
+  /** How raw pixels are stored. */
+  public enum Compression {
+    /** As is, the fastest to read back. */
+    NONE,
+    /** Compressed with LZ4, smaller for repetitive pixels and still very fast to read back. */
+    LZ4,
+  }
+
+  private static final String TAG = "RawBitmapEncoder";
+
+  private final ResourceEncoder<Bitmap> delegate;
+  private final ArrayPool arrayPool;
+  private final GlideMetrics metrics;
+
+  public RawBitmapEncoder(
+      @NonNull ResourceEncoder<Bitmap> delegate,
+      @NonNull ArrayPool arrayPool,
+      @NonNull GlideMetrics metrics) {
+    this.delegate = delegate;
+    this.arrayPool = arrayPool;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public boolean encode(
+      @NonNull Resource<Bitmap> resource, @NonNull File file, @NonNull Options options) {
+    Bitmap bitmap = resource.get();
+    Compression compression = options.get(RAW_PIXELS);
+    if (compression == null || RawBitmapHeader.getConfigId(bitmap) == null) {
+      return delegate.encode(resource, file, options);
+    }
+    GlideTrace.beginSectionFormat(
+        "encode raw: [%dx%d] %s", bitmap.getWidth(), bitmap.getHeight(), compression);
+    try {
+      long startNanos = System.nanoTime();
+      boolean success = encodeRaw(bitmap, compression, file);
+      if (success) {
+        metrics.onResourceEncoded(
+            Bitmap.class,
+            compression == Compression.LZ4 ? "RAW_LZ4" : "RAW",
+            file.length(),
+            System.nanoTime() - startNanos);
+      }
+      return success;
+    } finally {
+      GlideTrace.endSection();
+    }
+  }
+
+  private boolean encodeRaw(Bitmap bitmap, Compression compression, File file) {
+    int pixelBytes = bitmap.getByteCount();
+    byte[] pixels = arrayPool.get(pixelBytes, byte[].class);
+    byte[] compressed = null;
+    OutputStream os = null;
+    try {
+      bitmap.copyPixelsToBuffer(ByteBuffer.wrap(pixels, 0, pixelBytes));
+      byte[] payload = pixels;
+      int payloadBytes = pixelBytes;
+      if (compression == Compression.LZ4) {
+        compressed = arrayPool.get(Lz4Block.maxCompressedLength(pixelBytes), byte[].class);
+        payloadBytes = Lz4Block.compress(pixels, pixelBytes, compressed);
+        payload = compressed;
+      }
+
+      os = new BufferedOutputStream(new FileOutputStream(file), arrayPool);
+      os.write(RawBitmapHeader.write(bitmap, compression == Compression.LZ4, payloadBytes));
+      os.write(payload, 0, payloadBytes);
+      os.close();
+      return true;
+    } catch (IOException | RuntimeException e) {
+      // copyPixelsToBuffer throws if the Bitmap changed size, which would be a bug elsewhere.
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to encode raw Bitmap", e);
+      }
+      return false;
+    } finally {
+      if (os != null) {
+        try {
+          os.close();
+        } catch (IOException e) {
+          // Do nothing.
+        }
+      }
+      arrayPool.put(pixels);
+      if (compressed != null) {
+        arrayPool.put(compressed);
+      }
+    }
+  }
+
+  @NonNull
+  @Override
+  public EncodeStrategy getEncodeStrategy(@NonNull Options options) {
+    return EncodeStrategy.TRANSFORMED;
+  }
+}
@@ -0,0 +1,213 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.util.Util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The header {@link RawBitmapEncoder} writes before the pixels of a Bitmap, and {@link
+ * RawBitmapDecoder} reads.
+ *
+ * <p>All values are big endian:
+ *
+ * <pre>
+ *   int   magic, "GLRB"
+ *   byte  version
+ *   byte  config, see {@link #getConfigId(Bitmap)}
+ *   byte  flags, has alpha and premultiplied
+ *   byte  compression, 0 for none and 1 for LZ4
+ *   int   width
+ *   int   height
+ *   int   pixel bytes, as returned by {@link Bitmap#getByteCount()}
+ *   int   payload bytes, the number of bytes that follow
+ * </pre>
+ */
+final class RawBitmapHeader {
+  static final int SIZE = 24;
+  // Doesn't collide with the signatures of JPEG, PNG, WebP, GIF or HEIF.
+  private static final int MAGIC = 0x474C5242;
+  private static final int VERSION = 1;
+  private static final int FLAG_HAS_ALPHA = 1;
+  private static final int FLAG_PREMULTIPLIED = 1 << 1;
+  private static final int COMPRESSION_LZ4 = 1;
+
+  private static final int CONFIG_ARGB_8888 = 1;
+  private static final int CONFIG_RGB_565 = 2;
+  private static final int CONFIG_ALPHA_8 = 3;
+  private static final int CONFIG_RGBA_F16 = 4;
+
+  final Bitmap.Config config;
+  final boolean hasAlpha;
+  final boolean isPremultiplied;
+  final boolean isLz4;
+  final int width;
+  final int height;
+  final int pixelBytes;
+  final int payloadBytes;
+
+  private RawBitmapHeader(
+      Bitmap.Config config,
+      boolean hasAlpha,
+      boolean isPremultiplied,
+      boolean isLz4,
+      int width,
+      int height,
+      int pixelBytes,
+      int payloadBytes) {
+    this.config = config;
+    this.hasAlpha = hasAlpha;
+    this.isPremultiplied = isPremultiplied;
+    this.isLz4 = isLz4;
+    this.width = width;
+    this.height = height;
+    this.pixelBytes = pixelBytes;
+    this.payloadBytes = payloadBytes;
+  }
+
+  /** Returns {@code true} if the given bytes start with the header's magic number. */
+  static boolean isRawBitmap(@NonNull byte[] bytes, int length) {
+    return length >= 4 && ByteBuffer.wrap(bytes, 0, 4).getInt() == MAGIC;
+  }
+
+  /** Returns {@code true} if the given buffer starts with the header's magic number. */
+  static boolean isRawBitmap(@NonNull ByteBuffer buffer) {
+    return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+  }
+
+  /** Returns the id stored for the Bitmap's config, or {@code null} if it can't be stored raw. */
+  @Nullable
+  static Integer getConfigId(@NonNull Bitmap bitmap) {
+    Bitmap.Config config = bitmap.getConfig();
+    if (config == null) {
+      return null;
+    }
+    switch (config) {
+      case ARGB_8888:
+        return CONFIG_ARGB_8888;
+      case RGB_565:
+        return CONFIG_RGB_565;
+      case ALPHA_8:
+        return CONFIG_ALPHA_8;
+      default:
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && config == Bitmap.Config.RGBA_F16) {
+          return CONFIG_RGBA_F16;
+        }
+        return null;
+    }
+  }
+
+  @NonNull
+  static byte[] write(@NonNull Bitmap bitmap, boolean isLz4, int payloadBytes) {
+    Integer configId = getConfigId(bitmap);
+    if (configId == null) {
+      throw new IllegalArgumentException("Unsupported config: " + bitmap.getConfig());
+    }
+    int flags = 0;
+    if (bitmap.hasAlpha()) {
+      flags |= FLAG_HAS_ALPHA;
+    }
+    if (bitmap.isPremultiplied()) {
+      flags |= FLAG_PREMULTIPLIED;
+    }
+    byte[] result = new byte[SIZE];
+    ByteBuffer.wrap(result)
+        .putInt(MAGIC)
+        .put((byte) VERSION)
+        .put(configId.byteValue())
+        .put((byte) flags)
+        .put((byte) (isLz4 ? COMPRESSION_LZ4 : 0))
+        .putInt(bitmap.getWidth())
+        .putInt(bitmap.getHeight())
+        .putInt(bitmap.getByteCount())
+        .putInt(payloadBytes);
+    return result;
+  }
+
+  /**
+   * Parses the first {@link #SIZE} bytes of the given array.
+   *
+   * <p>The pixel and payload sizes are checked against the dimensions, so that a corrupt header
+   * can't make the decoder allocate arbitrarily large buffers.
+   *
+   * @throws IOException If the header is malformed or from an unsupported version.
+   */
+  @NonNull
+  static RawBitmapHeader read(@NonNull byte[] bytes) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, SIZE);
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a raw Bitmap");
+    }
+    int version = buffer.get();
+    if (version != VERSION) {
+      throw new IOException("Unsupported raw Bitmap version: " + version);
+    }
+    Bitmap.Config config = getConfig(buffer.get());
+    int flags = buffer.get();
+    int compression = buffer.get();
+    int width = buffer.getInt();
+    int height = buffer.getInt();
+    int pixelBytes = buffer.getInt();
+    int payloadBytes = buffer.getInt();
+    if (width <= 0 || height <= 0 || pixelBytes <= 0 || payloadBytes < 0) {
+      throw new IOException("Invalid raw Bitmap dimensions: " + width + "x" + height);
+    }
+    if (compression != 0 && compression != COMPRESSION_LZ4) {
+      throw new IOException("Unsupported raw Bitmap compression: " + compression);
+    }
+    long expectedPixelBytes =
+        (long) width * height * Util.getBitmapByteSize(/*width=*/ 1, /*height=*/ 1, config);
+    if (pixelBytes != expectedPixelBytes) {
+      throw new IOException(
+          "Expected "
+              + expectedPixelBytes
+              + " bytes of pixels for "
+              + width
+              + "x"
+              + height
+              + " "
+              + config
+              + ", but found "
+              + pixelBytes);
+    }
+    long maxPayloadBytes =
+        compression == COMPRESSION_LZ4 ? Lz4Block.maxCompressedLength(pixelBytes) : pixelBytes;
+    if (payloadBytes > maxPayloadBytes) {
+      throw new IOException(
+          "Expected at most " + maxPayloadBytes + " bytes of payload, but found " + payloadBytes);
+    }
+    return new RawBitmapHeader(
+        config,
+        (flags & FLAG_HAS_ALPHA) != 0,
+        (flags & FLAG_PREMULTIPLIED) != 0,
+        compression == COMPRESSION_LZ4,
+        width,
+        height,
+        pixelBytes,
+        payloadBytes);
+  }
+
+  private static Bitmap.Config getConfig(int configId) throws IOException {
+    switch (configId) {
+      case CONFIG_ARGB_8888:
+        return Bitmap.Config.ARGB_8888;
+      case CONFIG_RGB_565:
+        return Bitmap.Config.RGB_565;
+      case CONFIG_ALPHA_8:
+        return Bitmap.Config.ALPHA_8;
+      case CONFIG_RGBA_F16:
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+          return Bitmap.Config.RGBA_F16;
+        }
+        // Fall through.
+      default:
+        throw new IOException("Unsupported raw Bitmap config: " + configId);
+    }
+  }
+}
@@ -11,7 +11,7 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 
 /** A {@link com.bumptech.glide4110.load.resource.bitmap.BitmapTransformation} which rotates the bitmap. */
-public class Rotate extends BitmapTransformation {
+public class Rotate extends BitmapTransformation implements FusibleTransformation {
   private static final String ID = "com.bumptech.glide.load.resource.bitmap.Rotate";
   private static final byte[] ID_BYTES = ID.getBytes(Key.CHARSET);
 
@@ -31,6 +31,17 @@ public class Rotate extends BitmapTransformation {
     return TransformationUtils.rotateImage(toTransform, degreesToRotate);
   }
 
+  @Override
+  public boolean canFuse() {
+    // Subclasses may override transform, which fusing would skip.
+    return getClass() == Rotate.class;
+  }
+
+  @Override
+  public void fuse(@NonNull FusedGeometry geometry, int outWidth, int outHeight) {
+    geometry.rotate(degreesToRotate);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof Rotate) {
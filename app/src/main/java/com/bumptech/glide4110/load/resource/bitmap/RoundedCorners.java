@@ -12,7 +12,7 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 
 /** A {@link com.bumptech.glide4110.load.resource.bitmap.BitmapTransformation} which rounds the corners of a bitmap. */
-public final class RoundedCorners extends BitmapTransformation {
+public final class RoundedCorners extends BitmapTransformation implements FusibleTransformation {
   private static final String ID = "com.bumptech.glide.load.resource.bitmap.RoundedCorners";
   private static final byte[] ID_BYTES = ID.getBytes(Key.CHARSET);
 
@@ -33,6 +33,16 @@ public final class RoundedCorners extends BitmapTransformation {
     return TransformationUtils.roundedCorners(pool, toTransform, roundingRadius);
   }
 
+  @Override
+  public boolean canFuse() {
+    return true;
+  }
+
+  @Override
+  public void fuse(@NonNull FusedGeometry geometry, int outWidth, int outHeight) {
+    geometry.roundedCorners(roundingRadius);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o instanceof RoundedCorners) {
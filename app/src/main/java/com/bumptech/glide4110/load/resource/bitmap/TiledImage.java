@@ -0,0 +1,344 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide4110.load.engine.cache.MemoryCache;
+
+import com.bumptech.glide4110.util.Synthetic;
+
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An image too large to decode at full resolution, from which tiles covering any region can be
+ * decoded at any power of two sample size.
+ *
+ * <p>Tiles are decoded into {@link Bitmap}s from the {@link BitmapPool} and, when released by
+ * whatever displays them, are kept in the {@link MemoryCache} alongside Glide's other resources,
+ * keyed by this image, the region and the sample size. Tiles evicted from the cache go back to the
+ * {@link BitmapPool} and are forgotten by this image.
+ *
+ * <p>A low resolution overview of the entire image, decoded at a size suitable for the size
+ * requested for the load, is available to draw while tiles are decoded.
+ *
+ * @see TiledImageDecoder
+ * @see com.bumptech.glide4110.request.target.TiledImageViewTarget
+ */
+public final class TiledImage {
+  private static final String TAG = "TiledImage";
+
+  private final BitmapRegionDecoder regionDecoder;
+  private final BitmapPool bitmapPool;
+  private final MemoryCache memoryCache;
+  private final Bitmap overview;
+  private final int overviewSampleSize;
+  private final int width;
+  private final int height;
+
+  // Only holds the tiles that are currently in the memory cache, each tile removes itself when it's
+  // evicted.
+  @GuardedBy("this")
+  private final Map<Key, CachedTile> cachedTiles = new HashMap<>();
+
+  @GuardedBy("this")
+  private boolean isRecycled;
+
+  TiledImage(
+      @NonNull BitmapRegionDecoder regionDecoder,
+      @NonNull BitmapPool bitmapPool,
+      @NonNull MemoryCache memoryCache,
+      @NonNull Bitmap overview,
+      int overviewSampleSize) {
+    this.regionDecoder = regionDecoder;
+    this.bitmapPool = bitmapPool;
+    this.memoryCache = memoryCache;
+    this.overview = overview;
+    this.overviewSampleSize = overviewSampleSize;
+    this.width = regionDecoder.getWidth();
+    this.height = regionDecoder.getHeight();
+  }
+
+  /** Returns the width of the full resolution image. */
+  public int getWidth() {
+    return width;
+  }
+
+  /** Returns the height of the full resolution image. */
+  public int getHeight() {
+    return height;
+  }
+
+  /** Returns a low resolution version of the entire image. */
+  @NonNull
+  public Bitmap getOverview() {
+    return overview;
+  }
+
+  /**
+   * Returns the sample size the overview was decoded at. Tiles at this sample size or larger are no
+   * sharper than the overview.
+   */
+  public int getOverviewSampleSize() {
+    return overviewSampleSize;
+  }
+
+  /**
+   * Returns the tile for the given region and sample size if it's in the memory cache, or {@code
+   * null} otherwise. The caller owns the returned tile until it's passed to {@link
+   * #releaseTile(Rect, int, Resource)}.
+   */
+  @Nullable
+  public Resource<Bitmap> getCachedTile(@NonNull Rect region, int sampleSize) {
+    Key key = new TileKey(this, region, sampleSize);
+    synchronized (this) {
+      if (isRecycled || cachedTiles.remove(key) == null) {
+        return null;
+      }
+    }
+    CachedTile cached = (CachedTile) memoryCache.remove(key);
+    return cached == null ? null : cached.tile;
+  }
+
+  /**
+   * Returns the tile for the given region and sample size from the memory cache, or decodes it,
+   * which may take some time, if it isn't cached.
+   *
+   * <p>The caller owns the returned tile until it's passed to {@link #releaseTile(Rect, int,
+   * Resource)}. Returns {@code null} if this image has been recycled or the tile can't be decoded.
+   *
+   * @param region The region of the full resolution image covered by the tile.
+   * @param sampleSize The power of two by which the tile is downsampled.
+   */
+  @Nullable
+  public Resource<Bitmap> acquireTile(@NonNull Rect region, int sampleSize) {
+    Resource<Bitmap> cached = getCachedTile(region, sampleSize);
+    if (cached != null) {
+      return cached;
+    }
+    synchronized (this) {
+      if (isRecycled) {
+        return null;
+      }
+    }
+    Bitmap tile =
+        decodeRegion(regionDecoder, bitmapPool, region, sampleSize, overview.getConfig());
+    return tile == null ? null : BitmapResource.obtain(tile, bitmapPool);
+  }
+
+  /**
+   * Returns a tile obtained from {@link #getCachedTile(Rect, int)} or {@link #acquireTile(Rect,
+   * int)} to the memory cache, or to the {@link BitmapPool} if this image has been recycled.
+   */
+  public void releaseTile(@NonNull Rect region, int sampleSize, @NonNull Resource<Bitmap> tile) {
+    Key key = new TileKey(this, region, sampleSize);
+    CachedTile cached = new CachedTile(this, key, tile);
+    synchronized (this) {
+      if (isRecycled) {
+        cached = null;
+      } else {
+        cachedTiles.put(key, cached);
+      }
+    }
+    if (cached == null) {
+      tile.recycle();
+      return;
+    }
+    // Outside of our lock, the cache may evict and so recycle one of our tiles while holding its
+    // own lock.
+    memoryCache.put(key, cached);
+    synchronized (this) {
+      if (!isRecycled) {
+        return;
+      }
+    }
+    // Recycled before the tile was in the cache, so recycle() couldn't remove it.
+    Resource<?> removed = memoryCache.remove(key);
+    if (removed != null) {
+      removed.recycle();
+    }
+  }
+
+  /** Forgets the given tile if it's still the one cached for the given key. */
+  @SuppressWarnings("PMD.CompareObjectsWithEquals")
+  @Synthetic
+  synchronized void onTileRemoved(@NonNull Key key, @NonNull CachedTile tile) {
+    if (cachedTiles.get(key) == tile) {
+      cachedTiles.remove(key);
+    }
+  }
+
+  /** Returns the approximate number of bytes held by this image, excluding its tiles. */
+  int getSize() {
+    // The region decoder keeps the encoded image in native memory, which is typically about a
+    // tenth of the size of the decoded image.
+    return overview.getAllocationByteCount() + width * height * 4 / 10;
+  }
+
+  /**
+   * Returns the overview and all cached tiles to the {@link BitmapPool} and releases the region
+   * decoder. Tiles still held by callers are returned to the pool when they're released.
+   */
+  void recycle() {
+    Key[] keys;
+    synchronized (this) {
+      isRecycled = true;
+      keys = cachedTiles.keySet().toArray(new Key[0]);
+      cachedTiles.clear();
+    }
+    for (Key key : keys) {
+      Resource<?> removed = memoryCache.remove(key);
+      if (removed != null) {
+        removed.recycle();
+      }
+    }
+    bitmapPool.put(overview);
+    regionDecoder.recycle();
+  }
+
+  /**
+   * Decodes the given region, downsampled by the given power of two, into a {@link Bitmap} from
+   * the given pool if one of the right size is available.
+   */
+  @Nullable
+  static Bitmap decodeRegion(
+      @NonNull BitmapRegionDecoder regionDecoder,
+      @NonNull BitmapPool bitmapPool,
+      @NonNull Rect region,
+      int sampleSize,
+      @NonNull Bitmap.Config config) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inSampleSize = sampleSize;
+    options.inPreferredConfig = config;
+    options.inMutable = true;
+    options.inBitmap =
+        bitmapPool.getDirty(
+            getSampledDimension(region.width(), sampleSize),
+            getSampledDimension(region.height(), sampleSize),
+            config);
+    try {
+      return regionDecoder.decodeRegion(region, options);
+    } catch (IllegalArgumentException e) {
+      // The pooled Bitmap doesn't match the size the decoder picked, decode without it instead.
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to reuse Bitmap for " + region + " at sample size " + sampleSize, e);
+      }
+      bitmapPool.put(options.inBitmap);
+      options.inBitmap = null;
+    } catch (IllegalStateException e) {
+      // The region decoder was recycled while we were decoding.
+      bitmapPool.put(options.inBitmap);
+      return null;
+    }
+    try {
+      return regionDecoder.decodeRegion(region, options);
+    } catch (IllegalStateException e) {
+      return null;
+    }
+  }
+
+  private static int getSampledDimension(int dimension, int sampleSize) {
+    return (dimension + sampleSize - 1) / sampleSize;
+  }
+
+  /**
+   * A tile in the {@link MemoryCache}, which tells the image it belongs to when it's evicted so the
+   * image doesn't keep track of tiles that are no longer cached.
+   */
+  private static final class CachedTile implements Resource<Bitmap> {
+    private final TiledImage image;
+    private final Key key;
+    @Synthetic final Resource<Bitmap> tile;
+
+    CachedTile(TiledImage image, Key key, Resource<Bitmap> tile) {
+      this.image = image;
+      this.key = key;
+      this.tile = tile;
+    }
+
+    @NonNull
+    @Override
+    public Class<Bitmap> getResourceClass() {
+      return tile.getResourceClass();
+    }
+
+    @NonNull
+    @Override
+    public Bitmap get() {
+      return tile.get();
+    }
+
+    @Override
+    public int getSize() {
+      return tile.getSize();
+    }
+
+    @Override
+    public void recycle() {
+      image.onTileRemoved(key, this);
+      tile.recycle();
+    }
+  }
+
+  /** Identifies a tile in the {@link MemoryCache}, which tiles never leave. */
+  private static final class TileKey implements Key {
+    private final TiledImage image;
+    private final Rect region;
+    private final int sampleSize;
+
+    TileKey(TiledImage image, Rect region, int sampleSize) {
+      this.image = image;
+      this.region = new Rect(region);
+      this.sampleSize = sampleSize;
+    }
+
+    // Tiles belong to a particular instance, even if another instance decodes the same data.
+    @SuppressWarnings("PMD.CompareObjectsWithEquals")
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof TileKey) {
+        TileKey other = (TileKey) o;
+        return image == other.image
+            && sampleSize == other.sampleSize
+            && region.equals(other.region);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(image);
+      result = 31 * result + region.hashCode();
+      result = 31 * result + sampleSize;
+      return result;
+    }
+
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+      return "TileKey{"
+          + "image="
+          + image
+          + ", region="
+          + region
+          + ", sampleSize="
+          + sampleSize
+          + '}';
+    }
+  }
+}
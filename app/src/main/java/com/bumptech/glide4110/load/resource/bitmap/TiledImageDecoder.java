@@ -0,0 +1,211 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.DecodeFormat;
+import com.bumptech.glide4110.load.ImageHeaderParser;
+import com.bumptech.glide4110.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.ResourceDecoder;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide4110.load.engine.cache.MemoryCache;
+import com.bumptech.glide4110.request.target.Target;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Decodes {@link TiledImage}s, from which only the regions of a very large image that are visible
+ * are decoded, at the resolution they're displayed at.
+ *
+ * <p>Only a low resolution overview of the image, sized to fit within the requested dimensions, is
+ * decoded up front. Any {@link com.bumptech.glide4110.load.Transformation}s applied to the load are
+ * ignored by tiles.
+ *
+ * <p>Load with {@code Glide.with(context).as(TiledImage.class)}, and display with a {@link
+ * com.bumptech.glide4110.request.target.TiledImageViewTarget}.
+ *
+ * @param <T> The type of data to decode from.
+ */
+public final class TiledImageDecoder<T> implements ResourceDecoder<T, TiledImage> {
+  private static final String TAG = "TiledImageDecoder";
+  // Used when the original size is requested, large enough to fill any display.
+  private static final int MAX_OVERVIEW_DIMENSION = 2048;
+
+  private final ImageReaderFactory<T> readerFactory;
+  private final List<ImageHeaderParser> parsers;
+  private final BitmapPool bitmapPool;
+  private final ArrayPool arrayPool;
+  private final MemoryCache memoryCache;
+
+  public static ResourceDecoder<InputStream, TiledImage> stream(
+      List<ImageHeaderParser> parsers,
+      BitmapPool bitmapPool,
+      ArrayPool arrayPool,
+      MemoryCache memoryCache) {
+    return new TiledImageDecoder<>(
+        new InputStreamReaderFactory(), parsers, bitmapPool, arrayPool, memoryCache);
+  }
+
+  public static ResourceDecoder<ByteBuffer, TiledImage> byteBuffer(
+      List<ImageHeaderParser> parsers,
+      BitmapPool bitmapPool,
+      ArrayPool arrayPool,
+      MemoryCache memoryCache) {
+    return new TiledImageDecoder<>(
+        new ByteBufferReaderFactory(), parsers, bitmapPool, arrayPool, memoryCache);
+  }
+
+  public static ResourceDecoder<ParcelFileDescriptor, TiledImage> parcel(
+      List<ImageHeaderParser> parsers,
+      BitmapPool bitmapPool,
+      ArrayPool arrayPool,
+      MemoryCache memoryCache) {
+    return new TiledImageDecoder<>(
+        new ParcelFileDescriptorReaderFactory(), parsers, bitmapPool, arrayPool, memoryCache);
+  }
+
+  TiledImageDecoder(
+      ImageReaderFactory<T> readerFactory,
+      List<ImageHeaderParser> parsers,
+      BitmapPool bitmapPool,
+      ArrayPool arrayPool,
+      MemoryCache memoryCache) {
+    this.readerFactory = readerFactory;
+    this.parsers = parsers;
+    this.bitmapPool = bitmapPool;
+    this.arrayPool = arrayPool;
+    this.memoryCache = memoryCache;
+  }
+
+  @Override
+  public boolean handles(@NonNull T source, @NonNull Options options) throws IOException {
+    return isSupported(readerFactory.build(source, parsers, arrayPool).getImageType());
+  }
+
+  @Nullable
+  @Override
+  public Resource<TiledImage> decode(
+      @NonNull T source, int width, int height, @NonNull Options options) throws IOException {
+    ImageReader reader = readerFactory.build(source, parsers, arrayPool);
+    Bitmap.Config config =
+        options.get(Downsampler.DECODE_FORMAT) == DecodeFormat.PREFER_RGB_565
+                && reader.getImageType() == ImageType.JPEG
+            ? Bitmap.Config.RGB_565
+            : Bitmap.Config.ARGB_8888;
+
+    BitmapRegionDecoder regionDecoder = reader.newRegionDecoder();
+    boolean isDecoded = false;
+    try {
+      int sourceWidth = regionDecoder.getWidth();
+      int sourceHeight = regionDecoder.getHeight();
+      int sampleSize = getOverviewSampleSize(sourceWidth, sourceHeight, width, height);
+      Bitmap overview =
+          TiledImage.decodeRegion(
+              regionDecoder,
+              bitmapPool,
+              new Rect(0, 0, sourceWidth, sourceHeight),
+              sampleSize,
+              config);
+      if (overview == null) {
+        return null;
+      }
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(
+            TAG,
+            "Decoded overview of ["
+                + sourceWidth
+                + "x"
+                + sourceHeight
+                + "] image at sample size "
+                + sampleSize
+                + " for target ["
+                + width
+                + "x"
+                + height
+                + "]");
+      }
+      isDecoded = true;
+      return new TiledImageResource(
+          new TiledImage(regionDecoder, bitmapPool, memoryCache, overview, sampleSize));
+    } finally {
+      if (!isDecoded) {
+        regionDecoder.recycle();
+      }
+    }
+  }
+
+  /**
+   * Returns the largest power of two sample size at which the image still fills the requested
+   * dimensions when scaled to fit within them.
+   */
+  private static int getOverviewSampleSize(
+      int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+    float maxScale;
+    if (targetWidth == Target.SIZE_ORIGINAL || targetHeight == Target.SIZE_ORIGINAL) {
+      maxScale = (float) MAX_OVERVIEW_DIMENSION / Math.max(sourceWidth, sourceHeight);
+    } else {
+      maxScale =
+          Math.min((float) targetWidth / sourceWidth, (float) targetHeight / sourceHeight);
+    }
+    int sampleSize = 1;
+    while (sampleSize * 2 * maxScale <= 1) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+
+  // BitmapRegionDecoder only supports these formats.
+  private static boolean isSupported(ImageType imageType) {
+    switch (imageType) {
+      case JPEG:
+      case PNG:
+      case PNG_A:
+      case WEBP:
+      case WEBP_A:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  interface ImageReaderFactory<T> {
+    ImageReader build(T data, List<ImageHeaderParser> parsers, ArrayPool arrayPool);
+  }
+
+  private static final class InputStreamReaderFactory implements ImageReaderFactory<InputStream> {
+    @Override
+    public ImageReader build(
+        InputStream data, List<ImageHeaderParser> parsers, ArrayPool arrayPool) {
+      return new ImageReader.InputStreamImageReader(data, parsers, arrayPool);
+    }
+  }
+
+  private static final class ByteBufferReaderFactory implements ImageReaderFactory<ByteBuffer> {
+    @Override
+    public ImageReader build(
+        ByteBuffer data, List<ImageHeaderParser> parsers, ArrayPool arrayPool) {
+      return new ImageReader.ByteBufferImageReader(data, parsers, arrayPool);
+    }
+  }
+
+  private static final class ParcelFileDescriptorReaderFactory
+      implements ImageReaderFactory<ParcelFileDescriptor> {
+    @Override
+    public ImageReader build(
+        ParcelFileDescriptor data, List<ImageHeaderParser> parsers, ArrayPool arrayPool) {
+      return new ImageReader.ParcelFileDescriptorImageReader(data, parsers, arrayPool);
+    }
+  }
+}
@@ -0,0 +1,305 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.Priority;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.load.engine.executor.PrioritizedRunnable;
+import com.bumptech.glide4110.util.Synthetic;
+import com.bumptech.glide4110.util.Util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Draws a {@link TiledImage}, decoding tiles for the parts of the image that are visible at the
+ * resolution they're drawn at.
+ *
+ * <p>The intrinsic size of the drawable is the full resolution size of the image, so zooming into
+ * it, with {@link android.widget.ImageView#setImageMatrix(Matrix)} for example, brings in sharper
+ * tiles. Until a tile is decoded, the overview is drawn in its place.
+ *
+ * <p>Tiles that are no longer visible are released to the memory cache, so drawing the same part
+ * of the image again is usually fast. Call {@link #releaseTiles()} when the drawable is no longer
+ * displayed.
+ *
+ * <p>This drawable must only be used on the main thread.
+ */
+public final class TiledImageDrawable extends Drawable {
+  /** The size in pixels, once downsampled, of the tiles. */
+  public static final int TILE_SIZE = 512;
+  // Shared by all drawables, since their tiles are queued on the same executors.
+  private static final AtomicLong NEXT_DECODE_ORDER = new AtomicLong();
+
+  @Synthetic final TiledImage image;
+  @Synthetic final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Executor executor;
+  private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
+  private final Map<Rect, Resource<Bitmap>> tiles = new HashMap<>();
+  private final Set<Rect> pendingTiles = new HashSet<>();
+  private final Set<Rect> visibleTiles = new HashSet<>();
+  private final Matrix canvasMatrix = new Matrix();
+  private final Rect clipBounds = new Rect();
+  private final RectF tileBounds = new RectF();
+  private int sampleSize;
+  private boolean isReleased;
+
+  /**
+   * @param image The image to draw.
+   * @param executor Decodes tiles, which takes too long to do on the main thread.
+   */
+  public TiledImageDrawable(@NonNull TiledImage image, @NonNull Executor executor) {
+    this.image = image;
+    this.executor = executor;
+  }
+
+  @NonNull
+  public TiledImage getImage() {
+    return image;
+  }
+
+  @Override
+  public int getIntrinsicWidth() {
+    return image.getWidth();
+  }
+
+  @Override
+  public int getIntrinsicHeight() {
+    return image.getHeight();
+  }
+
+  @Override
+  public void draw(@NonNull Canvas canvas) {
+    Rect bounds = getBounds();
+    if (bounds.isEmpty()) {
+      return;
+    }
+    canvas.drawBitmap(image.getOverview(), /*src=*/ null, bounds, paint);
+    if (isReleased || !canvas.getClipBounds(clipBounds) || !clipBounds.intersect(bounds)) {
+      return;
+    }
+
+    float boundsScale = (float) bounds.width() / image.getWidth();
+    float scale = boundsScale * getCanvasScale(canvas);
+    int newSampleSize = getSampleSize(scale);
+    if (newSampleSize != sampleSize) {
+      releaseTilesInternal();
+      sampleSize = newSampleSize;
+    }
+    if (sampleSize >= image.getOverviewSampleSize()) {
+      // The overview is as sharp as any tile would be.
+      return;
+    }
+
+    int tileSourceSize = TILE_SIZE * sampleSize;
+    // The visible part of the image, in full resolution pixels.
+    int left = Math.max(0, (int) ((clipBounds.left - bounds.left) / boundsScale));
+    int top = Math.max(0, (int) ((clipBounds.top - bounds.top) / boundsScale));
+    int right = (int) Math.ceil((clipBounds.right - bounds.left) / boundsScale);
+    int bottom = (int) Math.ceil((clipBounds.bottom - bounds.top) / boundsScale);
+    right = Math.min(image.getWidth(), right);
+    bottom = Math.min(image.getHeight(), bottom);
+
+    visibleTiles.clear();
+    for (int y = top / tileSourceSize * tileSourceSize; y < bottom; y += tileSourceSize) {
+      for (int x = left / tileSourceSize * tileSourceSize; x < right; x += tileSourceSize) {
+        Rect region =
+            new Rect(
+                x,
+                y,
+                Math.min(x + tileSourceSize, image.getWidth()),
+                Math.min(y + tileSourceSize, image.getHeight()));
+        visibleTiles.add(region);
+        drawTile(canvas, region, bounds, boundsScale);
+      }
+    }
+
+    // Let the memory cache decide what to keep of anything that's scrolled out of view.
+    Iterator<Map.Entry<Rect, Resource<Bitmap>>> iterator = tiles.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Rect, Resource<Bitmap>> entry = iterator.next();
+      if (!visibleTiles.contains(entry.getKey())) {
+        image.releaseTile(entry.getKey(), sampleSize, entry.getValue());
+        iterator.remove();
+      }
+    }
+  }
+
+  private void drawTile(Canvas canvas, Rect region, Rect bounds, float boundsScale) {
+    Resource<Bitmap> tile = tiles.get(region);
+    if (tile == null) {
+      tile = image.getCachedTile(region, sampleSize);
+      if (tile != null) {
+        tiles.put(region, tile);
+      }
+    }
+    if (tile == null) {
+      if (pendingTiles.add(region)) {
+        decodeTile(region, sampleSize);
+      }
+      return;
+    }
+    tileBounds.set(
+        bounds.left + region.left * boundsScale,
+        bounds.top + region.top * boundsScale,
+        bounds.left + region.right * boundsScale,
+        bounds.top + region.bottom * boundsScale);
+    canvas.drawBitmap(tile.get(), /*src=*/ null, tileBounds, paint);
+  }
+
+  private void decodeTile(Rect region, int tileSampleSize) {
+    executor.execute(
+        new DecodeTile(this, region, tileSampleSize, NEXT_DECODE_ORDER.getAndIncrement()));
+  }
+
+  @Synthetic
+  void onTileDecoded(Rect region, int tileSampleSize, @Nullable Resource<Bitmap> tile) {
+    if (tileSampleSize != sampleSize) {
+      // We've been zoomed since the tile was requested.
+      if (tile != null) {
+        image.releaseTile(region, tileSampleSize, tile);
+      }
+      return;
+    }
+    pendingTiles.remove(region);
+    if (tile == null) {
+      return;
+    }
+    // We may have asked for the tile again after releasing our tiles while it was decoding.
+    if (isReleased || tiles.containsKey(region)) {
+      image.releaseTile(region, tileSampleSize, tile);
+      return;
+    }
+    tile.get().prepareToDraw();
+    tiles.put(region, tile);
+    invalidateSelf();
+  }
+
+  /**
+   * Returns all tiles to the {@link TiledImage}. The overview is drawn from now on, until the
+   * drawable is drawn again after {@link #setVisible(boolean, boolean)} makes it visible.
+   */
+  public void releaseTiles() {
+    Util.assertMainThread();
+    isReleased = true;
+    releaseTilesInternal();
+  }
+
+  @Override
+  public boolean setVisible(boolean visible, boolean restart) {
+    boolean changed = super.setVisible(visible, restart);
+    if (!visible) {
+      releaseTiles();
+    } else {
+      isReleased = false;
+    }
+    return changed;
+  }
+
+  private void releaseTilesInternal() {
+    for (Map.Entry<Rect, Resource<Bitmap>> entry : tiles.entrySet()) {
+      image.releaseTile(entry.getKey(), sampleSize, entry.getValue());
+    }
+    tiles.clear();
+    // Results for these will be for a different sample size, or arrive once we're released.
+    pendingTiles.clear();
+  }
+
+  // Canvas#getMatrix is deprecated because hardware canvases don't include the transforms of parent
+  // views. The matrix of an ImageView is applied within its own display list, which is all we need.
+  @SuppressWarnings("deprecation")
+  private float getCanvasScale(Canvas canvas) {
+    canvas.getMatrix(canvasMatrix);
+    return canvasMatrix.mapRadius(1f);
+  }
+
+  /** Returns the largest power of two sample size that is at least as sharp as the given scale. */
+  private static int getSampleSize(float scale) {
+    int result = 1;
+    while (result * 2 * scale <= 1) {
+      result *= 2;
+    }
+    return result;
+  }
+
+  @Override
+  public void setAlpha(int alpha) {
+    paint.setAlpha(alpha);
+    invalidateSelf();
+  }
+
+  @Override
+  public void setColorFilter(@Nullable ColorFilter colorFilter) {
+    paint.setColorFilter(colorFilter);
+    invalidateSelf();
+  }
+
+  @Override
+  public int getOpacity() {
+    return image.getOverview().hasAlpha() || paint.getAlpha() < 255
+        ? PixelFormat.TRANSLUCENT
+        : PixelFormat.OPAQUE;
+  }
+
+  /**
+   * Decodes a tile and hands it to the drawable on the main thread.
+   *
+   * <p>Tiles are on screen, so they're queued at {@link Priority#HIGH} on a {@link
+   * com.bumptech.glide4110.load.engine.executor.GlideExecutor}. The most recently requested tiles
+   * are decoded first, across all drawables, since they're the ones most likely to still be
+   * visible.
+   */
+  private static final class DecodeTile implements PrioritizedRunnable {
+    private final TiledImageDrawable drawable;
+    private final Rect region;
+    private final int sampleSize;
+    private final long order;
+
+    DecodeTile(TiledImageDrawable drawable, Rect region, int sampleSize, long order) {
+      this.drawable = drawable;
+      this.region = region;
+      this.sampleSize = sampleSize;
+      this.order = order;
+    }
+
+    @Override
+    public void run() {
+      final Resource<Bitmap> tile = drawable.image.acquireTile(region, sampleSize);
+      drawable.mainHandler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              drawable.onTileDecoded(region, sampleSize, tile);
+            }
+          });
+    }
+
+    @Override
+    public int getPriority() {
+      return Priority.HIGH.ordinal();
+    }
+
+    @Override
+    public long getOrder() {
+      return -order;
+    }
+  }
+}
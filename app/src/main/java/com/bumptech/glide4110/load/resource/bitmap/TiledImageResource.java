@@ -0,0 +1,43 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide4110.load.engine.Initializable;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.util.Preconditions;
+
+/** A resource wrapping a {@link TiledImage}. */
+public final class TiledImageResource implements Resource<TiledImage>, Initializable {
+  private final TiledImage image;
+
+  public TiledImageResource(@NonNull TiledImage image) {
+    this.image = Preconditions.checkNotNull(image);
+  }
+
+  @NonNull
+  @Override
+  public Class<TiledImage> getResourceClass() {
+    return TiledImage.class;
+  }
+
+  @NonNull
+  @Override
+  public TiledImage get() {
+    return image;
+  }
+
+  @Override
+  public int getSize() {
+    return image.getSize();
+  }
+
+  @Override
+  public void recycle() {
+    image.recycle();
+  }
+
+  @Override
+  public void initialize() {
+    image.getOverview().prepareToDraw();
+  }
+}
@@ -571,6 +571,48 @@ public final class TransformationUtils {
     return result;
   }
 
+  /**
+   * Draws the given Bitmap once with the combined size, matrix and clip of a run of transformations,
+   * see {@link FusedBitmapTransformation}.
+   *
+   * @return The transformed Bitmap, or inBitmap if the geometry leaves it unchanged.
+   */
+  static Bitmap drawFused(
+      @NonNull BitmapPool pool, @NonNull Bitmap inBitmap, @NonNull FusedGeometry geometry) {
+    if (geometry.isIdentity(inBitmap.getWidth(), inBitmap.getHeight())) {
+      return inBitmap;
+    }
+    Path clip = geometry.getClip();
+    if (clip == null) {
+      Bitmap result =
+          pool.get(geometry.getWidth(), geometry.getHeight(), getNonNullConfig(inBitmap));
+      // We don't add or remove alpha, so keep the alpha setting of the Bitmap we were given.
+      setAlpha(inBitmap, result);
+      applyMatrix(inBitmap, result, geometry.getMatrix());
+      return result;
+    }
+
+    // Alpha is required to clip. Unlike circleCrop and roundedCorners, the shader reads inBitmap
+    // directly, so no alpha safe copy of it is needed.
+    Bitmap result =
+        pool.get(geometry.getWidth(), geometry.getHeight(), getAlphaSafeConfig(inBitmap));
+    result.setHasAlpha(true);
+    BitmapShader shader = new BitmapShader(inBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+    shader.setLocalMatrix(geometry.getMatrix());
+    Paint paint = new Paint(CIRCLE_CROP_PAINT_FLAGS);
+    paint.setShader(shader);
+    BITMAP_DRAWABLE_LOCK.lock();
+    try {
+      Canvas canvas = new Canvas(result);
+      canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+      canvas.drawPath(clip, paint);
+      clear(canvas);
+    } finally {
+      BITMAP_DRAWABLE_LOCK.unlock();
+    }
+    return result;
+  }
+
   // Avoids warnings in M+.
   private static void clear(Canvas canvas) {
     canvas.setBitmap(null);
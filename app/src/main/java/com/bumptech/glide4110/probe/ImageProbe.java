@@ -0,0 +1,99 @@
+package com.bumptech.glide4110.probe;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide4110.load.ImageHeaderParser;
+import com.bumptech.glide4110.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide4110.load.resource.bitmap.TransformationUtils;
+
+/**
+ * The type, orientation and size of an image, read from its header without decoding it.
+ *
+ * @see ImageProber
+ */
+public final class ImageProbe {
+  private final ImageType type;
+  private final int orientation;
+  private final int width;
+  private final int height;
+
+  ImageProbe(@NonNull ImageType type, int orientation, int width, int height) {
+    this.type = type;
+    this.orientation = orientation;
+    this.width = width;
+    this.height = height;
+  }
+
+  @NonNull
+  public ImageType getType() {
+    return type;
+  }
+
+  /**
+   * Returns the EXIF orientation of the image, or {@link ImageHeaderParser#UNKNOWN_ORIENTATION} if
+   * it has none.
+   */
+  public int getOrientation() {
+    return orientation;
+  }
+
+  /** Returns the width of the image as encoded, before any EXIF orientation is applied. */
+  public int getWidth() {
+    return width;
+  }
+
+  /** Returns the height of the image as encoded, before any EXIF orientation is applied. */
+  public int getHeight() {
+    return height;
+  }
+
+  /** Returns the width of the image as Glide displays it, once its EXIF orientation is applied. */
+  public int getDisplayWidth() {
+    return isRotatedSideways() ? height : width;
+  }
+
+  /** Returns the height of the image as Glide displays it, once its EXIF orientation is applied. */
+  public int getDisplayHeight() {
+    return isRotatedSideways() ? width : height;
+  }
+
+  private boolean isRotatedSideways() {
+    int degrees = TransformationUtils.getExifOrientationDegrees(orientation);
+    return degrees == 90 || degrees == 270;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof ImageProbe) {
+      ImageProbe other = (ImageProbe) o;
+      return type == other.type
+          && orientation == other.orientation
+          && width == other.width
+          && height == other.height;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = type.hashCode();
+    result = 31 * result + orientation;
+    result = 31 * result + width;
+    result = 31 * result + height;
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "ImageProbe{"
+        + "type="
+        + type
+        + ", orientation="
+        + orientation
+        + ", width="
+        + width
+        + ", height="
+        + height
+        + '}';
+  }
+}
@@ -0,0 +1,290 @@
+package com.bumptech.glide4110.probe;
+
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.Priority;
+import com.bumptech.glide4110.Registry;
+import com.bumptech.glide4110.load.ImageHeaderParser;
+import com.bumptech.glide4110.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide4110.load.ImageHeaderParserUtils;
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.data.DataFetcher;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide4110.load.engine.cache.SafeKeyGenerator;
+import com.bumptech.glide4110.load.engine.executor.PrioritizedRunnable;
+import com.bumptech.glide4110.load.model.ModelLoader;
+import com.bumptech.glide4110.load.resource.bitmap.RecyclableBufferedInputStream;
+import com.bumptech.glide4110.request.target.Target;
+import com.bumptech.glide4110.util.ByteBufferUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads the type, EXIF orientation and dimensions of images from their headers, without
+ * downloading or decoding the rest of the data, so that views can be sized before their images are
+ * loaded.
+ *
+ * <p>Data is obtained from the same {@link ModelLoader}s and {@link DataFetcher}s that full loads
+ * use, but bypasses Glide's disk cache entirely. Only as much of a stream is read as the header
+ * needs, after which the fetcher is cleaned up, which for the default network fetcher closes the
+ * connection. Results are kept in a small {@link ProbeIndex} on disk, keyed by the source key of
+ * the data, so each image is only probed once.
+ *
+ * <p>Obtain via {@link com.bumptech.glide4110.RequestManager#probe(List)}.
+ */
+public final class ImageProber {
+  private static final String TAG = "ImageProber";
+  // The same limit Glide's header parsers use.
+  private static final int MARK_READ_LIMIT = 5 * 1024 * 1024;
+
+  private final Registry registry;
+  private final ArrayPool arrayPool;
+  private final Executor executor;
+  private final ProbeIndex index;
+  private final SafeKeyGenerator safeKeyGenerator = new SafeKeyGenerator();
+  private final Options options = new Options();
+  private final AtomicLong nextOrder = new AtomicLong();
+
+  /** Receives the results of {@link #probe(List, Listener)} on the main thread. */
+  public interface Listener {
+    /**
+     * Called once for each model, in no particular order.
+     *
+     * @param index The position of the model in the list given to {@link #probe(List, Listener)}.
+     * @param probe The probe, or {@code null} if the model couldn't be probed.
+     */
+    void onProbed(int index, @Nullable ImageProbe probe);
+
+    /** Called after {@link #onProbed(int, ImageProbe)} has been called for every model. */
+    void onComplete(@NonNull List<ImageProbe> probes);
+  }
+
+  /**
+   * @param indexFile The file to keep probes in.
+   * @param executor Runs probes, which do network and disk I/O.
+   */
+  public ImageProber(
+      @NonNull File indexFile,
+      @NonNull Registry registry,
+      @NonNull ArrayPool arrayPool,
+      @NonNull Executor executor) {
+    this.index = new ProbeIndex(indexFile);
+    this.registry = registry;
+    this.arrayPool = arrayPool;
+    this.executor = executor;
+  }
+
+  /**
+   * Starts probing the given models and returns a {@link ProbeBatch} that completes once all of
+   * them have been probed.
+   */
+  @NonNull
+  public ProbeBatch probe(@NonNull List<?> models, @Nullable Listener listener) {
+    ProbeBatch batch = new ProbeBatch(models.size(), listener);
+    for (int i = 0; i < models.size(); i++) {
+      executor.execute(
+          new ProbeRunnable(this, batch, i, models.get(i), nextOrder.getAndIncrement()));
+    }
+    return batch;
+  }
+
+  /** Removes all probes from the index. Must be called on a background thread. */
+  public void clearIndex() {
+    index.clear();
+  }
+
+  /**
+   * Probes the given model on the current thread, which must be a background thread, returning
+   * {@code null} if none of the data loaded for it is a readable image.
+   */
+  @Nullable
+  public ImageProbe probe(@NonNull Object model) {
+    List<ModelLoader<Object, ?>> modelLoaders;
+    try {
+      modelLoaders = registry.getModelLoaders(model);
+    } catch (Registry.NoModelLoaderAvailableException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "No ModelLoader for " + model, e);
+      }
+      return null;
+    }
+    for (ModelLoader<Object, ?> modelLoader : modelLoaders) {
+      ModelLoader.LoadData<?> loadData =
+          modelLoader.buildLoadData(model, Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL, options);
+      if (loadData == null || !isProbeable(loadData.fetcher.getDataClass())) {
+        continue;
+      }
+      String safeKey = safeKeyGenerator.getSafeKey(loadData.sourceKey);
+      ImageProbe result = index.get(safeKey);
+      if (result == null) {
+        result = fetchAndProbe(loadData);
+        if (result != null) {
+          index.put(safeKey, result);
+        }
+      }
+      if (result != null) {
+        return result;
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private ImageProbe fetchAndProbe(@NonNull ModelLoader.LoadData<?> loadData) {
+    DataFetcher<?> fetcher = loadData.fetcher;
+    try {
+      Object data = fetch(fetcher);
+      if (data instanceof InputStream) {
+        return probe((InputStream) data);
+      } else if (data instanceof ByteBuffer) {
+        return probe((ByteBuffer) data);
+      }
+      return null;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to probe " + loadData.sourceKey, e);
+      }
+      return null;
+    } catch (InterruptedException e) {
+      fetcher.cancel();
+      Thread.currentThread().interrupt();
+      return null;
+    } finally {
+      fetcher.cleanup();
+    }
+  }
+
+  @Nullable
+  private ImageProbe probe(@NonNull InputStream data) throws IOException {
+    // Buffers the header so that each parser can rewind to the start of it.
+    RecyclableBufferedInputStream is = new RecyclableBufferedInputStream(data, arrayPool);
+    try {
+      List<ImageHeaderParser> parsers = registry.getImageHeaderParsers();
+      ImageType type = ImageHeaderParserUtils.getType(parsers, is, arrayPool);
+      int orientation = ImageHeaderParserUtils.getOrientation(parsers, is, arrayPool);
+      is.mark(MARK_READ_LIMIT);
+      BitmapFactory.Options options = new BitmapFactory.Options();
+      options.inJustDecodeBounds = true;
+      BitmapFactory.decodeStream(is, /*outPadding=*/ null, options);
+      return newProbe(type, orientation, options);
+    } finally {
+      is.release();
+    }
+  }
+
+  @Nullable
+  private ImageProbe probe(@NonNull ByteBuffer data) throws IOException {
+    List<ImageHeaderParser> parsers = registry.getImageHeaderParsers();
+    ImageType type = ImageHeaderParserUtils.getType(parsers, ByteBufferUtil.rewind(data));
+    int orientation =
+        ImageHeaderParserUtils.getOrientation(parsers, ByteBufferUtil.rewind(data), arrayPool);
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    options.inJustDecodeBounds = true;
+    BitmapFactory.decodeStream(
+        ByteBufferUtil.toStream(ByteBufferUtil.rewind(data)), /*outPadding=*/ null, options);
+    return newProbe(type, orientation, options);
+  }
+
+  @Nullable
+  private static ImageProbe newProbe(
+      @NonNull ImageType type, int orientation, @NonNull BitmapFactory.Options options) {
+    if (options.outWidth <= 0 || options.outHeight <= 0) {
+      return null;
+    }
+    return new ImageProbe(type, orientation, options.outWidth, options.outHeight);
+  }
+
+  /** Loads the data, waiting for fetchers that call back on another thread. */
+  @Nullable
+  private static Object fetch(@NonNull DataFetcher<?> fetcher)
+      throws IOException, InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Object[] result = new Object[1];
+    final Exception[] failure = new Exception[1];
+    @SuppressWarnings("unchecked")
+    DataFetcher<Object> objectFetcher = (DataFetcher<Object>) fetcher;
+    objectFetcher.loadData(
+        Priority.HIGH,
+        new DataFetcher.DataCallback<Object>() {
+          @Override
+          public void onDataReady(@Nullable Object data) {
+            result[0] = data;
+            latch.countDown();
+          }
+
+          @Override
+          public void onLoadFailed(@NonNull Exception e) {
+            failure[0] = e;
+            latch.countDown();
+          }
+        });
+    latch.await();
+    if (failure[0] != null) {
+      throw new IOException("Failed to load data", failure[0]);
+    }
+    return result[0];
+  }
+
+  private static boolean isProbeable(@NonNull Class<?> dataClass) {
+    return InputStream.class.isAssignableFrom(dataClass)
+        || ByteBuffer.class.isAssignableFrom(dataClass);
+  }
+
+  /**
+   * Probes one model of a batch. Probes only inform later loads, so they're queued at {@link
+   * Priority#LOW} on a {@link com.bumptech.glide4110.load.engine.executor.GlideExecutor}, in the
+   * order the models were given.
+   */
+  private static final class ProbeRunnable implements PrioritizedRunnable {
+    private final ImageProber prober;
+    private final ProbeBatch batch;
+    private final int index;
+    private final Object model;
+    private final long order;
+
+    ProbeRunnable(ImageProber prober, ProbeBatch batch, int index, Object model, long order) {
+      this.prober = prober;
+      this.batch = batch;
+      this.index = index;
+      this.model = model;
+      this.order = order;
+    }
+
+    @Override
+    public void run() {
+      ImageProbe result = null;
+      if (!batch.isCancelled()) {
+        try {
+          result = prober.probe(model);
+        } catch (RuntimeException e) {
+          // A misbehaving loader or fetcher shouldn't leave the batch incomplete.
+          if (Log.isLoggable(TAG, Log.WARN)) {
+            Log.w(TAG, "Failed to probe " + model, e);
+          }
+        }
+      }
+      batch.onProbed(index, result);
+    }
+
+    @Override
+    public int getPriority() {
+      return Priority.LOW.ordinal();
+    }
+
+    @Override
+    public long getOrder() {
+      return order;
+    }
+  }
+}
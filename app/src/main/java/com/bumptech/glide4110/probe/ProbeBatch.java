@@ -0,0 +1,127 @@
+package com.bumptech.glide4110.probe;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.util.Util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link ImageProbe}s for a list of models, started by {@link
+ * ImageProber#probe(List, ImageProber.Listener)}.
+ *
+ * <p>{@link #get()} returns a list in the same order as the models, with {@code null} for any
+ * model that couldn't be probed. It must not be called on the main thread.
+ */
+public final class ProbeBatch implements Future<List<ImageProbe>> {
+  private final ImageProbe[] probes;
+  private final AtomicInteger remaining;
+  private final CountDownLatch done = new CountDownLatch(1);
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  @Nullable private final ImageProber.Listener listener;
+  private volatile boolean isCancelled;
+
+  ProbeBatch(int size, @Nullable ImageProber.Listener listener) {
+    this.probes = new ImageProbe[size];
+    this.remaining = new AtomicInteger(size);
+    this.listener = listener;
+    if (size == 0) {
+      onComplete();
+    }
+  }
+
+  void onProbed(final int index, @Nullable final ImageProbe probe) {
+    probes[index] = probe;
+    if (listener != null) {
+      mainHandler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              if (!isCancelled) {
+                listener.onProbed(index, probe);
+              }
+            }
+          });
+    }
+    if (remaining.decrementAndGet() == 0) {
+      onComplete();
+    }
+  }
+
+  private void onComplete() {
+    done.countDown();
+    if (listener != null) {
+      mainHandler.post(
+          new Runnable() {
+            @Override
+            public void run() {
+              if (!isCancelled) {
+                listener.onComplete(getProbes());
+              }
+            }
+          });
+    }
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    if (isDone()) {
+      return false;
+    }
+    isCancelled = true;
+    done.countDown();
+    return true;
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return isCancelled;
+  }
+
+  @Override
+  public boolean isDone() {
+    return done.getCount() == 0;
+  }
+
+  @Override
+  public List<ImageProbe> get() throws InterruptedException {
+    Util.assertBackgroundThread();
+    done.await();
+    return getResult();
+  }
+
+  @Override
+  public List<ImageProbe> get(long timeout, @NonNull TimeUnit unit)
+      throws InterruptedException, TimeoutException {
+    Util.assertBackgroundThread();
+    if (!done.await(timeout, unit)) {
+      throw new TimeoutException();
+    }
+    return getResult();
+  }
+
+  private List<ImageProbe> getResult() {
+    if (isCancelled) {
+      throw new CancellationException();
+    }
+    return getProbes();
+  }
+
+  @NonNull
+  private List<ImageProbe> getProbes() {
+    // The array is safely published by the countdown of the latch or the remaining counter.
+    return Collections.unmodifiableList(Arrays.asList(probes.clone()));
+  }
+}
@@ -0,0 +1,200 @@
+package com.bumptech.glide4110.probe;
+
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.ImageHeaderParser.ImageType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small on disk index of {@link ImageProbe}s, keyed by the safe key of the source key of the
+ * data they were read from.
+ *
+ * <p>Probes are appended to the file as they're added and the whole file is read into memory the
+ * first time the index is used. Only the most recently used {@link #MAX_ENTRIES} are kept, so the
+ * file is rewritten with just those once it holds twice as many records.
+ *
+ * <p>All methods do disk I/O and must be called on a background thread.
+ */
+final class ProbeIndex {
+  private static final String TAG = "ProbeIndex";
+  private static final int MAGIC = 0x474c5049;
+  private static final int VERSION = 1;
+  // At roughly 80 bytes per record, a few hundred kilobytes on disk.
+  static final int MAX_ENTRIES = 4096;
+
+  private final File file;
+
+  @GuardedBy("this")
+  private final LinkedHashMap<String, ImageProbe> probes =
+      new LinkedHashMap<String, ImageProbe>(64, 0.75f, /*accessOrder=*/ true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImageProbe> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  @GuardedBy("this")
+  private boolean isLoaded;
+
+  @GuardedBy("this")
+  private int recordCount;
+
+  ProbeIndex(@NonNull File file) {
+    this.file = file;
+  }
+
+  @Nullable
+  synchronized ImageProbe get(@NonNull String safeKey) {
+    loadIfNeeded();
+    return probes.get(safeKey);
+  }
+
+  synchronized void put(@NonNull String safeKey, @NonNull ImageProbe probe) {
+    loadIfNeeded();
+    if (probe.equals(probes.put(safeKey, probe))) {
+      return;
+    }
+    if (recordCount >= 2 * MAX_ENTRIES) {
+      rewrite();
+    } else {
+      append(safeKey, probe);
+    }
+  }
+
+  /** Removes all probes from memory and from disk. */
+  synchronized void clear() {
+    probes.clear();
+    recordCount = 0;
+    isLoaded = true;
+    if (file.exists() && !file.delete() && Log.isLoggable(TAG, Log.WARN)) {
+      Log.w(TAG, "Failed to delete probe index: " + file);
+    }
+  }
+
+  @GuardedBy("this")
+  private void loadIfNeeded() {
+    if (isLoaded) {
+      return;
+    }
+    isLoaded = true;
+    if (!file.exists()) {
+      return;
+    }
+    DataInputStream is = null;
+    try {
+      is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      if (is.readInt() != MAGIC || is.readInt() != VERSION) {
+        throw new IOException("Unrecognized header");
+      }
+      // For a file, available() is the number of bytes left.
+      while (is.available() > 0) {
+        String safeKey = is.readUTF();
+        ImageType type = ImageType.valueOf(is.readUTF());
+        int orientation = is.readInt();
+        int width = is.readInt();
+        int height = is.readInt();
+        probes.put(safeKey, new ImageProbe(type, orientation, width, height));
+        recordCount++;
+      }
+    } catch (IOException | RuntimeException e) {
+      // Includes a record cut short by the process dying while it was appended, in which case the
+      // rewrite below keeps everything read before it.
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Failed to read probe index, keeping " + probes.size() + " probes", e);
+      }
+      closeQuietly(is);
+      is = null;
+      rewrite();
+    } finally {
+      closeQuietly(is);
+    }
+  }
+
+  @GuardedBy("this")
+  private void append(@NonNull String safeKey, @NonNull ImageProbe probe) {
+    DataOutputStream os = null;
+    try {
+      boolean isNew = !file.exists();
+      os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, !isNew)));
+      if (isNew) {
+        writeHeader(os);
+        recordCount = 0;
+      }
+      writeRecord(os, safeKey, probe);
+      recordCount++;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Failed to append to probe index", e);
+      }
+    } finally {
+      closeQuietly(os);
+    }
+  }
+
+  @GuardedBy("this")
+  private void rewrite() {
+    File temp = new File(file.getPath() + ".tmp");
+    DataOutputStream os = null;
+    try {
+      os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+      writeHeader(os);
+      for (Map.Entry<String, ImageProbe> entry : probes.entrySet()) {
+        writeRecord(os, entry.getKey(), entry.getValue());
+      }
+      os.close();
+      os = null;
+      if (!temp.renameTo(file)) {
+        throw new IOException("Failed to rename " + temp + " to " + file);
+      }
+      recordCount = probes.size();
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.WARN)) {
+        Log.w(TAG, "Failed to rewrite probe index", e);
+      }
+      //noinspection ResultOfMethodCallIgnored
+      temp.delete();
+    } finally {
+      closeQuietly(os);
+    }
+  }
+
+  private static void writeHeader(@NonNull DataOutputStream os) throws IOException {
+    os.writeInt(MAGIC);
+    os.writeInt(VERSION);
+  }
+
+  private static void writeRecord(
+      @NonNull DataOutputStream os, @NonNull String safeKey, @NonNull ImageProbe probe)
+      throws IOException {
+    os.writeUTF(safeKey);
+    os.writeUTF(probe.getType().name());
+    os.writeInt(probe.getOrientation());
+    os.writeInt(probe.getWidth());
+    os.writeInt(probe.getHeight());
+  }
+
+  private static void closeQuietly(@Nullable Closeable closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        // Ignored.
+      }
+    }
+  }
+}
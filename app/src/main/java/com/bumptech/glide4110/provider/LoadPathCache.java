@@ -1,19 +1,25 @@
 package com.bumptech.glide4110.provider;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.collection.ArrayMap;
 import com.bumptech.glide4110.load.ResourceDecoder;
 import com.bumptech.glide4110.load.engine.DecodePath;
 import com.bumptech.glide4110.load.engine.LoadPath;
 import com.bumptech.glide4110.load.resource.transcode.UnitTranscoder;
 import com.bumptech.glide4110.util.MultiClassKey;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Maintains a cache of data, resource, and transcode classes to available {@link
  * LoadPath}s capable of decoding with the requested types.
+ *
+ * <p>Lookups don't lock, so decodes on different threads never wait on each other here.
  */
 public class LoadPathCache {
   private static final LoadPath<?, ?, ?> NO_PATHS_SIGNAL =
@@ -31,7 +37,7 @@ public class LoadPathCache {
                   /*listPool=*/ null)),
           /*listPool=*/ null);
 
-  private final ArrayMap<com.bumptech.glide4110.util.MultiClassKey, LoadPath<?, ?, ?>> cache = new ArrayMap<>();
+  private final Map<MultiClassKey, LoadPath<?, ?, ?>> cache = new ConcurrentHashMap<>();
   private final AtomicReference<com.bumptech.glide4110.util.MultiClassKey> keyRef = new AtomicReference<>();
 
   /**
@@ -53,10 +59,7 @@ public class LoadPathCache {
   public <Data, TResource, Transcode> LoadPath<Data, TResource, Transcode> get(
       Class<Data> dataClass, Class<TResource> resourceClass, Class<Transcode> transcodeClass) {
     com.bumptech.glide4110.util.MultiClassKey key = getKey(dataClass, resourceClass, transcodeClass);
-    LoadPath<?, ?, ?> result;
-    synchronized (cache) {
-      result = cache.get(key);
-    }
+    LoadPath<?, ?, ?> result = cache.get(key);
     keyRef.set(key);
 
     return (LoadPath<Data, TResource, Transcode>) result;
@@ -67,11 +70,15 @@ public class LoadPathCache {
       Class<?> resourceClass,
       Class<?> transcodeClass,
       @Nullable LoadPath<?, ?, ?> loadPath) {
-    synchronized (cache) {
-      cache.put(
-          new com.bumptech.glide4110.util.MultiClassKey(dataClass, resourceClass, transcodeClass),
-          loadPath != null ? loadPath : NO_PATHS_SIGNAL);
-    }
+    cache.put(
+        new MultiClassKey(dataClass, resourceClass, transcodeClass),
+        loadPath != null ? loadPath : NO_PATHS_SIGNAL);
+  }
+
+  /** Returns the data, resource and transcode classes of every cached lookup, including misses. */
+  @NonNull
+  public List<MultiClassKey> getKeys() {
+    return new ArrayList<>(cache.keySet());
   }
 
   private com.bumptech.glide4110.util.MultiClassKey getKey(
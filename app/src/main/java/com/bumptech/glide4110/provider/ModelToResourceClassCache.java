@@ -2,21 +2,25 @@ package com.bumptech.glide4110.provider;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.collection.ArrayMap;
 
 import com.bumptech.glide4110.util.MultiClassKey;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Maintains a cache of Model + Resource class to a set of registered resource classes that are
  * subclasses of the resource class that can be decoded from the model class.
+ *
+ * <p>Lookups don't lock, so requests on different threads never wait on each other here.
  */
 public class ModelToResourceClassCache {
   private final AtomicReference<com.bumptech.glide4110.util.MultiClassKey> resourceClassKeyRef = new AtomicReference<>();
-  private final ArrayMap<com.bumptech.glide4110.util.MultiClassKey, List<Class<?>>> registeredResourceClassCache =
-      new ArrayMap<>();
+  private final Map<MultiClassKey, List<Class<?>>> registeredResourceClassCache =
+      new ConcurrentHashMap<>();
 
   @Nullable
   public List<Class<?>> get(
@@ -29,10 +33,7 @@ public class ModelToResourceClassCache {
     } else {
       key.set(modelClass, resourceClass, transcodeClass);
     }
-    final List<Class<?>> result;
-    synchronized (registeredResourceClassCache) {
-      result = registeredResourceClassCache.get(key);
-    }
+    final List<Class<?>> result = registeredResourceClassCache.get(key);
     resourceClassKeyRef.set(key);
     return result;
   }
@@ -42,15 +43,17 @@ public class ModelToResourceClassCache {
       @NonNull Class<?> resourceClass,
       @NonNull Class<?> transcodeClass,
       @NonNull List<Class<?>> resourceClasses) {
-    synchronized (registeredResourceClassCache) {
-      registeredResourceClassCache.put(
-          new MultiClassKey(modelClass, resourceClass, transcodeClass), resourceClasses);
-    }
+    registeredResourceClassCache.put(
+        new MultiClassKey(modelClass, resourceClass, transcodeClass), resourceClasses);
+  }
+
+  /** Returns the model, resource and transcode classes of every cached lookup. */
+  @NonNull
+  public List<MultiClassKey> getKeys() {
+    return new ArrayList<>(registeredResourceClassCache.keySet());
   }
 
   public void clear() {
-    synchronized (registeredResourceClassCache) {
-      registeredResourceClassCache.clear();
-    }
+    registeredResourceClassCache.clear();
   }
 }
@@ -28,7 +28,11 @@ import com.bumptech.glide4110.load.resource.bitmap.CircleCrop;
 import com.bumptech.glide4110.load.resource.bitmap.DownsampleStrategy;
 import com.bumptech.glide4110.load.resource.bitmap.Downsampler;
 import com.bumptech.glide4110.load.resource.bitmap.DrawableTransformation;
+import com.bumptech.glide4110.load.resource.bitmap.EncodeFormatStrategy;
 import com.bumptech.glide4110.load.resource.bitmap.FitCenter;
+import com.bumptech.glide4110.load.resource.bitmap.FusedBitmapTransformation;
+import com.bumptech.glide4110.load.resource.bitmap.ProgressiveJpegInputStream;
+import com.bumptech.glide4110.load.resource.bitmap.RawBitmapEncoder;
 import com.bumptech.glide4110.load.resource.bitmap.VideoDecoder;
 import com.bumptech.glide4110.load.resource.gif.GifDrawable;
 import com.bumptech.glide4110.load.resource.gif.GifDrawableTransformation;
@@ -594,6 +598,31 @@ public abstract class BaseRequestOptions<T extends BaseRequestOptions<T>> implem
     return set(BitmapEncoder.COMPRESSION_FORMAT, com.bumptech.glide4110.util.Preconditions.checkNotNull(format));
   }
 
+  /**
+   * Sets the value for key {@link BitmapEncoder#ENCODE_FORMAT_STRATEGY}, for example {@link
+   * EncodeFormatStrategy#ADAPTIVE_WEBP}.
+   *
+   * <p>Ignored if {@link #encodeFormat(Bitmap.CompressFormat)} is set.
+   */
+  @NonNull
+  @CheckResult
+  public T encodeFormatStrategy(@NonNull EncodeFormatStrategy strategy) {
+    return set(BitmapEncoder.ENCODE_FORMAT_STRATEGY, Preconditions.checkNotNull(strategy));
+  }
+
+  /**
+   * Sets the value for key {@link RawBitmapEncoder#RAW_PIXELS}, so that transformed Bitmaps are
+   * written to the disk cache as raw pixels that load without a decode.
+   *
+   * <p>Raw pixels take several times more disk space than compressed formats, this is best limited
+   * to small images that are loaded from the disk cache often.
+   */
+  @NonNull
+  @CheckResult
+  public T encodeRawPixels(@NonNull RawBitmapEncoder.Compression compression) {
+    return set(RawBitmapEncoder.RAW_PIXELS, Preconditions.checkNotNull(compression));
+  }
+
   /** Sets the value for key {@link BitmapEncoder#COMPRESSION_QUALITY}. */
   @NonNull
   @CheckResult
@@ -617,6 +646,24 @@ public abstract class BaseRequestOptions<T extends BaseRequestOptions<T>> implem
     return set(VideoDecoder.TARGET_FRAME, frameTimeMicros);
   }
 
+  /**
+   * Sets the maximum number of low resolution frames to display while the source data of a remote
+   * progressive JPEG is still arriving.
+   *
+   * <p>Frames are only shown in {@link Target}s that implement {@link
+   * com.bumptech.glide4110.request.target.InterimResourceTarget}, such as {@link
+   * com.bumptech.glide4110.request.target.ImageViewTarget}. They aren't transformed or passed to
+   * {@link RequestListener}s.
+   *
+   * @see ProgressiveJpegInputStream#MAX_INTERIM_FRAMES
+   * @param maxFrames The maximum number of frames, or 0 to only display the final image.
+   */
+  @NonNull
+  @CheckResult
+  public T interimFrames(@IntRange(from = 0) int maxFrames) {
+    return set(ProgressiveJpegInputStream.MAX_INTERIM_FRAMES, maxFrames);
+  }
+
   /**
    * Sets the {@link DecodeFormat} to use when decoding {@link Bitmap} objects using {@link
    * Downsampler} and Glide's default GIF decoders.
@@ -971,16 +1018,18 @@ public abstract class BaseRequestOptions<T extends BaseRequestOptions<T>> implem
       return clone().transform(transformation, isRequired);
     }
 
+    // Draws chains like CenterCrop and RoundedCorners once rather than once per transformation.
+    Transformation<Bitmap> fused = FusedBitmapTransformation.fuse(transformation);
     DrawableTransformation drawableTransformation =
-        new DrawableTransformation(transformation, isRequired);
-    transform(Bitmap.class, transformation, isRequired);
+        new DrawableTransformation(fused, isRequired);
+    transform(Bitmap.class, fused, isRequired);
     transform(Drawable.class, drawableTransformation, isRequired);
     // TODO: remove BitmapDrawable decoder and this transformation.
     // Registering as BitmapDrawable is simply an optimization to avoid some iteration and
     // isAssignableFrom checks when obtaining the transformation later on. It can be removed without
     // affecting the functionality.
     transform(BitmapDrawable.class, drawableTransformation.asBitmapDrawable(), isRequired);
-    transform(GifDrawable.class, new GifDrawableTransformation(transformation), isRequired);
+    transform(GifDrawable.class, new GifDrawableTransformation(fused), isRequired);
     return selfOrThrowIfLocked();
   }
 
@@ -0,0 +1,23 @@
+package com.bumptech.glide4110.request;
+
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+
+/**
+ * A {@link ResourceCallback} that can also display low resolution frames decoded while the source
+ * data of a load is still arriving.
+ *
+ * @see com.bumptech.glide4110.load.resource.bitmap.ProgressiveJpegInputStream#MAX_INTERIM_FRAMES
+ */
+public interface InterimResourceCallback extends ResourceCallback {
+
+  /**
+   * Called with the lock returned by {@link #getLock()} held when a frame is available, any number
+   * of times before {@link #onResourceReady(com.bumptech.glide4110.load.engine.Resource,
+   * com.bumptech.glide4110.load.DataSource)} or {@link
+   * #onLoadFailed(com.bumptech.glide4110.load.engine.GlideException)}.
+   *
+   * @param frame An untransformed preview of the image that isn't owned by any pool.
+   */
+  void onInterimResourceReady(@NonNull Bitmap frame);
+}
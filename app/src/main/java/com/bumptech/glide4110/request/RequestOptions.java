@@ -15,6 +15,8 @@ import com.bumptech.glide4110.load.Option;
 import com.bumptech.glide4110.load.Transformation;
 import com.bumptech.glide4110.load.engine.DiskCacheStrategy;
 import com.bumptech.glide4110.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide4110.load.resource.bitmap.EncodeFormatStrategy;
+import com.bumptech.glide4110.load.resource.bitmap.RawBitmapEncoder;
 
 /**
  * Provides type independent options to customize loads with Glide.
@@ -266,6 +268,28 @@ public class RequestOptions extends com.bumptech.glide4110.request.BaseRequestOp
     return new RequestOptions().encodeFormat(format);
   }
 
+  /**
+   * Returns a {@link RequestOptions} with {@link #encodeFormatStrategy(EncodeFormatStrategy)} called
+   * with the given strategy.
+   */
+  @SuppressWarnings("WeakerAccess") // Public API
+  @NonNull
+  @CheckResult
+  public static RequestOptions encodeFormatStrategyOf(@NonNull EncodeFormatStrategy strategy) {
+    return new RequestOptions().encodeFormatStrategy(strategy);
+  }
+
+  /**
+   * Returns a {@link RequestOptions} with {@link #encodeRawPixels(RawBitmapEncoder.Compression)}
+   * called with the given compression.
+   */
+  @SuppressWarnings("WeakerAccess") // Public API
+  @NonNull
+  @CheckResult
+  public static RequestOptions encodeRawPixelsOf(@NonNull RawBitmapEncoder.Compression compression) {
+    return new RequestOptions().encodeRawPixels(compression);
+  }
+
   /**
    * Returns a new {@link RequestOptions} with {@link #dontAnimate()}
    * called.
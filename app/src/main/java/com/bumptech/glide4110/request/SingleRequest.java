@@ -2,6 +2,7 @@ package com.bumptech.glide4110.request;
 
 import android.content.Context;
 import android.content.res.Resources.Theme;
+import android.graphics.Bitmap;
 import android.graphics.drawable.Drawable;
 import android.util.Log;
 
@@ -20,6 +21,7 @@ import com.bumptech.glide4110.load.resource.drawable.DrawableDecoderCompat;
 import com.bumptech.glide4110.util.LogTime;
 import com.bumptech.glide4110.util.Util;
 import com.bumptech.glide4110.util.pool.StateVerifier;
+import com.bumptech.glide4110.request.target.InterimResourceTarget;
 import com.bumptech.glide4110.request.target.SizeReadyCallback;
 import com.bumptech.glide4110.request.target.Target;
 import com.bumptech.glide4110.request.transition.Transition;
@@ -34,7 +36,8 @@ import java.util.concurrent.Executor;
  *
  * @param <R> The type of the resource that will be transcoded from the loaded resource.
  */
-public final class SingleRequest<R> implements Request, SizeReadyCallback, ResourceCallback {
+public final class SingleRequest<R>
+        implements Request, SizeReadyCallback, InterimResourceCallback {
     /**
      * Tag for logging internal events, not generally suitable for public use.
      */
@@ -543,6 +546,29 @@ public final class SingleRequest<R> implements Request, SizeReadyCallback, Resou
         }
     }
 
+    /**
+     * A callback method that should never be invoked directly.
+     *
+     * <p>Interim frames are only shown by {@link Target}s that implement {@link
+     * InterimResourceTarget}. They go to the {@link Target} without a transition, aren't
+     * transformed, aren't passed to {@link RequestListener}s and don't change the status of the
+     * request.
+     */
+    @Override
+    public void onInterimResourceReady(@NonNull Bitmap frame) {
+        stateVerifier.throwIfRecycled();
+        synchronized (requestLock) {
+            if (status != Status.RUNNING
+                    || !canSetResource()
+                    || !(target instanceof InterimResourceTarget)) {
+                return;
+            }
+            if (glideContext.getLogLevel() <= Log.VERBOSE) {
+                Log.v(GLIDE_TAG, "Showing interim frame for " + model + " in " + target);
+            }
+            ((InterimResourceTarget) target).onInterimResourceReady(frame);
+        }
+    }
 
     /**
      * 通过DecodeJob的 callCallbackOnResourceReady方法回调回来
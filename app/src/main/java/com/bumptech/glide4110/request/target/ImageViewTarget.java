@@ -1,5 +1,6 @@
 package com.bumptech.glide4110.request.target;
 
+import android.graphics.Bitmap;
 import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
 import android.widget.ImageView;
@@ -17,7 +18,7 @@ import com.bumptech.glide4110.request.transition.Transition;
 // Public API.
 @SuppressWarnings("WeakerAccess")
 public abstract class ImageViewTarget<Z> extends ViewTarget<ImageView, Z>
-    implements Transition.ViewAdapter {
+    implements Transition.ViewAdapter, InterimResourceTarget {
 
   @Nullable private Animatable animatable;
 
@@ -95,6 +96,17 @@ public abstract class ImageViewTarget<Z> extends ViewTarget<ImageView, Z>
     setDrawable(placeholder);
   }
 
+  /**
+   * Shows the given preview using {@link ImageView#setImageBitmap(Bitmap)} until the final resource
+   * replaces it.
+   *
+   * @param frame {@inheritDoc}
+   */
+  @Override
+  public void onInterimResourceReady(@NonNull Bitmap frame) {
+    view.setImageBitmap(frame);
+  }
+
   @Override
   public void onResourceReady(@NonNull Z resource, @Nullable Transition<? super Z> transition) {
     if (transition == null || !transition.transition(resource, this)) {
@@ -0,0 +1,27 @@
+package com.bumptech.glide4110.request.target;
+
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+
+/**
+ * Implemented by {@link Target}s that can display low resolution previews decoded while the source
+ * data of a load is still arriving.
+ *
+ * <p>Previews are only delivered to {@link Target}s that implement this interface, other {@link
+ * Target}s only receive the final resource in {@link Target#onResourceReady(Object,
+ * com.bumptech.glide4110.request.transition.Transition)}.
+ *
+ * @see com.bumptech.glide4110.request.BaseRequestOptions#interimFrames(int)
+ */
+public interface InterimResourceTarget {
+
+  /**
+   * Called on the main thread, any number of times after {@link
+   * Target#onLoadStarted(android.graphics.drawable.Drawable)} and before the final resource or
+   * error, with a preview to display in place of the placeholder.
+   *
+   * @param frame An untransformed preview of the image that isn't owned by any pool. It may be
+   *     displayed until the final resource or error replaces it, but must not be recycled.
+   */
+  void onInterimResourceReady(@NonNull Bitmap frame);
+}
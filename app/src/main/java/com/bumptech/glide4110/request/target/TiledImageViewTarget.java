@@ -0,0 +1,68 @@
+package com.bumptech.glide4110.request.target;
+
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide4110.load.engine.executor.GlideExecutor;
+import com.bumptech.glide4110.load.resource.bitmap.TiledImage;
+import com.bumptech.glide4110.load.resource.bitmap.TiledImageDrawable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link Target} that displays a {@link TiledImage} in an {@link ImageView} using a {@link
+ * TiledImageDrawable}, which decodes sharper tiles as the view's image matrix zooms into the image.
+ *
+ * <pre>{@code
+ * Glide.with(fragment)
+ *     .as(TiledImage.class)
+ *     .load(uri)
+ *     .into(new TiledImageViewTarget(imageView));
+ * }</pre>
+ */
+public class TiledImageViewTarget extends ImageViewTarget<TiledImage> {
+  private static volatile Executor defaultTileExecutor;
+
+  private final Executor tileExecutor;
+
+  public TiledImageViewTarget(ImageView view) {
+    this(view, getDefaultTileExecutor());
+  }
+
+  /**
+   * @param view The view to display the image in.
+   * @param tileExecutor Decodes tiles off the main thread.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public TiledImageViewTarget(ImageView view, @NonNull Executor tileExecutor) {
+    super(view);
+    this.tileExecutor = tileExecutor;
+  }
+
+  @Override
+  protected void setResource(@Nullable TiledImage resource) {
+    Drawable current = view.getDrawable();
+    if (current instanceof TiledImageDrawable) {
+      // The image may be recycled as soon as we return, don't hang on to any of its tiles.
+      ((TiledImageDrawable) current).releaseTiles();
+    }
+    view.setImageDrawable(resource == null ? null : new TiledImageDrawable(resource, tileExecutor));
+  }
+
+  private static Executor getDefaultTileExecutor() {
+    if (defaultTileExecutor == null) {
+      synchronized (TiledImageViewTarget.class) {
+        if (defaultTileExecutor == null) {
+          // Like animation frames, tiles are decoded for things already on screen, so a thread or
+          // two keeps up without competing with Glide's other executors.
+          defaultTileExecutor = GlideExecutor.newAnimationBuilder().setName("tile").build();
+        }
+      }
+    }
+    return defaultTileExecutor;
+  }
+}
@@ -2,6 +2,7 @@ package com.bumptech.glide4110.util;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.DirectByteBufferPool;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
@@ -126,6 +127,13 @@ public final class ByteBufferUtil {
     return result;
   }
 
+  /** Resets the position of the given buffer to zero without allocating, returning the buffer. */
+  @NonNull
+  public static ByteBuffer rewind(@NonNull ByteBuffer buffer) {
+    buffer.position(0);
+    return buffer;
+  }
+
   @NonNull
   public static InputStream toStream(@NonNull ByteBuffer buffer) {
     return new ByteBufferStream(buffer);
@@ -153,6 +161,58 @@ public final class ByteBufferUtil {
     return (ByteBuffer) ByteBuffer.allocateDirect(bytes.length).put(bytes).position(0);
   }
 
+  /**
+   * Reads the given stream into a direct {@link ByteBuffer} obtained from the given pool, ready to
+   * be read from position zero.
+   *
+   * <p>Unlike {@link #fromStream(InputStream)}, the data is only copied through a small scratch
+   * array on the heap. The returned buffer should be returned to the pool once it's no longer used.
+   */
+  @NonNull
+  public static ByteBuffer fromStream(
+      @NonNull InputStream stream, @NonNull DirectByteBufferPool pool) throws IOException {
+    ByteBuffer result = pool.get(Math.max(stream.available(), BUFFER_SIZE));
+
+    byte[] buffer = BUFFER_REF.getAndSet(null);
+    if (buffer == null) {
+      buffer = new byte[BUFFER_SIZE];
+    }
+
+    try {
+      int n;
+      while ((n = stream.read(buffer)) >= 0) {
+        if (result.remaining() < n) {
+          ByteBuffer larger =
+              pool.get(getGrownCapacity(result.capacity(), (long) result.position() + n));
+          result.flip();
+          larger.put(result);
+          pool.put(result);
+          result = larger;
+        }
+        result.put(buffer, 0, n);
+      }
+    } catch (IOException | RuntimeException e) {
+      pool.put(result);
+      throw e;
+    } finally {
+      BUFFER_REF.set(buffer);
+    }
+
+    result.flip();
+    return result;
+  }
+
+  /**
+   * Returns double the given capacity, clamped to the largest possible buffer, or throws if even
+   * that can't hold the given number of bytes.
+   */
+  private static int getGrownCapacity(int capacity, long required) throws IOException {
+    if (required > Integer.MAX_VALUE) {
+      throw new IOException("Stream is too large to fit in a ByteBuffer, required: " + required);
+    }
+    return (int) Math.max(required, Math.min(2L * capacity, Integer.MAX_VALUE));
+  }
+
   @Nullable
   private static SafeArray getSafeArray(@NonNull ByteBuffer byteBuffer) {
     if (!byteBuffer.isReadOnly() && byteBuffer.hasArray()) {
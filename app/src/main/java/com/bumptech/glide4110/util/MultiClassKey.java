@@ -33,6 +33,19 @@ public class MultiClassKey {
     this.third = third;
   }
 
+  public Class<?> getFirst() {
+    return first;
+  }
+
+  public Class<?> getSecond() {
+    return second;
+  }
+
+  @Nullable
+  public Class<?> getThird() {
+    return third;
+  }
+
   @Override
   public String toString() {
     return "MultiClassKey{" + "first=" + first + ", second=" + second + '}';
@@ -0,0 +1,131 @@
+package android.graphics;
+
+/**
+ * Replaces the android.jar stub of {@code Bitmap} in JVM unit tests and benchmarks.
+ *
+ * <p>Tracks the dimensions, config and allocation size that pools and caches key on, without any
+ * pixels, so that {@link #createBitmap(int, int, Config)} only costs an object allocation rather
+ * than the native allocation it costs on a device.
+ */
+public final class Bitmap {
+  private final int allocationByteCount;
+  private int width;
+  private int height;
+  private Config config;
+  private boolean hasAlpha = true;
+  private boolean premultiplied = true;
+  private boolean recycled;
+
+  private Bitmap(int width, int height, Config config) {
+    this.width = width;
+    this.height = height;
+    this.config = config;
+    allocationByteCount = width * height * getBytesPerPixel(config);
+  }
+
+  public static Bitmap createBitmap(int width, int height, Config config) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("width and height must be > 0");
+    }
+    if (config == Config.HARDWARE) {
+      throw new IllegalArgumentException("Hardware bitmaps are always immutable");
+    }
+    return new Bitmap(width, height, config);
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public Config getConfig() {
+    return config;
+  }
+
+  public int getRowBytes() {
+    return width * getBytesPerPixel(config);
+  }
+
+  public int getByteCount() {
+    return height * getRowBytes();
+  }
+
+  public int getAllocationByteCount() {
+    return allocationByteCount;
+  }
+
+  public void reconfigure(int width, int height, Config config) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("width and height must be > 0");
+    }
+    if (width * height * getBytesPerPixel(config) > allocationByteCount) {
+      throw new IllegalArgumentException("Bitmap not large enough to support new configuration");
+    }
+    this.width = width;
+    this.height = height;
+    this.config = config;
+  }
+
+  public boolean isMutable() {
+    return true;
+  }
+
+  public boolean isRecycled() {
+    return recycled;
+  }
+
+  public void recycle() {
+    recycled = true;
+  }
+
+  public void eraseColor(int color) {
+    if (recycled) {
+      throw new IllegalStateException("Can't call eraseColor() on a recycled bitmap");
+    }
+  }
+
+  public boolean hasAlpha() {
+    return hasAlpha;
+  }
+
+  public void setHasAlpha(boolean hasAlpha) {
+    this.hasAlpha = hasAlpha;
+  }
+
+  public boolean isPremultiplied() {
+    return premultiplied;
+  }
+
+  public void setPremultiplied(boolean premultiplied) {
+    this.premultiplied = premultiplied;
+  }
+
+  private static int getBytesPerPixel(Config config) {
+    switch (config) {
+      case ALPHA_8:
+        return 1;
+      case RGB_565:
+      case ARGB_4444:
+        return 2;
+      case RGBA_F16:
+        return 8;
+      case ARGB_8888:
+      case HARDWARE:
+      default:
+        return 4;
+    }
+  }
+
+  public enum Config {
+    ALPHA_8,
+    RGB_565,
+    @Deprecated
+    ARGB_4444,
+    ARGB_8888,
+    RGBA_F16,
+    HARDWARE,
+  }
+}
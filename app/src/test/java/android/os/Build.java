@@ -0,0 +1,33 @@
+package android.os;
+
+/**
+ * Replaces the android.jar stub of {@code Build} in JVM unit tests and benchmarks.
+ *
+ * <p>The stub reports an {@link VERSION#SDK_INT} of 0, which sends version checked code down paths
+ * no supported device takes. This reports the target sdk instead.
+ */
+public final class Build {
+
+  private Build() {}
+
+  public static final class VERSION {
+    public static final int SDK_INT = VERSION_CODES.TIRAMISU;
+
+    private VERSION() {}
+  }
+
+  public static final class VERSION_CODES {
+    public static final int KITKAT = 19;
+    public static final int LOLLIPOP = 21;
+    public static final int M = 23;
+    public static final int N = 24;
+    public static final int O = 26;
+    public static final int P = 28;
+    public static final int Q = 29;
+    public static final int R = 30;
+    public static final int S = 31;
+    public static final int TIRAMISU = 33;
+
+    private VERSION_CODES() {}
+  }
+}
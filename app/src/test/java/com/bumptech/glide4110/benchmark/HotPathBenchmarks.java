@@ -0,0 +1,54 @@
+package com.bumptech.glide4110.benchmark;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import org.junit.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks for Glide's cache, key, pool, stream and header parsing hot paths on the
+ * local JVM.
+ *
+ * <p>Skipped unless the {@code glide.benchmark} Gradle property is set, so it doesn't slow down
+ * regular unit test runs:
+ *
+ * <pre>
+ *   ./gradlew :app:testDebugUnitTest --tests '*HotPathBenchmarks' -Pglide.benchmark=true
+ * </pre>
+ *
+ * <p>Use {@code -Pglide.benchmark.include=<regex>} to run a subset, for example {@code
+ * ArrayPool}. Throughput for each benchmark, along with the allocation rate per operation from
+ * JMH's GC profiler ({@code gc.alloc.rate.norm}), is written to {@code
+ * app/build/reports/benchmarks/} as both a human readable log and JSON suitable for comparing runs.
+ *
+ * <p>The few Android framework classes these paths touch, {@code android.util.Log}, {@code
+ * android.os.Build} and {@code android.graphics.Bitmap}, are replaced by plain Java stand-ins in the
+ * unit test sources, which take precedence over the stub android.jar.
+ */
+public class HotPathBenchmarks {
+
+  @Test
+  public void run() throws RunnerException {
+    assumeTrue(Boolean.getBoolean("glide.benchmark"));
+
+    File reportDir = new File(System.getProperty("glide.benchmark.reportDir", "build"));
+    if (!reportDir.isDirectory() && !reportDir.mkdirs()) {
+      throw new IllegalStateException("Failed to create report directory: " + reportDir);
+    }
+    Options options =
+        new OptionsBuilder()
+            .include(System.getProperty("glide.benchmark.include", "com\\.bumptech\\.glide4110\\..*"))
+            .addProfiler(GCProfiler.class)
+            .output(new File(reportDir, "benchmarks.txt").getAbsolutePath())
+            .resultFormat(ResultFormatType.JSON)
+            .result(new File(reportDir, "benchmarks.json").getAbsolutePath())
+            .build();
+    new Runner(options).run();
+  }
+}
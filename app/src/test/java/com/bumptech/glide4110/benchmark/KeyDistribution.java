@@ -0,0 +1,62 @@
+package com.bumptech.glide4110.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A precomputed, repeatable sequence of indices into a set of keys that follows a Zipf
+ * distribution, which approximates the skewed access pattern of images in a scrolling list where a
+ * small number of images are requested repeatedly and most are seen only a few times.
+ *
+ * <p>Indices are sampled up front with a fixed seed so that drawing the next key in a benchmark
+ * loop is a single array read and doesn't allocate or contend on a shared {@link Random}.
+ */
+public final class KeyDistribution {
+  private static final int SEQUENCE_LENGTH = 1 << 16;
+  private static final long SEED = 0x5EED;
+
+  private final int[] sequence;
+  private int position;
+
+  private KeyDistribution(int[] sequence) {
+    this.sequence = sequence;
+  }
+
+  /**
+   * Returns a distribution over {@code [0, keyCount)} where the probability of index {@code i} is
+   * proportional to {@code 1 / (i + 1)^skew}.
+   */
+  public static KeyDistribution zipf(int keyCount, double skew) {
+    double[] cumulative = new double[keyCount];
+    double total = 0;
+    for (int i = 0; i < keyCount; i++) {
+      total += 1 / Math.pow(i + 1, skew);
+      cumulative[i] = total;
+    }
+    Random random = new Random(SEED);
+    int[] sequence = new int[SEQUENCE_LENGTH];
+    for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+      double target = random.nextDouble() * total;
+      int index = Arrays.binarySearch(cumulative, target);
+      sequence[i] = index >= 0 ? index : Math.min(-index - 1, keyCount - 1);
+    }
+    return new KeyDistribution(sequence);
+  }
+
+  /** Returns a distribution where every index in {@code [0, keyCount)} is equally likely. */
+  public static KeyDistribution uniform(int keyCount) {
+    Random random = new Random(SEED);
+    int[] sequence = new int[SEQUENCE_LENGTH];
+    for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+      sequence[i] = random.nextInt(keyCount);
+    }
+    return new KeyDistribution(sequence);
+  }
+
+  /** Returns the next index, wrapping around at the end of the precomputed sequence. */
+  public int next() {
+    int result = sequence[position];
+    position = (position + 1) & (SEQUENCE_LENGTH - 1);
+    return result;
+  }
+}
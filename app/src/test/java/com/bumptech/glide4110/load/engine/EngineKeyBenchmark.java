@@ -0,0 +1,87 @@
+package com.bumptech.glide4110.load.engine;
+
+import com.bumptech.glide4110.benchmark.KeyDistribution;
+import com.bumptech.glide4110.load.Options;
+import com.bumptech.glide4110.load.Transformation;
+import com.bumptech.glide4110.load.resource.UnitTransformation;
+import com.bumptech.glide4110.signature.EmptySignature;
+import com.bumptech.glide4110.util.CachedHashCodeArrayMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link EngineKey#hashCode()} and {@link EngineKey#equals(Object)}, which run for every
+ * memory cache, active resource and in progress job lookup.
+ *
+ * <p>Keys are rebuilt for every lookup as they are in {@link Engine#load}, so the hash code is
+ * never cached. Models are drawn from a skewed distribution and requested at one of a few sizes so
+ * that lookups compare both equal keys and keys that differ only by size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineKeyBenchmark {
+  private static final int MODEL_COUNT = 1024;
+  private static final int[] SIZES = {180, 360, 1080};
+
+  private String[] models;
+  private EngineKey[] existing;
+  private KeyDistribution distribution;
+  private Map<Class<?>, Transformation<?>> transformations;
+  private Options options;
+
+  @Setup
+  public void setUp() {
+    models = new String[MODEL_COUNT];
+    for (int i = 0; i < MODEL_COUNT; i++) {
+      models[i] = "https://images.example.com/photos/" + i + ".jpg";
+    }
+    transformations = new CachedHashCodeArrayMap<>();
+    transformations.put(Object.class, UnitTransformation.get());
+    options = new Options();
+    existing = new EngineKey[MODEL_COUNT];
+    for (int i = 0; i < MODEL_COUNT; i++) {
+      existing[i] = newKey(models[i], SIZES[i % SIZES.length]);
+    }
+    distribution = KeyDistribution.zipf(MODEL_COUNT, /*skew=*/ 1.0);
+  }
+
+  @Benchmark
+  public int newKeyHashCode() {
+    int index = distribution.next();
+    return newKey(models[index], SIZES[index % SIZES.length]).hashCode();
+  }
+
+  @Benchmark
+  public boolean newKeyEquals() {
+    int index = distribution.next();
+    // Odd indices request the model at a size other than the existing key's.
+    EngineKey key = newKey(models[index], SIZES[(index + (index & 1)) % SIZES.length]);
+    return key.hashCode() == existing[index].hashCode() && key.equals(existing[index]);
+  }
+
+  private EngineKey newKey(String model, int size) {
+    return new EngineKey(
+        model,
+        EmptySignature.obtain(),
+        size,
+        size,
+        transformations,
+        Object.class,
+        Object.class,
+        options);
+  }
+}
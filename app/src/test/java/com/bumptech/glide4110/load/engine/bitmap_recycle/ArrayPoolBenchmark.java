@@ -0,0 +1,90 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import com.bumptech.glide4110.benchmark.KeyDistribution;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link MagazineArrayPool} with {@link LruArrayPool} with the sizes requested while
+ * decoding, mostly the 64kb stream buffer with a mix of smaller header and larger exif buffers,
+ * used by one thread and shared by as many threads as Glide's source and disk cache executors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArrayPoolBenchmark {
+  private static final int[] BYTE_SIZES = {
+    ArrayPool.STANDARD_BUFFER_SIZE_BYTES, 16 * 1024, 2 * 1024, 128 * 1024, 8, 32 * 1024,
+  };
+  private static final int[] INT_SIZES = {1024, 4096, 16 * 1024};
+
+  @Param({"lru", "magazine"})
+  public String poolType;
+
+  private ArrayPool pool;
+
+  @Setup
+  public void setUp() {
+    pool = "lru".equals(poolType) ? new LruArrayPool() : new MagazineArrayPool();
+  }
+
+  @State(Scope.Thread)
+  public static class Sizes {
+    KeyDistribution bytes;
+    KeyDistribution ints;
+
+    @Setup
+    public void setUp() {
+      bytes = KeyDistribution.zipf(BYTE_SIZES.length, /*skew=*/ 1.2);
+      ints = KeyDistribution.uniform(INT_SIZES.length);
+    }
+  }
+
+  /** Holds two buffers at once, as Downsampler and RecyclableBufferedInputStream do. */
+  @Benchmark
+  public byte[] getAndPutBytes(Sizes sizes) {
+    return getAndPutTwice(sizes);
+  }
+
+  @Benchmark
+  @Threads(5)
+  public byte[] getAndPutBytesContended(Sizes sizes) {
+    return getAndPutTwice(sizes);
+  }
+
+  @Benchmark
+  public byte[] getExactAndPutBytes(Sizes sizes) {
+    byte[] result = pool.getExact(BYTE_SIZES[sizes.bytes.next()], byte[].class);
+    pool.put(result);
+    return result;
+  }
+
+  @Benchmark
+  public int[] getAndPutInts(Sizes sizes) {
+    int[] result = pool.get(INT_SIZES[sizes.ints.next()], int[].class);
+    pool.put(result);
+    return result;
+  }
+
+  private byte[] getAndPutTwice(Sizes sizes) {
+    byte[] first = pool.get(BYTE_SIZES[sizes.bytes.next()], byte[].class);
+    byte[] second = pool.get(BYTE_SIZES[sizes.bytes.next()], byte[].class);
+    pool.put(second);
+    pool.put(first);
+    return first;
+  }
+}
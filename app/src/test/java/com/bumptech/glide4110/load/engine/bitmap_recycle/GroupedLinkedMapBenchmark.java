@@ -0,0 +1,106 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import com.bumptech.glide4110.benchmark.KeyDistribution;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link GroupedLinkedMap}, the structure behind {@link SizeConfigStrategy} and
+ * {@link LruBitmapPool}, with pooled size keys drawn from the handful of thumbnail and full
+ * screen sizes a typical app decodes.
+ *
+ * <p>This exercises the key pooling, grouping and LRU reordering in isolation with placeholder
+ * values, see {@link LruBitmapPoolBenchmark} for the pool as a whole.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GroupedLinkedMapBenchmark {
+  private static final int[] SIZES = {
+    256 * 256 * 4, 512 * 512 * 4, 1080 * 1920 * 4, 128 * 128 * 4, 720 * 1280 * 4, 1080 * 1080 * 4,
+  };
+
+  private GroupedLinkedMap<SizeKey, Object> map;
+  private SizeKeyPool keyPool;
+  private KeyDistribution distribution;
+  private final Object value = new Object();
+
+  @Setup
+  public void setUp() {
+    map = new GroupedLinkedMap<>();
+    keyPool = new SizeKeyPool();
+    distribution = KeyDistribution.zipf(SIZES.length, /*skew=*/ 1.0);
+    for (int size : SIZES) {
+      map.put(keyPool.get(size), value);
+    }
+  }
+
+  @Benchmark
+  public Object getAndPut() {
+    int size = SIZES[distribution.next()];
+    Object result = map.get(keyPool.get(size));
+    map.put(keyPool.get(size), result != null ? result : value);
+    return result;
+  }
+
+  @Benchmark
+  public Object removeLastAndPut() {
+    Object result = map.removeLast();
+    map.put(keyPool.get(SIZES[distribution.next()]), value);
+    return result;
+  }
+
+  static final class SizeKeyPool extends BaseKeyPool<SizeKey> {
+
+    SizeKey get(int size) {
+      SizeKey result = get();
+      result.init(size);
+      return result;
+    }
+
+    @Override
+    SizeKey create() {
+      return new SizeKey(this);
+    }
+  }
+
+  static final class SizeKey implements Poolable {
+    private final SizeKeyPool pool;
+    private int size;
+
+    SizeKey(SizeKeyPool pool) {
+      this.pool = pool;
+    }
+
+    void init(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public void offer() {
+      pool.offer(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof SizeKey && ((SizeKey) o).size == size;
+    }
+
+    @Override
+    public int hashCode() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import android.graphics.Bitmap;
+import com.bumptech.glide4110.benchmark.KeyDistribution;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures borrowing and returning {@link Bitmap Bitmaps} from {@link LruBitmapPool} and from the
+ * {@link SizeConfigStrategy} behind it, with the thumbnail and full screen sizes a typical app
+ * decodes and a mix of {@link Bitmap.Config#ARGB_8888} and {@link Bitmap.Config#RGB_565}.
+ *
+ * <p>Bitmaps here are the JVM stand-ins from the unit test sources, which have no pixels, so this
+ * measures the pool's bookkeeping, finding the best fitting size and reconfiguring, rather than
+ * allocating or erasing pixels. See {@code BitmapPoolBenchmark} in androidTest for a comparison
+ * with real Bitmaps on a device.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LruBitmapPoolBenchmark {
+  private static final int[][] SIZES = {
+    {360, 360}, {360, 270}, {1080, 1920}, {270, 360}, {720, 1280}, {1080, 1080}, {128, 128},
+  };
+  private static final Bitmap.Config[] CONFIGS = {Bitmap.Config.ARGB_8888, Bitmap.Config.RGB_565};
+  // Enough for a few of each size and config, so that every get after warm up is a hit.
+  private static final long MAX_SIZE = 64 * 1024 * 1024;
+
+  private LruBitmapPool pool;
+  private SizeConfigStrategy strategy;
+  private KeyDistribution sizeDistribution;
+  private KeyDistribution configDistribution;
+
+  @Setup
+  public void setUp() {
+    pool =
+        new LruBitmapPool(
+            MAX_SIZE,
+            new SizeConfigStrategy(),
+            new HashSet<>(Arrays.asList(Bitmap.Config.values())));
+    strategy = new SizeConfigStrategy();
+    sizeDistribution = KeyDistribution.zipf(SIZES.length, /*skew=*/ 1.0);
+    configDistribution = KeyDistribution.zipf(CONFIGS.length, /*skew=*/ 2.0);
+    for (int[] size : SIZES) {
+      for (Bitmap.Config config : CONFIGS) {
+        pool.put(Bitmap.createBitmap(size[0], size[1], config));
+        strategy.put(Bitmap.createBitmap(size[0], size[1], config));
+      }
+    }
+  }
+
+  /** Gets an erased Bitmap and puts it back, as a decode into a pooled Bitmap does. */
+  @Benchmark
+  public Bitmap getAndPut() {
+    int[] size = SIZES[sizeDistribution.next()];
+    Bitmap result = pool.get(size[0], size[1], CONFIGS[configDistribution.next()]);
+    pool.put(result);
+    return result;
+  }
+
+  /** Holds two Bitmaps at once, as a transformation from one pooled Bitmap into another does. */
+  @Benchmark
+  public Bitmap getDirtyTwiceAndPut() {
+    int[] firstSize = SIZES[sizeDistribution.next()];
+    int[] secondSize = SIZES[sizeDistribution.next()];
+    Bitmap.Config config = CONFIGS[configDistribution.next()];
+    Bitmap first = pool.getDirty(firstSize[0], firstSize[1], config);
+    Bitmap second = pool.getDirty(secondSize[0], secondSize[1], config);
+    pool.put(first);
+    pool.put(second);
+    return second;
+  }
+
+  /** Measures only the best fit lookup and reconfiguring in {@link SizeConfigStrategy}. */
+  @Benchmark
+  public Bitmap strategyGetAndPut() {
+    int[] size = SIZES[sizeDistribution.next()];
+    Bitmap.Config config = CONFIGS[configDistribution.next()];
+    Bitmap result = strategy.get(size[0], size[1], config);
+    if (result == null) {
+      result = Bitmap.createBitmap(size[0], size[1], config);
+    }
+    strategy.put(result);
+    return result;
+  }
+}
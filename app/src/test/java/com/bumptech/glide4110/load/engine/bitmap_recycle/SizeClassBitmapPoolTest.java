@@ -0,0 +1,115 @@
+package com.bumptech.glide4110.load.engine.bitmap_recycle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** Checks how {@link SizeClassBitmapPool} rounds byte sizes to its size classes. */
+public class SizeClassBitmapPoolTest {
+  private static final int MIN_SIZE = SizeClassBitmapPool.MIN_POOLED_SIZE;
+  // The largest pooled size, 1gb, is the last class.
+  private static final int MAX_SIZE = 1 << 30;
+  private static final int LAST_CLASS = SizeClassBitmapPool.getCeilingSizeClass(MAX_SIZE);
+
+  @Test
+  public void getSizeClassSize_splitsEachPowerOfTwoIntoFourClasses() {
+    assertEquals(4096, SizeClassBitmapPool.getSizeClassSize(0));
+    assertEquals(5120, SizeClassBitmapPool.getSizeClassSize(1));
+    assertEquals(6144, SizeClassBitmapPool.getSizeClassSize(2));
+    assertEquals(7168, SizeClassBitmapPool.getSizeClassSize(3));
+    assertEquals(8192, SizeClassBitmapPool.getSizeClassSize(4));
+    assertEquals(10240, SizeClassBitmapPool.getSizeClassSize(5));
+    assertEquals(16384, SizeClassBitmapPool.getSizeClassSize(8));
+  }
+
+  @Test
+  public void getSizeClassSize_ofLastClass_isMaxSize() {
+    assertEquals(72, LAST_CLASS);
+    assertEquals(MAX_SIZE, SizeClassBitmapPool.getSizeClassSize(LAST_CLASS));
+  }
+
+  @Test
+  public void getSizeClassSize_growsByAtMostAQuarterPerClass() {
+    for (int sizeClass = 1; sizeClass <= LAST_CLASS; sizeClass++) {
+      long previous = SizeClassBitmapPool.getSizeClassSize(sizeClass - 1);
+      long current = SizeClassBitmapPool.getSizeClassSize(sizeClass);
+      assertTrue("class " + sizeClass, current > previous);
+      assertTrue("class " + sizeClass, current * 4 <= previous * 5);
+    }
+  }
+
+  @Test
+  public void getCeilingSizeClass_withSizesUpToMinSize_returnsFirstClass() {
+    assertEquals(0, SizeClassBitmapPool.getCeilingSizeClass(1));
+    assertEquals(0, SizeClassBitmapPool.getCeilingSizeClass(MIN_SIZE - 1));
+    assertEquals(0, SizeClassBitmapPool.getCeilingSizeClass(MIN_SIZE));
+    assertEquals(1, SizeClassBitmapPool.getCeilingSizeClass(MIN_SIZE + 1));
+  }
+
+  @Test
+  public void getCeilingSizeClass_atClassBoundaries_roundsUp() {
+    for (int sizeClass = 1; sizeClass <= LAST_CLASS; sizeClass++) {
+      int size = SizeClassBitmapPool.getSizeClassSize(sizeClass);
+      assertEquals(sizeClass, SizeClassBitmapPool.getCeilingSizeClass(size));
+      assertEquals(sizeClass, SizeClassBitmapPool.getCeilingSizeClass(size - 1));
+      assertEquals(sizeClass + 1, SizeClassBitmapPool.getCeilingSizeClass(size + 1));
+    }
+  }
+
+  @Test
+  public void getCeilingSizeClass_aboveMaxSize_returnsClassPastLast() {
+    assertTrue(SizeClassBitmapPool.getCeilingSizeClass(MAX_SIZE + 1) > LAST_CLASS);
+    assertTrue(SizeClassBitmapPool.getCeilingSizeClass(Integer.MAX_VALUE) > LAST_CLASS);
+  }
+
+  @Test
+  public void getCeilingSizeClass_withBitmapSizes_wastesLessThanAQuarter() {
+    int[][] dimensions = {
+      {64, 64}, {100, 100}, {360, 270}, {360, 360}, {480, 360}, {720, 1280}, {1080, 1920},
+      {1080, 2340}, {4000, 3000},
+    };
+    for (int[] dimension : dimensions) {
+      for (int bytesPerPixel : new int[] {1, 2, 4, 8}) {
+        int size = dimension[0] * dimension[1] * bytesPerPixel;
+        int classSize =
+            SizeClassBitmapPool.getSizeClassSize(SizeClassBitmapPool.getCeilingSizeClass(size));
+        assertTrue(size + " -> " + classSize, classSize >= size);
+        assertTrue(size + " -> " + classSize, size <= MIN_SIZE || 4L * classSize < 5L * size);
+      }
+    }
+  }
+
+  @Test
+  public void getFloorSizeClass_belowMinSize_returnsNoClass() {
+    assertEquals(-1, SizeClassBitmapPool.getFloorSizeClass(1));
+    assertEquals(-1, SizeClassBitmapPool.getFloorSizeClass(MIN_SIZE - 1));
+    assertEquals(0, SizeClassBitmapPool.getFloorSizeClass(MIN_SIZE));
+  }
+
+  @Test
+  public void getFloorSizeClass_atClassBoundaries_roundsDown() {
+    for (int sizeClass = 1; sizeClass <= LAST_CLASS; sizeClass++) {
+      int size = SizeClassBitmapPool.getSizeClassSize(sizeClass);
+      assertEquals(sizeClass, SizeClassBitmapPool.getFloorSizeClass(size));
+      assertEquals(sizeClass - 1, SizeClassBitmapPool.getFloorSizeClass(size - 1));
+      assertEquals(sizeClass, SizeClassBitmapPool.getFloorSizeClass(size + 1));
+    }
+  }
+
+  @Test
+  public void getFloorSizeClass_aboveMaxSize_returnsLastClass() {
+    assertEquals(LAST_CLASS, SizeClassBitmapPool.getFloorSizeClass(MAX_SIZE + 1));
+    assertEquals(LAST_CLASS, SizeClassBitmapPool.getFloorSizeClass(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void getFloorSizeClass_neverExceedsCeilingSizeClass() {
+    for (int size = MIN_SIZE; size < 1 << 20; size += 97) {
+      int floor = SizeClassBitmapPool.getFloorSizeClass(size);
+      int ceiling = SizeClassBitmapPool.getCeilingSizeClass(size);
+      assertTrue(String.valueOf(size), floor == ceiling || floor == ceiling - 1);
+      assertTrue(String.valueOf(size), SizeClassBitmapPool.getSizeClassSize(floor) <= size);
+    }
+  }
+}
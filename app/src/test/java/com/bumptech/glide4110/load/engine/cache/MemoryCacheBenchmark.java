@@ -0,0 +1,235 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import androidx.annotation.NonNull;
+import com.bumptech.glide4110.benchmark.KeyDistribution;
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.load.engine.Resource;
+import com.bumptech.glide4110.signature.ObjectKey;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+/**
+ * Compares {@link LruResourceCache} and {@link SegmentedLruResourceCache} on throughput, latency
+ * percentiles and hit ratio, with one thread and with several threads sharing a cache.
+ *
+ * <p>Keys are drawn from a skewed distribution and follow the Engine's access pattern, a remove on
+ * a hit that is put back when the resource is released and a put on a miss. The cache holds two
+ * full screen ARGB_8888 Bitmaps, the size {@link MemorySizeCalculator} picks by default, and every
+ * 32nd key is full screen while the rest are thumbnails.
+ *
+ * <p>The {@code Latency} benchmarks run in {@link Mode#SampleTime}, for which JMH reports the
+ * p50, p99 and p99.9 time per access. Hits and misses are reported as auxiliary counters where JMH supports them, and the
+ * hit ratio over all measurement iterations, {@code hits / (hits + misses)}, is printed to the
+ * report at the end of each cache's trial of each benchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemoryCacheBenchmark {
+  private static final int KEY_COUNT = 4096;
+  private static final int FULL_SCREEN_BYTES = 1080 * 2400 * 4;
+  private static final int THUMBNAIL_BYTES = 256 * 256 * 4;
+  private static final int FULL_SCREEN_EVERY = 32;
+
+  @Param({"LRU", "SEGMENTED"})
+  public String cacheType;
+
+  private MemoryCache cache;
+  private Key[] keys;
+  private Resource<?>[] resources;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    long maxSize = 2L * FULL_SCREEN_BYTES;
+    cache =
+        "LRU".equals(cacheType)
+            ? new LruResourceCache(maxSize)
+            : new SegmentedLruResourceCache(maxSize);
+    keys = new Key[KEY_COUNT];
+    resources = new Resource<?>[KEY_COUNT];
+    for (int i = 0; i < KEY_COUNT; i++) {
+      keys[i] = new ObjectKey("https://images.example.com/photos/" + i + ".jpg");
+      resources[i] =
+          new FakeResource(i % FULL_SCREEN_EVERY == 0 ? FULL_SCREEN_BYTES : THUMBNAIL_BYTES);
+    }
+  }
+
+  @Benchmark
+  public boolean removeOrPut(Distribution distribution, Counters counters) {
+    return counters.record(access(distribution));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean removeOrPutContended(Distribution distribution, Counters counters) {
+    return counters.record(access(distribution));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public boolean removeOrPutLatency(Distribution distribution, SampleCounters counters) {
+    return counters.record(access(distribution));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Threads(4)
+  public boolean removeOrPutLatencyContended(
+      Distribution distribution, SampleCounters counters) {
+    return counters.record(access(distribution));
+  }
+
+  /** Returns {@code true} on a hit. */
+  private boolean access(Distribution distribution) {
+    int index = distribution.keys.next();
+    Key key = keys[index];
+    Resource<?> result = cache.remove(key);
+    boolean isHit = result != null;
+    if (!isHit) {
+      result = resources[index];
+    }
+    cache.put(key, result);
+    return isHit;
+  }
+
+  /** The key sequence, per thread because {@link KeyDistribution} isn't thread safe. */
+  @State(Scope.Thread)
+  public static class Distribution {
+    final KeyDistribution keys = KeyDistribution.zipf(KEY_COUNT, /*skew=*/ 1.0);
+  }
+
+  /** Hits and misses of one thread, reported as auxiliary counters. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long hits;
+    public long misses;
+
+    boolean record(boolean isHit) {
+      if (isHit) {
+        hits++;
+      } else {
+        misses++;
+      }
+      return isHit;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+
+    /** Adds this thread's counts to the totals, outside of the measured code. */
+    @TearDown(Level.Iteration)
+    public void addTo(HitRatio hitRatio, IterationParams iterationParams) {
+      if (iterationParams.getType() == IterationType.MEASUREMENT) {
+        hitRatio.hits.addAndGet(hits);
+        hitRatio.misses.addAndGet(misses);
+      }
+    }
+  }
+
+  /** Hits and misses of one thread, JMH doesn't support auxiliary counters when sampling. */
+  @State(Scope.Thread)
+  public static class SampleCounters {
+    long hits;
+    long misses;
+
+    boolean record(boolean isHit) {
+      if (isHit) {
+        hits++;
+      } else {
+        misses++;
+      }
+      return isHit;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      hits = 0;
+      misses = 0;
+    }
+
+    /** Adds this thread's counts to the totals, outside of the measured code. */
+    @TearDown(Level.Iteration)
+    public void addTo(HitRatio hitRatio, IterationParams iterationParams) {
+      if (iterationParams.getType() == IterationType.MEASUREMENT) {
+        hitRatio.hits.addAndGet(hits);
+        hitRatio.misses.addAndGet(misses);
+      }
+    }
+  }
+
+  /** Totals hits and misses of all threads, JMH only reports the sum of auxiliary counters. */
+  @State(Scope.Benchmark)
+  public static class HitRatio {
+    final AtomicLong hits = new AtomicLong();
+    final AtomicLong misses = new AtomicLong();
+
+    @TearDown(Level.Trial)
+    public void print() {
+      long total = hits.get() + misses.get();
+      System.out.println(
+          String.format(
+              Locale.US,
+              "Hit ratio: %.4f (%d hits, %d misses)",
+              total == 0 ? 0d : (double) hits.get() / total,
+              hits.get(),
+              misses.get()));
+    }
+  }
+
+  private static final class FakeResource implements Resource<Object> {
+    private final int size;
+
+    FakeResource(int size) {
+      this.size = size;
+    }
+
+    @NonNull
+    @Override
+    public Class<Object> getResourceClass() {
+      return Object.class;
+    }
+
+    @NonNull
+    @Override
+    public Object get() {
+      return this;
+    }
+
+    @Override
+    public int getSize() {
+      return size;
+    }
+
+    @Override
+    public void recycle() {
+      // Nothing to release.
+    }
+  }
+}
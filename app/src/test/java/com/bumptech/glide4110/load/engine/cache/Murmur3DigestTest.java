@@ -0,0 +1,113 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.Charset;
+import org.junit.Test;
+
+/**
+ * Checks {@link Murmur3Digest} against the reference MurmurHash3_x64_128 with a seed of 0, with
+ * expected values from Guava's {@code Hashing.murmur3_128()}.
+ */
+public class Murmur3DigestTest {
+  // The digests of inputs of 0 to 33 bytes from bytes(), covering every tail length with and
+  // without preceding full blocks.
+  private static final String[] EXPECTED_BY_LENGTH = {
+    "00000000000000000000000000000000",
+    "e7f117e6ccc72f93dc08456c814b437a",
+    "9db37154aee5f7cf3675c477b2c34985",
+    "b1a481deb8c0fa6a43b26a81fbf4dc0c",
+    "729f1fb8d1eea4d3cd20a4d92af24c8f",
+    "0b997f08400f33b00bf5639975f993ad",
+    "127a07040bf1d1327e932938ad91574b",
+    "3b98626668cc4083f9f67faadf388fa0",
+    "d7ce897f0044b1f0a1f97a2d832122d0",
+    "b1a0c8ae8e08b3dba909fe2e1824decb",
+    "1e374ffdf82ec87fb098625916c71a7a",
+    "64d520094d5a10ced6c17f729b12c7c5",
+    "b8bbc3af9fa5ee11f8db0d9b584d30de",
+    "e7c40c79c7c00b3c7eb2f9120da44bf3",
+    "71a1eebe7852f04a09fb75ea3c2e3027",
+    "ff837fb647f00629ac1f70e78f33ca49",
+    "fbf05e0c58669cdaf75f6cbb87ae5a88",
+    "d1075e779aeeb878e0fc9816309067e3",
+    "d8f705b6e9ec2250ac678dec1eb2d116",
+    "5efde245631a5940af7c0243d6312b3d",
+    "f359858821eb5af8ee2468b44aec5ea6",
+    "f3b68d41138c122ca80f19df988c8193",
+    "7250039f38c3ffc034f5dcc1aedffa6d",
+    "aa53dc84fbd4b70199faedb924c3d55a",
+    "1ceb61ebfee27283031bf0f3aa05f4e8",
+    "a25d9d7243299eed13f95fbd43b84b70",
+    "c4de7c332e42cd9fb58d81860ea98f62",
+    "74fda002126a4a45768bea9803ffa5e3",
+    "de024c1d9f41eac2daeca3cf58e0b282",
+    "41f23c5a42e5b22a06fcdb00bae3f6be",
+    "8b46735c9530e5fd7cdda03b486a2a3e",
+    "2f53c5d41e06cab163377b9e482669cb",
+    "9b79fe8eeb7473afffd6cd4d9200523a",
+    "a99b09c3888ab808f98adfb5bd6fc015"
+  };
+
+  @Test
+  public void digest_matchesReference_forEveryTailLength() {
+    for (int length = 0; length < EXPECTED_BY_LENGTH.length; length++) {
+      Murmur3Digest digest = new Murmur3Digest();
+      digest.update(bytes(length));
+      assertEquals("length " + length, EXPECTED_BY_LENGTH[length], toHex(digest.digest()));
+    }
+  }
+
+  @Test
+  public void digest_matchesReference_forString() {
+    Murmur3Digest digest = new Murmur3Digest();
+    String input = "The quick brown fox jumps over the lazy dog";
+    digest.update(input.getBytes(Charset.forName("UTF-8")));
+    assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", toHex(digest.digest()));
+  }
+
+  @Test
+  public void digest_withSplitUpdates_matchesSingleUpdate() {
+    for (int length = 0; length < EXPECTED_BY_LENGTH.length; length++) {
+      byte[] data = bytes(length);
+      for (int split = 0; split <= length; split++) {
+        Murmur3Digest digest = new Murmur3Digest();
+        digest.update(data, 0, split);
+        for (int i = split; i < length; i++) {
+          digest.update(data[i]);
+        }
+        assertEquals(
+            "length " + length + ", split " + split,
+            EXPECTED_BY_LENGTH[length],
+            toHex(digest.digest()));
+      }
+    }
+  }
+
+  @Test
+  public void digest_resetsForNextInput() {
+    Murmur3Digest digest = new Murmur3Digest();
+    digest.update(bytes(20));
+    digest.digest();
+
+    digest.update(bytes(5));
+    assertEquals(EXPECTED_BY_LENGTH[5], toHex(digest.digest()));
+  }
+
+  private static byte[] bytes(int length) {
+    byte[] result = new byte[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = (byte) (i * 37 + 11);
+    }
+    return result;
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder result = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      result.append(Character.forDigit((b >> 4) & 0xF, 16));
+      result.append(Character.forDigit(b & 0xF, 16));
+    }
+    return result.toString();
+  }
+}
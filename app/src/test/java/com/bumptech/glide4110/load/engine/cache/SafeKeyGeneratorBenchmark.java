@@ -0,0 +1,56 @@
+package com.bumptech.glide4110.load.engine.cache;
+
+import com.bumptech.glide4110.benchmark.KeyDistribution;
+import com.bumptech.glide4110.load.Key;
+import com.bumptech.glide4110.signature.ObjectKey;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link SafeKeyGenerator#getSafeKey(Key)} with each {@link SafeKeyGenerator.Algorithm}
+ * for url keys drawn from a skewed distribution over fewer and over more keys than its internal
+ * cache holds, so that both cached lookups and digests are included.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SafeKeyGeneratorBenchmark {
+
+  @Param({"500", "5000"})
+  public int keyCount;
+
+  @Param({"SHA_256", "MURMUR3_128"})
+  public SafeKeyGenerator.Algorithm algorithm;
+
+  private SafeKeyGenerator generator;
+  private Key[] keys;
+  private KeyDistribution distribution;
+
+  @Setup
+  public void setUp() {
+    generator = new SafeKeyGenerator(algorithm);
+    keys = new Key[keyCount];
+    for (int i = 0; i < keyCount; i++) {
+      keys[i] = new ObjectKey("https://images.example.com/photos/" + i + "/original.jpg?w=1080");
+    }
+    distribution = KeyDistribution.zipf(keyCount, /*skew=*/ 1.0);
+  }
+
+  @Benchmark
+  public String getSafeKey() {
+    return generator.getSafeKey(keys[distribution.next()]);
+  }
+}
@@ -0,0 +1,108 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import com.bumptech.glide4110.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide4110.load.engine.bitmap_recycle.LruArrayPool;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures image type and exif orientation parsing in {@link DefaultImageHeaderParser}, which runs
+ * at least once for every decode, from both streams and ByteBuffers.
+ *
+ * <p>The jpeg has a JFIF segment followed by an exif segment with an orientation tag, as written by
+ * most cameras, and the png is the start of an RGBA png.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DefaultImageHeaderParserBenchmark {
+  private static final int ORIENTATION_ROTATE_90 = 6;
+
+  private DefaultImageHeaderParser parser;
+  private LruArrayPool arrayPool;
+  private byte[] jpeg;
+  private byte[] png;
+
+  @Setup
+  public void setUp() {
+    parser = new DefaultImageHeaderParser();
+    arrayPool = new LruArrayPool();
+    jpeg = newJpeg();
+    png = newPng();
+  }
+
+  @Benchmark
+  public ImageType getTypeJpegStream() throws IOException {
+    return parser.getType(new ByteArrayInputStream(jpeg));
+  }
+
+  @Benchmark
+  public ImageType getTypePngStream() throws IOException {
+    return parser.getType(new ByteArrayInputStream(png));
+  }
+
+  @Benchmark
+  public ImageType getTypeJpegByteBuffer() throws IOException {
+    return parser.getType(ByteBuffer.wrap(jpeg));
+  }
+
+  @Benchmark
+  public int getOrientationJpegStream() throws IOException {
+    return parser.getOrientation(new ByteArrayInputStream(jpeg), arrayPool);
+  }
+
+  @Benchmark
+  public int getOrientationJpegByteBuffer() throws IOException {
+    return parser.getOrientation(ByteBuffer.wrap(jpeg), arrayPool);
+  }
+
+  private static byte[] newJpeg() {
+    byte[] header = {
+      // SOI
+      (byte) 0xFF, (byte) 0xD8,
+      // APP0, length 16, "JFIF\0", version 1.2, no units, 1x1 density, no thumbnail.
+      (byte) 0xFF, (byte) 0xE0, 0x00, 0x10, 'J', 'F', 'I', 'F', 0x00, 0x01, 0x02, 0x00, 0x00, 0x01,
+      0x00, 0x01, 0x00, 0x00,
+      // APP1, length 34, "Exif\0\0".
+      (byte) 0xFF, (byte) 0xE1, 0x00, 0x22, 'E', 'x', 'i', 'f', 0x00, 0x00,
+      // Big endian TIFF header with the first IFD at offset 8.
+      'M', 'M', 0x00, 0x2A, 0x00, 0x00, 0x00, 0x08,
+      // One entry: orientation (0x0112), unsigned short, count 1.
+      0x00, 0x01, 0x01, 0x12, 0x00, 0x03, 0x00, 0x00, 0x00, 0x01, 0x00, ORIENTATION_ROTATE_90,
+      0x00, 0x00,
+      // No next IFD.
+      0x00, 0x00, 0x00, 0x00,
+      // SOS.
+      (byte) 0xFF, (byte) 0xDA,
+    };
+    // Pad with arbitrary scan data as in a real file.
+    return Arrays.copyOf(header, 4096);
+  }
+
+  private static byte[] newPng() {
+    byte[] header = {
+      // Signature.
+      (byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A,
+      // IHDR, length 13, 1080x1080, 8 bit RGBA.
+      0x00, 0x00, 0x00, 0x0D, 'I', 'H', 'D', 'R', 0x00, 0x00, 0x04, 0x38, 0x00, 0x00, 0x04, 0x38,
+      0x08, 0x06, 0x00, 0x00, 0x00,
+    };
+    return Arrays.copyOf(header, 4096);
+  }
+}
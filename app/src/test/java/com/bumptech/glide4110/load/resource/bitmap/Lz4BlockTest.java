@@ -0,0 +1,76 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/** Round trips pixel-like data through {@link Lz4Block}. */
+public class Lz4BlockTest {
+  private final Random random = new Random(0);
+
+  @Test
+  public void roundTrip_withShortInputs() throws IOException {
+    for (int length = 0; length < 64; length++) {
+      assertRoundTrip(repetitive(length, 3));
+    }
+  }
+
+  @Test
+  public void roundTrip_withRandomBytes() throws IOException {
+    byte[] data = new byte[100_000];
+    random.nextBytes(data);
+    assertRoundTrip(data);
+  }
+
+  @Test
+  public void roundTrip_withFlatColor_compressesWell() throws IOException {
+    byte[] data = repetitive(256 * 256 * 4, 4);
+    int compressedLength = assertRoundTrip(data);
+    assertTrue("compressed to " + compressedLength, compressedLength < data.length / 100);
+  }
+
+  @Test
+  public void roundTrip_withFewColors() throws IOException {
+    byte[] data = new byte[128 * 128 * 4];
+    for (int i = 0; i < data.length; i += 4) {
+      int color = random.nextInt(8) * 0x1F;
+      Arrays.fill(data, i, i + 4, (byte) color);
+    }
+    assertRoundTrip(data);
+  }
+
+  @Test
+  public void decompress_withTruncatedInput_throws() throws IOException {
+    byte[] data = repetitive(4096, 4);
+    byte[] compressed = new byte[Lz4Block.maxCompressedLength(data.length)];
+    int compressedLength = Lz4Block.compress(data, data.length, compressed);
+    try {
+      Lz4Block.decompress(compressed, compressedLength - 1, new byte[data.length], data.length);
+      fail();
+    } catch (IOException expected) {
+      // Expected.
+    }
+  }
+
+  private static byte[] repetitive(int length, int period) {
+    byte[] result = new byte[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = (byte) (i % period);
+    }
+    return result;
+  }
+
+  private static int assertRoundTrip(byte[] data) throws IOException {
+    byte[] compressed = new byte[Lz4Block.maxCompressedLength(data.length)];
+    int compressedLength = Lz4Block.compress(data, data.length, compressed);
+    byte[] decompressed = new byte[data.length];
+    Lz4Block.decompress(compressed, compressedLength, decompressed, data.length);
+    assertArrayEquals(data, decompressed);
+    return compressedLength;
+  }
+}
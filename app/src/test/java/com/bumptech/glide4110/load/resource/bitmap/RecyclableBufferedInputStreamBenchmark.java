@@ -0,0 +1,68 @@
+package com.bumptech.glide4110.load.resource.bitmap;
+
+import com.bumptech.glide4110.load.engine.bitmap_recycle.MagazineArrayPool;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading an image through {@link RecyclableBufferedInputStream} the way {@link
+ * Downsampler} does, marking the start, reading the header, resetting and then reading the entire
+ * stream, with the buffer borrowed from and returned to a {@link MagazineArrayPool}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecyclableBufferedInputStreamBenchmark {
+  private static final int MARK_LIMIT_BYTES = 10 * 1024 * 1024;
+  private static final int HEADER_BYTES = 1024;
+  private static final int READ_BYTES = 16 * 1024;
+
+  @Param({"65536", "1048576"})
+  public int imageBytes;
+
+  private MagazineArrayPool arrayPool;
+  private byte[] image;
+  private byte[] readBuffer;
+
+  @Setup
+  public void setUp() {
+    arrayPool = new MagazineArrayPool();
+    image = new byte[imageBytes];
+    new Random(0).nextBytes(image);
+    readBuffer = new byte[READ_BYTES];
+  }
+
+  @Benchmark
+  public int markReadResetReadAll() throws IOException {
+    RecyclableBufferedInputStream is =
+        new RecyclableBufferedInputStream(new ByteArrayInputStream(image), arrayPool);
+    try {
+      is.mark(MARK_LIMIT_BYTES);
+      int total = is.read(readBuffer, 0, HEADER_BYTES);
+      is.reset();
+      int read;
+      while ((read = is.read(readBuffer, 0, READ_BYTES)) != -1) {
+        total += read;
+      }
+      return total;
+    } finally {
+      is.release();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.bumptech.glide4110.util;
+
+import com.bumptech.glide4110.benchmark.KeyDistribution;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a get followed by a put on a miss, the pattern used by the memory cache and
+ * {@link com.bumptech.glide4110.load.engine.cache.SafeKeyGenerator}, with a cache that holds a
+ * fraction of the keys so that the benchmark includes evictions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LruCacheBenchmark {
+  private static final int KEY_COUNT = 4096;
+
+  @Param({"256", "1024"})
+  public int maxSize;
+
+  private LruCache<String, Object> cache;
+  private String[] keys;
+  private KeyDistribution distribution;
+  private final Object value = new Object();
+
+  @Setup
+  public void setUp() {
+    cache = new LruCache<>(maxSize);
+    keys = new String[KEY_COUNT];
+    for (int i = 0; i < KEY_COUNT; i++) {
+      keys[i] = "https://images.example.com/photos/" + i + ".jpg";
+    }
+    distribution = KeyDistribution.zipf(KEY_COUNT, /*skew=*/ 1.0);
+  }
+
+  @Benchmark
+  public Object getOrPut() {
+    String key = keys[distribution.next()];
+    Object result = cache.get(key);
+    if (result == null) {
+      cache.put(key, value);
+      result = value;
+    }
+    return result;
+  }
+}